@@ -0,0 +1,48 @@
+package com.booknet.backend.config;
+
+import com.booknet.backend.service.SchemaMigrationService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aplica las migraciones de esquema pendientes al iniciar la aplicación.
+ * Un fallo no detiene el arranque ni las demás migraciones: la que falló queda pendiente, se informa
+ * al final y se reintenta en el siguiente inicio.
+ */
+@Component
+@Order(0)
+public class SchemaMigrationRunner implements ApplicationRunner {
+
+    private final SchemaMigrationService schemaMigrationService;
+
+    public SchemaMigrationRunner(SchemaMigrationService schemaMigrationService) {
+        this.schemaMigrationService = schemaMigrationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<String> applied = schemaMigrationService.applyPendingMigrations();
+            if (applied.isEmpty()) {
+                System.out.println("Esquema de Neo4j actualizado, no hay migraciones pendientes");
+            } else {
+                System.out.println("Migraciones de esquema aplicadas: " + applied.size());
+                applied.forEach(migration -> System.out.println("  - " + migration));
+            }
+
+            Map<String, String> failed = schemaMigrationService.getFailedMigrations();
+            if (!failed.isEmpty()) {
+                System.err.println("ATENCIÓN: " + failed.size() + " migraciones de esquema no se pudieron aplicar " +
+                        "y quedan pendientes:");
+                failed.forEach((version, error) -> System.err.println("  - " + version + ": " + error));
+            }
+        } catch (Exception e) {
+            System.err.println("Error al ejecutar las migraciones de esquema: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.booknet.backend.controller;
+
+import com.booknet.backend.service.AlsModelService;
+import com.booknet.backend.service.BookResponseCache;
+import com.booknet.backend.service.RatingAggregationService;
+import com.booknet.backend.service.RatingMatrix;
+import com.booknet.backend.service.ReadingProgressBuffer;
+import com.booknet.backend.service.RecommendationMaterializationJob;
+import com.booknet.backend.service.SchemaMigrationService;
+import com.booknet.backend.util.ResponseUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PATCH, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class AdminController {
+
+    private final SchemaMigrationService schemaMigrationService;
+    private final BookResponseCache bookResponseCache;
+    private final RatingAggregationService ratingAggregationService;
+    private final ReadingProgressBuffer readingProgressBuffer;
+    private final RatingMatrix ratingMatrix;
+    private final AlsModelService alsModelService;
+    private final RecommendationMaterializationJob recommendationMaterializationJob;
+
+    public AdminController(SchemaMigrationService schemaMigrationService, BookResponseCache bookResponseCache,
+                           RatingAggregationService ratingAggregationService, ReadingProgressBuffer readingProgressBuffer,
+                           RatingMatrix ratingMatrix, AlsModelService alsModelService,
+                           RecommendationMaterializationJob recommendationMaterializationJob) {
+        this.schemaMigrationService = schemaMigrationService;
+        this.bookResponseCache = bookResponseCache;
+        this.ratingAggregationService = ratingAggregationService;
+        this.readingProgressBuffer = readingProgressBuffer;
+        this.ratingMatrix = ratingMatrix;
+        this.alsModelService = alsModelService;
+        this.recommendationMaterializationJob = recommendationMaterializationJob;
+    }
+
+    @GetMapping("/schema-migrations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSchemaMigrations() {
+        try {
+            List<Map<String, Object>> status = schemaMigrationService.getMigrationStatus();
+            return ResponseUtil.createSuccessResponse(status, "Estado de las migraciones obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado de las migraciones: " + e.getMessage(), 500);
+        }
+    }
+
+    @PostMapping("/schema-migrations/apply")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> applySchemaMigrations() {
+        try {
+            List<String> applied = schemaMigrationService.applyPendingMigrations();
+            Map<String, String> failed = schemaMigrationService.getFailedMigrations();
+            if (!failed.isEmpty()) {
+                return ResponseUtil.createErrorResponse("Migraciones aplicadas: " + applied.size() +
+                        "; fallaron y siguen pendientes: " + failed, 500);
+            }
+            return ResponseUtil.createSuccessResponse(applied, "Migraciones pendientes aplicadas: " + applied.size());
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al aplicar las migraciones: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/cache/books")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBookCacheStats() {
+        try {
+            return ResponseUtil.createSuccessResponse(bookResponseCache.getStats(), "Métricas de la caché de libros obtenidas exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener las métricas de la caché: " + e.getMessage(), 500);
+        }
+    }
+
+    @DeleteMapping("/cache/books")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> clearBookCache() {
+        try {
+            bookResponseCache.clear();
+            return ResponseUtil.createSuccessResponse(null, "Caché de libros vaciada exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al vaciar la caché: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/ratings/aggregation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRatingAggregationStats() {
+        try {
+            return ResponseUtil.createSuccessResponse(ratingAggregationService.getStats(), "Estado de la agregación de calificaciones obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado de la agregación: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/reading-progress/buffer")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getReadingProgressBufferStats() {
+        try {
+            return ResponseUtil.createSuccessResponse(readingProgressBuffer.getStats(), "Estado del buffer de progreso de lectura obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado del buffer: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/rating-matrix")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRatingMatrixStats() {
+        try {
+            return ResponseUtil.createSuccessResponse(ratingMatrix.getStats(), "Estado de la matriz de calificaciones obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado de la matriz: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/als")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getAlsModelStatus() {
+        try {
+            return ResponseUtil.createSuccessResponse(alsModelService.getStatus(), "Estado del modelo ALS obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado del modelo ALS: " + e.getMessage(), 500);
+        }
+    }
+
+    // Reentrena en segundo plano; el modelo actual sigue sirviendo hasta que termine
+    @PostMapping("/als/train")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> trainAlsModel() {
+        try {
+            if (!alsModelService.startTraining()) {
+                return ResponseUtil.createErrorResponse("Ya hay un entrenamiento en curso o la matriz de calificaciones aún no está cargada", 409);
+            }
+            return ResponseUtil.createSuccessResponse(alsModelService.getStatus(), "Entrenamiento del modelo ALS iniciado");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al entrenar el modelo ALS: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/recommendations/materialization")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRecommendationMaterializationStatus() {
+        try {
+            return ResponseUtil.createSuccessResponse(recommendationMaterializationJob.getStatus(), "Estado de las recomendaciones precalculadas obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado de las recomendaciones precalculadas: " + e.getMessage(), 500);
+        }
+    }
+}
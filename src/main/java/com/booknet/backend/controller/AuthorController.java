@@ -2,6 +2,7 @@ package com.booknet.backend.controller;
 
 import com.booknet.backend.dto.AuthorResponse;
 import com.booknet.backend.dto.CreateAuthorRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.PaginatedAuthorsResponse;
 import com.booknet.backend.dto.UpdateAuthorRequest;
 import com.booknet.backend.model.Author;
@@ -68,12 +69,24 @@ public class AuthorController {
         }
     }
 
-    // GET /api/authors - Listar autores con paginación opcional
+    // GET /api/authors - Listar autores con paginación opcional (offset/limit o cursor)
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllAuthors(
             @RequestParam(required = false) Integer offset,
-            @RequestParam(required = false) Integer limit) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         try {
+            // Paginación por cursor: un cursor vacío solicita la primera página
+            if (cursor != null) {
+                if (limit == null) limit = 20;
+                if (limit <= 0 || limit > 100) {
+                    return ResponseUtil.createErrorResponse("El limit debe estar entre 1 y 100", 400);
+                }
+
+                CursorPageResponse<AuthorResponse> page = authorService.getAuthorsByCursor(cursor.trim(), limit);
+                return ResponseUtil.createSuccessResponse(page, "Autores obtenidos exitosamente");
+            }
+
             // Si no se especifican parámetros de paginación, devolver todos los autores
             if (offset == null && limit == null) {
                 List<Author> allAuthors = authorService.getAllAuthors();
@@ -116,6 +129,8 @@ public class AuthorController {
 
             return ResponseUtil.createSuccessResponse(paginatedResponse, "Autores obtenidos exitosamente");
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener autores: " + e.getMessage(), 500);
         }
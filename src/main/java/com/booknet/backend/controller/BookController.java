@@ -1,13 +1,23 @@
 package com.booknet.backend.controller;
 
+import com.booknet.backend.dto.BookRatingDTO;
 import com.booknet.backend.dto.BookResponse;
 import com.booknet.backend.dto.BulkCreateBookRequest;
+import com.booknet.backend.dto.ContinueReadingResponse;
 import com.booknet.backend.dto.CreateBookRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.EnhancedBulkCreateBookRequest;
 import com.booknet.backend.dto.PaginatedBooksResponse;
+import com.booknet.backend.dto.SimilarBookResponse;
+import com.booknet.backend.dto.SuggestionResponse;
 import com.booknet.backend.dto.UpdateBookRequest;
 import com.booknet.backend.model.Book;
 import com.booknet.backend.service.BookService;
+import com.booknet.backend.service.BookSimilarityJob;
+import com.booknet.backend.service.BookSuggestService;
+import com.booknet.backend.service.ContinueReadingService;
+import com.booknet.backend.service.JwtService;
+import com.booknet.backend.service.RatingRecomputeJob;
 import com.booknet.backend.util.ResponseUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -34,9 +44,21 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 public class BookController {
 
     private final BookService bookService;
-
-    public BookController(BookService bookService) {
+    private final BookSuggestService bookSuggestService;
+    private final RatingRecomputeJob ratingRecomputeJob;
+    private final BookSimilarityJob bookSimilarityJob;
+    private final ContinueReadingService continueReadingService;
+    private final JwtService jwtService;
+
+    public BookController(BookService bookService, BookSuggestService bookSuggestService,
+                          RatingRecomputeJob ratingRecomputeJob, BookSimilarityJob bookSimilarityJob,
+                          ContinueReadingService continueReadingService, JwtService jwtService) {
         this.bookService = bookService;
+        this.bookSuggestService = bookSuggestService;
+        this.ratingRecomputeJob = ratingRecomputeJob;
+        this.bookSimilarityJob = bookSimilarityJob;
+        this.continueReadingService = continueReadingService;
+        this.jwtService = jwtService;
     }
 
     // POST /api/books - Crear un libro individual
@@ -294,12 +316,39 @@ public class BookController {
         }
     }
 
-    // GET /api/books - Listar libros con paginación opcional
+    // GET /api/books/{id}/similar - Libros parecidos precalculados (relaciones SIMILAR_TO)
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<Map<String, Object>> getSimilarToBook(@PathVariable String id,
+                                                                @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            if (limit < 1 || limit > 50) {
+                return ResponseUtil.createErrorResponse("El límite debe estar entre 1 y 50", 400);
+            }
+            List<SimilarBookResponse> similarBooks = bookService.getSimilarToBook(id.trim(), limit);
+            return ResponseUtil.createSuccessResponse(similarBooks, "Libros similares obtenidos exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener libros similares: " + e.getMessage(), 500);
+        }
+    }
+
+    // GET /api/books - Listar libros con paginación opcional (offset/limit o cursor)
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllBooks(
             @RequestParam(required = false) Integer offset,
-            @RequestParam(required = false) Integer limit) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         try {
+            // Paginación por cursor: un cursor vacío solicita la primera página
+            if (cursor != null) {
+                if (limit == null) limit = 20;
+                if (limit <= 0 || limit > 100) {
+                    return ResponseUtil.createErrorResponse("El limit debe estar entre 1 y 100", 400);
+                }
+                
+                CursorPageResponse<BookResponse> page = bookService.getBooksByCursor(cursor.trim(), limit);
+                return ResponseUtil.createSuccessResponse(page, "Libros obtenidos exitosamente");
+            }
+            
             // Si no se especifican parámetros de paginación, devolver todos los libros
             if (offset == null && limit == null) {
                 List<BookResponse> allBooks = bookService.getAllBooksWithoutPagination();
@@ -335,6 +384,8 @@ public class BookController {
 
             return ResponseUtil.createSuccessResponse(paginatedResponse, "Libros obtenidos exitosamente");
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener libros: " + e.getMessage(), 500);
         }
@@ -499,6 +550,27 @@ public class BookController {
         }
     }
 
+    // GET /api/books/suggest - Autocompletado de títulos, autores, series y géneros
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            if (q == null || q.trim().isEmpty()) {
+                return ResponseUtil.createErrorResponse("El término de búsqueda es requerido", 400);
+            }
+
+            if (limit <= 0 || limit > 20) {
+                return ResponseUtil.createErrorResponse("El límite debe estar entre 1 y 20", 400);
+            }
+
+            List<SuggestionResponse> suggestions = bookSuggestService.suggest(q, limit);
+            return ResponseUtil.createSuccessResponse(suggestions, "Sugerencias obtenidas exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener sugerencias: " + e.getMessage(), 500);
+        }
+    }
+
     // GET /api/books/genre/{genreName} - Obtener libros por género
     @GetMapping("/genre/{genreName}")
     public ResponseEntity<Map<String, Object>> getBooksByGenre(
@@ -682,31 +754,101 @@ public class BookController {
         }
     }
 
-    // GET /api/books/{bookId}/ratings - Obtener todas las calificaciones y reseñas de un libro específico
+    // GET /api/books/{bookId}/rating-distribution - Cantidad de calificaciones por media estrella
+    @GetMapping("/{bookId}/rating-distribution")
+    public ResponseEntity<Map<String, Object>> getRatingDistribution(@PathVariable String bookId) {
+        try {
+            Optional<Map<String, Object>> distribution = bookService.getRatingDistribution(bookId);
+            if (distribution.isEmpty()) {
+                return ResponseUtil.createErrorResponse("Libro no encontrado", 404);
+            }
+            return ResponseUtil.createSuccessResponse(distribution.get(), "Distribución de calificaciones obtenida exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener la distribución de calificaciones: " + e.getMessage(), 500);
+        }
+    }
+
+    // GET /api/books/{bookId}/ratings - Reseñas de un libro (offset/limit o cursor; sort=recent|helpful con cursor)
     @GetMapping("/{bookId}/ratings")
     public ResponseEntity<Map<String, Object>> getBookRatings(@PathVariable String bookId,
                                                              @RequestParam(defaultValue = "0") int offset,
-                                                             @RequestParam(defaultValue = "10") int limit) {
+                                                             @RequestParam(defaultValue = "10") int limit,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "recent") String sort) {
         try {
-            List<Map<String, Object>> ratings = bookService.getBookRatings(bookId, offset, limit);
+            // Paginación por cursor: un cursor vacío solicita la primera página
+            if (cursor != null) {
+                if (limit <= 0 || limit > 100) {
+                    return ResponseUtil.createErrorResponse("El limit debe estar entre 1 y 100", 400);
+                }
+                if (!"recent".equalsIgnoreCase(sort) && !"helpful".equalsIgnoreCase(sort)) {
+                    return ResponseUtil.createErrorResponse("El sort debe ser 'recent' o 'helpful'", 400);
+                }
+                
+                CursorPageResponse<BookRatingDTO> page = bookService.getBookRatingsByCursor(bookId, cursor.trim(), limit, sort);
+                return ResponseUtil.createSuccessResponse(page, "Calificaciones obtenidas exitosamente");
+            }
+            
+            List<BookRatingDTO> ratings = bookService.getBookRatings(bookId, offset, limit);
             return ResponseUtil.createSuccessResponse(ratings, "Calificaciones obtenidas exitosamente");
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener calificaciones: " + e.getMessage(), 500);
         }
     }
 
-    // POST /api/books/recalculate-ratings - Recalcular promedios de calificación de todos los libros
+
+    // POST /api/books/recalculate-ratings - Lanzar en segundo plano el recálculo de promedios de todos los libros
+    // Retoma la ejecución interrumpida desde su checkpoint; con restart=true empieza de cero
     @PostMapping("/recalculate-ratings")
     // @PreAuthorize("hasRole('ADMIN')") // Temporalmente deshabilitado para pruebas
-    public ResponseEntity<Map<String, Object>> recalculateAllBookRatings() {
+    public ResponseEntity<Map<String, Object>> recalculateAllBookRatings(@RequestParam(defaultValue = "false") boolean restart) {
         try {
-            bookService.recalculateAllBookRatings();
-            return ResponseUtil.createSuccessResponse(null, "Promedios de calificación recalculados exitosamente");
+            if (!ratingRecomputeJob.start(restart)) {
+                return ResponseUtil.createErrorResponse("Ya hay un recálculo de promedios en curso", 409);
+            }
+            return ResponseUtil.createSuccessResponse(ratingRecomputeJob.getStatus(), "Recálculo de promedios iniciado");
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al recalcular promedios: " + e.getMessage(), 500);
         }
     }
 
+    // GET /api/books/recalculate-ratings/status - Progreso, ritmo y tiempo estimado del recálculo
+    @GetMapping("/recalculate-ratings/status")
+    public ResponseEntity<Map<String, Object>> getRecalculateRatingsStatus() {
+        try {
+            return ResponseUtil.createSuccessResponse(ratingRecomputeJob.getStatus(), "Estado del recálculo obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado del recálculo: " + e.getMessage(), 500);
+        }
+    }
+
+    // POST /api/books/similarity/recompute - Lanzar en segundo plano el cálculo de libros similares
+    // Por defecto solo recalcula los libros que cambiaron desde la última ejecución; con full=true, todo el catálogo
+    @PostMapping("/similarity/recompute")
+    // @PreAuthorize("hasRole('ADMIN')") // Temporalmente deshabilitado para pruebas
+    public ResponseEntity<Map<String, Object>> recomputeBookSimilarity(@RequestParam(defaultValue = "false") boolean full) {
+        try {
+            if (!bookSimilarityJob.start(full)) {
+                return ResponseUtil.createErrorResponse("Ya hay un cálculo de similitud en curso", 409);
+            }
+            return ResponseUtil.createSuccessResponse(bookSimilarityJob.getStatus(), "Cálculo de similitud iniciado");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al calcular la similitud: " + e.getMessage(), 500);
+        }
+    }
+
+    // GET /api/books/similarity/status - Progreso del cálculo de libros similares
+    @GetMapping("/similarity/status")
+    public ResponseEntity<Map<String, Object>> getBookSimilarityStatus() {
+        try {
+            return ResponseUtil.createSuccessResponse(bookSimilarityJob.getStatus(), "Estado del cálculo de similitud obtenido exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el estado del cálculo de similitud: " + e.getMessage(), 500);
+        }
+    }
+
     // POST /api/books/clean-database - Limpiar completamente la base de datos Neo4j
     @PostMapping("/clean-database")
     public ResponseEntity<Map<String, Object>> cleanDatabase() {
@@ -744,13 +886,18 @@ public class BookController {
         }
     }
 
-    // GET /api/books/continue-reading - Obtener libros para continuar leyendo del usuario autenticado
+    // GET /api/books/continue-reading - Libros que el usuario autenticado está leyendo, del último leído al más antiguo
     @GetMapping("/continue-reading")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getContinueReading(Authentication authentication) {
+    public ResponseEntity<Map<String, Object>> getContinueReading(@RequestHeader("Authorization") String authHeader,
+                                                                  @RequestParam(defaultValue = "10") Integer limit) {
         try {
-            String userId = authentication.getName();
-            List<BookResponse> continueReadingBooks = bookService.getContinueReadingForUser(userId);
+            if (limit < 1 || limit > ContinueReadingService.MAX_BOOKS) {
+                return ResponseUtil.createErrorResponse("El límite debe estar entre 1 y " + ContinueReadingService.MAX_BOOKS, 400);
+            }
+            // El principal es el username; el id sale del token
+            String userId = jwtService.extractUserId(authHeader.substring(7));
+            List<ContinueReadingResponse> continueReadingBooks = continueReadingService.getContinueReading(userId, limit);
             return ResponseUtil.createSuccessResponse(continueReadingBooks, "Libros para continuar leyendo obtenidos exitosamente");
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener libros para continuar leyendo: " + e.getMessage(), 500);
@@ -783,8 +930,10 @@ public class BookController {
     @PostMapping("/force-recalculate")
     public ResponseEntity<Map<String, Object>> forceRecalculateRatings() {
         try {
-            bookService.recalculateAllBookRatings();
-            return ResponseUtil.createSuccessResponse(null, "Recálculo forzado completado exitosamente");
+            if (!ratingRecomputeJob.start(true)) {
+                return ResponseUtil.createErrorResponse("Ya hay un recálculo de promedios en curso", 409);
+            }
+            return ResponseUtil.createSuccessResponse(ratingRecomputeJob.getStatus(), "Recálculo forzado iniciado");
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error en recálculo forzado: " + e.getMessage(), 500);
         }
@@ -0,0 +1,47 @@
+package com.booknet.backend.controller;
+
+import com.booknet.backend.dto.CursorPageResponse;
+import com.booknet.backend.dto.FeedItemResponse;
+import com.booknet.backend.service.FeedService;
+import com.booknet.backend.service.JwtService;
+import com.booknet.backend.util.ResponseUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/feed")
+@CrossOrigin(origins = "*")
+public class FeedController {
+
+    private final FeedService feedService;
+    private final JwtService jwtService;
+
+    public FeedController(FeedService feedService, JwtService jwtService) {
+        this.feedService = feedService;
+        this.jwtService = jwtService;
+    }
+
+    // GET /api/feed - Actividad reciente de las cuentas que sigue el usuario, paginada por cursor
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getFeed(@RequestHeader("Authorization") String authHeader,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") Integer limit) {
+        try {
+            String token = authHeader.substring(7); // Remover "Bearer "
+            String userId = jwtService.extractUserId(token);
+
+            if (limit < 1 || limit > 100) {
+                return ResponseUtil.createErrorResponse("El límite debe estar entre 1 y 100", 400);
+            }
+
+            CursorPageResponse<FeedItemResponse> page = feedService.getFeed(userId, cursor, limit);
+            return ResponseUtil.createSuccessResponse(page, "Feed de actividad obtenido exitosamente");
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener el feed de actividad: " + e.getMessage(), 500);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.booknet.backend.controller;
 
 import com.booknet.backend.dto.CreateGenreRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.GenreResponse;
 import com.booknet.backend.dto.PaginatedGenresResponse;
 import com.booknet.backend.dto.UpdateGenreRequest;
@@ -26,9 +27,20 @@ public class GenreController {
     @GetMapping
     public ResponseEntity<?> getAllGenres(
             @RequestParam(required = false) Integer offset,
-            @RequestParam(required = false) Integer limit) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         
         try {
+            // Paginación por cursor: un cursor vacío solicita la primera página
+            if (cursor != null) {
+                if (limit == null || limit <= 0 || limit > 100) {
+                    limit = 10;
+                }
+                
+                CursorPageResponse<GenreResponse> page = genreService.getGenresByCursor(cursor.trim(), limit);
+                return ResponseEntity.ok(new ApiResponse(true, "Géneros obtenidos exitosamente", page));
+            }
+            
             // Si no se especifican parámetros de paginación, devolver todos los géneros
             if (offset == null && limit == null) {
                 List<GenreResponse> allGenres = genreService.getAllGenres();
@@ -60,12 +72,43 @@ public class GenreController {
             );
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(false, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, "Error al obtener los géneros: " + e.getMessage(), null));
         }
     }
 
+    @GetMapping("/main")
+    public ResponseEntity<?> getMainGenres() {
+        try {
+            List<GenreResponse> genres = genreService.getMainGenres();
+            return ResponseEntity.ok(new ApiResponse(true, "Géneros principales obtenidos exitosamente", genres));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error al obtener los géneros principales: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/{id}/subgenres")
+    public ResponseEntity<?> getSubgenres(@PathVariable String id) {
+        try {
+            Optional<List<GenreResponse>> subgenres = genreService.getSubgenres(id);
+            
+            if (subgenres.isPresent()) {
+                return ResponseEntity.ok(new ApiResponse(true, "Subgéneros obtenidos exitosamente", subgenres.get()));
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse(false, "Género no encontrado", null));
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error al obtener los subgéneros: " + e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getGenreById(@PathVariable String id) {
         try {
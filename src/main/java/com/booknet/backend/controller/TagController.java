@@ -1,6 +1,7 @@
 package com.booknet.backend.controller;
 
 import com.booknet.backend.dto.CreateTagRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.PaginatedTagsResponse;
 import com.booknet.backend.dto.TagResponse;
 import com.booknet.backend.dto.UpdateTagRequest;
@@ -26,9 +27,20 @@ public class TagController {
     @GetMapping
     public ResponseEntity<?> getAllTags(
             @RequestParam(required = false) Integer offset,
-            @RequestParam(required = false) Integer limit) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         
         try {
+            // Paginación por cursor: un cursor vacío solicita la primera página
+            if (cursor != null) {
+                if (limit == null || limit <= 0 || limit > 100) {
+                    limit = 10;
+                }
+                
+                CursorPageResponse<TagResponse> page = tagService.getTagsByCursor(cursor.trim(), limit);
+                return ResponseEntity.ok(new ApiResponse(true, "Tags obtenidos exitosamente", page));
+            }
+            
             // Si no se especifican parámetros de paginación, devolver todos los tags
             if (offset == null && limit == null) {
                 List<TagResponse> allTags = tagService.getAllTags();
@@ -60,6 +72,9 @@ public class TagController {
             );
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(false, e.getMessage(), null));
         } catch (Exception e) {
             PaginatedTagsResponse errorResponse = new PaginatedTagsResponse();
             errorResponse.setSuccess(false);
@@ -70,6 +85,17 @@ public class TagController {
         }
     }
 
+    @GetMapping("/categories/{category}/names")
+    public ResponseEntity<?> getTagNamesByCategory(@PathVariable String category) {
+        try {
+            List<String> names = tagService.getTagNamesByCategory(category);
+            return ResponseEntity.ok(new ApiResponse(true, "Nombres de tags obtenidos exitosamente", names));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error al obtener los nombres de tags: " + e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getTagById(@PathVariable String id) {
         try {
@@ -1,6 +1,7 @@
 package com.booknet.backend.controller;
 
 import com.booknet.backend.dto.CreateUserRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.PaginatedUsersResponse;
 import com.booknet.backend.dto.UpdateUserRequest;
 import com.booknet.backend.dto.UserResponse;
@@ -27,13 +28,24 @@ public class UserController {
         this.userService = userService;
     }
 
-    // GET /api/users - Listar usuarios con paginación
+    // GET /api/users - Listar usuarios con paginación (offset/limit o cursor)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getAllUsers(
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor) {
         try {
+            // Paginación por cursor: un cursor vacío solicita la primera página
+            if (cursor != null) {
+                if (limit <= 0 || limit > 100) {
+                    return ResponseUtil.createErrorResponse("El limit debe estar entre 1 y 100", 400);
+                }
+
+                CursorPageResponse<UserResponse> page = userService.getUsersByCursor(cursor.trim(), limit);
+                return ResponseUtil.createSuccessResponse(page, "Usuarios obtenidos exitosamente");
+            }
+
             // Validar parámetros
             if (offset < 0) {
                 return ResponseUtil.createErrorResponse("El offset debe ser mayor o igual a 0", 400);
@@ -62,6 +74,8 @@ public class UserController {
 
             return ResponseUtil.createSuccessResponse(paginatedResponse, "Usuarios obtenidos exitosamente");
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener usuarios: " + e.getMessage(), 500);
         }
@@ -1,17 +1,24 @@
 package com.booknet.backend.controller;
 
+import com.booknet.backend.dto.BatchIdsRequest;
+import com.booknet.backend.dto.CursorPageResponse;
+import com.booknet.backend.dto.FollowResponse;
 import com.booknet.backend.dto.RateBookRequest;
 import com.booknet.backend.dto.ReadingProgressRequest;
 import com.booknet.backend.model.Book;
 import com.booknet.backend.model.User;
 import com.booknet.backend.service.JwtService;
+import com.booknet.backend.service.ReadingActivityService;
 import com.booknet.backend.service.UserInteractionService;
 import com.booknet.backend.util.ResponseUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 @RestController
 @RequestMapping("/api/user-interactions")
@@ -20,11 +27,14 @@ public class UserInteractionController {
 
     private final UserInteractionService userInteractionService;
     private final JwtService jwtService;
+    private final ReadingActivityService readingActivityService;
 
     public UserInteractionController(UserInteractionService userInteractionService, 
-                                   JwtService jwtService) {
+                                   JwtService jwtService,
+                                   ReadingActivityService readingActivityService) {
         this.userInteractionService = userInteractionService;
         this.jwtService = jwtService;
+        this.readingActivityService = readingActivityService;
     }
 
     @PostMapping("/rate")
@@ -45,6 +55,24 @@ public class UserInteractionController {
         }
     }
 
+    @DeleteMapping("/rate/{bookId}")
+    public ResponseEntity<Map<String, Object>> deleteRating(@RequestHeader("Authorization") String authHeader,
+                                                           @PathVariable String bookId) {
+        try {
+            String token = authHeader.substring(7); // Remover "Bearer "
+            String userId = jwtService.extractUserId(token);
+            
+            boolean success = userInteractionService.deleteRating(userId, bookId);
+            if (success) {
+                return ResponseUtil.createSuccessResponse(null, "Calificación eliminada exitosamente");
+            } else {
+                return ResponseUtil.createErrorResponse("El usuario no ha calificado este libro", 404);
+            }
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al eliminar calificación: " + e.getMessage(), 500);
+        }
+    }
+
     @PostMapping("/reading-progress")
     public ResponseEntity<Map<String, Object>> updateReadingProgress(@RequestHeader("Authorization") String authHeader,
                                                                    @RequestBody ReadingProgressRequest request) {
@@ -139,6 +167,60 @@ public class UserInteractionController {
         }
     }
 
+    // Lotes (p. ej. seguir varias cuentas en el onboarding): responden los ids que realmente cambiaron
+
+    @PostMapping("/favorites/batch")
+    public ResponseEntity<Map<String, Object>> addFavoritesBatch(@RequestHeader("Authorization") String authHeader,
+                                                                 @RequestBody BatchIdsRequest request) {
+        return writeBatch(authHeader, request, userInteractionService::addToFavorites,
+                "Libros agregados a favoritos", "Error al agregar libros a favoritos");
+    }
+
+    @PostMapping("/favorites/batch/remove")
+    public ResponseEntity<Map<String, Object>> removeFavoritesBatch(@RequestHeader("Authorization") String authHeader,
+                                                                    @RequestBody BatchIdsRequest request) {
+        return writeBatch(authHeader, request, userInteractionService::removeFromFavorites,
+                "Libros removidos de favoritos", "Error al remover libros de favoritos");
+    }
+
+    @PostMapping("/follow/batch")
+    public ResponseEntity<Map<String, Object>> followUsersBatch(@RequestHeader("Authorization") String authHeader,
+                                                                @RequestBody BatchIdsRequest request) {
+        return writeBatch(authHeader, request, userInteractionService::followUsers,
+                "Usuarios seguidos", "Error al seguir usuarios");
+    }
+
+    @PostMapping("/follow/batch/remove")
+    public ResponseEntity<Map<String, Object>> unfollowUsersBatch(@RequestHeader("Authorization") String authHeader,
+                                                                  @RequestBody BatchIdsRequest request) {
+        return writeBatch(authHeader, request, userInteractionService::unfollowUsers,
+                "Usuarios dejados de seguir", "Error al dejar de seguir usuarios");
+    }
+
+    private ResponseEntity<Map<String, Object>> writeBatch(String authHeader, BatchIdsRequest request,
+                                                           BiFunction<String, List<String>, List<String>> operation,
+                                                           String successMessage, String errorMessage) {
+        try {
+            String token = authHeader.substring(7); // Remover "Bearer "
+            String userId = jwtService.extractUserId(token);
+
+            if (request == null || request.getIds() == null || request.getIds().isEmpty()) {
+                return ResponseUtil.createErrorResponse("La lista de ids es requerida", 400);
+            }
+            if (request.getIds().size() > UserInteractionService.MAX_BATCH_SIZE) {
+                return ResponseUtil.createErrorResponse("Máximo " + UserInteractionService.MAX_BATCH_SIZE + " ids por operación", 400);
+            }
+
+            List<String> changed = operation.apply(userId, request.getIds());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requested", request.getIds().size());
+            result.put("changed", changed);
+            return ResponseUtil.createSuccessResponse(result, successMessage + ": " + changed.size());
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse(errorMessage + ": " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/rated-books")
     public ResponseEntity<Map<String, Object>> getUserRatedBooks(@RequestHeader("Authorization") String authHeader) {
         try {
@@ -179,27 +261,44 @@ public class UserInteractionController {
         }
     }
 
+    // Listas paginadas por cursor (más reciente primero); un cursor vacío solicita la primera página
     @GetMapping("/following")
-    public ResponseEntity<Map<String, Object>> getUserFollowing(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<Map<String, Object>> getUserFollowing(@RequestHeader("Authorization") String authHeader,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") Integer limit) {
         try {
             String token = authHeader.substring(7); // Remover "Bearer "
             String userId = jwtService.extractUserId(token);
-            
-            List<User> users = userInteractionService.getUserFollowing(userId);
-            return ResponseUtil.createSuccessResponse(users, "Usuarios seguidos obtenidos exitosamente");
+
+            if (limit < 1 || limit > 100) {
+                return ResponseUtil.createErrorResponse("El límite debe estar entre 1 y 100", 400);
+            }
+
+            CursorPageResponse<FollowResponse> page = userInteractionService.getUserFollowing(userId, cursor, limit);
+            return ResponseUtil.createSuccessResponse(page, "Usuarios seguidos obtenidos exitosamente");
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener usuarios seguidos: " + e.getMessage(), 500);
         }
     }
 
     @GetMapping("/followers")
-    public ResponseEntity<Map<String, Object>> getUserFollowers(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<Map<String, Object>> getUserFollowers(@RequestHeader("Authorization") String authHeader,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") Integer limit) {
         try {
             String token = authHeader.substring(7); // Remover "Bearer "
             String userId = jwtService.extractUserId(token);
-            
-            List<User> users = userInteractionService.getUserFollowers(userId);
-            return ResponseUtil.createSuccessResponse(users, "Seguidores obtenidos exitosamente");
+
+            if (limit < 1 || limit > 100) {
+                return ResponseUtil.createErrorResponse("El límite debe estar entre 1 y 100", 400);
+            }
+
+            CursorPageResponse<FollowResponse> page = userInteractionService.getUserFollowers(userId, cursor, limit);
+            return ResponseUtil.createSuccessResponse(page, "Seguidores obtenidos exitosamente");
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.createErrorResponse(e.getMessage(), 400);
         } catch (Exception e) {
             return ResponseUtil.createErrorResponse("Error al obtener seguidores: " + e.getMessage(), 500);
         }
@@ -219,6 +318,20 @@ public class UserInteractionController {
         }
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getUserStats(@RequestHeader("Authorization") String authHeader) {
+        try {
+            String token = authHeader.substring(7); // Remover "Bearer "
+            String userId = jwtService.extractUserId(token);
+
+            return userInteractionService.getUserStats(userId)
+                    .map(stats -> ResponseUtil.createSuccessResponse(stats, "Estadísticas del usuario obtenidas exitosamente"))
+                    .orElseGet(() -> ResponseUtil.createErrorResponse("Usuario no encontrado", 404));
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener estadísticas del usuario: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/stats/average-rating")
     public ResponseEntity<Map<String, Object>> getUserAverageRating(@RequestHeader("Authorization") String authHeader) {
         try {
@@ -258,6 +371,25 @@ public class UserInteractionController {
         }
     }
 
+    @GetMapping("/stats/reading-activity")
+    public ResponseEntity<Map<String, Object>> getUserReadingActivity(@RequestHeader("Authorization") String authHeader,
+                                                                      @RequestParam(required = false) Integer year) {
+        try {
+            String token = authHeader.substring(7); // Remover "Bearer "
+            String userId = jwtService.extractUserId(token);
+
+            int targetYear = year != null ? year : LocalDate.now().getYear();
+            if (targetYear < 1970 || targetYear > LocalDate.now().getYear() + 1) {
+                return ResponseUtil.createErrorResponse("Año inválido: " + year, 400);
+            }
+
+            Map<String, Object> activity = readingActivityService.getUserReadingActivity(userId, targetYear);
+            return ResponseUtil.createSuccessResponse(activity, "Actividad de lectura obtenida exitosamente");
+        } catch (Exception e) {
+            return ResponseUtil.createErrorResponse("Error al obtener actividad de lectura: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/rating/{bookId}")
     public ResponseEntity<Map<String, Object>> getUserRatingForBook(@RequestHeader("Authorization") String authHeader,
                                                                    @PathVariable String bookId) {
@@ -0,0 +1,22 @@
+package com.booknet.backend.dto;
+
+import java.util.List;
+
+public class BatchIdsRequest {
+    private List<String> ids;
+
+    public BatchIdsRequest() {}
+
+    public BatchIdsRequest(List<String> ids) {
+        this.ids = ids;
+    }
+
+    // Getters and Setters
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+}
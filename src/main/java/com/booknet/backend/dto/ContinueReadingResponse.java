@@ -0,0 +1,51 @@
+package com.booknet.backend.dto;
+
+public class ContinueReadingResponse {
+    private BookResponse book;
+    private Double progressPercentage;
+    private String currentChapter;
+    private String lastReadAt;
+
+    // Constructor vacío
+    public ContinueReadingResponse() {}
+
+    public ContinueReadingResponse(BookResponse book, Double progressPercentage, String currentChapter, String lastReadAt) {
+        this.book = book;
+        this.progressPercentage = progressPercentage;
+        this.currentChapter = currentChapter;
+        this.lastReadAt = lastReadAt;
+    }
+
+    // Getters y Setters
+    public BookResponse getBook() {
+        return book;
+    }
+
+    public void setBook(BookResponse book) {
+        this.book = book;
+    }
+
+    public Double getProgressPercentage() {
+        return progressPercentage;
+    }
+
+    public void setProgressPercentage(Double progressPercentage) {
+        this.progressPercentage = progressPercentage;
+    }
+
+    public String getCurrentChapter() {
+        return currentChapter;
+    }
+
+    public void setCurrentChapter(String currentChapter) {
+        this.currentChapter = currentChapter;
+    }
+
+    public String getLastReadAt() {
+        return lastReadAt;
+    }
+
+    public void setLastReadAt(String lastReadAt) {
+        this.lastReadAt = lastReadAt;
+    }
+}
@@ -0,0 +1,84 @@
+package com.booknet.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class FeedItemResponse {
+    private String id;
+    private String type; // "RATED", "COMPLETED", "FAVORITED"
+    private String userId;
+    private String username;
+    private Double rating;
+    private LocalDateTime createdAt;
+    private BookResponse book;
+
+    // Constructor vacío
+    public FeedItemResponse() {}
+
+    public FeedItemResponse(String id, String type, String userId, String username, Double rating,
+                            LocalDateTime createdAt, BookResponse book) {
+        this.id = id;
+        this.type = type;
+        this.userId = userId;
+        this.username = username;
+        this.rating = rating;
+        this.createdAt = createdAt;
+        this.book = book;
+    }
+
+    // Getters y Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public void setRating(Double rating) {
+        this.rating = rating;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public BookResponse getBook() {
+        return book;
+    }
+
+    public void setBook(BookResponse book) {
+        this.book = book;
+    }
+}
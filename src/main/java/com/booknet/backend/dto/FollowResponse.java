@@ -0,0 +1,33 @@
+package com.booknet.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class FollowResponse {
+    private UserResponse user;
+    private LocalDateTime followedAt;
+
+    // Constructor vacío
+    public FollowResponse() {}
+
+    public FollowResponse(UserResponse user, LocalDateTime followedAt) {
+        this.user = user;
+        this.followedAt = followedAt;
+    }
+
+    // Getters y Setters
+    public UserResponse getUser() {
+        return user;
+    }
+
+    public void setUser(UserResponse user) {
+        this.user = user;
+    }
+
+    public LocalDateTime getFollowedAt() {
+        return followedAt;
+    }
+
+    public void setFollowedAt(LocalDateTime followedAt) {
+        this.followedAt = followedAt;
+    }
+}
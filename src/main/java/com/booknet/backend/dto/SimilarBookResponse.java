@@ -0,0 +1,41 @@
+package com.booknet.backend.dto;
+
+public class SimilarBookResponse {
+    private BookResponse book;
+    private Double similarityScore;
+    private String similarityType;
+
+    // Constructor vacío
+    public SimilarBookResponse() {}
+
+    public SimilarBookResponse(BookResponse book, Double similarityScore, String similarityType) {
+        this.book = book;
+        this.similarityScore = similarityScore;
+        this.similarityType = similarityType;
+    }
+
+    // Getters y Setters
+    public BookResponse getBook() {
+        return book;
+    }
+
+    public void setBook(BookResponse book) {
+        this.book = book;
+    }
+
+    public Double getSimilarityScore() {
+        return similarityScore;
+    }
+
+    public void setSimilarityScore(Double similarityScore) {
+        this.similarityScore = similarityScore;
+    }
+
+    public String getSimilarityType() {
+        return similarityType;
+    }
+
+    public void setSimilarityType(String similarityType) {
+        this.similarityType = similarityType;
+    }
+}
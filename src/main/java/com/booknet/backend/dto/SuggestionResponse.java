@@ -0,0 +1,50 @@
+package com.booknet.backend.dto;
+
+public class SuggestionResponse {
+    private String type;
+    private String id;
+    private String text;
+    private long weight;
+
+    public SuggestionResponse() {}
+
+    public SuggestionResponse(String type, String id, String text, long weight) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+        this.weight = weight;
+    }
+
+    // Getters y setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+}
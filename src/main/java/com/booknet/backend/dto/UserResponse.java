@@ -11,6 +11,8 @@ public class UserResponse {
     private String role;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long followersCount;
+    private Long followingCount;
 
     public UserResponse() {}
 
@@ -21,6 +23,8 @@ public class UserResponse {
         this.role = user.getRole();
         this.createdAt = user.getCreatedAt();
         this.updatedAt = user.getUpdatedAt();
+        this.followersCount = user.getFollowersCount() != null ? user.getFollowersCount() : 0L;
+        this.followingCount = user.getFollowingCount() != null ? user.getFollowingCount() : 0L;
     }
 
     public String getId() {
@@ -70,4 +74,20 @@ public class UserResponse {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getFollowersCount() {
+        return followersCount;
+    }
+
+    public void setFollowersCount(Long followersCount) {
+        this.followersCount = followersCount;
+    }
+
+    public Long getFollowingCount() {
+        return followingCount;
+    }
+
+    public void setFollowingCount(Long followingCount) {
+        this.followingCount = followingCount;
+    }
 }
@@ -0,0 +1,23 @@
+package com.booknet.backend.event;
+
+/**
+ * Evento publicado por AuthorService cuando un autor se crea, modifica o elimina.
+ */
+public class AuthorChangedEvent {
+
+    private final String authorId;
+    private final boolean deleted;
+
+    public AuthorChangedEvent(String authorId, boolean deleted) {
+        this.authorId = authorId;
+        this.deleted = deleted;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
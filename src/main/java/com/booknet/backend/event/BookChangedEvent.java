@@ -0,0 +1,110 @@
+package com.booknet.backend.event;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evento publicado por BookService cuando uno o varios libros se crean, modifican o eliminan.
+ * Lo consumen los índices y cachés en memoria que dependen de los datos del libro.
+ *
+ * authorIds, seriesIds y genreIds llevan las entidades relacionadas cuando ya no se pueden consultar
+ * (libro eliminado);
+ * allBooks indica un cambio masivo (recálculo o limpieza) que invalida todo.
+ * averageRating y totalRatings solo vienen informados cuando el cambio es una calificación,
+ * para que los rankings se actualicen sin volver a leer el libro.
+ */
+public class BookChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final List<String> bookIds;
+    private final ChangeType changeType;
+    private final Set<String> authorIds;
+    private final Set<String> seriesIds;
+    private final Set<String> genreIds;
+    private final boolean allBooks;
+    private final Double averageRating;
+    private final Integer totalRatings;
+
+    public BookChangedEvent(List<String> bookIds, ChangeType changeType, Set<String> authorIds, boolean allBooks) {
+        this(bookIds, changeType, authorIds, Set.of(), Set.of(), allBooks, null, null);
+    }
+
+    private BookChangedEvent(List<String> bookIds, ChangeType changeType, Set<String> authorIds,
+                             Set<String> seriesIds, Set<String> genreIds, boolean allBooks,
+                             Double averageRating, Integer totalRatings) {
+        this.bookIds = List.copyOf(bookIds);
+        this.changeType = changeType;
+        this.authorIds = Set.copyOf(authorIds);
+        this.seriesIds = Set.copyOf(seriesIds);
+        this.genreIds = Set.copyOf(genreIds);
+        this.allBooks = allBooks;
+        this.averageRating = averageRating;
+        this.totalRatings = totalRatings;
+    }
+
+    public static BookChangedEvent created(List<String> bookIds) {
+        return new BookChangedEvent(bookIds, ChangeType.CREATED, Set.of(), false);
+    }
+
+    public static BookChangedEvent updated(String bookId) {
+        return new BookChangedEvent(List.of(bookId), ChangeType.UPDATED, Set.of(), false);
+    }
+
+    public static BookChangedEvent ratingUpdated(String bookId, Double averageRating, Integer totalRatings) {
+        return new BookChangedEvent(List.of(bookId), ChangeType.UPDATED, Set.of(), Set.of(), Set.of(), false,
+                averageRating, totalRatings);
+    }
+
+    public static BookChangedEvent deleted(String bookId, Set<String> authorIds, Set<String> seriesIds, Set<String> genreIds) {
+        return new BookChangedEvent(List.of(bookId), ChangeType.DELETED, authorIds, seriesIds, genreIds, false, null, null);
+    }
+
+    public static BookChangedEvent allUpdated() {
+        return new BookChangedEvent(List.of(), ChangeType.UPDATED, Set.of(), true);
+    }
+
+    public static BookChangedEvent allDeleted() {
+        return new BookChangedEvent(List.of(), ChangeType.DELETED, Set.of(), true);
+    }
+
+    public List<String> getBookIds() {
+        return bookIds;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Set<String> getAuthorIds() {
+        return authorIds;
+    }
+
+    public Set<String> getSeriesIds() {
+        return seriesIds;
+    }
+
+    public Set<String> getGenreIds() {
+        return genreIds;
+    }
+
+    public boolean isAllBooks() {
+        return allBooks;
+    }
+
+    public boolean hasRating() {
+        return totalRatings != null;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public Integer getTotalRatings() {
+        return totalRatings;
+    }
+}
@@ -0,0 +1,19 @@
+package com.booknet.backend.event;
+
+import java.util.Set;
+
+/**
+ * Evento publicado cuando se escribe el progreso de lectura (relaciones READ) de uno o más usuarios.
+ */
+public class ReadingProgressChangedEvent {
+
+    private final Set<String> userIds;
+
+    public ReadingProgressChangedEvent(Set<String> userIds) {
+        this.userIds = userIds;
+    }
+
+    public Set<String> getUserIds() {
+        return userIds;
+    }
+}
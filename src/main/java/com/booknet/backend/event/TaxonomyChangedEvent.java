@@ -0,0 +1,27 @@
+package com.booknet.backend.event;
+
+/**
+ * Evento publicado cuando se modifica o elimina un género, una etiqueta o una serie.
+ */
+public class TaxonomyChangedEvent {
+
+    public static final String GENRE = "genre";
+    public static final String TAG = "tag";
+    public static final String SERIES = "series";
+
+    private final String type;
+    private final String id;
+
+    public TaxonomyChangedEvent(String type, String id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,62 @@
+package com.booknet.backend.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando un usuario realiza una actividad visible para sus seguidores
+ * (calificar, terminar o marcar como favorito un libro).
+ */
+public class UserActivityEvent {
+
+    public enum Type {
+        RATED,
+        COMPLETED,
+        FAVORITED
+    }
+
+    private final Type type;
+    private final String userId;
+    private final String bookId;
+    private final Double rating;
+    private final LocalDateTime occurredAt;
+
+    private UserActivityEvent(Type type, String userId, String bookId, Double rating) {
+        this.type = type;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.rating = rating;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public static UserActivityEvent rated(String userId, String bookId, Double rating) {
+        return new UserActivityEvent(Type.RATED, userId, bookId, rating);
+    }
+
+    public static UserActivityEvent completed(String userId, String bookId) {
+        return new UserActivityEvent(Type.COMPLETED, userId, bookId, null);
+    }
+
+    public static UserActivityEvent favorited(String userId, String bookId) {
+        return new UserActivityEvent(Type.FAVORITED, userId, bookId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.booknet.backend.model;
 
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
@@ -40,12 +41,21 @@ public class Book {
     @Property("age_rating")
     private String ageRating;
 
+    // Los agregados de calificaciones solo se escriben con Cypher (deltas atómicos en BookService):
+    // guardar la entidad no debe pisarlos con los valores leídos antes
+    @ReadOnlyProperty
     @Property("average_rating")
     private Double averageRating;
 
+    @ReadOnlyProperty
     @Property("total_ratings")
     private Integer totalRatings;
 
+    // Suma exacta de las calificaciones; average_rating = rating_sum / total_ratings
+    @ReadOnlyProperty
+    @Property("rating_sum")
+    private Double ratingSum;
+
     @Property("reading_difficulty")
     private String readingDifficulty;
 
@@ -182,6 +192,14 @@ public class Book {
         this.totalRatings = totalRatings;
     }
 
+    public Double getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Double ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
     public String getReadingDifficulty() {
         return readingDifficulty;
     }
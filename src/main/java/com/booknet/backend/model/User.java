@@ -3,6 +3,7 @@ package com.booknet.backend.model;
 import com.booknet.backend.model.relationship.RatedRelationship;
 import com.booknet.backend.model.relationship.ReadRelationship;
 import com.booknet.backend.model.relationship.RecommendedRelationship;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
@@ -59,6 +60,15 @@ public class User {
     @Property("updated_at")
     private LocalDateTime updatedAt;
 
+    // Contadores mantenidos por Cypher al seguir/dejar de seguir; no se escriben al guardar la entidad
+    @ReadOnlyProperty
+    @Property("followers_count")
+    private Long followersCount;
+
+    @ReadOnlyProperty
+    @Property("following_count")
+    private Long followingCount;
+
     @Relationship(type = "RATED", direction = Relationship.Direction.OUTGOING)
     private Set<RatedRelationship> ratedBooks = new HashSet<>();
 
@@ -141,6 +151,14 @@ public class User {
         this.role = role;
     }
 
+    public Long getFollowersCount() {
+        return followersCount;
+    }
+
+    public Long getFollowingCount() {
+        return followingCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -37,6 +37,10 @@ public class ReadRelationship {
     @Property("total_reading_time_minutes")
     private Integer totalReadingTimeMinutes;
 
+    // Última actualización del progreso (orden del estante "continuar leyendo")
+    @Property("updated_at")
+    private LocalDateTime updatedAt;
+
     @TargetNode
     private Book book;
 
@@ -130,6 +134,14 @@ public class ReadRelationship {
         this.totalReadingTimeMinutes = totalReadingTimeMinutes;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public Book getBook() {
         return book;
     }
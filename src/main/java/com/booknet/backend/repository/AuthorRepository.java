@@ -6,6 +6,7 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,9 +39,20 @@ public interface AuthorRepository extends Neo4jRepository<Author, String> {
     @Query("MATCH (a:Author) WHERE a.death_date IS NOT NULL RETURN a ORDER BY a.name")
     List<Author> findDeceasedAuthors();
 
-    @Query("MATCH (a:Author) RETURN a ORDER BY a.createdAt DESC SKIP $offset LIMIT $limit")
+    @Query("MATCH (a:Author) RETURN a ORDER BY a.created_at DESC SKIP $offset LIMIT $limit")
     List<Author> findAllOrderByCreatedAtDescWithPagination(@Param("offset") int offset, @Param("limit") int limit);
 
+    // Paginación por cursor (keyset) sobre (created_at, id): cada página cuesta lo mismo que la primera
+    @Query("MATCH (a:Author) WHERE a.created_at IS NOT NULL " +
+           "RETURN a ORDER BY a.created_at DESC, a.id DESC LIMIT $limit")
+    List<Author> findFirstPageOrderByCreatedAtDesc(@Param("limit") int limit);
+
+    @Query("MATCH (a:Author) WHERE a.created_at <= $createdAt AND (a.created_at < $createdAt OR a.id < $id) " +
+           "RETURN a ORDER BY a.created_at DESC, a.id DESC LIMIT $limit")
+    List<Author> findPageAfterCursorOrderByCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") String id,
+                                                        @Param("limit") int limit);
+
     @Query("MATCH (a:Author) RETURN count(a)")
     long countAllAuthors();
 
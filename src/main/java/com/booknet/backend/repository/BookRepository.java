@@ -96,9 +96,15 @@ public interface BookRepository extends Neo4jRepository<Book, String> {
            "RETURN b")
     List<Book> searchBooks(@Param("searchTerm") String searchTerm);
 
-    @Query("MATCH (b:Book) RETURN b ORDER BY b.createdAt DESC SKIP $offset LIMIT $limit")
+    @Query("MATCH (b:Book) RETURN b ORDER BY b.created_at DESC SKIP $offset LIMIT $limit")
     List<Book> findAllOrderByCreatedAtDescWithPagination(@Param("offset") int offset, @Param("limit") int limit);
 
     @Query("MATCH (b:Book) RETURN count(b)")
     long countAllBooks();
+
+    @Query("MATCH (b:Book)-[:BELONGS_TO_GENRE]->(g:Genre) WHERE g.name = $genreName RETURN count(b)")
+    long countBooksByGenre(@Param("genreName") String genreName);
+
+    @Query("MATCH (b:Book)-[:WRITTEN_BY]->(a:Author) WHERE a.name = $authorName RETURN count(b)")
+    long countBooksByAuthor(@Param("authorName") String authorName);
 }
\ No newline at end of file
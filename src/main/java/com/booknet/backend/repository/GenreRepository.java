@@ -6,6 +6,7 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,4 +42,15 @@ public interface GenreRepository extends Neo4jRepository<Genre, String> {
 
     @Query("MATCH (g:Genre) RETURN g ORDER BY g.created_at DESC SKIP $offset LIMIT $limit")
     List<Genre> findAllOrderByCreatedAtDescWithPagination(@Param("offset") int offset, @Param("limit") int limit);
+
+    // Paginación por cursor (keyset) sobre (created_at, id): cada página cuesta lo mismo que la primera
+    @Query("MATCH (g:Genre) WHERE g.created_at IS NOT NULL " +
+           "RETURN g ORDER BY g.created_at DESC, g.id DESC LIMIT $limit")
+    List<Genre> findFirstPageOrderByCreatedAtDesc(@Param("limit") int limit);
+
+    @Query("MATCH (g:Genre) WHERE g.created_at <= $createdAt AND (g.created_at < $createdAt OR g.id < $id) " +
+           "RETURN g ORDER BY g.created_at DESC, g.id DESC LIMIT $limit")
+    List<Genre> findPageAfterCursorOrderByCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") String id,
+                                                        @Param("limit") int limit);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +45,15 @@ public interface TagRepository extends Neo4jRepository<Tag, String> {
 
     @Query("MATCH (t:Tag) RETURN t ORDER BY t.created_at DESC SKIP $offset LIMIT $limit")
     List<Tag> findAllOrderByCreatedAtDescWithPagination(@Param("offset") int offset, @Param("limit") int limit);
+
+    // Paginación por cursor (keyset) sobre (created_at, id): cada página cuesta lo mismo que la primera
+    @Query("MATCH (t:Tag) WHERE t.created_at IS NOT NULL " +
+           "RETURN t ORDER BY t.created_at DESC, t.id DESC LIMIT $limit")
+    List<Tag> findFirstPageOrderByCreatedAtDesc(@Param("limit") int limit);
+
+    @Query("MATCH (t:Tag) WHERE t.created_at <= $createdAt AND (t.created_at < $createdAt OR t.id < $id) " +
+           "RETURN t ORDER BY t.created_at DESC, t.id DESC LIMIT $limit")
+    List<Tag> findPageAfterCursorOrderByCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") String id,
+                                                        @Param("limit") int limit);
 }
\ No newline at end of file
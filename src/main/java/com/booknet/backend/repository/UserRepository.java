@@ -9,6 +9,7 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -48,9 +49,20 @@ public interface UserRepository extends Neo4jRepository<User, String> {
     Page<User> searchUsers(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     // Métodos de paginación manual (sin Page)
-    @Query("MATCH (u:User) RETURN u ORDER BY u.createdAt DESC SKIP $offset LIMIT $limit")
+    @Query("MATCH (u:User) RETURN u ORDER BY u.created_at DESC SKIP $offset LIMIT $limit")
     List<User> findAllOrderByCreatedAtDescWithPagination(@Param("offset") int offset, @Param("limit") int limit);
 
+    // Paginación por cursor (keyset) sobre (created_at, id): cada página cuesta lo mismo que la primera
+    @Query("MATCH (u:User) WHERE u.created_at IS NOT NULL " +
+           "RETURN u ORDER BY u.created_at DESC, u.id DESC LIMIT $limit")
+    List<User> findFirstPageOrderByCreatedAtDesc(@Param("limit") int limit);
+
+    @Query("MATCH (u:User) WHERE u.created_at <= $createdAt AND (u.created_at < $createdAt OR u.id < $id) " +
+           "RETURN u ORDER BY u.created_at DESC, u.id DESC LIMIT $limit")
+    List<User> findPageAfterCursorOrderByCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") String id,
+                                                        @Param("limit") int limit);
+
     @Query("MATCH (u:User) RETURN count(u)")
     long countAllUsers();
 
@@ -64,8 +76,9 @@ public interface UserRepository extends Neo4jRepository<User, String> {
     List<Book> findUserFavoriteBooks(@Param("userId") String userId);
 
     @Query("MATCH (u:User {id: $userId})-[r:RECOMMENDED]->(b:Book) " +
-           "WHERE r.confidenceScore >= $minConfidence " +
-           "RETURN b ORDER BY r.confidenceScore DESC LIMIT $limit")
+           "WHERE r.confidence_score >= $minConfidence " +
+           "WITH b, max(r.confidence_score) AS confidence " +
+           "RETURN b ORDER BY confidence DESC LIMIT $limit")
     List<Book> findUserRecommendations(@Param("userId") String userId, 
                                        @Param("minConfidence") Double minConfidence,
                                        @Param("limit") Integer limit);
@@ -84,17 +97,13 @@ public interface UserRepository extends Neo4jRepository<User, String> {
                                          @Param("minCommonBooks") Integer minCommonBooks,
                                          @Param("limit") Integer limit);
 
-    @Query("MATCH (u:User {id: $userId})-[:FOLLOWS]->(following:User) RETURN following")
-    List<User> findUserFollowing(@Param("userId") String userId);
-
-    @Query("MATCH (u:User {id: $userId})<-[:FOLLOWS]-(follower:User) RETURN follower")
-    List<User> findUserFollowers(@Param("userId") String userId);
-
-    @Query("MATCH (u:User {id: $userId})-[:FOLLOWS]->(following:User) RETURN count(following)")
-    Long countUserFollowing(@Param("userId") String userId);
-
-    @Query("MATCH (u:User {id: $userId})<-[:FOLLOWS]-(follower:User) RETURN count(follower)")
-    Long countUserFollowers(@Param("userId") String userId);
+    // Antes de borrar un usuario: descuenta sus relaciones FOLLOWS de los contadores de los demás
+    @Query("MATCH (u:User {id: $userId}) " +
+           "CALL { WITH u MATCH (u)-[:FOLLOWS]->(followee:User) " +
+           "       SET followee.followers_count = coalesce(followee.followers_count, 1) - 1 } " +
+           "CALL { WITH u MATCH (follower:User)-[:FOLLOWS]->(u) " +
+           "       SET follower.following_count = coalesce(follower.following_count, 1) - 1 }")
+    void releaseFollowCounters(@Param("userId") String userId);
 
     @Query("MATCH (u:User) WHERE u.country = $country RETURN u")
     List<User> findUsersByCountry(@Param("country") String country);
@@ -102,19 +111,6 @@ public interface UserRepository extends Neo4jRepository<User, String> {
     @Query("MATCH (u:User) WHERE u.readingLevel = $readingLevel RETURN u")
     List<User> findUsersByReadingLevel(@Param("readingLevel") String readingLevel);
 
-    @Query("MATCH (u:User {id: $userId})-[r:RATED]->(b:Book) " +
-           "RETURN AVG(r.rating)")
-    Double getUserAverageRating(@Param("userId") String userId);
-
-    @Query("MATCH (u:User {id: $userId})-[r:READ]->(b:Book) " +
-           "WHERE r.status = 'completed' " +
-           "RETURN COUNT(b)")
-    Long countUserCompletedBooks(@Param("userId") String userId);
-
-    @Query("MATCH (u:User {id: $userId})-[r:READ]->(b:Book) " +
-           "RETURN COALESCE(SUM(r.totalReadingTimeMinutes), 0)")
-    Long getUserTotalReadingTime(@Param("userId") String userId);
-
     @Query(value = "MATCH (u:User)-[r:RATED]->(b:Book) " +
                   "WHERE b.id = $bookId " +
                   "RETURN u.id AS userId, u.username AS username, r.rating AS rating, r.review AS review")
@@ -0,0 +1,524 @@
+package com.booknet.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Modelo de factores latentes entrenado con mínimos cuadrados alternados (ALS) sobre RatingMatrix:
+ * calificación estimada = promedio global + factores del usuario · factores del libro.
+ *
+ * Cada iteración resuelve en paralelo (un ForkJoinPool propio) un sistema f×f por usuario con los
+ * factores de libros fijos y luego uno por libro con los de usuarios fijos, con regularización
+ * proporcional a la cantidad de calificaciones de cada fila.
+ *
+ * Los factores se escriben en un archivo nuevo (temporal + move atómico) y se sirven mapeados en
+ * memoria: el modelo en uso se reemplaza con una sola asignación, así que las lecturas nunca esperan
+ * a un entrenamiento. Al arrancar se carga el último archivo del directorio y se reentrena en segundo
+ * plano cuando la matriz cambió desde el modelo actual.
+ */
+@Service
+public class AlsModelService {
+
+    public enum Status {
+        IDLE,
+        TRAINING,
+        FAILED
+    }
+
+    private static final int MAGIC = 0x414C5331; // "ALS1"
+    private static final int HEADER_BYTES = 4 * 4 + 4 + 8 + 8;
+    private static final String FILE_PREFIX = "als-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final RatingMatrix ratingMatrix;
+    private final Path modelDir;
+    private final int factors;
+    private final int iterations;
+    private final double lambda;
+    private final ForkJoinPool trainingPool;
+
+    private volatile Model model;
+    private volatile Status status = Status.IDLE;
+    private volatile String lastError;
+    private volatile long lastTrainingMillis;
+    private volatile double trainingRmse = Double.NaN;
+
+    public AlsModelService(RatingMatrix ratingMatrix,
+                           @Value("${booknet.recommendations.als.model-dir:data/als}") String modelDir,
+                           @Value("${booknet.recommendations.als.factors:20}") int factors,
+                           @Value("${booknet.recommendations.als.iterations:10}") int iterations,
+                           @Value("${booknet.recommendations.als.lambda:0.1}") double lambda,
+                           @Value("${booknet.recommendations.als.threads:0}") int threads) {
+        this.ratingMatrix = ratingMatrix;
+        this.modelDir = Paths.get(modelDir);
+        this.factors = Math.max(1, factors);
+        this.iterations = Math.max(1, iterations);
+        this.lambda = Math.max(0.0, lambda);
+        // 0 = un hilo por núcleo
+        this.trainingPool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            List<Path> files = listModelFiles();
+            Optional<Path> latest = files.stream().max(Comparator.naturalOrder());
+            if (latest.isPresent()) {
+                model = Model.map(latest.get());
+                System.out.println("Modelo ALS cargado: " + model.userIndex.size() + " usuarios, " +
+                        model.bookIds.length + " libros");
+                // Archivos de modelos anteriores que no se pudieron borrar en su momento
+                files.stream().filter(file -> !file.equals(latest.get())).forEach(AlsModelService::deleteQuietly);
+            }
+        } catch (Exception e) {
+            System.err.println("Error al cargar el modelo ALS: " + e.getMessage());
+        }
+    }
+
+    // Solo entrena cuando la matriz cambió desde el modelo en uso
+    @Scheduled(fixedDelayString = "${booknet.recommendations.als.retrain-interval-ms:3600000}",
+               initialDelayString = "${booknet.recommendations.als.initial-delay-ms:120000}")
+    public void scheduledTraining() {
+        Model current = model;
+        if (ratingMatrix.isLoaded() && (current == null || current.matrixVersion != ratingMatrix.getVersion())) {
+            startTraining();
+        }
+    }
+
+    /**
+     * Lanza un entrenamiento en segundo plano; el modelo actual sigue sirviendo hasta que termine.
+     * Devuelve false si ya hay uno en curso o la matriz aún no está cargada.
+     */
+    public synchronized boolean startTraining() {
+        if (status == Status.TRAINING || !ratingMatrix.isLoaded()) {
+            return false;
+        }
+        status = Status.TRAINING;
+        lastError = null;
+
+        Thread trainer = new Thread(this::train, "als-training");
+        trainer.setDaemon(true);
+        trainer.start();
+        return true;
+    }
+
+    /**
+     * Los limit libros con mayor calificación estimada para el usuario, sin los que ya calificó.
+     * Vacío (Optional.empty) si no hay modelo o el usuario no estaba en el último entrenamiento.
+     */
+    public Optional<List<CollaborativeFilteringService.ScoredBook>> recommend(String userId, int limit, Set<String> excludedBookIds) {
+        Model current = model;
+        Integer user = current != null ? current.userIndex.get(userId) : null;
+        if (user == null) {
+            return Optional.empty();
+        }
+
+        // Min-heap con los mejores limit puntajes
+        PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[1]));
+        for (int book = 0; book < current.bookIds.length; book++) {
+            if (excludedBookIds.contains(current.bookIds[book])) {
+                continue;
+            }
+            double score = current.predict(user, book);
+            if (best.size() < limit) {
+                best.add(new double[]{book, score});
+            } else if (score > best.peek()[1]) {
+                best.poll();
+                best.add(new double[]{book, score});
+            }
+        }
+
+        List<CollaborativeFilteringService.ScoredBook> result = new ArrayList<>();
+        while (!best.isEmpty()) {
+            double[] entry = best.poll();
+            result.add(new CollaborativeFilteringService.ScoredBook(current.bookIds[(int) entry[0]],
+                    clampRating(entry[1]), current.bookRatingCounts[(int) entry[0]]));
+        }
+        Collections.reverse(result);
+        return Optional.of(result);
+    }
+
+    // Calificación estimada del usuario para cada libro conocido por el modelo
+    public Map<String, Double> predict(String userId, Collection<String> bookIds) {
+        Model current = model;
+        Integer user = current != null ? current.userIndex.get(userId) : null;
+        if (user == null) {
+            return Map.of();
+        }
+
+        Map<String, Double> predictions = new HashMap<>();
+        for (String bookId : bookIds) {
+            Integer book = current.bookIndex.get(bookId);
+            if (book != null) {
+                predictions.put(bookId, clampRating(current.predict(user, book)));
+            }
+        }
+        return predictions;
+    }
+
+    public Map<String, Object> getStatus() {
+        Model current = model;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", status);
+        result.put("factors", factors);
+        result.put("iterations", iterations);
+        result.put("users", current != null ? current.userIndex.size() : 0);
+        result.put("books", current != null ? current.bookIds.length : 0);
+        result.put("trainedAt", current != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(current.trainedAt), ZoneId.systemDefault()) : null);
+        result.put("modelFile", current != null ? current.file.toString() : null);
+        result.put("stale", current == null || current.matrixVersion != ratingMatrix.getVersion());
+        result.put("lastTrainingMillis", lastTrainingMillis);
+        result.put("trainingRmse", Double.isNaN(trainingRmse) ? null : trainingRmse);
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        trainingPool.shutdownNow();
+    }
+
+    private void train() {
+        long started = System.currentTimeMillis();
+        try {
+            long matrixVersion = ratingMatrix.getVersion();
+            RatingMatrix.View view = ratingMatrix.view();
+
+            // Solo entran usuarios y libros con calificaciones; índices compactos dentro del modelo
+            int[] users = IntStream.range(0, view.userCount())
+                    .filter(user -> !view.isUserRemoved(user) && view.userRow(user).size() > 0).toArray();
+            int[] books = IntStream.range(0, view.bookCount())
+                    .filter(book -> !view.isBookRemoved(book) && view.bookRow(book).size() > 0).toArray();
+            int[] userPosition = positions(users, view.userCount());
+            int[] bookPosition = positions(books, view.bookCount());
+
+            double ratingSum = 0;
+            long ratingCount = 0;
+            for (int user : users) {
+                RatingMatrix.Row row = view.userRow(user);
+                for (int i = 0; i < row.size(); i++) {
+                    if (bookPosition[row.index(i)] >= 0) {
+                        ratingSum += row.rating(i);
+                        ratingCount++;
+                    }
+                }
+            }
+            float globalMean = ratingCount > 0 ? (float) (ratingSum / ratingCount) : 0f;
+
+            float[] userFactors = new float[users.length * factors];
+            float[] bookFactors = new float[books.length * factors];
+            Random random = new Random(42);
+            for (int i = 0; i < bookFactors.length; i++) {
+                bookFactors[i] = (float) (random.nextGaussian() * 0.1);
+            }
+
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                solveAll(users, userFactors, bookFactors, bookPosition, globalMean, view::userRow);
+                solveAll(books, bookFactors, userFactors, userPosition, globalMean, view::bookRow);
+            }
+            trainingRmse = rmse(users, userFactors, bookFactors, bookPosition, globalMean, view);
+
+            String[] userIds = Arrays.stream(users).mapToObj(ratingMatrix::userId).toArray(String[]::new);
+            String[] bookIds = Arrays.stream(books).mapToObj(ratingMatrix::bookId).toArray(String[]::new);
+            int[] bookRatingCounts = Arrays.stream(books).map(book -> view.bookRow(book).size()).toArray();
+
+            Path file = write(userIds, bookIds, bookRatingCounts, userFactors, bookFactors, globalMean, matrixVersion);
+            Model previous = model;
+            model = Model.map(file);
+            if (previous != null) {
+                deleteQuietly(previous.file);
+            }
+
+            lastTrainingMillis = System.currentTimeMillis() - started;
+            status = Status.IDLE;
+            System.out.println("Modelo ALS entrenado: " + users.length + " usuarios, " + books.length +
+                    " libros, RMSE " + String.format(Locale.ROOT, "%.4f", trainingRmse) + " en " + lastTrainingMillis + " ms");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            lastTrainingMillis = System.currentTimeMillis() - started;
+            status = Status.FAILED;
+            System.err.println("Error al entrenar el modelo ALS: " + e.getMessage());
+        }
+    }
+
+    // Un paso de ALS: cada fila se resuelve con los factores del otro lado fijos
+    private void solveAll(int[] rows, float[] solved, float[] fixed, int[] fixedPosition, float globalMean,
+                          java.util.function.IntFunction<RatingMatrix.Row> rowOf) throws Exception {
+        trainingPool.submit(() -> IntStream.range(0, rows.length).parallel().forEach(position -> {
+            RatingMatrix.Row row = rowOf.apply(rows[position]);
+            double[] a = new double[factors * factors];
+            double[] b = new double[factors];
+            int count = 0;
+            for (int i = 0; i < row.size(); i++) {
+                int other = fixedPosition[row.index(i)];
+                if (other < 0) {
+                    continue;
+                }
+                int offset = other * factors;
+                double residual = row.rating(i) - globalMean;
+                for (int j = 0; j < factors; j++) {
+                    float value = fixed[offset + j];
+                    b[j] += residual * value;
+                    for (int k = 0; k <= j; k++) {
+                        a[j * factors + k] += value * fixed[offset + k];
+                    }
+                }
+                count++;
+            }
+            for (int j = 0; j < factors; j++) {
+                a[j * factors + j] += lambda * Math.max(1, count);
+            }
+
+            double[] x = solveCholesky(a, b, factors);
+            int offset = position * factors;
+            for (int j = 0; j < factors; j++) {
+                solved[offset + j] = (float) x[j];
+            }
+        })).get();
+    }
+
+    // Resuelve A x = b con A simétrica definida positiva; solo se usa el triángulo inferior de A
+    static double[] solveCholesky(double[] a, double[] b, int n) {
+        double[] l = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i * n + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i * n + k] * l[j * n + k];
+                }
+                l[i * n + j] = i == j ? Math.sqrt(Math.max(sum, 1e-12)) : sum / l[j * n + j];
+            }
+        }
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i * n + k] * y[k];
+            }
+            y[i] = sum / l[i * n + i];
+        }
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = y[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k * n + i] * x[k];
+            }
+            x[i] = sum / l[i * n + i];
+        }
+        return x;
+    }
+
+    private double rmse(int[] users, float[] userFactors, float[] bookFactors, int[] bookPosition,
+                        float globalMean, RatingMatrix.View view) throws Exception {
+        double[] totals = trainingPool.submit(() -> IntStream.range(0, users.length).parallel().mapToObj(position -> {
+            RatingMatrix.Row row = view.userRow(users[position]);
+            double squaredError = 0;
+            int count = 0;
+            for (int i = 0; i < row.size(); i++) {
+                int book = bookPosition[row.index(i)];
+                if (book < 0) {
+                    continue;
+                }
+                double prediction = globalMean;
+                for (int j = 0; j < factors; j++) {
+                    prediction += userFactors[position * factors + j] * bookFactors[book * factors + j];
+                }
+                squaredError += (row.rating(i) - prediction) * (row.rating(i) - prediction);
+                count++;
+            }
+            return new double[]{squaredError, count};
+        }).reduce(new double[2], (left, right) -> new double[]{left[0] + right[0], left[1] + right[1]})).get();
+        return totals[1] > 0 ? Math.sqrt(totals[0] / totals[1]) : 0.0;
+    }
+
+    // Posición de cada índice de la matriz dentro del modelo (-1 si no entra)
+    private static int[] positions(int[] indices, int size) {
+        int[] positions = new int[size];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < indices.length; i++) {
+            positions[indices[i]] = i;
+        }
+        return positions;
+    }
+
+    /*
+     * Formato: cabecera (magic, factores, usuarios, libros, promedio global, fecha, versión de la matriz),
+     * factores de usuarios y de libros (float), calificaciones por libro (int) y los ids en UTF-8 con su largo.
+     */
+    Path write(String[] userIds, String[] bookIds, int[] bookRatingCounts, float[] userFactors,
+               float[] bookFactors, float globalMean, long matrixVersion) throws IOException {
+        byte[][] encodedUsers = encode(userIds);
+        byte[][] encodedBooks = encode(bookIds);
+        long size = HEADER_BYTES + 4L * (userFactors.length + bookFactors.length + bookRatingCounts.length)
+                + idsBytes(encodedUsers) + idsBytes(encodedBooks);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("El modelo ALS no cabe en un solo archivo mapeado (" + size + " bytes)");
+        }
+
+        Files.createDirectories(modelDir);
+        long trainedAt = System.currentTimeMillis();
+        Path file = modelDir.resolve(String.format("%s%013d%s", FILE_PREFIX, trainedAt, FILE_SUFFIX));
+        Path temporary = modelDir.resolve(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(factors).putInt(userIds.length).putInt(bookIds.length)
+                    .putFloat(globalMean).putLong(trainedAt).putLong(matrixVersion);
+            buffer.asFloatBuffer().put(userFactors);
+            buffer.position(buffer.position() + 4 * userFactors.length);
+            buffer.asFloatBuffer().put(bookFactors);
+            buffer.position(buffer.position() + 4 * bookFactors.length);
+            buffer.asIntBuffer().put(bookRatingCounts);
+            buffer.position(buffer.position() + 4 * bookRatingCounts.length);
+            for (byte[] id : encodedUsers) {
+                buffer.putInt(id.length).put(id);
+            }
+            for (byte[] id : encodedBooks) {
+                buffer.putInt(id.length).put(id);
+            }
+            buffer.force();
+        }
+
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    private static byte[][] encode(String[] ids) {
+        return Arrays.stream(ids).map(id -> id.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+    }
+
+    private static long idsBytes(byte[][] ids) {
+        return Arrays.stream(ids).mapToLong(id -> 4L + id.length).sum();
+    }
+
+    private List<Path> listModelFiles() throws IOException {
+        if (!Files.isDirectory(modelDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(modelDir)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).collect(Collectors.toList());
+        }
+    }
+
+    // El mapeo anterior sigue siendo válido hasta que se libere; si el sistema no deja borrarlo, queda para después
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("No se pudo borrar el modelo ALS anterior " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static double clampRating(double rating) {
+        return Math.max(1.0, Math.min(5.0, rating));
+    }
+
+    // Factores servidos directamente desde el archivo mapeado; los ids se leen a memoria
+    private static final class Model {
+        private final Path file;
+        private final int factors;
+        private final float globalMean;
+        private final long trainedAt;
+        private final long matrixVersion;
+        private final FloatBuffer userFactors;
+        private final FloatBuffer bookFactors;
+        private final int[] bookRatingCounts;
+        private final Map<String, Integer> userIndex;
+        private final String[] bookIds;
+        private final Map<String, Integer> bookIndex;
+
+        private Model(Path file, int factors, float globalMean, long trainedAt, long matrixVersion,
+                      FloatBuffer userFactors, FloatBuffer bookFactors, int[] bookRatingCounts,
+                      Map<String, Integer> userIndex, String[] bookIds, Map<String, Integer> bookIndex) {
+            this.file = file;
+            this.factors = factors;
+            this.globalMean = globalMean;
+            this.trainedAt = trainedAt;
+            this.matrixVersion = matrixVersion;
+            this.userFactors = userFactors;
+            this.bookFactors = bookFactors;
+            this.bookRatingCounts = bookRatingCounts;
+            this.userIndex = userIndex;
+            this.bookIds = bookIds;
+            this.bookIndex = bookIndex;
+        }
+
+        private static Model map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException("Archivo de modelo ALS inválido: " + file);
+                }
+                int factors = buffer.getInt();
+                int users = buffer.getInt();
+                int books = buffer.getInt();
+                float globalMean = buffer.getFloat();
+                long trainedAt = buffer.getLong();
+                long matrixVersion = buffer.getLong();
+
+                int position = buffer.position();
+                FloatBuffer userFactors = buffer.slice(position, 4 * users * factors).asFloatBuffer();
+                position += 4 * users * factors;
+                FloatBuffer bookFactors = buffer.slice(position, 4 * books * factors).asFloatBuffer();
+                position += 4 * books * factors;
+                int[] bookRatingCounts = new int[books];
+                buffer.slice(position, 4 * books).asIntBuffer().get(bookRatingCounts);
+                buffer.position(position + 4 * books);
+
+                Map<String, Integer> userIndex = new HashMap<>(users * 2);
+                for (int user = 0; user < users; user++) {
+                    userIndex.put(readId(buffer), user);
+                }
+                String[] bookIds = new String[books];
+                Map<String, Integer> bookIndex = new HashMap<>(books * 2);
+                for (int book = 0; book < books; book++) {
+                    bookIds[book] = readId(buffer);
+                    bookIndex.put(bookIds[book], book);
+                }
+                return new Model(file, factors, globalMean, trainedAt, matrixVersion, userFactors, bookFactors,
+                        bookRatingCounts, userIndex, bookIds, bookIndex);
+            }
+        }
+
+        private static String readId(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private double predict(int user, int book) {
+            double score = globalMean;
+            int userOffset = user * factors;
+            int bookOffset = book * factors;
+            for (int j = 0; j < factors; j++) {
+                score += userFactors.get(userOffset + j) * bookFactors.get(bookOffset + j);
+            }
+            return score;
+        }
+    }
+}
@@ -2,24 +2,34 @@ package com.booknet.backend.service;
 
 import com.booknet.backend.dto.AuthorResponse;
 import com.booknet.backend.dto.CreateAuthorRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.UpdateAuthorRequest;
+import com.booknet.backend.event.AuthorChangedEvent;
 import com.booknet.backend.model.Author;
 import com.booknet.backend.repository.AuthorRepository;
+import com.booknet.backend.util.PageCursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final BookSearchService bookSearchService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, BookSearchService bookSearchService,
+                         ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
+        this.bookSearchService = bookSearchService;
+        this.eventPublisher = eventPublisher;
     }
 
     // Crear autor
@@ -36,6 +46,7 @@ public class AuthorService {
         author.setUpdatedAt(LocalDateTime.now());
 
         Author savedAuthor = authorRepository.save(author);
+        eventPublisher.publishEvent(new AuthorChangedEvent(savedAuthor.getId(), false));
         return convertToAuthorResponse(savedAuthor);
     }
 
@@ -58,6 +69,35 @@ public class AuthorService {
         return authorRepository.findAllOrderByCreatedAtDescWithPagination(offset, limit);
     }
 
+    // Listar autores con paginación por cursor sobre (created_at, id)
+    public CursorPageResponse<AuthorResponse> getAuthorsByCursor(String cursor, int limit) {
+        List<Author> authors;
+        if (PageCursor.isFirstPage(cursor)) {
+            authors = authorRepository.findFirstPageOrderByCreatedAtDesc(limit + 1);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            authors = authorRepository.findPageAfterCursorOrderByCreatedAtDesc(
+                    pageCursor.getKeyAsDateTime(), pageCursor.getId(), limit + 1);
+        }
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        boolean hasNext = authors.size() > limit;
+        if (hasNext) {
+            authors = authors.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Author last = authors.get(authors.size() - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        List<AuthorResponse> authorResponses = authors.stream()
+                .map(this::convertToAuthorResponse)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(authorResponses, nextCursor, hasNext, limit);
+    }
+
     // Contar total de autores
     public long getTotalAuthorsCount() {
         return authorRepository.countAllAuthors();
@@ -77,9 +117,11 @@ public class AuthorService {
 
         Author author = authorOpt.get();
         boolean updated = false;
+        boolean renamed = false;
 
         // Actualizar nombre si se proporciona
         if (request.getNombre() != null && !request.getNombre().trim().isEmpty()) {
+            renamed = !request.getNombre().trim().equals(author.getName());
             author.setName(request.getNombre().trim());
             updated = true;
         }
@@ -117,6 +159,11 @@ public class AuthorService {
         if (updated) {
             author.setUpdatedAt(LocalDateTime.now());
             Author savedAuthor = authorRepository.save(author);
+            if (renamed) {
+                // El nombre del autor forma parte del índice de búsqueda de sus libros
+                bookSearchService.refreshBooksByAuthor(savedAuthor.getId());
+            }
+            eventPublisher.publishEvent(new AuthorChangedEvent(savedAuthor.getId(), false));
             return convertToAuthorResponse(savedAuthor);
         }
 
@@ -138,6 +185,7 @@ public class AuthorService {
         }
 
         authorRepository.delete(author);
+        eventPublisher.publishEvent(new AuthorChangedEvent(id, true));
     }
 
     // Convertir Author a AuthorResponse
@@ -0,0 +1,149 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.AuthorResponse;
+import com.booknet.backend.dto.BookResponse;
+import com.booknet.backend.dto.GenreResponse;
+import com.booknet.backend.dto.SeriesResponse;
+import com.booknet.backend.dto.TagResponse;
+import org.neo4j.driver.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Modelo de lectura de libros.
+ *
+ * Construye BookResponse en una sola consulta Cypher: el libro, sus autores (con su
+ * cantidad de libros), géneros, etiquetas, serie y total de capítulos se obtienen con
+ * pattern comprehensions, sin consultas adicionales por libro o por autor.
+ */
+@Service
+public class BookReadService {
+
+    // Proyección común. La parte previa de la consulta debe dejar los libros en la variable "b"
+    public static final String BOOK_PROJECTION =
+            "RETURN b { .id, .title, .isbn, .description, .publication_year, .page_count, .language, " +
+            "           .cover_image, .age_rating, .average_rating, .total_ratings, .reading_difficulty, " +
+            "           .created_at, .order_in_series, " +
+            "  authors: [(b)-[:WRITTEN_BY]->(a:Author) | a { .id, .name, .biography, .birth_date, .death_date, " +
+            "            .nationality, .photo, book_count: COUNT { (a)<-[:WRITTEN_BY]-(:Book) } }], " +
+            "  genres: [(b)-[:BELONGS_TO_GENRE]->(g:Genre) | g { .id, .name, .description, .parent_genre }], " +
+            "  tags: [(b)-[:HAS_TAG]->(t:Tag) | t { .id, .name, .category }], " +
+            "  series: head([(b)-[:PART_OF_SERIES]->(s:Series) | s { .id, .name, .description, .total_books, .is_completed }]), " +
+            "  total_chapters: COUNT { (b)-[:HAS_CHAPTER]->(:Chapter) } " +
+            "} AS book";
+
+    private final Neo4jClient neo4jClient;
+
+    public BookReadService(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
+
+    public Optional<BookResponse> findById(String bookId) {
+        return neo4jClient
+                .query("MATCH (b:Book {id: $bookId}) " + BOOK_PROJECTION)
+                .bind(bookId).to("bookId")
+                .fetchAs(BookResponse.class)
+                .mappedBy((typeSystem, record) -> toBookResponse(record.get("book")))
+                .one();
+    }
+
+    // Obtiene varios libros conservando el orden de los IDs recibidos
+    public List<BookResponse> findByIds(List<String> bookIds) {
+        if (bookIds == null || bookIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return query("UNWIND range(0, size($bookIds) - 1) AS idx " +
+                     "MATCH (b:Book {id: $bookIds[idx]}) " +
+                     "WITH b, idx ORDER BY idx ",
+                Map.of("bookIds", bookIds));
+    }
+
+    /**
+     * Ejecuta una consulta que selecciona, ordena y pagina libros en la variable "b"
+     * y le agrega la proyección completa del BookResponse.
+     */
+    public List<BookResponse> query(String matchClause, Map<String, Object> parameters) {
+        return new ArrayList<>(neo4jClient
+                .query(matchClause + " " + BOOK_PROJECTION)
+                .bindAll(parameters)
+                .fetchAs(BookResponse.class)
+                .mappedBy((typeSystem, record) -> toBookResponse(record.get("book")))
+                .all());
+    }
+
+    private BookResponse toBookResponse(Value book) {
+        BookResponse response = new BookResponse();
+        response.setId(asString(book.get("id")));
+        response.setTitle(asString(book.get("title")));
+        response.setIsbn(asString(book.get("isbn")));
+        response.setDescription(asString(book.get("description")));
+        response.setPublicationYear(asInteger(book.get("publication_year")));
+        response.setPageCount(asInteger(book.get("page_count")));
+        response.setLanguage(asString(book.get("language")));
+        response.setCoverImage(asString(book.get("cover_image")));
+        response.setAgeRating(asString(book.get("age_rating")));
+        response.setAverageRating(asDouble(book.get("average_rating")));
+        response.setTotalRatings(asInteger(book.get("total_ratings")));
+        response.setReadingDifficulty(asString(book.get("reading_difficulty")));
+        response.setCreatedAt(asLocalDateTime(book.get("created_at")));
+        response.setOrderInSeries(asInteger(book.get("order_in_series")));
+
+        response.setAuthors(book.get("authors").asList(author -> new AuthorResponse(
+                asString(author.get("id")), asString(author.get("name")), asString(author.get("biography")),
+                asLocalDate(author.get("birth_date")), asLocalDate(author.get("death_date")),
+                asString(author.get("nationality")), asString(author.get("photo")),
+                asInteger(author.get("book_count")))));
+
+        response.setGenres(book.get("genres").asList(genre -> new GenreResponse(
+                asString(genre.get("id")), asString(genre.get("name")),
+                asString(genre.get("description")), asString(genre.get("parent_genre")))));
+
+        response.setTags(book.get("tags").asList(tag -> new TagResponse(
+                asString(tag.get("id")), asString(tag.get("name")), asString(tag.get("category")))));
+
+        Value series = book.get("series");
+        if (!series.isNull()) {
+            response.setSeries(new SeriesResponse(asString(series.get("id")), asString(series.get("name")),
+                    asString(series.get("description")), asInteger(series.get("total_books")),
+                    series.get("is_completed").isNull() ? null : series.get("is_completed").asBoolean()));
+        }
+
+        response.setTotalChapters(asInteger(book.get("total_chapters")));
+        return response;
+    }
+
+    // Conversores tolerantes a propiedades ausentes o almacenadas con otro tipo numérico
+    private static String asString(Value value) {
+        return value.isNull() ? null : value.asString();
+    }
+
+    private static Integer asInteger(Value value) {
+        return value.isNull() ? null : value.asNumber().intValue();
+    }
+
+    private static Double asDouble(Value value) {
+        return value.isNull() ? null : value.asNumber().doubleValue();
+    }
+
+    private static LocalDateTime asLocalDateTime(Value value) {
+        Object object = value.isNull() ? null : value.asObject();
+        if (object instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        if (object instanceof ZonedDateTime zonedDateTime) {
+            return zonedDateTime.toLocalDateTime();
+        }
+        return null;
+    }
+
+    private static LocalDate asLocalDate(Value value) {
+        Object object = value.isNull() ? null : value.asObject();
+        return object instanceof LocalDate localDate ? localDate : null;
+    }
+}
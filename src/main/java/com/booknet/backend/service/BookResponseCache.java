@@ -0,0 +1,374 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.AuthorResponse;
+import com.booknet.backend.dto.BookResponse;
+import com.booknet.backend.dto.GenreResponse;
+import com.booknet.backend.dto.TagResponse;
+import com.booknet.backend.event.AuthorChangedEvent;
+import com.booknet.backend.event.BookChangedEvent;
+import com.booknet.backend.event.TaxonomyChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Caché LRU de BookResponse por id de libro, limitada por tamaño estimado en bytes.
+ *
+ * Cada entrada registra de qué autores, géneros, etiquetas y serie depende (su nombre y el
+ * book_count del autor van dentro del BookResponse), así un cambio en cualquiera de ellos
+ * invalida solo los libros afectados. La invalidación llega por eventos de los servicios y,
+ * si el cambio ocurre dentro de una transacción, se aplica después del commit para que una
+ * lectura concurrente no vuelva a cachear el estado anterior.
+ *
+ * Una carga que empezó antes de invalidar su libro o alguna de sus dependencias se descarta al
+ * terminar; las demás cargas concurrentes se guardan normalmente.
+ */
+@Service
+public class BookResponseCache {
+
+    private static final String AUTHOR_IDS_QUERY =
+            "MATCH (b:Book)-[:WRITTEN_BY]->(a:Author) WHERE b.id IN $bookIds RETURN DISTINCT a.id AS authorId";
+    private static final String BOOK_PREFIX = "book:";
+
+    private final Neo4jClient neo4jClient;
+    private final long maxBytes;
+
+    // LinkedHashMap en orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private long currentBytes;
+
+    // Reloj lógico: cada carga toma el valor actual y cada invalidación lo avanza
+    private long clock;
+    private long clearedAt;
+    // Momento de la última invalidación por clave ("book:<id>" o dependencia), mientras haya cargas en curso
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+    private int loadsInFlight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public BookResponseCache(Neo4jClient neo4jClient,
+                             @Value("${booknet.cache.book-response.max-bytes:33554432}") long maxBytes) {
+        this.neo4jClient = neo4jClient;
+        this.maxBytes = maxBytes;
+    }
+
+    public Optional<BookResponse> getOrLoad(String bookId, Function<String, Optional<BookResponse>> loader) {
+        long loadStartedAt;
+        synchronized (this) {
+            CacheEntry entry = entries.get(bookId);
+            if (entry != null) {
+                hits.increment();
+                return Optional.of(entry.response);
+            }
+            misses.increment();
+            loadStartedAt = startLoad();
+        }
+
+        try {
+            Optional<BookResponse> loaded = loader.apply(bookId);
+            loaded.ifPresent(response -> put(bookId, response, loadStartedAt));
+            return loaded;
+        } finally {
+            finishLoad();
+        }
+    }
+
+    // Versión por lotes: los ids que no están en caché se cargan con una sola llamada al loader
+    public List<BookResponse> getAllOrLoad(List<String> bookIds, Function<List<String>, List<BookResponse>> loader) {
+        Map<String, BookResponse> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long loadStartedAt;
+        synchronized (this) {
+            for (String bookId : bookIds) {
+                CacheEntry entry = entries.get(bookId);
+                if (entry != null) {
+                    hits.increment();
+                    found.put(bookId, entry.response);
+                } else {
+                    misses.increment();
+                    missing.add(bookId);
+                }
+            }
+            if (missing.isEmpty()) {
+                return bookIds.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+            }
+            loadStartedAt = startLoad();
+        }
+
+        try {
+            for (BookResponse response : loader.apply(missing)) {
+                found.put(response.getId(), response);
+                put(response.getId(), response, loadStartedAt);
+            }
+        } finally {
+            finishLoad();
+        }
+
+        List<BookResponse> result = new ArrayList<>();
+        for (String bookId : bookIds) {
+            BookResponse response = found.get(bookId);
+            if (response != null) {
+                result.add(response);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void invalidate(Collection<String> bookIds) {
+        for (String bookId : bookIds) {
+            markInvalidated(BOOK_PREFIX + bookId);
+            if (removeEntry(bookId)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    // Invalida los libros cacheados que dependen de un autor, género o etiqueta
+    public synchronized void invalidateDependents(String dependencyKey) {
+        markInvalidated(dependencyKey);
+        Set<String> bookIds = dependents.remove(dependencyKey);
+        if (bookIds != null) {
+            for (String bookId : new ArrayList<>(bookIds)) {
+                if (removeEntry(bookId)) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        clearedAt = ++clock;
+        invalidatedAt.clear();
+        invalidations.add(entries.size());
+        entries.clear();
+        dependents.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests > 0 ? (double) hitCount / requests : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isAllBooks()) {
+            clear();
+            return;
+        }
+        // Una calificación solo cambia el promedio y el total del propio libro
+        if (event.hasRating()) {
+            invalidate(event.getBookIds());
+            return;
+        }
+
+        // El book_count de los autores cambia al crear o borrar libros y al cambiar la autoría
+        Set<String> authorIds = new HashSet<>(event.getAuthorIds());
+        synchronized (this) {
+            for (String bookId : event.getBookIds()) {
+                CacheEntry entry = entries.get(bookId);
+                if (entry != null) {
+                    entry.dependencies.stream()
+                            .filter(key -> key.startsWith("author:"))
+                            .forEach(key -> authorIds.add(key.substring("author:".length())));
+                }
+            }
+        }
+        if (event.getChangeType() != BookChangedEvent.ChangeType.DELETED && hasEntries()) {
+            try {
+                authorIds.addAll(neo4jClient.query(AUTHOR_IDS_QUERY)
+                        .bind(event.getBookIds()).to("bookIds")
+                        .fetchAs(String.class)
+                        .mappedBy((typeSystem, record) -> record.get("authorId").asString())
+                        .all());
+            } catch (Exception e) {
+                // Sin saber los autores no se puede invalidar con precisión
+                clear();
+                return;
+            }
+        }
+
+        invalidate(event.getBookIds());
+        authorIds.forEach(authorId -> invalidateDependents("author:" + authorId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        invalidateDependents("author:" + event.getAuthorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaxonomyChanged(TaxonomyChangedEvent event) {
+        invalidateDependents(event.getType() + ":" + event.getId());
+    }
+
+    private synchronized boolean hasEntries() {
+        return !entries.isEmpty();
+    }
+
+    private long startLoad() {
+        loadsInFlight++;
+        return clock;
+    }
+
+    private synchronized void finishLoad() {
+        loadsInFlight--;
+        // Sin cargas en curso ninguna marca puede descartar nada
+        if (loadsInFlight == 0) {
+            invalidatedAt.clear();
+        }
+    }
+
+    private void markInvalidated(String key) {
+        long now = ++clock;
+        if (loadsInFlight > 0) {
+            invalidatedAt.put(key, now);
+        }
+    }
+
+    // La carga es vieja si después de empezar se invalidó su libro o alguna de sus dependencias
+    private boolean invalidatedSince(String bookId, Set<String> dependencies, long loadStartedAt) {
+        if (clearedAt > loadStartedAt || invalidatedAt.getOrDefault(BOOK_PREFIX + bookId, 0L) > loadStartedAt) {
+            return true;
+        }
+        for (String key : dependencies) {
+            if (invalidatedAt.getOrDefault(key, 0L) > loadStartedAt) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void put(String bookId, BookResponse response, long loadStartedAt) {
+        Set<String> dependencies = dependenciesOf(response);
+        if (invalidatedSince(bookId, dependencies, loadStartedAt)) {
+            return;
+        }
+        long bytes = estimateBytes(response);
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        removeEntry(bookId);
+        CacheEntry entry = new CacheEntry(response, bytes, dependencies);
+        entries.put(bookId, entry);
+        currentBytes += bytes;
+        entry.dependencies.forEach(key -> dependents.computeIfAbsent(key, k -> new HashSet<>()).add(bookId));
+
+        Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, CacheEntry> candidate = eldest.next();
+            eldest.remove();
+            currentBytes -= candidate.getValue().bytes;
+            unlinkDependencies(candidate.getKey(), candidate.getValue());
+            evictions.increment();
+        }
+    }
+
+    private boolean removeEntry(String bookId) {
+        CacheEntry removed = entries.remove(bookId);
+        if (removed == null) {
+            return false;
+        }
+        currentBytes -= removed.bytes;
+        unlinkDependencies(bookId, removed);
+        return true;
+    }
+
+    private void unlinkDependencies(String bookId, CacheEntry entry) {
+        for (String key : entry.dependencies) {
+            Set<String> bookIds = dependents.get(key);
+            if (bookIds != null) {
+                bookIds.remove(bookId);
+                if (bookIds.isEmpty()) {
+                    dependents.remove(key);
+                }
+            }
+        }
+    }
+
+    private static Set<String> dependenciesOf(BookResponse response) {
+        Set<String> dependencies = new HashSet<>();
+        if (response.getAuthors() != null) {
+            response.getAuthors().forEach(author -> dependencies.add("author:" + author.getId()));
+        }
+        if (response.getGenres() != null) {
+            response.getGenres().forEach(genre -> dependencies.add(TaxonomyChangedEvent.GENRE + ":" + genre.getId()));
+        }
+        if (response.getTags() != null) {
+            response.getTags().forEach(tag -> dependencies.add(TaxonomyChangedEvent.TAG + ":" + tag.getId()));
+        }
+        if (response.getSeries() != null && response.getSeries().getId() != null) {
+            dependencies.add(TaxonomyChangedEvent.SERIES + ":" + response.getSeries().getId());
+        }
+        return dependencies;
+    }
+
+    // Estimación aproximada del tamaño en memoria: cabeceras de objetos más 2 bytes por carácter
+    private static long estimateBytes(BookResponse response) {
+        long bytes = 256;
+        bytes += stringBytes(response.getId()) + stringBytes(response.getTitle()) + stringBytes(response.getIsbn())
+                + stringBytes(response.getDescription()) + stringBytes(response.getLanguage())
+                + stringBytes(response.getCoverImage()) + stringBytes(response.getAgeRating())
+                + stringBytes(response.getReadingDifficulty());
+        if (response.getAuthors() != null) {
+            for (AuthorResponse author : response.getAuthors()) {
+                bytes += 128 + stringBytes(author.getId()) + stringBytes(author.getNombre())
+                        + stringBytes(author.getAcerca_de()) + stringBytes(author.getNacionalidad())
+                        + stringBytes(author.getFoto());
+            }
+        }
+        if (response.getGenres() != null) {
+            for (GenreResponse genre : response.getGenres()) {
+                bytes += 64 + stringBytes(genre.getId()) + stringBytes(genre.getNombre()) + stringBytes(genre.getDescripcion());
+            }
+        }
+        if (response.getTags() != null) {
+            for (TagResponse tag : response.getTags()) {
+                bytes += 64 + stringBytes(tag.getId()) + stringBytes(tag.getNombre()) + stringBytes(tag.getCategoria());
+            }
+        }
+        if (response.getSeries() != null) {
+            bytes += 96 + stringBytes(response.getSeries().getName()) + stringBytes(response.getSeries().getDescription());
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private static final class CacheEntry {
+        private final BookResponse response;
+        private final long bytes;
+        private final Set<String> dependencies;
+
+        CacheEntry(BookResponse response, long bytes, Set<String> dependencies) {
+            this.response = response;
+            this.bytes = bytes;
+            this.dependencies = dependencies;
+        }
+    }
+}
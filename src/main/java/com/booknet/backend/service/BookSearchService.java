@@ -0,0 +1,149 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.BookResponse;
+import com.booknet.backend.util.TextNormalizer;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Búsqueda de libros sobre el índice full-text "book_search".
+ *
+ * El índice cubre título, descripción y los campos desnormalizados search_authors y
+ * search_genres (nombres de autores y géneros concatenados), con el analizador
+ * standard-folding para que "garcia" encuentre "García". Los campos desnormalizados
+ * se recalculan cuando cambia un libro o se renombra un autor o género.
+ */
+@Service
+public class BookSearchService {
+
+    public static final String INDEX_NAME = "book_search";
+
+    // Recalcula los campos desnormalizados de los libros en la variable "b"
+    public static final String REFRESH_SEARCH_FIELDS =
+            "SET b.search_authors = trim(reduce(s = '', name IN [(b)-[:WRITTEN_BY]->(a:Author) | a.name] | s + ' ' + name)), " +
+            "    b.search_genres = trim(reduce(s = '', name IN [(b)-[:BELONGS_TO_GENRE]->(g:Genre) | g.name] | s + ' ' + name)) ";
+
+    // Caracteres reservados de la sintaxis de consultas de Lucene
+    private static final String LUCENE_SPECIAL_CHARS = "+-&|!(){}[]^\"~*?:\\/";
+
+    private final Neo4jClient neo4jClient;
+    private final BookReadService bookReadService;
+
+    public BookSearchService(Neo4jClient neo4jClient, BookReadService bookReadService) {
+        this.neo4jClient = neo4jClient;
+        this.bookReadService = bookReadService;
+    }
+
+    /**
+     * Busca libros ordenados por relevancia. Se pide un elemento extra para saber si hay
+     * página siguiente sin tener que contar todos los resultados.
+     */
+    public Map<String, Object> search(String searchTerm, int page, int size) {
+        String luceneQuery = toLuceneQuery(searchTerm);
+        List<BookResponse> books = luceneQuery.isEmpty() ? new ArrayList<>() : bookReadService.query(
+                "CALL db.index.fulltext.queryNodes($indexName, $query, {skip: $skip, limit: $limit}) " +
+                "YIELD node, score " +
+                "WITH node AS b, score ORDER BY score DESC",
+                Map.of("indexName", INDEX_NAME, "query", luceneQuery,
+                       "skip", page * size, "limit", size + 1));
+
+        boolean hasNext = books.size() > size;
+        if (hasNext) {
+            books = new ArrayList<>(books.subList(0, size));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("books", books);
+        result.put("currentPage", page);
+        result.put("size", size);
+        result.put("hasNext", hasNext);
+        result.put("hasPrevious", page > 0);
+        result.put("searchTerm", searchTerm);
+        return result;
+    }
+
+    public List<BookResponse> searchAll(String searchTerm) {
+        String luceneQuery = toLuceneQuery(searchTerm);
+        if (luceneQuery.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return bookReadService.query(
+                "CALL db.index.fulltext.queryNodes($indexName, $query) YIELD node, score " +
+                "WITH node AS b, score ORDER BY score DESC",
+                Map.of("indexName", INDEX_NAME, "query", luceneQuery));
+    }
+
+    public void refreshBook(String bookId) {
+        if (bookId == null) {
+            return;
+        }
+        refreshBooks(List.of(bookId));
+    }
+
+    public void refreshBooks(Collection<String> bookIds) {
+        if (bookIds == null || bookIds.isEmpty()) {
+            return;
+        }
+        neo4jClient.query("UNWIND $bookIds AS bookId MATCH (b:Book {id: bookId}) " + REFRESH_SEARCH_FIELDS)
+                .bind(new ArrayList<>(bookIds)).to("bookIds")
+                .run();
+    }
+
+    // Al renombrar un autor hay que actualizar todos sus libros
+    public void refreshBooksByAuthor(String authorId) {
+        neo4jClient.query("MATCH (b:Book)-[:WRITTEN_BY]->(:Author {id: $authorId}) " + REFRESH_SEARCH_FIELDS)
+                .bind(authorId).to("authorId")
+                .run();
+    }
+
+    public void refreshBooksByGenre(String genreId) {
+        neo4jClient.query("MATCH (b:Book)-[:BELONGS_TO_GENRE]->(:Genre {id: $genreId}) " + REFRESH_SEARCH_FIELDS)
+                .bind(genreId).to("genreId")
+                .run();
+    }
+
+    /**
+     * Convierte el texto del usuario en una consulta de Lucene: cada palabra es obligatoria
+     * y la última se busca también como prefijo. Las consultas con comodín no pasan por el
+     * analizador, por eso el texto se normaliza aquí igual que en el índice.
+     */
+    static String toLuceneQuery(String searchTerm) {
+        List<String> terms = new ArrayList<>();
+        for (String word : TextNormalizer.fold(searchTerm).split(" ")) {
+            // Palabras sin letras ni dígitos no aportan nada al índice
+            if (word.chars().anyMatch(Character::isLetterOrDigit)) {
+                terms.add(escape(word));
+            }
+        }
+        if (terms.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            if (i > 0) {
+                query.append(' ');
+            }
+            if (i == terms.size() - 1) {
+                query.append("+(").append(term).append("^2 OR ").append(term).append("*)");
+            } else {
+                query.append('+').append(term);
+            }
+        }
+        return query.toString();
+    }
+
+    private static String escape(String word) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : word.toCharArray()) {
+            if (LUCENE_SPECIAL_CHARS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
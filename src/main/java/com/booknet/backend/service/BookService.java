@@ -1,10 +1,13 @@
 package com.booknet.backend.service;
 
 import com.booknet.backend.dto.*;
+import com.booknet.backend.event.BookChangedEvent;
 import com.booknet.backend.model.*;
 import com.booknet.backend.model.relationship.RatedRelationship;
 import com.booknet.backend.repository.*;
+import com.booknet.backend.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,11 +32,20 @@ public class BookService {
     private final ChapterRepository chapterRepository;
     private final UserRepository userRepository;
     private final Neo4jClient neo4jClient;
+    private final BookReadService bookReadService;
+    private final BookSearchService bookSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookResponseCache bookResponseCache;
+    private final TaxonomyService taxonomyService;
+    private final LeaderboardService leaderboardService;
 
     public BookService(BookRepository bookRepository, AuthorRepository authorRepository, 
                       GenreRepository genreRepository, TagRepository tagRepository, 
                       SeriesRepository seriesRepository, ChapterRepository chapterRepository,
-                      UserRepository userRepository, Neo4jClient neo4jClient) {
+                      UserRepository userRepository, Neo4jClient neo4jClient,
+                      BookReadService bookReadService, BookSearchService bookSearchService,
+                      ApplicationEventPublisher eventPublisher, BookResponseCache bookResponseCache,
+                      TaxonomyService taxonomyService, LeaderboardService leaderboardService) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.genreRepository = genreRepository;
@@ -41,6 +54,12 @@ public class BookService {
         this.chapterRepository = chapterRepository;
         this.userRepository = userRepository;
         this.neo4jClient = neo4jClient;
+        this.bookReadService = bookReadService;
+        this.bookSearchService = bookSearchService;
+        this.eventPublisher = eventPublisher;
+        this.bookResponseCache = bookResponseCache;
+        this.taxonomyService = taxonomyService;
+        this.leaderboardService = leaderboardService;
     }
 
     public BookResponse createBook(CreateBookRequest request) {
@@ -66,39 +85,25 @@ public class BookService {
             }
         }
 
-        // Add genres
-        if (request.getGenreIds() != null) {
-            for (String genreId : request.getGenreIds()) {
-                genreRepository.findById(genreId).ifPresent(genre -> {
-                    book.getGenres().add(genre);
-                });
-            }
-        }
-
-        // Add tags
-        if (request.getTagIds() != null) {
-            for (String tagId : request.getTagIds()) {
-                tagRepository.findById(tagId).ifPresent(tag -> {
-                    book.getTags().add(tag);
-                });
-            }
-        }
-
-        // Add series
-        if (request.getSeriesId() != null) {
-            seriesRepository.findById(request.getSeriesId()).ifPresent(series -> {
-                book.setSeries(series);
-                book.setOrderInSeries(request.getOrderInSeries());
-            });
+        // Géneros, etiquetas y serie se validan contra la taxonomía en memoria y se enlazan tras guardar
+        List<String> genreIds = existingIds(request.getGenreIds(), taxonomyService::genreExists);
+        List<String> tagIds = existingIds(request.getTagIds(), taxonomyService::tagExists);
+        String seriesId = null;
+        if (request.getSeriesId() != null && taxonomyService.seriesExists(request.getSeriesId())) {
+            seriesId = request.getSeriesId();
+            book.setOrderInSeries(request.getOrderInSeries());
         }
 
         Book savedBook = bookRepository.save(book);
-        return convertToBookResponse(savedBook);
+        linkTaxonomy(savedBook.getId(), genreIds, tagIds, seriesId);
+        bookSearchService.refreshBook(savedBook.getId());
+        eventPublisher.publishEvent(BookChangedEvent.created(List.of(savedBook.getId())));
+        return bookReadService.findById(savedBook.getId()).orElse(null);
     }
 
     // Método para carga masiva de libros
     public List<BookResponse> createBooksBulk(List<BulkCreateBookRequest> requests) {
-        List<BookResponse> createdBooks = new ArrayList<>();
+        List<String> createdBookIds = new ArrayList<>();
         
         for (BulkCreateBookRequest request : requests) {
             try {
@@ -111,8 +116,6 @@ public class BookService {
                 book.setLanguage(request.getLanguage());
                 book.setCoverImage(request.getCoverImage());
                 book.setAgeRating(request.getAgeRating());
-                book.setAverageRating(request.getAverageRating());
-                book.setTotalRatings(request.getTotalRatings());
                 book.setReadingDifficulty(request.getReadingDifficulty());
                 book.setCreatedAt(LocalDateTime.now());
                 book.setUpdatedAt(LocalDateTime.now());
@@ -126,42 +129,50 @@ public class BookService {
                 }
 
                 // Crear o encontrar géneros por nombre
+                List<String> genreIds = new ArrayList<>();
                 if (request.getGenreNames() != null) {
                     for (String genreName : request.getGenreNames()) {
-                        Genre genre = findOrCreateGenre(genreName.trim());
-                        book.getGenres().add(genre);
+                        genreIds.add(findOrCreateGenre(genreName.trim()));
                     }
                 }
 
                 // Crear o encontrar etiquetas por nombre
+                List<String> tagIds = new ArrayList<>();
                 if (request.getTagNames() != null) {
                     for (String tagName : request.getTagNames()) {
-                        Tag tag = findOrCreateTag(tagName.trim());
-                        book.getTags().add(tag);
+                        tagIds.add(findOrCreateTag(tagName.trim()));
                     }
                 }
 
                 // Crear o encontrar serie por nombre
+                String seriesId = null;
                 if (request.getSeriesName() != null && !request.getSeriesName().trim().isEmpty()) {
-                    Series series = findOrCreateSeries(request.getSeriesName().trim());
-                    book.setSeries(series);
+                    seriesId = findOrCreateSeries(request.getSeriesName().trim());
                     book.setOrderInSeries(request.getOrderInSeries());
                 }
 
                 Book savedBook = bookRepository.save(book);
-                createdBooks.add(convertToBookResponse(savedBook));
+                linkTaxonomy(savedBook.getId(), genreIds, tagIds, seriesId);
+                setImportedRating(savedBook.getId(), request.getAverageRating(), request.getTotalRatings());
+                createdBookIds.add(savedBook.getId());
             } catch (Exception e) {
                 // Log error but continue with other books
                 System.err.println("Error creating book: " + request.getTitle() + " - " + e.getMessage());
             }
         }
         
-        return createdBooks;
+        bookSearchService.refreshBooks(createdBookIds);
+        if (!createdBookIds.isEmpty()) {
+            eventPublisher.publishEvent(BookChangedEvent.created(createdBookIds));
+        }
+        
+        // Una sola consulta para construir las respuestas de todos los libros creados
+        return bookReadService.findByIds(createdBookIds);
     }
 
     // Método para carga masiva de libros con datos completos de autores, géneros y tags
     public List<BookResponse> createBooksEnhancedBulk(List<EnhancedBulkCreateBookRequest> requests) {
-        List<BookResponse> createdBooks = new ArrayList<>();
+        List<String> createdBookIds = new ArrayList<>();
         int skippedBooks = 0;
         
         for (EnhancedBulkCreateBookRequest request : requests) {
@@ -203,8 +214,6 @@ public class BookService {
                 book.setLanguage(request.getLanguage());
                 book.setCoverImage(request.getCoverImage());
                 book.setAgeRating(request.getAgeRating());
-                book.setAverageRating(request.getAverageRating());
-                book.setTotalRatings(request.getTotalRatings());
                 book.setReadingDifficulty(request.getReadingDifficulty());
                 book.setCreatedAt(LocalDateTime.now());
                 book.setUpdatedAt(LocalDateTime.now());
@@ -218,30 +227,32 @@ public class BookService {
                 }
 
                 // Crear o encontrar géneros con datos completos
+                List<String> genreIds = new ArrayList<>();
                 if (request.getGenres() != null) {
                     for (EnhancedBulkCreateBookRequest.GenreData genreData : request.getGenres()) {
-                        Genre genre = findOrCreateGenreWithFullData(genreData);
-                        book.getGenres().add(genre);
+                        genreIds.add(findOrCreateGenreWithFullData(genreData));
                     }
                 }
 
                 // Crear o encontrar etiquetas con datos completos
+                List<String> tagIds = new ArrayList<>();
                 if (request.getTags() != null) {
                     for (EnhancedBulkCreateBookRequest.TagData tagData : request.getTags()) {
-                        Tag tag = findOrCreateTagWithFullData(tagData);
-                        book.getTags().add(tag);
+                        tagIds.add(findOrCreateTagWithFullData(tagData));
                     }
                 }
 
                 // Crear o encontrar serie por nombre
+                String seriesId = null;
                 if (request.getSeriesName() != null && !request.getSeriesName().trim().isEmpty()) {
-                    Series series = findOrCreateSeries(request.getSeriesName().trim());
-                    book.setSeries(series);
+                    seriesId = findOrCreateSeries(request.getSeriesName().trim());
                     book.setOrderInSeries(request.getOrderInSeries());
                 }
 
                 Book savedBook = bookRepository.save(book);
-                createdBooks.add(convertToBookResponse(savedBook));
+                linkTaxonomy(savedBook.getId(), genreIds, tagIds, seriesId);
+                setImportedRating(savedBook.getId(), request.getAverageRating(), request.getTotalRatings());
+                createdBookIds.add(savedBook.getId());
             } catch (Exception e) {
                 // Log error but continue with other books
                 System.err.println("Error creating book: " + request.getTitle() + " - " + e.getMessage());
@@ -251,15 +262,18 @@ public class BookService {
         
         System.out.println("=== RESUMEN CARGA MASIVA ===");
         System.out.println("Libros procesados: " + requests.size());
-        System.out.println("Libros creados: " + createdBooks.size());
+        System.out.println("Libros creados: " + createdBookIds.size());
         System.out.println("Libros saltados (duplicados): " + skippedBooks);
         
-        return createdBooks;
+        bookSearchService.refreshBooks(createdBookIds);
+        if (!createdBookIds.isEmpty()) {
+            eventPublisher.publishEvent(BookChangedEvent.created(createdBookIds));
+        }
+        return bookReadService.findByIds(createdBookIds);
     }
 
     public Optional<BookResponse> getBookById(String id) {
-        return bookRepository.findById(id)
-                .map(this::convertToBookResponse);
+        return bookResponseCache.getOrLoad(id, bookReadService::findById);
     }
 
     // Método mejorado para obtener todos los libros con paginación y ordenamiento
@@ -269,9 +283,7 @@ public class BookService {
         
         Page<Book> bookPage = bookRepository.findAll(pageable);
         
-        List<BookResponse> books = bookPage.getContent().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        List<BookResponse> books = toBookResponses(bookPage.getContent());
         
         Map<String, Object> result = new HashMap<>();
         result.put("books", books);
@@ -286,9 +298,7 @@ public class BookService {
     }
 
     public List<BookResponse> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query("MATCH (b:Book) WITH b ORDER BY b.title ASC", Map.of());
     }
 
     // Contar total de libros
@@ -309,158 +319,205 @@ public class BookService {
         return bookRepository.findAllOrderByCreatedAtDescWithPagination(offset, limit);
     }
 
-    // Método mejorado para búsqueda con paginación
-    public Map<String, Object> searchBooksWithPagination(String searchTerm, Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.searchBooksWithPagination(searchTerm, pageable);
+    // Listar libros con paginación por cursor sobre (title, id): cada página cuesta lo mismo que la primera
+    public CursorPageResponse<BookResponse> getBooksByCursor(String cursor, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("limit", limit + 1);
         
-        List<BookResponse> books = bookPage.getContent().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        String cypher;
+        if (PageCursor.isFirstPage(cursor)) {
+            cypher = "MATCH (b:Book) WHERE b.title IS NOT NULL " +
+                     "WITH b ORDER BY b.title ASC, b.id ASC LIMIT $limit";
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            parameters.put("title", pageCursor.getKey());
+            parameters.put("id", pageCursor.getId());
+            cypher = "MATCH (b:Book) WHERE b.title >= $title AND (b.title > $title OR b.id > $id) " +
+                     "WITH b ORDER BY b.title ASC, b.id ASC LIMIT $limit";
+        }
         
-        Map<String, Object> result = new HashMap<>();
-        result.put("books", books);
-        result.put("currentPage", page);
-        result.put("totalPages", bookPage.getTotalPages());
-        result.put("totalElements", bookPage.getTotalElements());
-        result.put("size", size);
-        result.put("hasNext", bookPage.hasNext());
-        result.put("hasPrevious", bookPage.hasPrevious());
-        result.put("searchTerm", searchTerm);
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<BookResponse> books = bookReadService.query(cypher, parameters);
+        boolean hasNext = books.size() > limit;
+        if (hasNext) {
+            books = new ArrayList<>(books.subList(0, limit));
+        }
         
-        return result;
+        String nextCursor = null;
+        if (hasNext) {
+            BookResponse last = books.get(books.size() - 1);
+            nextCursor = PageCursor.encode(last.getTitle(), last.getId());
+        }
+        
+        return new CursorPageResponse<>(books, nextCursor, hasNext, limit);
+    }
+
+    // Búsqueda por relevancia sobre el índice full-text (sin conteo total de resultados)
+    public Map<String, Object> searchBooksWithPagination(String searchTerm, Integer page, Integer size) {
+        return bookSearchService.search(searchTerm, page, size);
     }
 
     public List<BookResponse> searchBooks(String searchTerm) {
-        return bookRepository.searchBooks(searchTerm).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookSearchService.searchAll(searchTerm);
     }
 
     // Método mejorado para obtener libros por género con paginación
     public Map<String, Object> getBooksByGenreWithPagination(String genreName, Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.findBooksByGenreWithPagination(genreName, pageable);
-        
-        List<BookResponse> books = bookPage.getContent().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        List<BookResponse> books = bookReadService.query(
+                "MATCH (b:Book)-[:BELONGS_TO_GENRE]->(g:Genre) WHERE g.name = $genreName " +
+                "WITH b ORDER BY b.title ASC SKIP $skip LIMIT $limit",
+                Map.of("genreName", genreName, "skip", page * size, "limit", size));
+        long totalElements = bookRepository.countBooksByGenre(genreName);
         
-        Map<String, Object> result = new HashMap<>();
-        result.put("books", books);
-        result.put("currentPage", page);
-        result.put("totalPages", bookPage.getTotalPages());
-        result.put("totalElements", bookPage.getTotalElements());
-        result.put("size", size);
-        result.put("hasNext", bookPage.hasNext());
-        result.put("hasPrevious", bookPage.hasPrevious());
+        Map<String, Object> result = buildPageResult(books, page, size, totalElements);
         result.put("genreName", genreName);
         
         return result;
     }
 
     public List<BookResponse> getBooksByGenre(String genreName) {
-        return bookRepository.findBooksByGenre(genreName).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query(
+                "MATCH (b:Book)-[:BELONGS_TO_GENRE]->(g:Genre) WHERE g.name = $genreName WITH b",
+                Map.of("genreName", genreName));
     }
 
     // Método mejorado para obtener libros por autor con paginación
     public Map<String, Object> getBooksByAuthorWithPagination(String authorName, Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.findBooksByAuthorWithPagination(authorName, pageable);
-        
-        List<BookResponse> books = bookPage.getContent().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        List<BookResponse> books = bookReadService.query(
+                "MATCH (b:Book)-[:WRITTEN_BY]->(a:Author) WHERE a.name = $authorName " +
+                "WITH b ORDER BY b.title ASC SKIP $skip LIMIT $limit",
+                Map.of("authorName", authorName, "skip", page * size, "limit", size));
+        long totalElements = bookRepository.countBooksByAuthor(authorName);
         
-        Map<String, Object> result = new HashMap<>();
-        result.put("books", books);
-        result.put("currentPage", page);
-        result.put("totalPages", bookPage.getTotalPages());
-        result.put("totalElements", bookPage.getTotalElements());
-        result.put("size", size);
-        result.put("hasNext", bookPage.hasNext());
-        result.put("hasPrevious", bookPage.hasPrevious());
+        Map<String, Object> result = buildPageResult(books, page, size, totalElements);
         result.put("authorName", authorName);
         
         return result;
     }
 
     public List<BookResponse> getBooksByAuthor(String authorName) {
-        return bookRepository.findBooksByAuthor(authorName).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query(
+                "MATCH (b:Book)-[:WRITTEN_BY]->(a:Author) WHERE a.name = $authorName WITH b",
+                Map.of("authorName", authorName));
     }
 
+    // Los rankings se sirven desde memoria; solo límites mayores que los que guarda LeaderboardService van a la base
     public List<BookResponse> getTopRatedBooks(Integer limit) {
-        return bookRepository.findTopRatedBooks(limit).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        if (limit > LeaderboardService.MAX_SERVED) {
+            return bookReadService.query(
+                    "MATCH (b:Book) WHERE b.average_rating IS NOT NULL " +
+                    "WITH b ORDER BY b.average_rating DESC, b.total_ratings DESC LIMIT $limit",
+                    Map.of("limit", limit));
+        }
+        return getBookResponses(leaderboardService.getTopRatedIds(limit));
     }
 
     public List<BookResponse> getMostReviewedBooks(Integer limit) {
-        return bookRepository.findMostReviewedBooks(limit).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        if (limit > LeaderboardService.MAX_SERVED) {
+            return bookReadService.query(
+                    "MATCH (b:Book) WHERE b.total_ratings > 0 WITH b ORDER BY b.total_ratings DESC LIMIT $limit",
+                    Map.of("limit", limit));
+        }
+        return getBookResponses(leaderboardService.getMostReviewedIds(limit));
+    }
+
+    // Arma las respuestas en el mismo orden de los ids, usando la caché de BookResponse
+    private List<BookResponse> getBookResponses(List<String> bookIds) {
+        return bookResponseCache.getAllOrLoad(bookIds, bookReadService::findByIds);
     }
 
     // Método mejorado para obtener libros recientes por límite en lugar de días
     public List<BookResponse> getRecentBooks(Integer limit) {
-        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Book> bookPage = bookRepository.findAll(pageable);
-        
-        return bookPage.getContent().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query(
+                "MATCH (b:Book) WITH b ORDER BY b.created_at DESC LIMIT $limit",
+                Map.of("limit", limit));
     }
 
     public List<BookResponse> getBooksBySeries(String seriesName) {
-        return bookRepository.findBooksBySeries(seriesName).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query(
+                "MATCH (b:Book)-[:PART_OF_SERIES]->(s:Series) WHERE s.name = $seriesName WITH b ORDER BY b.title",
+                Map.of("seriesName", seriesName));
     }
 
     public List<BookResponse> getBooksByTag(String tagName) {
-        return bookRepository.findBooksByTag(tagName).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query(
+                "MATCH (b:Book)-[:HAS_TAG]->(t:Tag) WHERE t.name = $tagName WITH b",
+                Map.of("tagName", tagName));
     }
 
     public List<BookResponse> getBooksByMinimumRating(Double minRating) {
-        return bookRepository.findBooksByMinimumRating(minRating).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query(
+                "MATCH (b:Book) WHERE b.average_rating >= $minRating WITH b ORDER BY b.average_rating DESC",
+                Map.of("minRating", minRating));
     }
 
     public List<BookResponse> getBooksByLanguage(String language) {
-        return bookRepository.findByLanguage(language).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query("MATCH (b:Book) WHERE b.language = $language WITH b",
+                Map.of("language", language));
     }
 
     public List<BookResponse> getBooksByAgeRating(String ageRating) {
-        return bookRepository.findByAgeRating(ageRating).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query("MATCH (b:Book) WHERE b.age_rating = $ageRating WITH b",
+                Map.of("ageRating", ageRating));
     }
 
     public List<BookResponse> getBooksByReadingDifficulty(String readingDifficulty) {
-        return bookRepository.findByReadingDifficulty(readingDifficulty).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return bookReadService.query("MATCH (b:Book) WHERE b.reading_difficulty = $readingDifficulty WITH b",
+                Map.of("readingDifficulty", readingDifficulty));
     }
 
     public List<BookResponse> getSimilarBooks(String userId, Double rating, Integer limit) {
-        return bookRepository.findSimilarBooksByUserRatings(userId, rating, limit).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return toBookResponses(bookRepository.findSimilarBooksByUserRatings(userId, rating, limit));
+    }
+
+    // Libros parecidos precalculados por BookSimilarityJob: una lectura de un salto sobre SIMILAR_TO
+    public List<SimilarBookResponse> getSimilarToBook(String bookId, int limit) {
+        List<Map<String, Object>> edges = new ArrayList<>(neo4jClient.query(
+                        "MATCH (:Book {id: $bookId})-[s:SIMILAR_TO]->(c:Book) " +
+                        "RETURN c.id AS bookId, s.similarity_score AS score, s.similarity_type AS type " +
+                        "ORDER BY s.similarity_score DESC LIMIT $limit")
+                .bind(bookId).to("bookId")
+                .bind(limit).to("limit")
+                .fetch()
+                .all());
+
+        Map<String, BookResponse> books = getBookResponses(edges.stream()
+                .map(edge -> (String) edge.get("bookId"))
+                .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(BookResponse::getId, book -> book));
+
+        List<SimilarBookResponse> result = new ArrayList<>();
+        for (Map<String, Object> edge : edges) {
+            BookResponse book = books.get((String) edge.get("bookId"));
+            if (book != null) {
+                result.add(new SimilarBookResponse(book, ((Number) edge.get("score")).doubleValue(), (String) edge.get("type")));
+            }
+        }
+        return result;
     }
 
     public List<BookResponse> getRecommendationsByGenres(String userId, Double minRating, Integer limit) {
-        return bookRepository.findRecommendationsByPreferredGenres(userId, minRating, limit).stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        return toBookResponses(bookRepository.findRecommendationsByPreferredGenres(userId, minRating, limit));
+    }
+
+    // Construye las respuestas de una lista de libros ya seleccionada con una sola consulta
+    private List<BookResponse> toBookResponses(List<Book> books) {
+        return bookReadService.findByIds(books.stream().map(Book::getId).collect(Collectors.toList()));
+    }
+
+    private Map<String, Object> buildPageResult(List<BookResponse> books, int page, int size, long totalElements) {
+        int totalPages = size > 0 ? (int) Math.ceil((double) totalElements / size) : 0;
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("books", books);
+        result.put("currentPage", page);
+        result.put("totalPages", totalPages);
+        result.put("totalElements", totalElements);
+        result.put("size", size);
+        result.put("hasNext", page + 1 < totalPages);
+        result.put("hasPrevious", page > 0);
+        return result;
     }
 
     public BookResponse updateBook(String id, CreateBookRequest request) {
@@ -488,39 +545,27 @@ public class BookService {
                 }
             }
 
-            // Actualizar géneros
+            // Actualizar géneros, etiquetas y serie: al guardar se quitan los actuales y luego se enlazan los nuevos
             book.getGenres().clear();
-            if (request.getGenreIds() != null) {
-                for (String genreId : request.getGenreIds()) {
-                    genreRepository.findById(genreId).ifPresent(genre -> {
-                        book.getGenres().add(genre);
-                    });
-                }
-            }
-
-            // Actualizar etiquetas
             book.getTags().clear();
-            if (request.getTagIds() != null) {
-                for (String tagId : request.getTagIds()) {
-                    tagRepository.findById(tagId).ifPresent(tag -> {
-                        book.getTags().add(tag);
-                    });
-                }
-            }
+            List<String> genreIds = existingIds(request.getGenreIds(), taxonomyService::genreExists);
+            List<String> tagIds = existingIds(request.getTagIds(), taxonomyService::tagExists);
 
-            // Actualizar serie
-            if (request.getSeriesId() != null) {
-                seriesRepository.findById(request.getSeriesId()).ifPresent(series -> {
-                    book.setSeries(series);
-                    book.setOrderInSeries(request.getOrderInSeries());
-                });
-            } else {
+            String seriesId = null;
+            if (request.getSeriesId() != null && taxonomyService.seriesExists(request.getSeriesId())) {
+                seriesId = request.getSeriesId();
+                book.setSeries(null);
+                book.setOrderInSeries(request.getOrderInSeries());
+            } else if (request.getSeriesId() == null) {
                 book.setSeries(null);
                 book.setOrderInSeries(null);
             }
 
             Book savedBook = bookRepository.save(book);
-            return convertToBookResponse(savedBook);
+            linkTaxonomy(savedBook.getId(), genreIds, tagIds, seriesId);
+            bookSearchService.refreshBook(savedBook.getId());
+            eventPublisher.publishEvent(BookChangedEvent.updated(savedBook.getId()));
+            return bookReadService.findById(savedBook.getId()).orElse(null);
         }
         return null;
     }
@@ -556,12 +601,6 @@ public class BookService {
             if (request.getAgeRating() != null) {
                 book.setAgeRating(request.getAgeRating());
             }
-            if (request.getAverageRating() != null) {
-                book.setAverageRating(request.getAverageRating());
-            }
-            if (request.getTotalRatings() != null) {
-                book.setTotalRatings(request.getTotalRatings());
-            }
             if (request.getReadingDifficulty() != null) {
                 book.setReadingDifficulty(request.getReadingDifficulty());
             }
@@ -577,43 +616,41 @@ public class BookService {
             }
 
             // Actualizar géneros si se proporcionan
+            List<String> genreIds = List.of();
             if (request.getGenreIds() != null) {
                 book.getGenres().clear();
-                for (String genreId : request.getGenreIds()) {
-                    genreRepository.findById(genreId).ifPresent(genre -> {
-                        book.getGenres().add(genre);
-                    });
-                }
+                genreIds = existingIds(request.getGenreIds(), taxonomyService::genreExists);
             }
 
             // Actualizar etiquetas si se proporcionan
+            List<String> tagIds = List.of();
             if (request.getTagIds() != null) {
                 book.getTags().clear();
-                for (String tagId : request.getTagIds()) {
-                    tagRepository.findById(tagId).ifPresent(tag -> {
-                        book.getTags().add(tag);
-                    });
-                }
+                tagIds = existingIds(request.getTagIds(), taxonomyService::tagExists);
             }
 
             // Actualizar serie si se proporciona
+            String seriesId = null;
             if (request.getSeriesId() != null) {
                 if (request.getSeriesId().isEmpty()) {
                     book.setSeries(null);
                     book.setOrderInSeries(null);
-                } else {
-                    seriesRepository.findById(request.getSeriesId()).ifPresent(series -> {
-                        book.setSeries(series);
-                        if (request.getOrderInSeries() != null) {
-                            book.setOrderInSeries(request.getOrderInSeries());
-                        }
-                    });
+                } else if (taxonomyService.seriesExists(request.getSeriesId())) {
+                    seriesId = request.getSeriesId();
+                    book.setSeries(null);
+                    if (request.getOrderInSeries() != null) {
+                        book.setOrderInSeries(request.getOrderInSeries());
+                    }
                 }
             }
 
             book.setUpdatedAt(LocalDateTime.now());
             Book savedBook = bookRepository.save(book);
-            return convertToBookResponse(savedBook);
+            linkTaxonomy(savedBook.getId(), genreIds, tagIds, seriesId);
+            setImportedRating(savedBook.getId(), request.getAverageRating(), request.getTotalRatings());
+            bookSearchService.refreshBook(savedBook.getId());
+            eventPublisher.publishEvent(BookChangedEvent.updated(savedBook.getId()));
+            return bookReadService.findById(savedBook.getId()).orElse(null);
         }
         return null;
     }
@@ -627,48 +664,165 @@ public class BookService {
             book.setUpdatedAt(LocalDateTime.now());
             
             Book savedBook = bookRepository.save(book);
-            return convertToBookResponse(savedBook);
+            eventPublisher.publishEvent(BookChangedEvent.updated(savedBook.getId()));
+            return bookReadService.findById(savedBook.getId()).orElse(null);
         }
         return null;
     }
 
     public boolean deleteBook(String id) {
         if (bookRepository.existsById(id)) {
+            // Autores, serie y géneros se consultan antes de borrar: sus contadores y pesos cambian con la eliminación
+            Map<String, Object> related = neo4jClient
+                    .query("MATCH (b:Book {id: $bookId}) " +
+                           "RETURN [(b)-[:WRITTEN_BY]->(a:Author) | a.id] AS authorIds, " +
+                           "       [(b)-[:PART_OF_SERIES]->(s:Series) | s.id] AS seriesIds, " +
+                           "       [(b)-[:BELONGS_TO_GENRE]->(g:Genre) | g.id] AS genreIds")
+                    .bind(id).to("bookId")
+                    .fetch()
+                    .one()
+                    .orElse(Map.of());
             bookRepository.deleteById(id);
+            eventPublisher.publishEvent(BookChangedEvent.deleted(id, idSet(related.get("authorIds")),
+                    idSet(related.get("seriesIds")), idSet(related.get("genreIds"))));
             return true;
         }
         return false;
     }
 
-    public void updateBookRating(String bookId, Double rating, boolean isNewRating) {
-        Optional<Book> bookOpt = bookRepository.findById(bookId);
-        if (bookOpt.isPresent()) {
-            Book book = bookOpt.get();
-            
-            // Recalculate average rating
-            Double currentAvg = book.getAverageRating();
-            Integer currentTotal = book.getTotalRatings();
-            
-            if (currentTotal == null || currentTotal == 0) {
-                // Primera calificación del libro
-                book.setAverageRating(rating);
-                book.setTotalRatings(1);
-            } else if (isNewRating) {
-                // Nueva calificación - incrementar contador
-                Double newAverage = ((currentAvg * currentTotal) + rating) / (currentTotal + 1);
-                book.setAverageRating(newAverage);
-                book.setTotalRatings(currentTotal + 1);
-            } else {
-                // Actualización de calificación existente - NO incrementar contador
-                // Mantenemos el promedio y contador actuales (se recalculará en el próximo rating nuevo)
-                // Para mayor precisión, se podría implementar un recálculo completo aquí
-            }
-            
-            book.setUpdatedAt(LocalDateTime.now());
-            bookRepository.save(book);
+    // Histograma de calificaciones por media estrella: 1.0, 1.5, ..., 5.0
+    public static final int RATING_BUCKETS = 9;
+    // Expresión Cypher que arma el histograma a partir de una lista "ratings" de calificaciones
+    public static final String HISTOGRAM_FROM_RATINGS =
+            "[i IN range(0, " + (RATING_BUCKETS - 1) + ") | size([x IN ratings WHERE toInteger(round(x * 2)) - 2 = i])]";
+
+    // Suma $bucketDeltas al histograma guardado (sin histograma previo se parte de ceros)
+    public static final String HISTOGRAM_PLUS_DELTAS =
+            "[i IN range(0, " + (RATING_BUCKETS - 1) + ") | coalesce(b.rating_histogram[i], 0) + $bucketDeltas[i]]";
+
+    // Resta del histograma guardado una lista "ratings" de calificaciones
+    private static final String HISTOGRAM_MINUS_RATINGS =
+            "[i IN range(0, " + (RATING_BUCKETS - 1) + ") | coalesce(b.rating_histogram[i], 0) " +
+            "- size([x IN ratings WHERE toInteger(round(x * 2)) - 2 = i])]";
+
+    public static int ratingBucket(double rating) {
+        return Math.max(0, Math.min(RATING_BUCKETS - 1, (int) Math.round(rating * 2) - 2));
+    }
+
+    /**
+     * Aplica un cambio de calificación al agregado del libro: rating_sum, total_ratings y el
+     * histograma rating_histogram se ajustan con el delta y average_rating se deriva de la suma
+     * y el total. Cada SET lee y escribe la propiedad en la misma expresión, así Neo4j toma el
+     * lock del nodo antes de leer y dos calificaciones simultáneas no se pisan.
+     *
+     * previousRating es null en una calificación nueva y newRating es null en un borrado.
+     */
+    public void applyRatingChange(String bookId, Double previousRating, Double newRating) {
+        double sumDelta = (newRating != null ? newRating : 0.0) - (previousRating != null ? previousRating : 0.0);
+        int countDelta = (newRating != null ? 1 : 0) - (previousRating != null ? 1 : 0);
+        long[] bucketDeltas = new long[RATING_BUCKETS];
+        if (previousRating != null) {
+            bucketDeltas[ratingBucket(previousRating)]--;
+        }
+        if (newRating != null) {
+            bucketDeltas[ratingBucket(newRating)]++;
+        }
+
+        Optional<Map<String, Object>> aggregate = neo4jClient
+                .query("MATCH (b:Book {id: $bookId}) " +
+                       // Libros anteriores a rating_sum: se parte del promedio guardado
+                       "SET b.rating_sum = coalesce(b.rating_sum, coalesce(b.average_rating, 0.0) * coalesce(b.total_ratings, 0)) + $sumDelta, " +
+                       "    b.total_ratings = coalesce(b.total_ratings, 0) + $countDelta, " +
+                       "    b.rating_histogram = " + HISTOGRAM_PLUS_DELTAS + " " +
+                       "SET b.average_rating = CASE WHEN b.total_ratings > 0 THEN b.rating_sum / b.total_ratings ELSE null END, " +
+                       "    b.rating_sum = CASE WHEN b.total_ratings > 0 THEN b.rating_sum ELSE 0.0 END, " +
+                       "    b.updated_at = localdatetime() " +
+                       "RETURN b.average_rating AS averageRating, b.total_ratings AS totalRatings")
+                .bind(bookId).to("bookId")
+                .bind(sumDelta).to("sumDelta")
+                .bind(countDelta).to("countDelta")
+                .bind(Arrays.stream(bucketDeltas).boxed().collect(Collectors.toList())).to("bucketDeltas")
+                .fetch()
+                .one();
+
+        aggregate.ifPresent(values -> eventPublisher.publishEvent(BookChangedEvent.ratingUpdated(bookId,
+                (Double) values.get("averageRating"),
+                ((Number) values.get("totalRatings")).intValue())));
+    }
+
+    /**
+     * Descuenta del agregado de cada libro las calificaciones de un usuario que se va a eliminar,
+     * en una sola sentencia para todos sus libros. Debe llamarse en la misma transacción que el borrado:
+     * las relaciones RATED todavía existen y se usan para saber qué restar.
+     */
+    public void removeUserRatings(String userId) {
+        List<Map<String, Object>> aggregates = new ArrayList<>(neo4jClient
+                .query("MATCH (:User {id: $userId})-[r:RATED]->(b:Book) " +
+                       "WITH b, collect(r.rating) AS ratings " +
+                       "SET b.rating_sum = coalesce(b.rating_sum, coalesce(b.average_rating, 0.0) * coalesce(b.total_ratings, 0)) " +
+                       "                   - reduce(total = 0.0, x IN ratings | total + x), " +
+                       "    b.total_ratings = coalesce(b.total_ratings, 0) - size(ratings), " +
+                       "    b.rating_histogram = " + HISTOGRAM_MINUS_RATINGS + ", " +
+                       // Como en el borrado de una calificación, BookSimilarityJob toma el libro por esta marca
+                       "    b.similarity_stale = true " +
+                       "SET b.average_rating = CASE WHEN b.total_ratings > 0 THEN b.rating_sum / b.total_ratings ELSE null END, " +
+                       "    b.rating_sum = CASE WHEN b.total_ratings > 0 THEN b.rating_sum ELSE 0.0 END, " +
+                       "    b.updated_at = localdatetime() " +
+                       "RETURN b.id AS bookId, b.average_rating AS averageRating, b.total_ratings AS totalRatings")
+                .bind(userId).to("userId")
+                .fetch()
+                .all());
+
+        for (Map<String, Object> aggregate : aggregates) {
+            eventPublisher.publishEvent(BookChangedEvent.ratingUpdated((String) aggregate.get("bookId"),
+                    (Double) aggregate.get("averageRating"),
+                    ((Number) aggregate.get("totalRatings")).intValue()));
         }
     }
+
+    // Distribución de calificaciones guardada en el libro: una lectura de propiedad, sin recorrer las reseñas
+    public Optional<Map<String, Object>> getRatingDistribution(String bookId) {
+        return neo4jClient
+                .query("MATCH (b:Book {id: $bookId}) RETURN b.rating_histogram AS histogram, b.average_rating AS averageRating")
+                .bind(bookId).to("bookId")
+                .fetch()
+                .one()
+                .map(record -> {
+                    List<?> histogram = record.get("histogram") instanceof List<?> list ? list : List.of();
+                    Map<String, Long> buckets = new LinkedHashMap<>();
+                    long total = 0;
+                    for (int i = 0; i < RATING_BUCKETS; i++) {
+                        long count = i < histogram.size() && histogram.get(i) != null ? ((Number) histogram.get(i)).longValue() : 0L;
+                        buckets.put(String.valueOf(1.0 + i * 0.5), count);
+                        total += count;
+                    }
+
+                    Map<String, Object> distribution = new LinkedHashMap<>();
+                    distribution.put("bookId", bookId);
+                    distribution.put("buckets", buckets);
+                    distribution.put("totalRatings", total);
+                    distribution.put("averageRating", record.get("averageRating"));
+                    return distribution;
+                });
+    }
     
+    // Promedio y total cargados a mano (importación o edición), con rating_sum coherente; lo que venga null se conserva
+    private void setImportedRating(String bookId, Double averageRating, Integer totalRatings) {
+        if (averageRating == null && totalRatings == null) {
+            return;
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bookId", bookId);
+        parameters.put("averageRating", averageRating);
+        parameters.put("totalRatings", totalRatings);
+        neo4jClient.query("MATCH (b:Book {id: $bookId}) " +
+                          "SET b.average_rating = coalesce($averageRating, b.average_rating), " +
+                          "    b.total_ratings = coalesce($totalRatings, b.total_ratings) " +
+                          "SET b.rating_sum = b.average_rating * b.total_ratings")
+                .bindAll(parameters)
+                .run();
+    }
+
     // Métodos auxiliares para crear entidades si no existen (para carga masiva)
     private Author findOrCreateAuthor(String name) {
         Optional<Author> existingAuthor = authorRepository.findByName(name);
@@ -683,36 +837,41 @@ public class BookService {
         return authorRepository.save(newAuthor);
     }
 
-    private Genre findOrCreateGenre(String name) {
-        Optional<Genre> existingGenre = genreRepository.findByName(name);
+    // Los helpers de taxonomía buscan en el snapshot en memoria y devuelven el ID; solo escriben si hay que crear
+    private String findOrCreateGenre(String name) {
+        Optional<GenreResponse> existingGenre = taxonomyService.findGenreByName(name);
         if (existingGenre.isPresent()) {
-            return existingGenre.get();
+            return existingGenre.get().getId();
         }
         
         Genre newGenre = new Genre();
         newGenre.setName(name);
         newGenre.setCreatedAt(LocalDateTime.now());
         newGenre.setUpdatedAt(LocalDateTime.now());
-        return genreRepository.save(newGenre);
+        Genre savedGenre = genreRepository.save(newGenre);
+        taxonomyService.putGenre(savedGenre);
+        return savedGenre.getId();
     }
 
-    private Tag findOrCreateTag(String name) {
-        Optional<Tag> existingTag = tagRepository.findByName(name);
+    private String findOrCreateTag(String name) {
+        Optional<TagResponse> existingTag = taxonomyService.findTagByName(name);
         if (existingTag.isPresent()) {
-            return existingTag.get();
+            return existingTag.get().getId();
         }
         
         Tag newTag = new Tag();
         newTag.setName(name);
         newTag.setCreatedAt(LocalDateTime.now());
         newTag.setUpdatedAt(LocalDateTime.now());
-        return tagRepository.save(newTag);
+        Tag savedTag = tagRepository.save(newTag);
+        taxonomyService.putTag(savedTag);
+        return savedTag.getId();
     }
 
-    private Series findOrCreateSeries(String name) {
-        Optional<Series> existingSeries = seriesRepository.findByName(name);
+    private String findOrCreateSeries(String name) {
+        Optional<SeriesResponse> existingSeries = taxonomyService.findSeriesByName(name);
         if (existingSeries.isPresent()) {
-            return existingSeries.get();
+            return existingSeries.get().getId();
         }
         
         Series newSeries = new Series();
@@ -720,7 +879,47 @@ public class BookService {
         newSeries.setIsCompleted(false);
         newSeries.setCreatedAt(LocalDateTime.now());
         newSeries.setUpdatedAt(LocalDateTime.now());
-        return seriesRepository.save(newSeries);
+        Series savedSeries = seriesRepository.save(newSeries);
+        taxonomyService.putSeries(savedSeries);
+        return savedSeries.getId();
+    }
+
+    private static Set<String> idSet(Object ids) {
+        Set<String> result = new HashSet<>();
+        if (ids != null) {
+            ((Collection<?>) ids).forEach(value -> result.add((String) value));
+        }
+        return result;
+    }
+
+    private static List<String> existingIds(List<String> ids, Predicate<String> exists) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().filter(exists).distinct().collect(Collectors.toList());
+    }
+
+    // Enlaza géneros, etiquetas y serie con Cypher, sin cargar esas entidades con todos sus libros
+    private void linkTaxonomy(String bookId, List<String> genreIds, List<String> tagIds, String seriesId) {
+        if (genreIds.isEmpty() && tagIds.isEmpty() && seriesId == null) {
+            return;
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bookId", bookId);
+        parameters.put("genreIds", genreIds);
+        parameters.put("tagIds", tagIds);
+        parameters.put("seriesId", seriesId);
+
+        neo4jClient.query("MATCH (b:Book {id: $bookId}) " +
+                          "CALL { WITH b UNWIND $genreIds AS genreId MATCH (g:Genre {id: genreId}) " +
+                          "       MERGE (b)-[:BELONGS_TO_GENRE]->(g) } " +
+                          "CALL { WITH b UNWIND $tagIds AS tagId MATCH (t:Tag {id: tagId}) " +
+                          "       MERGE (b)-[:HAS_TAG]->(t) } " +
+                          "CALL { WITH b MATCH (s:Series {id: $seriesId}) " +
+                          "       MERGE (b)-[:PART_OF_SERIES]->(s) }")
+                .bindAll(parameters)
+                .run();
     }
 
     // Métodos auxiliares para crear entidades con datos completos (para enhanced bulk)
@@ -778,31 +977,30 @@ public class BookService {
         return authorRepository.save(newAuthor);
     }
 
-    private Genre findOrCreateGenreWithFullData(EnhancedBulkCreateBookRequest.GenreData genreData) {
+    private String findOrCreateGenreWithFullData(EnhancedBulkCreateBookRequest.GenreData genreData) {
         // Buscar género existente por nombre
-        List<Genre> existingGenres = genreRepository.findByNameContainingIgnoreCase(genreData.getNombre().trim());
+        Optional<GenreResponse> existingGenre = taxonomyService.findGenreByName(genreData.getNombre().trim());
         
-        for (Genre existing : existingGenres) {
-            if (existing.getName().equalsIgnoreCase(genreData.getNombre().trim())) {
-                // Actualizar datos si el género existe pero tiene información incompleta
-                boolean needsUpdate = false;
-                
-                if (existing.getDescription() == null && genreData.getDescripcion() != null) {
-                    existing.setDescription(genreData.getDescripcion());
-                    needsUpdate = true;
-                }
-                if (existing.getParentGenre() == null && genreData.getGenero_padre() != null) {
-                    existing.setParentGenre(genreData.getGenero_padre());
-                    needsUpdate = true;
-                }
-                
-                if (needsUpdate) {
-                    existing.setUpdatedAt(LocalDateTime.now());
-                    return genreRepository.save(existing);
-                }
-                
-                return existing;
+        if (existingGenre.isPresent()) {
+            GenreResponse existing = existingGenre.get();
+            // Actualizar datos si el género existe pero tiene información incompleta
+            boolean needsUpdate = (existing.getDescripcion() == null && genreData.getDescripcion() != null)
+                    || (existing.getGenero_padre() == null && genreData.getGenero_padre() != null);
+            
+            if (needsUpdate) {
+                genreRepository.findById(existing.getId()).ifPresent(genre -> {
+                    if (genre.getDescription() == null) {
+                        genre.setDescription(genreData.getDescripcion());
+                    }
+                    if (genre.getParentGenre() == null) {
+                        genre.setParentGenre(genreData.getGenero_padre());
+                    }
+                    genre.setUpdatedAt(LocalDateTime.now());
+                    taxonomyService.putGenre(genreRepository.save(genre));
+                });
             }
+            
+            return existing.getId();
         }
         
         // Crear nuevo género con datos completos
@@ -813,30 +1011,27 @@ public class BookService {
         newGenre.setCreatedAt(LocalDateTime.now());
         newGenre.setUpdatedAt(LocalDateTime.now());
         
-        return genreRepository.save(newGenre);
+        Genre savedGenre = genreRepository.save(newGenre);
+        taxonomyService.putGenre(savedGenre);
+        return savedGenre.getId();
     }
 
-    private Tag findOrCreateTagWithFullData(EnhancedBulkCreateBookRequest.TagData tagData) {
+    private String findOrCreateTagWithFullData(EnhancedBulkCreateBookRequest.TagData tagData) {
         // Buscar tag existente por nombre
-        List<Tag> existingTags = tagRepository.findByNameContainingIgnoreCase(tagData.getNombre().trim());
+        Optional<TagResponse> existingTag = taxonomyService.findTagByName(tagData.getNombre().trim());
         
-        for (Tag existing : existingTags) {
-            if (existing.getName().equalsIgnoreCase(tagData.getNombre().trim())) {
-                // Actualizar datos si el tag existe pero tiene información incompleta
-                boolean needsUpdate = false;
-                
-                if (existing.getCategory() == null && tagData.getCategoria() != null) {
-                    existing.setCategory(tagData.getCategoria());
-                    needsUpdate = true;
-                }
-                
-                if (needsUpdate) {
-                    existing.setUpdatedAt(LocalDateTime.now());
-                    return tagRepository.save(existing);
-                }
-                
-                return existing;
+        if (existingTag.isPresent()) {
+            TagResponse existing = existingTag.get();
+            // Actualizar datos si el tag existe pero tiene información incompleta
+            if (existing.getCategoria() == null && tagData.getCategoria() != null) {
+                tagRepository.findById(existing.getId()).ifPresent(tag -> {
+                    tag.setCategory(tagData.getCategoria());
+                    tag.setUpdatedAt(LocalDateTime.now());
+                    taxonomyService.putTag(tagRepository.save(tag));
+                });
             }
+            
+            return existing.getId();
         }
         
         // Crear nuevo tag con datos completos
@@ -846,7 +1041,9 @@ public class BookService {
         newTag.setCreatedAt(LocalDateTime.now());
         newTag.setUpdatedAt(LocalDateTime.now());
         
-        return tagRepository.save(newTag);
+        Tag savedTag = tagRepository.save(newTag);
+        taxonomyService.putTag(savedTag);
+        return savedTag.getId();
     }
 
     public BookResponse convertToBookResponse(Book book) {
@@ -960,7 +1157,7 @@ public class BookService {
         // Limpiar géneros huérfanos
         Set<Genre> validGenres = new HashSet<>();
         for (Genre genre : book.getGenres()) {
-            if (genreRepository.existsById(genre.getId())) {
+            if (taxonomyService.genreExists(genre.getId())) {
                 validGenres.add(genre);
             } else {
                 wasModified = true;
@@ -971,7 +1168,7 @@ public class BookService {
         // Limpiar tags huérfanos
         Set<Tag> validTags = new HashSet<>();
         for (Tag tag : book.getTags()) {
-            if (tagRepository.existsById(tag.getId())) {
+            if (taxonomyService.tagExists(tag.getId())) {
                 validTags.add(tag);
             } else {
                 wasModified = true;
@@ -980,7 +1177,7 @@ public class BookService {
         book.setTags(validTags);
 
         // Limpiar serie huérfana
-        if (book.getSeries() != null && !seriesRepository.existsById(book.getSeries().getId())) {
+        if (book.getSeries() != null && !taxonomyService.seriesExists(book.getSeries().getId())) {
             book.setSeries(null);
             book.setOrderInSeries(null);
             wasModified = true;
@@ -989,9 +1186,11 @@ public class BookService {
         if (wasModified) {
             book.setUpdatedAt(LocalDateTime.now());
             book = bookRepository.save(book);
+            bookSearchService.refreshBook(book.getId());
+            eventPublisher.publishEvent(BookChangedEvent.updated(book.getId()));
         }
 
-        return convertToBookResponse(book);
+        return bookReadService.findById(book.getId()).orElse(null);
     }
 
     /**
@@ -1031,7 +1230,7 @@ public class BookService {
         // Validar géneros
         if (request.getGenreIds() != null) {
             for (String genreId : request.getGenreIds()) {
-                if (!genreRepository.existsById(genreId)) {
+                if (!taxonomyService.genreExists(genreId)) {
                     throw new RuntimeException("Género con ID " + genreId + " no existe");
                 }
             }
@@ -1040,14 +1239,14 @@ public class BookService {
         // Validar tags
         if (request.getTagIds() != null) {
             for (String tagId : request.getTagIds()) {
-                if (!tagRepository.existsById(tagId)) {
+                if (!taxonomyService.tagExists(tagId)) {
                     throw new RuntimeException("Tag con ID " + tagId + " no existe");
                 }
             }
         }
 
         // Validar serie
-        if (request.getSeriesId() != null && !seriesRepository.existsById(request.getSeriesId())) {
+        if (request.getSeriesId() != null && !taxonomyService.seriesExists(request.getSeriesId())) {
             throw new RuntimeException("Serie con ID " + request.getSeriesId() + " no existe");
         }
     }
@@ -1078,19 +1277,10 @@ public class BookService {
             limit = 20;
         }
         
-        // Convertir offset a página
-        int page = offset / limit;
-        
-        // Crear Pageable con ordenamiento
-        Pageable pageable = PageRequest.of(page, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        
-        // Usar findAll que SÍ carga las relaciones automáticamente
-        Page<Book> bookPage = bookRepository.findAll(pageable);
-        
-        // Convertir a BookResponse
-        return bookPage.getContent().stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+        // El modelo de lectura carga las relaciones en la misma consulta
+        return bookReadService.query(
+                "MATCH (b:Book) WITH b ORDER BY b.created_at DESC SKIP $offset LIMIT $limit",
+                Map.of("offset", offset, "limit", limit));
     }
 
     // Método de depuración para investigar el problema de relaciones
@@ -1139,38 +1329,25 @@ public class BookService {
     public List<BookResponse> getAllBooksWithoutPagination() {
         System.out.println("=== Obteniendo todos los libros sin paginación ===");
         
-        // Obtener todos los libros usando findAll (que carga relaciones automáticamente)
-        List<Book> allBooks = bookRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
-        
-        List<BookResponse> responses = new ArrayList<>();
-        
-        for (Book book : allBooks) {
-            System.out.println("Procesando libro: " + book.getTitle());
-            
-            // Para garantizar que las relaciones estén cargadas, recargar por ID si es necesario
-            Optional<Book> bookById = bookRepository.findById(book.getId());
-            if (bookById.isPresent()) {
-                Book bookWithRelations = bookById.get();
-                responses.add(convertToBookResponse(bookWithRelations));
-            } else {
-                responses.add(convertToBookResponse(book));
-            }
-        }
+        // Una sola consulta con las relaciones completas de cada libro
+        List<BookResponse> responses = bookReadService.query(
+                "MATCH (b:Book) WITH b ORDER BY b.created_at DESC", Map.of());
         
         System.out.println("=== Total de libros obtenidos: " + responses.size() + " ===");
         return responses;
     }
 
-    public List<Map<String, Object>> getBookRatings(String bookId, int offset, int limit) {
+    // Campos de cada reseña; r.book_id permite buscar las reseñas de un libro por índice
+    private static final String REVIEW_PROJECTION =
+            "RETURN u.id AS userId, u.username AS username, r.rating AS rating, r.review AS review, " +
+            "       r.review_title AS reviewTitle, coalesce(r.helpful_votes, 0) AS helpfulVotes, " +
+            "       r.created_at AS createdAt, r.updated_at AS updatedAt ";
+
+    public List<BookRatingDTO> getBookRatings(String bookId, int offset, int limit) {
         try {
-            System.out.println("=== DEPURACIÓN GET BOOK RATINGS ===");
-            System.out.println("BookId: " + bookId);
-            System.out.println("Offset: " + offset + ", Limit: " + limit);
-            
             // Validar y limitar los parámetros
             if (limit > 100) {
                 limit = 100; // Máximo 100 registros por consulta
-                System.out.println("Límite ajustado a: " + limit);
             }
             if (limit <= 0) {
                 limit = 10; // Límite por defecto
@@ -1179,98 +1356,94 @@ public class BookService {
                 offset = 0; // Offset por defecto
             }
             
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
-            if (bookOpt.isPresent()) {
-                Book book = bookOpt.get();
-                System.out.println("Libro encontrado: " + book.getTitle());
-                
-                // Usar Neo4jClient con paginación directa usando offset y limit
-                String cypher = "MATCH (u:User)-[r:RATED]->(b:Book) " +
-                               "WHERE b.id = $bookId " +
-                               "RETURN u.id AS userId, u.username AS username, r.rating AS rating, r.review AS review " +
-                               "ORDER BY r.createdAt DESC " +
-                               "SKIP $offset LIMIT $limit";
-                
-                List<Map<String, Object>> ratings = neo4jClient
-                    .query(cypher)
-                    .bind(bookId).to("bookId")
-                    .bind(offset).to("offset")
-                    .bind(limit).to("limit")
-                    .fetch()
-                    .all()
-                    .stream()
-                    .map(record -> {
-                        Map<String, Object> rating = new HashMap<>();
-                        rating.put("userId", record.get("userId"));
-                        rating.put("username", record.get("username"));
-                        rating.put("rating", record.get("rating"));
-                        rating.put("review", record.get("review"));
-                        rating.put("reviewTitle", null);        // No disponible en BD
-                        rating.put("helpfulVotes", 0);          // Default
-                        rating.put("createdAt", null);          // No disponible en BD
-                        rating.put("updatedAt", null);          // No disponible en BD
-                        return rating;
-                    })
-                    .collect(Collectors.toList());
-                
-                System.out.println("Calificaciones obtenidas con paginación: " + ratings.size());
-                
-                // Mostrar detalles de cada calificación
-                for (Map<String, Object> rating : ratings) {
-                    System.out.println("Calificación: " + rating.get("username") + 
-                                     " - Rating: " + rating.get("rating") + 
-                                     " - Review: " + rating.get("review"));
-                }
-                
-                System.out.println("Devolviendo " + ratings.size() + " calificaciones (offset " + offset + ", limit " + limit + ")");
-                return ratings;
-            } else {
-                System.out.println("Libro no encontrado con ID: " + bookId);
-            }
-            return new ArrayList<>();
+            return fetchReviews("MATCH (u:User)-[r:RATED]->(:Book) WHERE r.book_id = $bookId " +
+                                REVIEW_PROJECTION +
+                                "ORDER BY r.created_at DESC, u.id DESC SKIP $offset LIMIT $limit",
+                                Map.of("bookId", bookId, "offset", offset, "limit", limit));
         } catch (Exception e) {
             System.out.println("ERROR en getBookRatings: " + e.getMessage());
-            e.printStackTrace();
             throw new RuntimeException("Error al obtener calificaciones del libro: " + e.getMessage());
         }
     }
 
     /**
-     * Obtiene libros para "continuar leyendo" - libros calificados por el usuario ordenados por puntuación
+     * Reseñas de un libro paginadas por cursor. sort = "recent" ordena por (created_at, userId) y
+     * "helpful" por (helpful_votes, created_at, userId), siempre descendente. Ambos órdenes están
+     * respaldados por índices sobre RATED que empiezan por book_id, así que cada página cuesta lo
+     * mismo sin importar cuántas reseñas tenga el libro.
      */
-    public List<BookResponse> getContinueReadingForUser(String userId) {
-        try {
-            System.out.println("=== OBTENIENDO CONTINUAR LEYENDO PARA USUARIO: " + userId + " ===");
-            
-            // Consulta para obtener libros calificados por el usuario
-            String cypher = "MATCH (u:User)-[r:RATED]->(b:Book) " +
-                           "WHERE u.id = $userId " +
-                           "RETURN b, r.rating AS userRating " +
-                           "ORDER BY r.rating DESC, b.average_rating DESC " +
-                           "LIMIT 10";
-            
-            List<Map<String, Object>> results = neo4jClient
+    public CursorPageResponse<BookRatingDTO> getBookRatingsByCursor(String bookId, String cursor, int limit, String sort) {
+        boolean helpful = "helpful".equalsIgnoreCase(sort);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bookId", bookId);
+        parameters.put("limit", limit + 1);
+
+        String keysetFilter = "";
+        if (!PageCursor.isFirstPage(cursor)) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            parameters.put("userId", pageCursor.getId());
+            if (helpful) {
+                // La clave del cursor es "votos|created_at"
+                String[] key = pageCursor.getKey().split("\\|", 2);
+                if (key.length != 2) {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+                try {
+                    parameters.put("helpfulVotes", Long.parseLong(key[0]));
+                    parameters.put("createdAt", LocalDateTime.parse(key[1]));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+                keysetFilter = "AND r.helpful_votes <= $helpfulVotes " +
+                               "AND (r.helpful_votes < $helpfulVotes OR r.created_at < $createdAt " +
+                               "     OR (r.created_at = $createdAt AND u.id < $userId)) ";
+            } else {
+                parameters.put("createdAt", pageCursor.getKeyAsDateTime());
+                keysetFilter = "AND r.created_at <= $createdAt AND (r.created_at < $createdAt OR u.id < $userId) ";
+            }
+        }
+
+        String order = helpful
+                ? "ORDER BY r.helpful_votes DESC, r.created_at DESC, u.id DESC "
+                : "ORDER BY r.created_at DESC, u.id DESC ";
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<BookRatingDTO> reviews = fetchReviews(
+                "MATCH (u:User)-[r:RATED]->(:Book) WHERE r.book_id = $bookId AND r.created_at IS NOT NULL " +
+                keysetFilter + REVIEW_PROJECTION + order + "LIMIT $limit",
+                parameters);
+
+        boolean hasNext = reviews.size() > limit;
+        if (hasNext) {
+            reviews = new ArrayList<>(reviews.subList(0, limit));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            BookRatingDTO last = reviews.get(reviews.size() - 1);
+            String key = helpful ? last.getHelpfulVotes() + "|" + last.getCreatedAt() : last.getCreatedAt();
+            nextCursor = PageCursor.encode(key, last.getUserId());
+        }
+
+        return new CursorPageResponse<>(reviews, nextCursor, hasNext, limit);
+    }
+
+    private List<BookRatingDTO> fetchReviews(String cypher, Map<String, Object> parameters) {
+        return new ArrayList<>(neo4jClient
                 .query(cypher)
-                .bind(userId).to("userId")
-                .fetch()
-                .all()
-                .stream()
-                .collect(Collectors.toList());
-            
-            System.out.println("Libros para continuar leyendo encontrados: " + results.size());
-            
-            return results.stream()
-                .map(record -> {
-                    Book book = (Book) record.get("b");
-                    return convertToBookResponse(book);
+                .bindAll(parameters)
+                .fetchAs(BookRatingDTO.class)
+                .mappedBy((typeSystem, record) -> {
+                    BookRatingDTO review = new BookRatingDTO(record.get("userId").asString(),
+                            record.get("username").asString(null),
+                            record.get("rating").isNull() ? null : record.get("rating").asDouble(),
+                            record.get("review").asString(null));
+                    review.setReviewTitle(record.get("reviewTitle").asString(null));
+                    review.setHelpfulVotes(record.get("helpfulVotes").asInt());
+                    review.setCreatedAt(record.get("createdAt").isNull() ? null : record.get("createdAt").asLocalDateTime().toString());
+                    review.setUpdatedAt(record.get("updatedAt").isNull() ? null : record.get("updatedAt").asLocalDateTime().toString());
+                    return review;
                 })
-                .collect(Collectors.toList());
-                
-        } catch (Exception e) {
-            System.out.println("ERROR en getContinueReadingForUser: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Error al obtener libros para continuar leyendo: " + e.getMessage());
-        }
+                .all());
     }
 
     // ENDPOINTS PARA RECOMENDACIONES Y DESTACADOS
@@ -1282,53 +1455,9 @@ public class BookService {
         try {
             System.out.println("=== OBTENIENDO LIBROS DESTACADOS ===");
             
-            String cypher = "MATCH (b:Book) " +
-                           "WHERE b.average_rating IS NOT NULL AND b.average_rating > 0 " +
-                           "RETURN b.id as id, b.title as title, b.isbn as isbn, " +
-                           "       b.description as description, b.publication_year as publicationYear, " +
-                           "       b.page_count as pageCount, b.language as language, " +
-                           "       b.cover_image as coverImage, b.age_rating as ageRating, " +
-                           "       b.average_rating as averageRating, b.total_ratings as totalRatings, " +
-                           "       b.reading_difficulty as readingDifficulty " +
-                           "ORDER BY b.average_rating DESC, b.total_ratings DESC " +
-                           "LIMIT 10";
+            List<BookResponse> featuredBooks = getBookResponses(leaderboardService.getFeaturedIds());
             
-            List<Map<String, Object>> results = neo4jClient
-                .query(cypher)
-                .fetch()
-                .all()
-                .stream()
-                .collect(Collectors.toList());
-            
-            System.out.println("Libros destacados encontrados: " + results.size());
-            
-            List<BookResponse> featuredBooks = new ArrayList<>();
-            for (Map<String, Object> result : results) {
-                Book book = new Book();
-                book.setId((String) result.get("id"));
-                book.setTitle((String) result.get("title"));
-                book.setIsbn((String) result.get("isbn"));
-                book.setDescription((String) result.get("description"));
-                
-                // Convertir Long a Integer para campos numéricos
-                Object publicationYear = result.get("publicationYear");
-                book.setPublicationYear(publicationYear != null ? ((Long) publicationYear).intValue() : null);
-                
-                Object pageCount = result.get("pageCount");
-                book.setPageCount(pageCount != null ? ((Long) pageCount).intValue() : null);
-                
-                book.setLanguage((String) result.get("language"));
-                book.setCoverImage((String) result.get("coverImage"));
-                book.setAgeRating((String) result.get("ageRating"));
-                book.setAverageRating((Double) result.get("averageRating"));
-                
-                Object totalRatings = result.get("totalRatings");
-                book.setTotalRatings(totalRatings != null ? ((Long) totalRatings).intValue() : null);
-                
-                book.setReadingDifficulty((String) result.get("readingDifficulty"));
-                
-                featuredBooks.add(convertToBookResponse(book));
-            }
+            System.out.println("Libros destacados encontrados: " + featuredBooks.size());
             
             return featuredBooks;
                 
@@ -1347,67 +1476,26 @@ public class BookService {
             System.out.println("=== OBTENIENDO RECOMENDACIONES PARA USUARIO: " + userId + " ===");
             
             // Obtener géneros y tags de libros mejor calificados por el usuario (rating >= 4.0)
-            String cypher = "MATCH (u:User)-[r:RATED]->(b:Book) " +
-                           "WHERE u.id = $userId AND r.rating >= 4.0 " +
-                           "MATCH (b)-[:BELONGS_TO_GENRE]->(g:Genre) " +
-                           "MATCH (b)-[:HAS_TAG]->(t:Tag) " +
-                           "WITH COLLECT(DISTINCT g.id) AS likedGenres, COLLECT(DISTINCT t.id) AS likedTags " +
-                           "MATCH (rb:Book)-[:BELONGS_TO_GENRE]->(rg:Genre) " +
-                           "WHERE rg.id IN likedGenres AND rb.average_rating IS NOT NULL " +
-                           "AND NOT EXISTS((u:User)-[:RATED]->(rb) WHERE u.id = $userId) " +
-                           "RETURN DISTINCT rb.id as id, rb.title as title, rb.isbn as isbn, " +
-                           "       rb.description as description, rb.publication_year as publicationYear, " +
-                           "       rb.page_count as pageCount, rb.language as language, " +
-                           "       rb.cover_image as coverImage, rb.age_rating as ageRating, " +
-                           "       rb.average_rating as averageRating, rb.total_ratings as totalRatings, " +
-                           "       rb.reading_difficulty as readingDifficulty " +
-                           "ORDER BY rb.average_rating DESC " +
-                           "LIMIT 10";
+            List<BookResponse> recommendedBooks = bookReadService.query(
+                    "MATCH (u:User)-[r:RATED]->(b:Book) " +
+                    "WHERE u.id = $userId AND r.rating >= 4.0 " +
+                    "MATCH (b)-[:BELONGS_TO_GENRE]->(g:Genre) " +
+                    "MATCH (b)-[:HAS_TAG]->(t:Tag) " +
+                    "WITH COLLECT(DISTINCT g.id) AS likedGenres, COLLECT(DISTINCT t.id) AS likedTags " +
+                    "MATCH (rb:Book)-[:BELONGS_TO_GENRE]->(rg:Genre) " +
+                    "WHERE rg.id IN likedGenres AND rb.average_rating IS NOT NULL " +
+                    "AND NOT EXISTS { MATCH (:User {id: $userId})-[:RATED]->(rb) } " +
+                    "WITH DISTINCT rb AS b " +
+                    "ORDER BY b.average_rating DESC " +
+                    "LIMIT 10",
+                    Map.of("userId", userId));
             
-            List<Map<String, Object>> results = neo4jClient
-                .query(cypher)
-                .bind(userId).to("userId")
-                .fetch()
-                .all()
-                .stream()
-                .collect(Collectors.toList());
-            
-            System.out.println("Libros para recomendaciones encontrados: " + results.size());
-            
-            List<BookResponse> recommendedBooks = new ArrayList<>();
-            for (Map<String, Object> result : results) {
-                Book book = new Book();
-                book.setId((String) result.get("id"));
-                book.setTitle((String) result.get("title"));
-                book.setIsbn((String) result.get("isbn"));
-                book.setDescription((String) result.get("description"));
-                
-                // Convertir Long a Integer para campos numéricos
-                Object publicationYear = result.get("publicationYear");
-                book.setPublicationYear(publicationYear != null ? ((Long) publicationYear).intValue() : null);
-                
-                Object pageCount = result.get("pageCount");
-                book.setPageCount(pageCount != null ? ((Long) pageCount).intValue() : null);
-                
-                book.setLanguage((String) result.get("language"));
-                book.setCoverImage((String) result.get("coverImage"));
-                book.setAgeRating((String) result.get("ageRating"));
-                book.setAverageRating((Double) result.get("averageRating"));
-                
-                Object totalRatings = result.get("totalRatings");
-                book.setTotalRatings(totalRatings != null ? ((Long) totalRatings).intValue() : null);
-                
-                book.setReadingDifficulty((String) result.get("readingDifficulty"));
-                
-                recommendedBooks.add(convertToBookResponse(book));
-            }
+            System.out.println("Libros para recomendaciones encontrados: " + recommendedBooks.size());
             
             // Si no hay suficientes recomendaciones, completar con libros mejor calificados
             if (recommendedBooks.size() < 10) {
-                List<Book> topBooks = getTopRatedBooksNotRatedByUser(userId, 10 - recommendedBooks.size());
-                for (Book book : topBooks) {
-                    recommendedBooks.add(convertToBookResponse(book));
-                }
+                List<String> excludedIds = recommendedBooks.stream().map(BookResponse::getId).collect(Collectors.toList());
+                recommendedBooks.addAll(getTopRatedBooksNotRatedByUser(userId, excludedIds, 10 - recommendedBooks.size()));
             }
             
             return recommendedBooks;
@@ -1426,81 +1514,52 @@ public class BookService {
         try {
             System.out.println("=== OBTENIENDO TOP 10 LIBROS ===");
             
-            // Primero obtener libros con calificaciones
-            String cypher = "MATCH (b:Book) " +
-                           "WHERE b.average_rating IS NOT NULL " +
-                           "RETURN b " +
-                           "ORDER BY b.average_rating DESC, b.total_ratings DESC " +
-                           "LIMIT 10";
+            // Primero los libros con calificaciones, desde el ranking en memoria (solo IDs; las respuestas se arman al final)
+            List<String> topBookIds = new ArrayList<>(leaderboardService.getTop10Ids());
             
-            List<Book> topBooks = neo4jClient
-                .query(cypher)
-                .fetch()
-                .all()
-                .stream()
-                .map(record -> (Book) record.get("b"))
-                .collect(Collectors.toList());
-            
-            System.out.println("Libros con calificaciones encontrados: " + topBooks.size());
+            System.out.println("Libros con calificaciones encontrados: " + topBookIds.size());
             
             // Si faltan libros para completar 10, agregar libros relacionados
-            if (topBooks.size() < 10) {
-                int needed = 10 - topBooks.size();
-                List<String> existingIds = topBooks.stream().map(Book::getId).collect(Collectors.toList());
+            if (topBookIds.size() < 10) {
+                int needed = 10 - topBookIds.size();
                 
                 // Obtener géneros de los libros ya seleccionados
-                if (!topBooks.isEmpty()) {
+                if (!topBookIds.isEmpty()) {
                     String relatedCypher = "MATCH (tb:Book)-[:BELONGS_TO_GENRE]->(g:Genre)<-[:BELONGS_TO_GENRE]-(rb:Book) " +
                                          "WHERE tb.id IN $existingIds AND NOT rb.id IN $existingIds " +
-                                         "RETURN DISTINCT rb " +
-                                         "ORDER BY rb.publicationYear DESC " +
+                                         "WITH DISTINCT rb " +
+                                         "RETURN rb.id AS id " +
+                                         "ORDER BY rb.publication_year DESC " +
                                          "LIMIT $needed";
                     
-                    List<Book> relatedBooks = neo4jClient
-                        .query(relatedCypher)
-                        .bind(existingIds).to("existingIds")
-                        .bind(needed).to("needed")
-                        .fetch()
-                        .all()
-                        .stream()
-                        .map(record -> (Book) record.get("rb"))
-                        .collect(Collectors.toList());
+                    List<String> relatedBookIds = fetchBookIds(relatedCypher,
+                            Map.of("existingIds", topBookIds, "needed", needed));
                     
-                    topBooks.addAll(relatedBooks);
-                    System.out.println("Libros relacionados agregados: " + relatedBooks.size());
+                    topBookIds.addAll(relatedBookIds);
+                    System.out.println("Libros relacionados agregados: " + relatedBookIds.size());
                 }
                 
                 // Si aún faltan, completar con libros más recientes
-                if (topBooks.size() < 10) {
-                    int stillNeeded = 10 - topBooks.size();
-                    List<String> allExistingIds = topBooks.stream().map(Book::getId).collect(Collectors.toList());
+                if (topBookIds.size() < 10) {
+                    int stillNeeded = 10 - topBookIds.size();
                     
                     String recentCypher = "MATCH (b:Book) " +
                                         "WHERE NOT b.id IN $allExistingIds " +
-                                        "RETURN b " +
-                                        "ORDER BY b.publicationYear DESC " +
+                                        "RETURN b.id AS id " +
+                                        "ORDER BY b.publication_year DESC " +
                                         "LIMIT $stillNeeded";
                     
-                    List<Book> recentBooks = neo4jClient
-                        .query(recentCypher)
-                        .bind(allExistingIds).to("allExistingIds")
-                        .bind(stillNeeded).to("stillNeeded")
-                        .fetch()
-                        .all()
-                        .stream()
-                        .map(record -> (Book) record.get("b"))
-                        .collect(Collectors.toList());
+                    List<String> recentBookIds = fetchBookIds(recentCypher,
+                            Map.of("allExistingIds", new ArrayList<>(topBookIds), "stillNeeded", stillNeeded));
                     
-                    topBooks.addAll(recentBooks);
-                    System.out.println("Libros recientes agregados: " + recentBooks.size());
+                    topBookIds.addAll(recentBookIds);
+                    System.out.println("Libros recientes agregados: " + recentBookIds.size());
                 }
             }
             
-            System.out.println("Total de libros en top 10: " + topBooks.size());
+            System.out.println("Total de libros en top 10: " + topBookIds.size());
             
-            return topBooks.stream()
-                .map(this::convertToBookResponse)
-                .collect(Collectors.toList());
+            return getBookResponses(topBookIds);
                 
         } catch (Exception e) {
             System.out.println("ERROR en getTop10Books: " + e.getMessage());
@@ -1512,22 +1571,24 @@ public class BookService {
     /**
      * Método auxiliar para obtener libros mejor calificados que no han sido calificados por el usuario
      */
-    private List<Book> getTopRatedBooksNotRatedByUser(String userId, int limit) {
-        String cypher = "MATCH (b:Book) " +
-                       "WHERE b.average_rating IS NOT NULL " +
-                       "AND NOT EXISTS((u:User)-[:RATED]->(b) WHERE u.id = $userId) " +
-                       "RETURN b " +
-                       "ORDER BY b.average_rating DESC " +
-                       "LIMIT $limit";
-        
+    private List<BookResponse> getTopRatedBooksNotRatedByUser(String userId, List<String> excludedIds, int limit) {
+        return bookReadService.query(
+                "MATCH (b:Book) " +
+                "WHERE b.average_rating IS NOT NULL AND NOT b.id IN $excludedIds " +
+                "AND NOT EXISTS { MATCH (:User {id: $userId})-[:RATED]->(b) } " +
+                "WITH b ORDER BY b.average_rating DESC " +
+                "LIMIT $limit",
+                Map.of("userId", userId, "excludedIds", excludedIds, "limit", limit));
+    }
+
+    private List<String> fetchBookIds(String cypher, Map<String, Object> parameters) {
         return neo4jClient
             .query(cypher)
-            .bind(userId).to("userId")
-            .bind(limit).to("limit")
-            .fetch()
+            .bindAll(parameters)
+            .fetchAs(String.class)
+            .mappedBy((typeSystem, record) -> record.get("id").asString())
             .all()
             .stream()
-            .map(record -> (Book) record.get("b"))
             .collect(Collectors.toList());
     }
 
@@ -1551,43 +1612,12 @@ public class BookService {
                 offset = 0; // Offset por defecto
             }
             
-            // Usar Neo4jClient para obtener IDs de libros con paginación
-            String cypher = "MATCH (b:Book) " +
-                           "RETURN b.id AS bookId " +
-                           "ORDER BY b.title ASC " +
-                           "SKIP $offset LIMIT $limit";
-            
-            List<String> bookIds = neo4jClient
-                .query(cypher)
-                .bind(offset).to("offset")
-                .bind(limit).to("limit")
-                .fetch()
-                .all()
-                .stream()
-                .map(record -> (String) record.get("bookId"))
-                .collect(Collectors.toList());
-            
-            System.out.println("IDs de libros encontrados: " + bookIds.size());
-            
-            // Convertir a BookResponse cargando cada libro por ID
-            List<BookResponse> bookResponses = new ArrayList<>();
-            for (String bookId : bookIds) {
-                try {
-                    // Cargar el libro por ID para obtener las relaciones
-                    Optional<Book> bookOpt = bookRepository.findById(bookId);
-                    if (bookOpt.isPresent()) {
-                        Book book = bookOpt.get();
-                        BookResponse response = convertToBookResponse(book);
-                        bookResponses.add(response);
-                        System.out.println("Libro convertido: " + response.getTitle());
-                    } else {
-                        System.out.println("Libro no encontrado con ID: " + bookId);
-                    }
-                } catch (Exception e) {
-                    System.out.println("Error al convertir libro " + bookId + ": " + e.getMessage());
-                    // Continuar con el siguiente libro
-                }
-            }
+            // Una sola consulta: página de libros con autores, géneros, etiquetas, serie y capítulos
+            List<BookResponse> bookResponses = bookReadService.query(
+                    "MATCH (b:Book) " +
+                    "WITH b ORDER BY b.title ASC " +
+                    "SKIP $offset LIMIT $limit",
+                    Map.of("offset", offset, "limit", limit));
             
             System.out.println("Total de libros convertidos: " + bookResponses.size());
             return bookResponses;
@@ -1599,45 +1629,6 @@ public class BookService {
         }
     }
 
-    // Método para recalcular y actualizar los promedios de calificación de todos los libros
-    public void recalculateAllBookRatings() {
-        try {
-            System.out.println("=== RECALCULANDO PROMEDIOS DE CALIFICACIÓN ===");
-            
-            // Consulta para obtener todos los libros con sus calificaciones
-            String cypher = "MATCH (b:Book) " +
-                           "OPTIONAL MATCH (u:User)-[r:RATED]->(b) " +
-                           "WITH b, collect(r.rating) as ratings " +
-                           "WHERE size(ratings) > 0 " +
-                           "WITH b, ratings, " +
-                           "     reduce(sum = 0.0, rating IN ratings | sum + rating) as totalSum, " +
-                           "     size(ratings) as totalCount " +
-                           "SET b.average_rating = totalSum / totalCount, " +
-                           "    b.total_ratings = totalCount " +
-                           "RETURN b.id as bookId, b.average_rating as avgRating, b.total_ratings as totalRatings";
-            
-            List<Map<String, Object>> results = neo4jClient
-                .query(cypher)
-                .fetch()
-                .all()
-                .stream()
-                .collect(Collectors.toList());
-            
-            System.out.println("Libros actualizados con nuevos promedios: " + results.size());
-            
-            for (Map<String, Object> result : results) {
-                System.out.println("Libro ID: " + result.get("bookId") + 
-                                 " - Promedio: " + result.get("avgRating") + 
-                                 " - Total calificaciones: " + result.get("totalRatings"));
-            }
-            
-        } catch (Exception e) {
-            System.out.println("ERROR en recalculateAllBookRatings: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Error al recalcular promedios de calificación: " + e.getMessage());
-        }
-    }
-
     // Método para verificar si hay calificaciones en la base de datos
     public Map<String, Object> checkRatingsStatus() {
         try {
@@ -1704,6 +1695,7 @@ public class BookService {
             String deleteNodes = "MATCH (n) DELETE n";
             neo4jClient.query(deleteNodes).run();
             System.out.println("✓ Todos los nodos eliminados");
+            eventPublisher.publishEvent(BookChangedEvent.allDeleted());
             
             // Verificar que la base de datos esté vacía
             String countNodes = "MATCH (n) RETURN count(n) as nodeCount";
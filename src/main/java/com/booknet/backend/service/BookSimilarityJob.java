@@ -0,0 +1,294 @@
+package com.booknet.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Cálculo en segundo plano de los K libros más parecidos a cada libro, guardados como relaciones
+ * SIMILAR_TO (similarity_score, similarity_type, calculated_date) para que /api/books/{id}/similar
+ * sea una lectura de un salto.
+ *
+ * La puntuación combina:
+ * - similitud coseno entre los vectores de calificaciones (RATED) de los dos libros, atenuada
+ *   cuando tienen pocos lectores en común; la norma de cada libro sale de su rating_histogram;
+ * - Jaccard sobre géneros, etiquetas y autores compartidos.
+ *
+ * Una ejecución incremental solo recalcula los libros nuevos, los que recibieron calificaciones
+ * desde la ejecución anterior (RATED.updated_at) y los marcados con similarity_stale al borrar
+ * una calificación. Una ejecución completa recalcula todo el catálogo.
+ */
+@Service
+public class BookSimilarityJob {
+
+    public static final String JOB_NAME = "book-similarity";
+
+    public enum Status {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static final String CONTENT_RELATIONSHIPS = "BELONGS_TO_GENRE|HAS_TAG|WRITTEN_BY";
+
+    private static final String CANDIDATES =
+            "UNWIND $bookIds AS bookId " +
+            "MATCH (b:Book {id: bookId}) " +
+            // Co-calificaciones: lectores del libro (los más recientes, acotados) y sus otros libros
+            "CALL { WITH b " +
+            "       MATCH (b)<-[r1:RATED]-(u:User) " +
+            "       WITH b, r1, u ORDER BY coalesce(r1.updated_at, r1.created_at) DESC LIMIT $maxRaters " +
+            "       MATCH (u)-[r2:RATED]->(c:Book) WHERE c <> b " +
+            "       WITH c, sum(r1.rating * r2.rating) AS dot, count(*) AS common WHERE common >= $minCommon " +
+            "       RETURN collect({id: c.id, dot: dot, common: common, histogram: c.rating_histogram}) AS coRated } " +
+            // Contenido: libros que comparten géneros, etiquetas o autores
+            "CALL { WITH b " +
+            "       MATCH (b)-[:" + CONTENT_RELATIONSHIPS + "]->(t)<-[:" + CONTENT_RELATIONSHIPS + "]-(c:Book) WHERE c <> b " +
+            "       WITH c, count(DISTINCT t) AS shared ORDER BY shared DESC LIMIT $maxContentCandidates " +
+            "       RETURN collect({id: c.id, shared: shared, features: COUNT { (c)-[:" + CONTENT_RELATIONSHIPS + "]->() }}) AS content } " +
+            "RETURN b.id AS bookId, b.rating_histogram AS histogram, " +
+            "       COUNT { (b)-[:" + CONTENT_RELATIONSHIPS + "]->() } AS features, coRated, content";
+
+    // Reemplaza las relaciones SIMILAR_TO salientes de cada libro del lote
+    private static final String WRITE_SIMILAR =
+            "UNWIND $results AS row " +
+            "MATCH (b:Book {id: row.bookId}) " +
+            "CALL { WITH b MATCH (b)-[old:SIMILAR_TO]->() DELETE old } " +
+            "SET b.similarity_computed_at = $now " +
+            "REMOVE b.similarity_stale " +
+            "WITH b, row " +
+            "UNWIND row.similar AS similar " +
+            "MATCH (c:Book {id: similar.id}) " +
+            "CREATE (b)-[:SIMILAR_TO {similarity_score: similar.score, similarity_type: similar.type, calculated_date: $now}]->(c)";
+
+    private static final String DIRTY_BOOKS =
+            "CALL { " +
+            "    MATCH (:User)-[r:RATED]->(b:Book) WHERE r.updated_at >= $since RETURN b.id AS id " +
+            "    UNION " +
+            "    MATCH (b:Book) WHERE b.similarity_computed_at IS NULL OR b.similarity_stale = true RETURN b.id AS id " +
+            "} " +
+            "RETURN id ORDER BY id";
+
+    private final Neo4jClient neo4jClient;
+    private final int topK;
+    private final int batchSize;
+    private final int maxRaters;
+    private final int minCommon;
+    private final int maxContentCandidates;
+    private final double behaviorWeight;
+    private final double shrinkage;
+
+    private volatile Status status = Status.IDLE;
+    private volatile boolean fullRun;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private volatile long totalBooks;
+    private volatile long processedBooks;
+
+    public BookSimilarityJob(Neo4jClient neo4jClient,
+                             @Value("${booknet.jobs.book-similarity.top-k:20}") int topK,
+                             @Value("${booknet.jobs.book-similarity.batch-size:100}") int batchSize,
+                             @Value("${booknet.jobs.book-similarity.max-raters:500}") int maxRaters,
+                             @Value("${booknet.jobs.book-similarity.min-common-raters:2}") int minCommon,
+                             @Value("${booknet.jobs.book-similarity.max-content-candidates:200}") int maxContentCandidates,
+                             @Value("${booknet.jobs.book-similarity.behavior-weight:0.7}") double behaviorWeight,
+                             @Value("${booknet.jobs.book-similarity.shrinkage:5}") double shrinkage) {
+        this.neo4jClient = neo4jClient;
+        this.topK = Math.max(1, topK);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRaters = Math.max(1, maxRaters);
+        this.minCommon = Math.max(1, minCommon);
+        this.maxContentCandidates = Math.max(1, maxContentCandidates);
+        this.behaviorWeight = Math.max(0.0, Math.min(1.0, behaviorWeight));
+        this.shrinkage = Math.max(0.0, shrinkage);
+    }
+
+    @Scheduled(cron = "${booknet.jobs.book-similarity.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        start(false);
+    }
+
+    /**
+     * Lanza el cálculo en segundo plano y vuelve enseguida. Con full = false solo se recalculan
+     * los libros que cambiaron desde la última ejecución completada.
+     * Devuelve false si ya hay una ejecución en curso.
+     */
+    public synchronized boolean start(boolean full) {
+        if (status == Status.RUNNING) {
+            return false;
+        }
+
+        fullRun = full;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        totalBooks = 0;
+        processedBooks = 0;
+        status = Status.RUNNING;
+
+        LocalDateTime runStartedAt = startedAt;
+        Thread worker = new Thread(() -> run(full, runStartedAt), "book-similarity");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", status);
+        result.put("fullRun", fullRun);
+        result.put("startedAt", startedAt);
+        result.put("finishedAt", finishedAt);
+        result.put("totalBooks", totalBooks);
+        result.put("processedBooks", processedBooks);
+        result.put("lastCompletedRun", loadWatermark().orElse(null));
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void run(boolean full, LocalDateTime runStartedAt) {
+        try {
+            // Sin una ejecución completada antes no hay marca desde la cual medir cambios
+            Optional<LocalDateTime> watermark = full ? Optional.empty() : loadWatermark();
+            List<String> bookIds = watermark.isPresent() ? dirtyBookIds(watermark.get()) : allBookIds();
+            totalBooks = bookIds.size();
+
+            for (int from = 0; from < bookIds.size(); from += batchSize) {
+                List<String> batch = bookIds.subList(from, Math.min(bookIds.size(), from + batchSize));
+                writeBatch(computeBatch(batch));
+                processedBooks += batch.size();
+            }
+
+            // Las calificaciones que llegaron durante la ejecución se toman en la siguiente
+            saveWatermark(runStartedAt);
+            finishedAt = LocalDateTime.now();
+            status = Status.COMPLETED;
+            System.out.println("Similitud de libros calculada: " + processedBooks + " libros");
+        } catch (Exception e) {
+            // Sin avanzar la marca: la próxima ejecución incremental vuelve a tomar estos libros
+            lastError = e.getMessage();
+            finishedAt = LocalDateTime.now();
+            status = Status.FAILED;
+            System.err.println("Error al calcular la similitud de libros: " + e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> computeBatch(List<String> bookIds) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bookIds", bookIds);
+        parameters.put("maxRaters", maxRaters);
+        parameters.put("minCommon", minCommon);
+        parameters.put("maxContentCandidates", maxContentCandidates);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map<String, Object> row : neo4jClient.query(CANDIDATES).bindAll(parameters).fetch().all()) {
+            Map<String, double[]> scores = new HashMap<>();
+
+            double bookNorm = histogramNorm(row.get("histogram"));
+            for (Object entry : (List<?>) row.get("coRated")) {
+                Map<?, ?> candidate = (Map<?, ?>) entry;
+                double norm = bookNorm * histogramNorm(candidate.get("histogram"));
+                if (norm <= 0) {
+                    continue;
+                }
+                double common = ((Number) candidate.get("common")).doubleValue();
+                double cosine = Math.min(1.0, ((Number) candidate.get("dot")).doubleValue() / norm);
+                scores.computeIfAbsent((String) candidate.get("id"), id -> new double[2])[0] =
+                        cosine * common / (common + shrinkage);
+            }
+
+            long features = ((Number) row.get("features")).longValue();
+            for (Object entry : (List<?>) row.get("content")) {
+                Map<?, ?> candidate = (Map<?, ?>) entry;
+                double shared = ((Number) candidate.get("shared")).doubleValue();
+                double union = features + ((Number) candidate.get("features")).doubleValue() - shared;
+                if (union > 0) {
+                    scores.computeIfAbsent((String) candidate.get("id"), id -> new double[2])[1] = shared / union;
+                }
+            }
+
+            List<Map<String, Object>> similar = scores.entrySet().stream()
+                    .map(score -> {
+                        double behavior = behaviorWeight * score.getValue()[0];
+                        double content = (1.0 - behaviorWeight) * score.getValue()[1];
+                        Map<String, Object> edge = new HashMap<>();
+                        edge.put("id", score.getKey());
+                        edge.put("score", behavior + content);
+                        // "genre" cubre géneros, etiquetas y autores compartidos
+                        edge.put("type", behavior >= content ? "user_behavior" : "genre");
+                        return edge;
+                    })
+                    .filter(edge -> (Double) edge.get("score") > 0)
+                    .sorted(Comparator.comparing((Map<String, Object> edge) -> (Double) edge.get("score")).reversed())
+                    .limit(topK)
+                    .collect(Collectors.toList());
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("bookId", row.get("bookId"));
+            result.put("similar", similar);
+            results.add(result);
+        }
+        return results;
+    }
+
+    // Norma del vector de calificaciones a partir del histograma por media estrella
+    private static double histogramNorm(Object histogram) {
+        if (!(histogram instanceof List<?> buckets)) {
+            return 0.0;
+        }
+        double sumOfSquares = 0.0;
+        for (int i = 0; i < buckets.size(); i++) {
+            double rating = 1.0 + i * 0.5;
+            sumOfSquares += ((Number) buckets.get(i)).doubleValue() * rating * rating;
+        }
+        return Math.sqrt(sumOfSquares);
+    }
+
+    private void writeBatch(List<Map<String, Object>> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        neo4jClient.query(WRITE_SIMILAR)
+                .bind(results).to("results")
+                .bind(LocalDateTime.now()).to("now")
+                .run();
+    }
+
+    private List<String> allBookIds() {
+        return new ArrayList<>(neo4jClient.query("MATCH (b:Book) RETURN b.id AS id ORDER BY id")
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("id").asString())
+                .all());
+    }
+
+    private List<String> dirtyBookIds(LocalDateTime since) {
+        return new ArrayList<>(neo4jClient.query(DIRTY_BOOKS)
+                .bind(since).to("since")
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("id").asString())
+                .all());
+    }
+
+    private Optional<LocalDateTime> loadWatermark() {
+        return neo4jClient.query("MATCH (c:JobCheckpoint {job: $job, partition: 0}) RETURN c.completed_until AS completedUntil")
+                .bind(JOB_NAME).to("job")
+                .fetchAs(LocalDateTime.class)
+                .mappedBy((typeSystem, record) -> record.get("completedUntil").isNull() ? null : record.get("completedUntil").asLocalDateTime())
+                .one();
+    }
+
+    private void saveWatermark(LocalDateTime completedUntil) {
+        neo4jClient.query("MERGE (c:JobCheckpoint {job: $job, partition: 0}) " +
+                          "SET c.completed_until = $completedUntil, c.updated_at = localdatetime()")
+                .bind(JOB_NAME).to("job")
+                .bind(completedUntil).to("completedUntil")
+                .run();
+    }
+}
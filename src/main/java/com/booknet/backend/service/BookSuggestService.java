@@ -0,0 +1,285 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.SuggestionResponse;
+import com.booknet.backend.event.AuthorChangedEvent;
+import com.booknet.backend.event.BookChangedEvent;
+import com.booknet.backend.event.TaxonomyChangedEvent;
+import com.booknet.backend.service.PrefixIndex.Suggestion;
+import com.booknet.backend.util.TextNormalizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de prefijos en memoria para el autocompletado (/api/books/suggest).
+ *
+ * Cada título, autor, serie y género se indexa por su texto normalizado y por cada palabra
+ * a partir de la cual se puede empezar a escribir ("quij" encuentra "Don Quijote").
+ * Las claves están en un PrefixIndex (arreglo ordenado con árbol de segmentos de máximos sobre
+ * el peso), así el top-k se obtiene en O(k log n) sin recorrer todo el rango.
+ *
+ * Los cambios no reconstruyen el arreglo: van a un delta pequeño y las entradas viejas se
+ * marcan como eliminadas. Cuando el delta crece se compacta en un nuevo índice. Cada índice
+ * es inmutable y se publica en una referencia volátil, por lo que las lecturas no bloquean.
+ *
+ * Los eventos se atienden después del commit. Las calificaciones solo cambian pesos: se juntan
+ * por libro y se aplican por lotes como deltas sobre el libro y sus autores, serie y géneros, sin
+ * volver a sumar los libros de cada uno.
+ */
+@Service
+public class BookSuggestService {
+
+    public static final String TYPE_BOOK = "book";
+    public static final String TYPE_AUTHOR = "author";
+    public static final String TYPE_SERIES = "series";
+    public static final String TYPE_GENRE = "genre";
+
+    private static final int MAX_DELTA_SIZE = 2000;
+
+    // Peso de autores, series y géneros: suma de valoraciones de sus libros
+    private static final String ENTRIES_QUERY =
+            "MATCH (b:Book) " +
+            "RETURN 'book' AS type, b.id AS id, b.title AS text, coalesce(b.total_ratings, 0) AS weight " +
+            "UNION ALL " +
+            "MATCH (a:Author) " +
+            "RETURN 'author' AS type, a.id AS id, a.name AS text, " +
+            "       reduce(total = 0, r IN [(a)<-[:WRITTEN_BY]-(ab:Book) | coalesce(ab.total_ratings, 0)] | total + r) AS weight " +
+            "UNION ALL " +
+            "MATCH (s:Series) " +
+            "RETURN 'series' AS type, s.id AS id, s.name AS text, " +
+            "       reduce(total = 0, r IN [(s)<-[:PART_OF_SERIES]-(sb:Book) | coalesce(sb.total_ratings, 0)] | total + r) AS weight " +
+            "UNION ALL " +
+            "MATCH (g:Genre) " +
+            "RETURN 'genre' AS type, g.id AS id, g.name AS text, " +
+            "       reduce(total = 0, r IN [(g)<-[:BELONGS_TO_GENRE]-(gb:Book) | coalesce(gb.total_ratings, 0)] | total + r) AS weight";
+
+    // Libros creados o editados y las entidades relacionadas cuyo peso depende de ellos (recálculo exacto)
+    private static final String BOOK_ENTRIES_QUERY =
+            "UNWIND $bookIds AS bookId MATCH (b:Book {id: bookId}) " +
+            "RETURN 'book' AS type, b.id AS id, b.title AS text, coalesce(b.total_ratings, 0) AS weight " +
+            "UNION " +
+            "UNWIND $bookIds AS bookId MATCH (:Book {id: bookId})-[:WRITTEN_BY]->(a:Author) " +
+            "RETURN 'author' AS type, a.id AS id, a.name AS text, " +
+            "       reduce(total = 0, r IN [(a)<-[:WRITTEN_BY]-(ab:Book) | coalesce(ab.total_ratings, 0)] | total + r) AS weight " +
+            "UNION " +
+            "UNWIND $bookIds AS bookId MATCH (:Book {id: bookId})-[:PART_OF_SERIES]->(s:Series) " +
+            "RETURN 'series' AS type, s.id AS id, s.name AS text, " +
+            "       reduce(total = 0, r IN [(s)<-[:PART_OF_SERIES]-(sb:Book) | coalesce(sb.total_ratings, 0)] | total + r) AS weight " +
+            "UNION " +
+            "UNWIND $bookIds AS bookId MATCH (:Book {id: bookId})-[:BELONGS_TO_GENRE]->(g:Genre) " +
+            "RETURN 'genre' AS type, g.id AS id, g.name AS text, " +
+            "       reduce(total = 0, r IN [(g)<-[:BELONGS_TO_GENRE]-(gb:Book) | coalesce(gb.total_ratings, 0)] | total + r) AS weight";
+
+    // Autores, serie y géneros de cada libro, para repartir el cambio de peso de una calificación
+    private static final String RELATED_ENTITIES_QUERY =
+            "UNWIND $bookIds AS bookId " +
+            "MATCH (:Book {id: bookId})-[:WRITTEN_BY|PART_OF_SERIES|BELONGS_TO_GENRE]->(x) " +
+            "RETURN bookId, CASE WHEN x:Author THEN 'author' WHEN x:Series THEN 'series' ELSE 'genre' END AS type, " +
+            "       x.id AS id";
+
+    private static final String AUTHOR_ENTRIES_QUERY =
+            "MATCH (a:Author {id: $authorId}) " +
+            "RETURN 'author' AS type, a.id AS id, a.name AS text, " +
+            "       reduce(total = 0, r IN [(a)<-[:WRITTEN_BY]-(ab:Book) | coalesce(ab.total_ratings, 0)] | total + r) AS weight";
+
+    private static final String GENRE_ENTRIES_QUERY =
+            "MATCH (g:Genre {id: $genreId}) " +
+            "RETURN 'genre' AS type, g.id AS id, g.name AS text, " +
+            "       reduce(total = 0, r IN [(g)<-[:BELONGS_TO_GENRE]-(gb:Book) | coalesce(gb.total_ratings, 0)] | total + r) AS weight";
+
+    private final Neo4jClient neo4jClient;
+
+    private volatile PrefixIndex index = PrefixIndex.build(List.of());
+
+    // Último total de calificaciones por libro, pendiente de aplicar
+    private final Map<String, Integer> pendingRatings = new ConcurrentHashMap<>();
+
+    public BookSuggestService(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+            System.out.println("Índice de autocompletado cargado: " + index.size() + " claves");
+        } catch (Exception e) {
+            System.err.println("Error al cargar el índice de autocompletado: " + e.getMessage());
+        }
+    }
+
+    // Reconstruye el índice completo desde la base de datos
+    public synchronized void reload() {
+        index = PrefixIndex.build(loadSuggestions(ENTRIES_QUERY, Map.of()));
+    }
+
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String foldedPrefix = TextNormalizer.fold(prefix);
+        if (foldedPrefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<SuggestionResponse> result = new ArrayList<>();
+        for (Suggestion suggestion : index.topK(foldedPrefix, limit)) {
+            result.add(new SuggestionResponse(suggestion.type, suggestion.id, suggestion.text, suggestion.weight));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            if (event.isAllBooks()) {
+                pendingRatings.clear();
+                reload();
+            } else if (event.getChangeType() == BookChangedEvent.ChangeType.DELETED) {
+                event.getBookIds().forEach(bookId -> removeBook(bookId, event));
+            } else if (event.hasRating()) {
+                event.getBookIds().forEach(bookId -> pendingRatings.put(bookId, event.getTotalRatings()));
+            } else {
+                upsert(loadSuggestions(BOOK_ENTRIES_QUERY, Map.of("bookIds", event.getBookIds())));
+            }
+        } catch (Exception e) {
+            System.err.println("Error al actualizar el índice de autocompletado: " + e.getMessage());
+        }
+    }
+
+    // Aplica los cambios de calificación acumulados desde la última vuelta
+    @Scheduled(fixedDelayString = "${booknet.suggest.rating-flush-interval-ms:5000}")
+    public void flushRatingChanges() {
+        if (pendingRatings.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> totals = new HashMap<>();
+        for (String bookId : new ArrayList<>(pendingRatings.keySet())) {
+            Integer total = pendingRatings.remove(bookId);
+            if (total != null) {
+                totals.put(bookId, total);
+            }
+        }
+
+        try {
+            Map<String, List<String>> relatedByBook = new HashMap<>();
+            neo4jClient.query(RELATED_ENTITIES_QUERY)
+                    .bind(new ArrayList<>(totals.keySet())).to("bookIds")
+                    .fetch()
+                    .all()
+                    .forEach(record -> relatedByBook
+                            .computeIfAbsent((String) record.get("bookId"), bookId -> new ArrayList<>())
+                            .add(PrefixIndex.entityKey((String) record.get("type"), (String) record.get("id"))));
+            applyBookWeights(totals, relatedByBook);
+        } catch (Exception e) {
+            // Se reintenta en la próxima vuelta, sin pisar totales más nuevos
+            totals.forEach(pendingRatings::putIfAbsent);
+            System.err.println("Error al actualizar los pesos del autocompletado: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        try {
+            if (event.isDeleted()) {
+                remove(List.of(PrefixIndex.entityKey(TYPE_AUTHOR, event.getAuthorId())));
+            } else {
+                upsert(loadSuggestions(AUTHOR_ENTRIES_QUERY, Map.of("authorId", event.getAuthorId())));
+            }
+        } catch (Exception e) {
+            System.err.println("Error al actualizar el índice de autocompletado: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaxonomyChanged(TaxonomyChangedEvent event) {
+        if (!TaxonomyChangedEvent.GENRE.equals(event.getType())) {
+            return;
+        }
+        try {
+            List<Suggestion> suggestions = loadSuggestions(GENRE_ENTRIES_QUERY, Map.of("genreId", event.getId()));
+            if (suggestions.isEmpty()) {
+                remove(List.of(PrefixIndex.entityKey(TYPE_GENRE, event.getId())));
+            } else {
+                upsert(suggestions);
+            }
+        } catch (Exception e) {
+            System.err.println("Error al actualizar el índice de autocompletado: " + e.getMessage());
+        }
+    }
+
+    // El peso del libro pasa a su nuevo total y la diferencia se suma a sus autores, serie y géneros
+    private synchronized void applyBookWeights(Map<String, Integer> totals, Map<String, List<String>> relatedByBook) {
+        List<Suggestion> upserts = new ArrayList<>();
+        Map<String, Long> entityDeltas = new HashMap<>();
+        totals.forEach((bookId, total) -> {
+            Suggestion book = index.find(PrefixIndex.entityKey(TYPE_BOOK, bookId));
+            if (book == null || book.weight == total) {
+                return;
+            }
+            upserts.add(book.withWeight(total));
+            long delta = total - book.weight;
+            relatedByBook.getOrDefault(bookId, List.of()).forEach(key -> entityDeltas.merge(key, delta, Long::sum));
+        });
+        upserts.addAll(withWeightDeltas(entityDeltas));
+        upsert(upserts);
+    }
+
+    // Al borrar un libro su peso se descuenta de los autores, serie y géneros que tenía
+    private synchronized void removeBook(String bookId, BookChangedEvent event) {
+        pendingRatings.remove(bookId);
+        String bookKey = PrefixIndex.entityKey(TYPE_BOOK, bookId);
+        Suggestion book = index.find(bookKey);
+        remove(List.of(bookKey));
+        if (book == null || book.weight == 0) {
+            return;
+        }
+
+        Map<String, Long> entityDeltas = new HashMap<>();
+        event.getAuthorIds().forEach(id -> entityDeltas.put(PrefixIndex.entityKey(TYPE_AUTHOR, id), -book.weight));
+        event.getSeriesIds().forEach(id -> entityDeltas.put(PrefixIndex.entityKey(TYPE_SERIES, id), -book.weight));
+        event.getGenreIds().forEach(id -> entityDeltas.put(PrefixIndex.entityKey(TYPE_GENRE, id), -book.weight));
+        upsert(withWeightDeltas(entityDeltas));
+    }
+
+    private List<Suggestion> withWeightDeltas(Map<String, Long> entityDeltas) {
+        List<Suggestion> adjusted = new ArrayList<>();
+        entityDeltas.forEach((entityKey, delta) -> {
+            Suggestion current = index.find(entityKey);
+            if (current != null && delta != 0) {
+                adjusted.add(current.withWeight(Math.max(0, current.weight + delta)));
+            }
+        });
+        return adjusted;
+    }
+
+    private synchronized void upsert(List<Suggestion> suggestions) {
+        if (!suggestions.isEmpty()) {
+            index = compactIfNeeded(index.withUpserts(suggestions));
+        }
+    }
+
+    private synchronized void remove(List<String> entityKeys) {
+        index = compactIfNeeded(index.withRemovals(entityKeys));
+    }
+
+    private PrefixIndex compactIfNeeded(PrefixIndex candidate) {
+        return candidate.deltaSize() > MAX_DELTA_SIZE ? PrefixIndex.build(candidate.liveSuggestions()) : candidate;
+    }
+
+    private List<Suggestion> loadSuggestions(String cypher, Map<String, Object> parameters) {
+        return new ArrayList<>(neo4jClient.query(cypher)
+                .bindAll(parameters)
+                .fetchAs(Suggestion.class)
+                .mappedBy((typeSystem, record) -> new Suggestion(
+                        record.get("type").asString(),
+                        record.get("id").asString(),
+                        record.get("text").isNull() ? "" : record.get("text").asString(),
+                        record.get("weight").asNumber().longValue()))
+                .all());
+    }
+}
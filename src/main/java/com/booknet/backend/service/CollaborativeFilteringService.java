@@ -0,0 +1,214 @@
+package com.booknet.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Filtrado colaborativo por vecindario de usuarios sobre RatingMatrix, sin consultas al grafo.
+ *
+ * Los vecinos de un usuario salen de recorrer todas las filas de la matriz con fork/join (rangos de
+ * usuarios en paralelo): similitud coseno entre los vectores de calificaciones, atenuada cuando
+ * comparten pocos libros. La calificación estimada de un libro es el promedio del usuario más la
+ * desviación ponderada de los vecinos que lo calificaron respecto de sus propios promedios.
+ */
+@Service
+public class CollaborativeFilteringService {
+
+    private static final int USERS_PER_TASK = 2048;
+
+    private final RatingMatrix ratingMatrix;
+    private final int neighborCount;
+    private final int minCommonBooks;
+    private final double shrinkage;
+
+    public CollaborativeFilteringService(RatingMatrix ratingMatrix,
+                                         @Value("${booknet.recommendations.collaborative.neighbors:30}") int neighborCount,
+                                         @Value("${booknet.recommendations.collaborative.min-common-books:3}") int minCommonBooks,
+                                         @Value("${booknet.recommendations.collaborative.shrinkage:10}") double shrinkage) {
+        this.ratingMatrix = ratingMatrix;
+        this.neighborCount = Math.max(1, neighborCount);
+        this.minCommonBooks = Math.max(1, minCommonBooks);
+        this.shrinkage = Math.max(0.0, shrinkage);
+    }
+
+    /**
+     * Libros que el usuario no calificó, de mayor a menor calificación estimada.
+     * Vacío (Optional.empty) mientras la matriz no está cargada.
+     */
+    public Optional<List<ScoredBook>> recommend(String userId, int limit) {
+        if (!ratingMatrix.isLoaded()) {
+            return Optional.empty();
+        }
+
+        RatingMatrix.View view = ratingMatrix.view();
+        OptionalInt user = ratingMatrix.findUser(userId);
+        if (user.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        RatingMatrix.Row ratings = view.userRow(user.getAsInt());
+        if (ratings.size() == 0) {
+            return Optional.of(List.of());
+        }
+
+        // Calificaciones del usuario en un arreglo denso (NaN = sin calificar) para cruzarlas en O(1)
+        float[] target = new float[view.bookCount()];
+        Arrays.fill(target, Float.NaN);
+        double sumOfSquares = 0;
+        for (int i = 0; i < ratings.size(); i++) {
+            target[ratings.index(i)] = ratings.rating(i);
+            sumOfSquares += ratings.rating(i) * ratings.rating(i);
+        }
+
+        List<Neighbor> neighbors = ForkJoinPool.commonPool().invoke(
+                new NeighborScan(view, user.getAsInt(), target, Math.sqrt(sumOfSquares), 0, view.userCount()));
+
+        // Por libro: desviación ponderada, suma de pesos y cantidad de vecinos que lo calificaron
+        Map<Integer, double[]> scores = new HashMap<>();
+        for (Neighbor neighbor : neighbors) {
+            RatingMatrix.Row row = view.userRow(neighbor.user);
+            float mean = row.mean();
+            for (int i = 0; i < row.size(); i++) {
+                int book = row.index(i);
+                if (!Float.isNaN(target[book]) || view.isBookRemoved(book)) {
+                    continue;
+                }
+                double[] score = scores.computeIfAbsent(book, index -> new double[3]);
+                score[0] += neighbor.similarity * (row.rating(i) - mean);
+                score[1] += neighbor.similarity;
+                score[2]++;
+            }
+        }
+
+        float userMean = ratings.mean();
+        return Optional.of(scores.entrySet().stream()
+                .map(entry -> new Candidate(entry.getKey(),
+                        Math.max(1.0, Math.min(5.0, userMean + entry.getValue()[0] / entry.getValue()[1])),
+                        (int) entry.getValue()[2]))
+                .sorted(Comparator.comparingDouble((Candidate candidate) -> candidate.predictedRating).reversed()
+                        .thenComparing(Comparator.comparingInt((Candidate candidate) -> candidate.support).reversed()))
+                .limit(limit)
+                .map(candidate -> new ScoredBook(ratingMatrix.bookId(candidate.book), candidate.predictedRating, candidate.support))
+                .collect(Collectors.toList()));
+    }
+
+    // Cada hoja recorre un rango de usuarios y devuelve sus mejores vecinos; al unir se vuelve a recortar
+    private final class NeighborScan extends RecursiveTask<List<Neighbor>> {
+        private static final long serialVersionUID = 1L;
+
+        private final RatingMatrix.View view;
+        private final int self;
+        private final float[] target;
+        private final double targetNorm;
+        private final int from;
+        private final int to;
+
+        NeighborScan(RatingMatrix.View view, int self, float[] target, double targetNorm, int from, int to) {
+            this.view = view;
+            this.self = self;
+            this.target = target;
+            this.targetNorm = targetNorm;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Neighbor> compute() {
+            if (to - from > USERS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                NeighborScan left = new NeighborScan(view, self, target, targetNorm, from, middle);
+                left.fork();
+                List<Neighbor> right = new NeighborScan(view, self, target, targetNorm, middle, to).compute();
+                List<Neighbor> merged = new ArrayList<>(left.join());
+                merged.addAll(right);
+                merged.sort(Comparator.comparingDouble((Neighbor neighbor) -> neighbor.similarity).reversed());
+                return merged.size() > neighborCount ? merged.subList(0, neighborCount) : merged;
+            }
+
+            PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(neighbor -> neighbor.similarity));
+            for (int user = from; user < to; user++) {
+                if (user == self || view.isUserRemoved(user)) {
+                    continue;
+                }
+                RatingMatrix.Row row = view.userRow(user);
+                double dot = 0;
+                double sumOfSquares = 0;
+                int common = 0;
+                for (int i = 0; i < row.size(); i++) {
+                    float rating = row.rating(i);
+                    sumOfSquares += rating * rating;
+                    float targetRating = target[row.index(i)];
+                    if (!Float.isNaN(targetRating)) {
+                        dot += rating * targetRating;
+                        common++;
+                    }
+                }
+                if (common < minCommonBooks) {
+                    continue;
+                }
+
+                double similarity = dot / (targetNorm * Math.sqrt(sumOfSquares)) * common / (common + shrinkage);
+                if (best.size() < neighborCount) {
+                    best.add(new Neighbor(user, similarity));
+                } else if (similarity > best.peek().similarity) {
+                    best.poll();
+                    best.add(new Neighbor(user, similarity));
+                }
+            }
+            List<Neighbor> result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble((Neighbor neighbor) -> neighbor.similarity).reversed());
+            return result;
+        }
+    }
+
+    private static final class Neighbor {
+        private final int user;
+        private final double similarity;
+
+        Neighbor(int user, double similarity) {
+            this.user = user;
+            this.similarity = similarity;
+        }
+    }
+
+    private static final class Candidate {
+        private final int book;
+        private final double predictedRating;
+        private final int support;
+
+        Candidate(int book, double predictedRating, int support) {
+            this.book = book;
+            this.predictedRating = predictedRating;
+            this.support = support;
+        }
+    }
+
+    public static final class ScoredBook {
+        private final String bookId;
+        private final double predictedRating;
+        private final int support;
+
+        public ScoredBook(String bookId, double predictedRating, int support) {
+            this.bookId = bookId;
+            this.predictedRating = predictedRating;
+            this.support = support;
+        }
+
+        public String getBookId() {
+            return bookId;
+        }
+
+        public double getPredictedRating() {
+            return predictedRating;
+        }
+
+        // Vecinos que calificaron el libro
+        public int getSupport() {
+            return support;
+        }
+    }
+}
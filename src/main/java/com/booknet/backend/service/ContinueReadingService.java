@@ -0,0 +1,136 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.BookResponse;
+import com.booknet.backend.dto.ContinueReadingResponse;
+import com.booknet.backend.event.ReadingProgressChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Estante "continuar leyendo": libros con READ.status = 'reading' del usuario, del más reciente
+ * al más antiguo según la última actualización del progreso.
+ *
+ * Por usuario se cachea solo la lista de (libro, progreso, capítulo, fecha); los BookResponse salen
+ * de BookResponseCache. La entrada de un usuario se descarta cuando ReadingProgressBuffer escribe
+ * su progreso (ReadingProgressChangedEvent).
+ */
+@Service
+public class ContinueReadingService {
+
+    public static final int MAX_BOOKS = 20;
+
+    private static final String CONTINUE_READING_QUERY =
+            "MATCH (:User {id: $userId})-[r:READ]->(b:Book) WHERE r.status = 'reading' " +
+            "RETURN b.id AS bookId, r.progress_percentage AS progressPercentage, " +
+            "       r.current_chapter AS currentChapter, r.updated_at AS updatedAt " +
+            "ORDER BY r.updated_at DESC LIMIT $limit";
+
+    private final Neo4jClient neo4jClient;
+    private final ReadingProgressBuffer readingProgressBuffer;
+    private final BookResponseCache bookResponseCache;
+    private final BookReadService bookReadService;
+    private final int maxUsers;
+
+    // LinkedHashMap en orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, List<ShelfEntry>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // Cambia con cada invalidación: una carga iniciada antes no debe guardar datos viejos
+    private long generation;
+
+    public ContinueReadingService(Neo4jClient neo4jClient, ReadingProgressBuffer readingProgressBuffer,
+                                  BookResponseCache bookResponseCache, BookReadService bookReadService,
+                                  @Value("${booknet.cache.continue-reading.max-users:10000}") int maxUsers) {
+        this.neo4jClient = neo4jClient;
+        this.readingProgressBuffer = readingProgressBuffer;
+        this.bookResponseCache = bookResponseCache;
+        this.bookReadService = bookReadService;
+        this.maxUsers = Math.max(1, maxUsers);
+    }
+
+    public List<ContinueReadingResponse> getContinueReading(String userId, int limit) {
+        // Lo que el usuario acaba de reportar se escribe antes (y eso invalida su entrada)
+        readingProgressBuffer.flushUser(userId);
+
+        List<ShelfEntry> shelf;
+        long loadGeneration;
+        synchronized (this) {
+            shelf = entries.get(userId);
+            loadGeneration = generation;
+        }
+        if (shelf == null) {
+            shelf = loadShelf(userId);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(userId, shelf);
+                    evictOverflow();
+                }
+            }
+        }
+
+        List<ShelfEntry> requested = shelf.subList(0, Math.min(Math.max(1, limit), shelf.size()));
+        Map<String, BookResponse> books = bookResponseCache
+                .getAllOrLoad(requested.stream().map(entry -> entry.bookId).collect(Collectors.toList()),
+                        bookReadService::findByIds)
+                .stream()
+                .collect(Collectors.toMap(BookResponse::getId, Function.identity()));
+
+        List<ContinueReadingResponse> result = new ArrayList<>();
+        for (ShelfEntry entry : requested) {
+            BookResponse book = books.get(entry.bookId);
+            if (book != null) {
+                result.add(new ContinueReadingResponse(book, entry.progressPercentage, entry.currentChapter,
+                        entry.updatedAt != null ? entry.updatedAt.toString() : null));
+            }
+        }
+        return result;
+    }
+
+    @EventListener
+    public synchronized void onReadingProgressChanged(ReadingProgressChangedEvent event) {
+        generation++;
+        for (String userId : event.getUserIds()) {
+            entries.remove(userId);
+        }
+    }
+
+    private List<ShelfEntry> loadShelf(String userId) {
+        return List.copyOf(neo4jClient.query(CONTINUE_READING_QUERY)
+                .bind(userId).to("userId")
+                .bind(MAX_BOOKS).to("limit")
+                .fetchAs(ShelfEntry.class)
+                .mappedBy((typeSystem, record) -> new ShelfEntry(
+                        record.get("bookId").asString(),
+                        record.get("progressPercentage").isNull() ? null : record.get("progressPercentage").asDouble(),
+                        record.get("currentChapter").isNull() ? null : record.get("currentChapter").asString(),
+                        record.get("updatedAt").isNull() ? null : record.get("updatedAt").asLocalDateTime()))
+                .all());
+    }
+
+    private void evictOverflow() {
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > maxUsers && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class ShelfEntry {
+        private final String bookId;
+        private final Double progressPercentage;
+        private final String currentChapter;
+        private final LocalDateTime updatedAt;
+
+        ShelfEntry(String bookId, Double progressPercentage, String currentChapter, LocalDateTime updatedAt) {
+            this.bookId = bookId;
+            this.progressPercentage = progressPercentage;
+            this.currentChapter = currentChapter;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.BookResponse;
+import com.booknet.backend.dto.CursorPageResponse;
+import com.booknet.backend.dto.FeedItemResponse;
+import com.booknet.backend.event.UserActivityEvent;
+import com.booknet.backend.util.PageCursor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Feed de actividad de las cuentas que sigue un usuario (calificaciones, libros terminados y favoritos).
+ *
+ * Cada actividad se guarda una vez como nodo :Activity y se reparte (fan-out on write) a las
+ * timelines en memoria de los seguidores que estén cargadas: un buffer circular por usuario con
+ * las actividades más recientes. Una timeline que no está en memoria se reconstruye desde los
+ * nodos :Activity al leerla, así que el buffer es solo una caché y un reinicio no pierde nada.
+ *
+ * Las cuentas con más de booknet.feed.celebrity-threshold seguidores no se reparten: sus
+ * actividades se leen al pedir el feed (pull on read) con el índice (actor_id, created_at).
+ * Una página cuesta lo mismo que su tamaño; solo las páginas más antiguas que el buffer
+ * consultan la base de datos.
+ */
+@Service
+public class FeedService {
+
+    private static final String INSERT_ACTIVITY =
+            "MATCH (u:User {id: $userId}) " +
+            "CREATE (a:Activity {id: $id, type: $type, actor_id: u.id, actor_username: u.username, " +
+            "                    book_id: $bookId, rating: $rating, created_at: $createdAt}) " +
+            "RETURN a.actor_username AS username, coalesce(u.followers_count, 0) AS followers";
+
+    private static final String FOLLOWER_IDS =
+            "MATCH ()-[f:FOLLOWS]->() WHERE f.followee_id = $userId RETURN f.follower_id AS followerId";
+
+    private static final String FOLLOWEES =
+            "MATCH ()-[f:FOLLOWS]->(followee:User) WHERE f.follower_id = $userId " +
+            "RETURN followee.id AS id, coalesce(followee.followers_count, 0) > $threshold AS celebrity";
+
+    private static final String ACTIVITY_PROJECTION =
+            "RETURN a.id AS id, a.type AS type, a.actor_id AS userId, a.actor_username AS username, " +
+            "       a.book_id AS bookId, a.rating AS rating, a.created_at AS createdAt ";
+
+    private static final Comparator<FeedItem> NEWEST_FIRST =
+            Comparator.comparing((FeedItem item) -> item.createdAt).thenComparing(item -> item.id).reversed();
+
+    private final Neo4jClient neo4jClient;
+    private final BookResponseCache bookResponseCache;
+    private final BookReadService bookReadService;
+    private final int timelineSize;
+    private final int maxTimelines;
+    private final long celebrityThreshold;
+    private final long timelineTtlMillis;
+    private final int retentionDays;
+
+    // LinkedHashMap en orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, Timeline> timelines = new LinkedHashMap<>(256, 0.75f, true);
+    // Un solo hilo: el fan-out no retrasa la petición que generó la actividad y conserva el orden
+    private final ExecutorService fanOutExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "feed-fan-out");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FeedService(Neo4jClient neo4jClient, BookResponseCache bookResponseCache, BookReadService bookReadService,
+                       @Value("${booknet.feed.timeline-size:200}") int timelineSize,
+                       @Value("${booknet.feed.max-timelines:10000}") int maxTimelines,
+                       @Value("${booknet.feed.celebrity-threshold:5000}") long celebrityThreshold,
+                       @Value("${booknet.feed.timeline-ttl-minutes:10}") long timelineTtlMinutes,
+                       @Value("${booknet.feed.retention-days:90}") int retentionDays) {
+        this.neo4jClient = neo4jClient;
+        this.bookResponseCache = bookResponseCache;
+        this.bookReadService = bookReadService;
+        this.timelineSize = Math.max(1, timelineSize);
+        this.maxTimelines = Math.max(1, maxTimelines);
+        this.celebrityThreshold = Math.max(0, celebrityThreshold);
+        this.timelineTtlMillis = TimeUnit.MINUTES.toMillis(Math.max(1, timelineTtlMinutes));
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+
+    public CursorPageResponse<FeedItemResponse> getFeed(String userId, String cursor, int limit) {
+        FeedItem after = null;
+        if (!PageCursor.isFirstPage(cursor)) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            after = new FeedItem(pageCursor.getId(), null, null, null, null, null, pageCursor.getKeyAsDateTime());
+        }
+
+        Timeline timeline = getTimeline(userId);
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<FeedItem> items = timeline.page(after, limit + 1);
+        if (items.size() <= limit && timeline.isTruncated()) {
+            // La página llega más atrás que el buffer: se completa desde los nodos :Activity
+            items = findActivities(timeline.getFolloweeIds(), after, limit + 1);
+        }
+        if (!timeline.getCelebrityIds().isEmpty()) {
+            items = new ArrayList<>(items);
+            items.addAll(findActivities(timeline.getCelebrityIds(), after, limit + 1));
+            items.sort(NEWEST_FIRST);
+        }
+
+        boolean hasNext = items.size() > limit;
+        if (hasNext) {
+            items = items.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            FeedItem last = items.get(items.size() - 1);
+            nextCursor = PageCursor.encode(last.createdAt, last.id);
+        }
+
+        return new CursorPageResponse<>(toResponses(items), nextCursor, hasNext, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserActivity(UserActivityEvent event) {
+        fanOutExecutor.execute(() -> {
+            try {
+                publish(event);
+            } catch (Exception e) {
+                System.err.println("Error al publicar actividad en el feed: " + e.getMessage());
+            }
+        });
+    }
+
+    // Seguir o dejar de seguir cambia de quién se arma la timeline: se reconstruye en la próxima lectura
+    public void followingChanged(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    /**
+     * Borra las actividades de un usuario que se está eliminando, en la transacción en curso. Tras el
+     * commit se descartan su timeline y las de quienes lo seguían (y las que se estaban cargando), que
+     * se reconstruyen sin esas actividades en la próxima lectura.
+     */
+    public void userDeleted(String userId) {
+        neo4jClient.query("MATCH (a:Activity {actor_id: $userId}) DELETE a")
+                .bind(userId).to("userId")
+                .run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictActor(userId);
+                }
+            });
+        } else {
+            evictActor(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booknet.feed.prune-interval-ms:3600000}")
+    public void pruneOldActivities() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long deleted;
+        do {
+            deleted = neo4jClient.query("MATCH (a:Activity) WHERE a.created_at < $before WITH a LIMIT 10000 " +
+                                        "DELETE a RETURN count(a) AS deleted")
+                    .bind(before).to("before")
+                    .fetchAs(Long.class)
+                    .mappedBy((typeSystem, record) -> record.get("deleted").asLong())
+                    .one()
+                    .orElse(0L);
+        } while (deleted > 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+
+    private void publish(UserActivityEvent event) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("id", UUID.randomUUID().toString());
+        parameters.put("type", event.getType().name());
+        parameters.put("userId", event.getUserId());
+        parameters.put("bookId", event.getBookId());
+        parameters.put("rating", event.getRating());
+        parameters.put("createdAt", event.getOccurredAt());
+
+        Optional<Map<String, Object>> inserted = neo4jClient.query(INSERT_ACTIVITY)
+                .bindAll(parameters)
+                .fetch()
+                .one();
+        if (inserted.isEmpty() || ((Number) inserted.get().get("followers")).longValue() > celebrityThreshold) {
+            return; // Usuario inexistente, o cuenta con demasiados seguidores: se lee al pedir el feed
+        }
+
+        FeedItem item = new FeedItem((String) parameters.get("id"), event.getType().name(), event.getUserId(),
+                (String) inserted.get().get("username"), event.getBookId(), event.getRating(), event.getOccurredAt());
+        for (String followerId : neo4jClient.query(FOLLOWER_IDS)
+                .bind(event.getUserId()).to("userId")
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("followerId").asString())
+                .all()) {
+            Timeline timeline;
+            synchronized (timelines) {
+                timeline = timelines.get(followerId);
+            }
+            // Las timelines que no están en memoria verán la actividad al reconstruirse
+            if (timeline != null) {
+                timeline.push(item);
+            }
+        }
+    }
+
+    private Timeline getTimeline(String userId) {
+        Timeline timeline;
+        synchronized (timelines) {
+            timeline = timelines.get(userId);
+            if (timeline == null || timeline.isExpired(timelineTtlMillis)) {
+                // Se registra antes de cargarla para que el fan-out concurrente no se pierda
+                timeline = new Timeline(timelineSize);
+                timelines.put(userId, timeline);
+                Iterator<String> iterator = timelines.keySet().iterator();
+                while (timelines.size() > maxTimelines && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (!timeline.isLoaded()) {
+            Set<String> followeeIds = new HashSet<>();
+            Set<String> celebrityIds = new HashSet<>();
+            neo4jClient.query(FOLLOWEES)
+                    .bind(userId).to("userId")
+                    .bind(celebrityThreshold).to("threshold")
+                    .fetch()
+                    .all()
+                    .forEach(row -> ((Boolean) row.get("celebrity") ? celebrityIds : followeeIds).add((String) row.get("id")));
+            timeline.fill(followeeIds, celebrityIds, findActivities(followeeIds, null, timelineSize));
+        }
+        return timeline;
+    }
+
+    private void evict(String userId) {
+        synchronized (timelines) {
+            timelines.remove(userId);
+        }
+    }
+
+    private void evictActor(String actorId) {
+        synchronized (timelines) {
+            timelines.remove(actorId);
+            timelines.values().removeIf(timeline -> !timeline.isLoaded()
+                    || timeline.getFolloweeIds().contains(actorId) || timeline.getCelebrityIds().contains(actorId));
+        }
+    }
+
+    private List<FeedItem> findActivities(Collection<String> actorIds, FeedItem after, int limit) {
+        if (actorIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("actorIds", new ArrayList<>(actorIds));
+        parameters.put("limit", limit);
+        String keysetFilter = "";
+        if (after != null) {
+            parameters.put("createdAt", after.createdAt);
+            parameters.put("activityId", after.id);
+            keysetFilter = "AND a.created_at <= $createdAt AND (a.created_at < $createdAt OR a.id < $activityId) ";
+        }
+
+        return new ArrayList<>(neo4jClient
+                .query("MATCH (a:Activity) WHERE a.actor_id IN $actorIds " + keysetFilter + ACTIVITY_PROJECTION +
+                       "ORDER BY a.created_at DESC, a.id DESC LIMIT $limit")
+                .bindAll(parameters)
+                .fetchAs(FeedItem.class)
+                .mappedBy((typeSystem, record) -> new FeedItem(
+                        record.get("id").asString(),
+                        record.get("type").asString(),
+                        record.get("userId").asString(),
+                        record.get("username").asString(null),
+                        record.get("bookId").asString(),
+                        record.get("rating").isNull() ? null : record.get("rating").asDouble(),
+                        record.get("createdAt").asLocalDateTime()))
+                .all());
+    }
+
+    // Los libros salen de BookResponseCache; las actividades de libros borrados se omiten
+    private List<FeedItemResponse> toResponses(List<FeedItem> items) {
+        List<String> bookIds = items.stream().map(item -> item.bookId).distinct().collect(Collectors.toList());
+        Map<String, BookResponse> books = bookResponseCache.getAllOrLoad(bookIds, bookReadService::findByIds)
+                .stream()
+                .collect(Collectors.toMap(BookResponse::getId, Function.identity()));
+
+        List<FeedItemResponse> responses = new ArrayList<>();
+        for (FeedItem item : items) {
+            BookResponse book = books.get(item.bookId);
+            if (book != null) {
+                responses.add(new FeedItemResponse(item.id, item.type, item.userId, item.username, item.rating,
+                        item.createdAt, book));
+            }
+        }
+        return responses;
+    }
+
+    private static final class FeedItem {
+        private final String id;
+        private final String type;
+        private final String userId;
+        private final String username;
+        private final String bookId;
+        private final Double rating;
+        private final LocalDateTime createdAt;
+
+        FeedItem(String id, String type, String userId, String username, String bookId, Double rating,
+                 LocalDateTime createdAt) {
+            this.id = id;
+            this.type = type;
+            this.userId = userId;
+            this.username = username;
+            this.bookId = bookId;
+            this.rating = rating;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Buffer circular de las actividades más recientes de las cuentas que sigue un usuario,
+     * de la más nueva a la más antigua. Al llenarse descarta la más antigua y queda marcado como
+     * truncado: las páginas más antiguas se leen de la base de datos.
+     */
+    private static final class Timeline {
+        private final int capacity;
+        private final ArrayDeque<FeedItem> items;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile boolean loaded;
+        private volatile Set<String> followeeIds = Set.of();
+        private volatile Set<String> celebrityIds = Set.of();
+        private boolean truncated;
+
+        Timeline(int capacity) {
+            this.capacity = capacity;
+            this.items = new ArrayDeque<>(capacity + 1);
+        }
+
+        boolean isLoaded() {
+            return loaded;
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+
+        synchronized boolean isTruncated() {
+            return truncated;
+        }
+
+        Set<String> getFolloweeIds() {
+            return followeeIds;
+        }
+
+        Set<String> getCelebrityIds() {
+            return celebrityIds;
+        }
+
+        // Combina lo leído de la base de datos con lo que llegó por fan-out mientras tanto
+        synchronized void fill(Set<String> followeeIds, Set<String> celebrityIds, List<FeedItem> loadedItems) {
+            this.followeeIds = Set.copyOf(followeeIds);
+            this.celebrityIds = Set.copyOf(celebrityIds);
+            Map<String, FeedItem> merged = new HashMap<>();
+            for (FeedItem item : items) {
+                merged.put(item.id, item);
+            }
+            for (FeedItem item : loadedItems) {
+                merged.putIfAbsent(item.id, item);
+            }
+            List<FeedItem> sorted = new ArrayList<>(merged.values());
+            sorted.sort(NEWEST_FIRST);
+            items.clear();
+            items.addAll(sorted.subList(0, Math.min(capacity, sorted.size())));
+            truncated = truncated || loadedItems.size() >= capacity || sorted.size() > capacity;
+            loaded = true;
+        }
+
+        synchronized void push(FeedItem item) {
+            insert(item);
+        }
+
+        synchronized List<FeedItem> page(FeedItem after, int limit) {
+            List<FeedItem> result = new ArrayList<>(limit);
+            for (FeedItem item : items) {
+                if (after != null && NEWEST_FIRST.compare(item, after) <= 0) {
+                    continue;
+                }
+                result.add(item);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private void insert(FeedItem item) {
+            FeedItem newest = items.peekFirst();
+            if (newest == null || NEWEST_FIRST.compare(item, newest) < 0) {
+                // Caso normal: el fan-out entrega las actividades en orden
+                items.addFirst(item);
+            } else {
+                for (FeedItem existing : items) {
+                    if (existing.id.equals(item.id)) {
+                        return;
+                    }
+                }
+                List<FeedItem> sorted = new ArrayList<>(items);
+                sorted.add(item);
+                sorted.sort(NEWEST_FIRST);
+                items.clear();
+                items.addAll(sorted);
+            }
+            while (items.size() > capacity) {
+                items.pollLast();
+                truncated = true;
+            }
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package com.booknet.backend.service;
 
 import com.booknet.backend.dto.CreateGenreRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.GenreResponse;
 import com.booknet.backend.dto.UpdateGenreRequest;
+import com.booknet.backend.event.TaxonomyChangedEvent;
 import com.booknet.backend.model.Genre;
 import com.booknet.backend.repository.GenreRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class GenreService {
@@ -19,6 +21,15 @@ public class GenreService {
     @Autowired
     private GenreRepository genreRepository;
 
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private TaxonomyService taxonomyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public GenreResponse createGenre(CreateGenreRequest request) {
         Genre genre = new Genre();
         genre.setName(request.getNombre());
@@ -26,31 +37,41 @@ public class GenreService {
         genre.setParentGenre(request.getGenero_padre());
         
         Genre savedGenre = genreRepository.save(genre);
+        taxonomyService.putGenre(savedGenre);
         return convertToGenreResponse(savedGenre);
     }
 
+    // Las lecturas se sirven desde el snapshot en memoria de la taxonomía
     public Optional<GenreResponse> getGenreById(String id) {
-        return genreRepository.findById(id)
-                .map(this::convertToGenreResponse);
+        return taxonomyService.getGenreById(id);
     }
 
     public List<GenreResponse> getAllGenresWithPagination(int offset, int limit) {
-        List<Genre> genres = genreRepository.findAllOrderByCreatedAtDescWithPagination(offset, limit);
-        return genres.stream()
-                .map(this::convertToGenreResponse)
-                .collect(Collectors.toList());
+        return taxonomyService.getGenresPage(offset, limit);
+    }
+
+    // Paginación por cursor sobre (created_at, id)
+    public CursorPageResponse<GenreResponse> getGenresByCursor(String cursor, int limit) {
+        return taxonomyService.getGenresByCursor(cursor, limit);
     }
 
     public long getTotalGenresCount() {
-        return genreRepository.countAllGenres();
+        return taxonomyService.countGenres();
     }
 
     // Obtener todos los géneros sin paginación
     public List<GenreResponse> getAllGenres() {
-        List<Genre> genres = genreRepository.findAll();
-        return genres.stream()
-                .map(this::convertToGenreResponse)
-                .collect(Collectors.toList());
+        return taxonomyService.getAllGenres();
+    }
+
+    // Géneros principales (sin género padre)
+    public List<GenreResponse> getMainGenres() {
+        return taxonomyService.getMainGenres();
+    }
+
+    public Optional<List<GenreResponse>> getSubgenres(String id) {
+        return taxonomyService.getGenreById(id)
+                .map(genre -> taxonomyService.getSubgenres(genre.getNombre()));
     }
 
     public Optional<GenreResponse> updateGenre(String id, UpdateGenreRequest request) {
@@ -58,9 +79,11 @@ public class GenreService {
         
         if (genreOptional.isPresent()) {
             Genre genre = genreOptional.get();
+            boolean renamed = false;
             
             // Actualizar solo los campos que no son null
             if (request.getNombre() != null) {
+                renamed = !request.getNombre().equals(genre.getName());
                 genre.setName(request.getNombre());
             }
             if (request.getDescripcion() != null) {
@@ -72,6 +95,12 @@ public class GenreService {
             
             genre.setUpdatedAt(LocalDateTime.now());
             Genre updatedGenre = genreRepository.save(genre);
+            taxonomyService.putGenre(updatedGenre);
+            if (renamed) {
+                // El nombre del género forma parte del índice de búsqueda de sus libros
+                bookSearchService.refreshBooksByGenre(updatedGenre.getId());
+            }
+            eventPublisher.publishEvent(new TaxonomyChangedEvent(TaxonomyChangedEvent.GENRE, updatedGenre.getId()));
             return Optional.of(convertToGenreResponse(updatedGenre));
         }
         
@@ -90,6 +119,8 @@ public class GenreService {
             }
             
             genreRepository.deleteById(id);
+            taxonomyService.removeGenre(id);
+            eventPublisher.publishEvent(new TaxonomyChangedEvent(TaxonomyChangedEvent.GENRE, id));
             return true;
         }
         
@@ -0,0 +1,245 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.event.BookChangedEvent;
+import org.neo4j.driver.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Rankings de libros mantenidos en memoria: mejor calificados (también usado para destacados y
+ * top 10) y más reseñados.
+ *
+ * Cada ranking es un conjunto ordenado acotado a CAPACITY libros. Se siembra al arrancar y después
+ * se actualiza en el momento con los eventos de BookService (calificaciones, altas masivas, ediciones
+ * y borrados), de modo que los endpoints públicos no ordenan toda la etiqueta :Book en cada petición.
+ *
+ * Como el conjunto está acotado, se recuerda el mejor puntaje que quedó fuera ("floor"): todo libro
+ * que no está en el ranking puntúa igual o peor que él. Si por borrados o bajadas de puntaje el
+ * ranking queda con menos de MAX_SERVED libros y había libros fuera, se vuelve a sembrar.
+ */
+@Service
+public class LeaderboardService {
+
+    public static final int MAX_SERVED = 100;
+    private static final int CAPACITY = 200;
+
+    // average_rating DESC, total_ratings DESC, id ASC (el id desempata para que el orden sea total)
+    private static final Comparator<Score> BY_RATING = Comparator
+            .comparingDouble((Score score) -> score.averageRating).reversed()
+            .thenComparing(Comparator.comparingInt((Score score) -> score.totalRatings).reversed())
+            .thenComparing(score -> score.bookId);
+
+    private static final Comparator<Score> BY_REVIEWS = Comparator
+            .comparingInt((Score score) -> score.totalRatings).reversed()
+            .thenComparing(Comparator.comparingDouble((Score score) -> score.averageRating).reversed())
+            .thenComparing(score -> score.bookId);
+
+    private static final String SCORE_FIELDS =
+            "RETURN b.id AS id, b.average_rating AS averageRating, coalesce(b.total_ratings, 0) AS totalRatings ";
+
+    private final Neo4jClient neo4jClient;
+    private final Board topRated;
+    private final Board mostReviewed;
+    private volatile boolean loaded;
+
+    public LeaderboardService(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+        this.topRated = new Board(BY_RATING, score -> score.hasAverage,
+                "MATCH (b:Book) WHERE b.average_rating IS NOT NULL " + SCORE_FIELDS +
+                "ORDER BY averageRating DESC, totalRatings DESC, id ASC LIMIT $limit");
+        this.mostReviewed = new Board(BY_REVIEWS, score -> score.totalRatings > 0,
+                "MATCH (b:Book) WHERE b.total_ratings > 0 " + SCORE_FIELDS +
+                "ORDER BY totalRatings DESC, coalesce(averageRating, 0.0) DESC, id ASC LIMIT $limit");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+            System.out.println("Rankings de libros cargados en memoria: " + topRated.served.size() +
+                    " mejor calificados, " + mostReviewed.served.size() + " más reseñados");
+        } catch (Exception e) {
+            System.err.println("Error al cargar los rankings de libros: " + e.getMessage());
+        }
+    }
+
+    public synchronized void reload() {
+        topRated.seed();
+        mostReviewed.seed();
+        loaded = true;
+    }
+
+    public List<String> getTopRatedIds(int limit) {
+        return ids(ensureLoaded(topRated).served, limit, score -> true);
+    }
+
+    public List<String> getMostReviewedIds(int limit) {
+        return ids(ensureLoaded(mostReviewed).served, limit, score -> true);
+    }
+
+    // Destacados: los 10 mejor calificados con promedio mayor que cero
+    public List<String> getFeaturedIds() {
+        return ids(ensureLoaded(topRated).served, 10, score -> score.averageRating > 0);
+    }
+
+    // Top 10: los 10 mejor calificados con cualquier promedio
+    public List<String> getTop10Ids() {
+        return ids(ensureLoaded(topRated).served, 10, score -> true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+
+        try {
+            if (event.isAllBooks()) {
+                reload();
+            } else if (event.getChangeType() == BookChangedEvent.ChangeType.DELETED) {
+                event.getBookIds().forEach(bookId -> apply(bookId, null));
+            } else if (event.hasRating()) {
+                apply(event.getBookIds().get(0),
+                        new Score(event.getBookIds().get(0), event.getAverageRating(), event.getTotalRatings()));
+            } else {
+                // Altas y ediciones: leer solo los puntajes de los libros afectados
+                Map<String, Score> scores = neo4jClient
+                        .query("MATCH (b:Book) WHERE b.id IN $bookIds " + SCORE_FIELDS)
+                        .bind(event.getBookIds()).to("bookIds")
+                        .fetchAs(Score.class)
+                        .mappedBy((typeSystem, record) -> toScore(record.get("id"),
+                                record.get("averageRating"), record.get("totalRatings")))
+                        .all()
+                        .stream()
+                        .collect(Collectors.toMap(score -> score.bookId, score -> score));
+                event.getBookIds().forEach(bookId -> apply(bookId, scores.get(bookId)));
+            }
+        } catch (Exception e) {
+            // Sin los puntajes nuevos el ranking podría quedar desordenado: se recarga en la próxima lectura
+            System.err.println("Error al actualizar los rankings de libros: " + e.getMessage());
+            loaded = false;
+        }
+    }
+
+    // Actualiza (o quita, si score es null) un libro en ambos rankings
+    private synchronized void apply(String bookId, Score score) {
+        boolean reseedTopRated = topRated.apply(bookId, score);
+        boolean reseedMostReviewed = mostReviewed.apply(bookId, score);
+        if (reseedTopRated) {
+            topRated.seed();
+        }
+        if (reseedMostReviewed) {
+            mostReviewed.seed();
+        }
+    }
+
+    private Board ensureLoaded(Board board) {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    // Primera lectura antes de ApplicationReadyEvent o tras un error al actualizar
+                    reload();
+                }
+            }
+        }
+        return board;
+    }
+
+    private static List<String> ids(List<Score> served, int limit, Predicate<Score> filter) {
+        return served.stream()
+                .filter(filter)
+                .limit(Math.max(0, Math.min(limit, MAX_SERVED)))
+                .map(score -> score.bookId)
+                .collect(Collectors.toList());
+    }
+
+    private static Score toScore(Value id, Value averageRating, Value totalRatings) {
+        return new Score(id.asString(),
+                averageRating.isNull() ? null : averageRating.asDouble(),
+                totalRatings.isNull() ? 0 : totalRatings.asInt());
+    }
+
+    private final class Board {
+        private final Comparator<Score> order;
+        private final Predicate<Score> eligible;
+        private final String seedQuery;
+
+        private final TreeSet<Score> ranked;
+        private final Map<String, Score> byId = new HashMap<>();
+        // Mejor puntaje que quedó fuera del ranking; null si el ranking contiene todos los libros elegibles
+        private Score floor;
+        // Copia inmutable de los primeros MAX_SERVED, publicada tras cada cambio para lecturas sin lock
+        private volatile List<Score> served = List.of();
+
+        Board(Comparator<Score> order, Predicate<Score> eligible, String seedQuery) {
+            this.order = order;
+            this.eligible = eligible;
+            this.seedQuery = seedQuery;
+            this.ranked = new TreeSet<>(order);
+        }
+
+        void seed() {
+            List<Score> scores = new ArrayList<>(neo4jClient.query(seedQuery)
+                    .bind(CAPACITY + 1).to("limit")
+                    .fetchAs(Score.class)
+                    .mappedBy((typeSystem, record) -> toScore(record.get("id"),
+                            record.get("averageRating"), record.get("totalRatings")))
+                    .all());
+
+            ranked.clear();
+            byId.clear();
+            floor = scores.size() > CAPACITY ? scores.remove(CAPACITY) : null;
+            for (Score score : scores) {
+                ranked.add(score);
+                byId.put(score.bookId, score);
+            }
+            publish();
+        }
+
+        // Devuelve true si el ranking quedó demasiado corto y hay que volver a sembrarlo
+        boolean apply(String bookId, Score score) {
+            Score previous = byId.remove(bookId);
+            if (previous != null) {
+                ranked.remove(previous);
+            }
+
+            if (score != null && eligible.test(score) && (floor == null || order.compare(score, floor) < 0)) {
+                ranked.add(score);
+                byId.put(bookId, score);
+                if (ranked.size() > CAPACITY) {
+                    Score evicted = ranked.pollLast();
+                    byId.remove(evicted.bookId);
+                    floor = evicted;
+                }
+            }
+
+            publish();
+            return floor != null && ranked.size() < MAX_SERVED;
+        }
+
+        private void publish() {
+            served = ranked.stream().limit(MAX_SERVED).collect(Collectors.toUnmodifiableList());
+        }
+    }
+
+    private static final class Score {
+        private final String bookId;
+        private final boolean hasAverage;
+        private final double averageRating;
+        private final int totalRatings;
+
+        Score(String bookId, Double averageRating, Integer totalRatings) {
+            this.bookId = bookId;
+            this.hasAverage = averageRating != null;
+            this.averageRating = averageRating == null ? 0.0 : averageRating;
+            this.totalRatings = totalRatings == null ? 0 : totalRatings;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.BookResponse;
+import com.booknet.backend.dto.RecommendationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recomendaciones por usuario precalculadas y guardadas como relaciones
+ * (:User)-[:RECOMMENDED {recommendation_list, rank, algorithm_used, confidence_score,
+ * recommendation_reason, recommended_date}]->(:Book), una lista por endpoint.
+ *
+ * La frescura se guarda en User.recommendations_computed_at. Los usuarios que acaban de calificar
+ * (o que pidieron recomendaciones sin tenerlas calculadas) pasan a una cola de prioridad que
+ * RecommendationMaterializationJob atiende antes que a los usuarios activos con listas viejas. Una
+ * lista más vieja que max-age-minutes se sirve igual, pero su usuario entra a la cola: así también
+ * se refrescan los usuarios que solo navegan y no dejan actividad en el feed.
+ *
+ * Las relaciones salen del usuario hacia el libro; User mapea RECOMMENDED como entrante, así que
+ * guardar la entidad User no las toca.
+ */
+@Service
+public class MaterializedRecommendationService {
+
+    public static final String PERSONALIZED = "personalized";
+    public static final String COLLABORATIVE = "collaborative";
+    public static final String CONTENT_BASED = "content_based";
+    public static final String HYBRID = "hybrid";
+    public static final List<String> LISTS = List.of(PERSONALIZED, COLLABORATIVE, CONTENT_BASED, HYBRID);
+
+    // Los libros que el usuario calificó después del cálculo se saltan al leer
+    private static final String FIND_RECOMMENDATIONS =
+            "MATCH (u:User {id: $userId}) WHERE u.recommendations_computed_at IS NOT NULL " +
+            "CALL { WITH u " +
+            "       MATCH (u)-[r:RECOMMENDED]->(b:Book) " +
+            "       WHERE r.recommendation_list = $list AND NOT EXISTS { (u)-[:RATED]->(b) } " +
+            "       WITH r, b ORDER BY r.rank LIMIT $limit " +
+            "       RETURN collect({bookId: b.id, algorithm: r.algorithm_used, confidence: r.confidence_score, " +
+            "                       reason: r.recommendation_reason, recommendedDate: r.recommended_date}) AS items } " +
+            "RETURN items, u.recommendations_computed_at AS computedAt";
+
+    private static final String WRITE_RECOMMENDATIONS =
+            "UNWIND $users AS row " +
+            "MATCH (u:User {id: row.userId}) " +
+            "CALL { WITH u MATCH (u)-[old:RECOMMENDED]->() DELETE old } " +
+            "SET u.recommendations_computed_at = $now " +
+            "WITH u, row " +
+            "UNWIND row.items AS item " +
+            "MATCH (b:Book {id: item.bookId}) " +
+            "CREATE (u)-[:RECOMMENDED {recommendation_list: item.list, rank: item.rank, algorithm_used: item.algorithm, " +
+            "                          confidence_score: item.confidence, recommendation_reason: item.reason, " +
+            "                          recommended_date: $now, was_clicked: false}]->(b)";
+
+    // Usuarios con actividad reciente (feed) cuya lista falta o quedó vieja, los más atrasados primero
+    private static final String STALE_ACTIVE_USERS =
+            "MATCH (a:Activity) WHERE a.created_at >= $activeSince " +
+            "WITH DISTINCT a.actor_id AS userId " +
+            "MATCH (u:User {id: userId}) " +
+            "WHERE u.recommendations_computed_at IS NULL OR u.recommendations_computed_at < $staleBefore " +
+            "RETURN u.id AS id " +
+            "ORDER BY coalesce(u.recommendations_computed_at, localdatetime('1970-01-01T00:00')) LIMIT $limit";
+
+    private final Neo4jClient neo4jClient;
+    private final BookResponseCache bookResponseCache;
+    private final BookReadService bookReadService;
+    private final int listSize;
+    private final int activeDays;
+    private final int maxAgeMinutes;
+
+    // Cola de prioridad en orden de llegada, sin duplicados
+    private final LinkedHashSet<String> priorityUsers = new LinkedHashSet<>();
+
+    public MaterializedRecommendationService(Neo4jClient neo4jClient, BookResponseCache bookResponseCache,
+                                             BookReadService bookReadService,
+                                             @Value("${booknet.recommendations.materialized.list-size:50}") int listSize,
+                                             @Value("${booknet.recommendations.materialized.active-days:30}") int activeDays,
+                                             @Value("${booknet.recommendations.materialized.max-age-minutes:1440}") int maxAgeMinutes) {
+        this.neo4jClient = neo4jClient;
+        this.bookResponseCache = bookResponseCache;
+        this.bookReadService = bookReadService;
+        this.listSize = Math.max(1, listSize);
+        this.activeDays = Math.max(1, activeDays);
+        this.maxAgeMinutes = Math.max(1, maxAgeMinutes);
+    }
+
+    public int getListSize() {
+        return listSize;
+    }
+
+    /**
+     * La lista guardada del usuario. Vacío (Optional.empty) si aún no se calculó o si piden más
+     * libros de los que se guardan; en el primer caso el usuario entra a la cola de prioridad, igual
+     * que cuando la lista guardada es más vieja que max-age-minutes (que se devuelve de todos modos).
+     */
+    public Optional<List<RecommendationResponse>> find(String userId, String list, int limit) {
+        if (limit > listSize) {
+            return Optional.empty();
+        }
+
+        Optional<Map<String, Object>> row = neo4jClient.query(FIND_RECOMMENDATIONS)
+                .bind(userId).to("userId")
+                .bind(list).to("list")
+                .bind(limit).to("limit")
+                .fetch()
+                .one();
+        if (row.isEmpty()) {
+            markStale(userId);
+            return Optional.empty();
+        }
+
+        LocalDateTime computedAt = (LocalDateTime) row.get().get("computedAt");
+        if (computedAt.isBefore(LocalDateTime.now().minusMinutes(maxAgeMinutes))) {
+            markStale(userId);
+        }
+
+        List<Map<?, ?>> items = ((List<?>) row.get().get("items")).stream()
+                .map(item -> (Map<?, ?>) item)
+                .collect(Collectors.toList());
+        Map<String, BookResponse> books = bookResponseCache
+                .getAllOrLoad(items.stream().map(item -> (String) item.get("bookId")).collect(Collectors.toList()),
+                        bookReadService::findByIds)
+                .stream()
+                .collect(Collectors.toMap(BookResponse::getId, Function.identity()));
+
+        List<RecommendationResponse> recommendations = new ArrayList<>();
+        for (Map<?, ?> item : items) {
+            BookResponse book = books.get((String) item.get("bookId"));
+            if (book != null) {
+                recommendations.add(new RecommendationResponse(book, (String) item.get("algorithm"),
+                        ((Number) item.get("confidence")).doubleValue(), (String) item.get("reason"),
+                        (LocalDateTime) item.get("recommendedDate")));
+            }
+        }
+        return Optional.of(recommendations);
+    }
+
+    // Se encola después del commit para que el recálculo vea la calificación
+    public void markStale(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(userId);
+                }
+            });
+        } else {
+            enqueue(userId);
+        }
+    }
+
+    public synchronized List<String> takePriorityUsers(int max) {
+        List<String> users = new ArrayList<>();
+        Iterator<String> iterator = priorityUsers.iterator();
+        while (users.size() < max && iterator.hasNext()) {
+            users.add(iterator.next());
+            iterator.remove();
+        }
+        return users;
+    }
+
+    public synchronized int getPendingPriorityUsers() {
+        return priorityUsers.size();
+    }
+
+    public List<String> findStaleActiveUsers(int max) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ArrayList<>(neo4jClient.query(STALE_ACTIVE_USERS)
+                .bind(now.minusDays(activeDays)).to("activeSince")
+                .bind(now.minusMinutes(maxAgeMinutes)).to("staleBefore")
+                .bind(max).to("limit")
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("id").asString())
+                .all());
+    }
+
+    // Reemplaza todas las listas de los usuarios del lote en una transacción
+    public void write(Map<String, Map<String, List<RecommendationResponse>>> listsByUser) {
+        List<Map<String, Object>> users = new ArrayList<>();
+        listsByUser.forEach((userId, lists) -> {
+            List<Map<String, Object>> items = new ArrayList<>();
+            lists.forEach((list, recommendations) -> {
+                for (int rank = 0; rank < recommendations.size() && rank < listSize; rank++) {
+                    RecommendationResponse recommendation = recommendations.get(rank);
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("list", list);
+                    item.put("rank", rank);
+                    item.put("bookId", recommendation.getBook().getId());
+                    item.put("algorithm", recommendation.getAlgorithmUsed());
+                    item.put("confidence", recommendation.getConfidenceScore());
+                    item.put("reason", recommendation.getRecommendationReason());
+                    items.add(item);
+                }
+            });
+            Map<String, Object> row = new HashMap<>();
+            row.put("userId", userId);
+            row.put("items", items);
+            users.add(row);
+        });
+
+        if (!users.isEmpty()) {
+            neo4jClient.query(WRITE_RECOMMENDATIONS)
+                    .bind(users).to("users")
+                    .bind(LocalDateTime.now()).to("now")
+                    .run();
+        }
+    }
+
+    private synchronized void enqueue(String userId) {
+        priorityUsers.add(userId);
+    }
+}
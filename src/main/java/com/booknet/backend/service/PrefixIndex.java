@@ -0,0 +1,259 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.util.TextNormalizer;
+
+import java.util.*;
+
+/**
+ * Índice inmutable de BookSuggestService: arreglo base ordenado + delta de cambios recientes.
+ *
+ * Las claves del arreglo base se buscan por rango de prefijo con búsqueda binaria y un árbol de
+ * segmentos de máximos sobre el peso da el top-k en O(k log n). Las entradas del arreglo base cuya
+ * entidad aparece en "stale" se ignoran (fueron reemplazadas o borradas).
+ */
+final class PrefixIndex {
+
+    private static final int MAX_WORD_STARTS = 8;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final String[] keys;
+    private final Suggestion[] values;
+    private final int[] maxTree;
+    private final Map<String, Suggestion> baseByEntity;
+    private final NavigableMap<String, Suggestion> delta;
+    private final Map<String, Suggestion> deltaByEntity;
+    private final Set<String> stale;
+
+    private PrefixIndex(String[] keys, Suggestion[] values, int[] maxTree, Map<String, Suggestion> baseByEntity,
+                        NavigableMap<String, Suggestion> delta, Map<String, Suggestion> deltaByEntity,
+                        Set<String> stale) {
+        this.keys = keys;
+        this.values = values;
+        this.maxTree = maxTree;
+        this.baseByEntity = baseByEntity;
+        this.delta = delta;
+        this.deltaByEntity = deltaByEntity;
+        this.stale = stale;
+    }
+
+    static PrefixIndex build(List<Suggestion> suggestions) {
+        List<Map.Entry<String, Suggestion>> entries = new ArrayList<>();
+        Map<String, Suggestion> baseByEntity = new HashMap<>();
+        for (Suggestion suggestion : suggestions) {
+            baseByEntity.put(suggestion.entityKey, suggestion);
+            for (String key : keysFor(suggestion)) {
+                entries.add(Map.entry(key, suggestion));
+            }
+        }
+        entries.sort(Map.Entry.comparingByKey());
+
+        int n = entries.size();
+        String[] keys = new String[n];
+        Suggestion[] values = new Suggestion[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = entries.get(i).getKey();
+            values[i] = entries.get(i).getValue();
+        }
+
+        // Árbol de segmentos iterativo: cada nodo guarda la posición de mayor peso de su rango
+        int[] maxTree = new int[2 * Math.max(n, 1)];
+        for (int i = 0; i < n; i++) {
+            maxTree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            maxTree[i] = heavier(values, maxTree[2 * i], maxTree[2 * i + 1]);
+        }
+
+        return new PrefixIndex(keys, values, maxTree, baseByEntity, new TreeMap<>(), new HashMap<>(), new HashSet<>());
+    }
+
+    static String entityKey(String type, String id) {
+        return type + ":" + id;
+    }
+
+    int size() {
+        return keys.length + delta.size();
+    }
+
+    int deltaSize() {
+        return delta.size() + stale.size();
+    }
+
+    // Entrada vigente de una entidad, o null si no está indexada o fue borrada
+    Suggestion find(String entityKey) {
+        Suggestion suggestion = deltaByEntity.get(entityKey);
+        if (suggestion != null || stale.contains(entityKey)) {
+            return suggestion;
+        }
+        return baseByEntity.get(entityKey);
+    }
+
+    PrefixIndex withUpserts(List<Suggestion> suggestions) {
+        NavigableMap<String, Suggestion> newDelta = new TreeMap<>(delta);
+        Map<String, Suggestion> newDeltaByEntity = new HashMap<>(deltaByEntity);
+        Set<String> newStale = new HashSet<>(stale);
+
+        for (Suggestion suggestion : suggestions) {
+            removeFromDelta(newDelta, newDeltaByEntity, suggestion.entityKey);
+            newStale.add(suggestion.entityKey);
+            newDeltaByEntity.put(suggestion.entityKey, suggestion);
+            for (String key : keysFor(suggestion)) {
+                newDelta.put(key + KEY_SEPARATOR + suggestion.entityKey, suggestion);
+            }
+        }
+        return new PrefixIndex(keys, values, maxTree, baseByEntity, newDelta, newDeltaByEntity, newStale);
+    }
+
+    PrefixIndex withRemovals(Collection<String> entityKeys) {
+        NavigableMap<String, Suggestion> newDelta = new TreeMap<>(delta);
+        Map<String, Suggestion> newDeltaByEntity = new HashMap<>(deltaByEntity);
+        Set<String> newStale = new HashSet<>(stale);
+
+        for (String entityKey : entityKeys) {
+            removeFromDelta(newDelta, newDeltaByEntity, entityKey);
+            newStale.add(entityKey);
+        }
+        return new PrefixIndex(keys, values, maxTree, baseByEntity, newDelta, newDeltaByEntity, newStale);
+    }
+
+    private static void removeFromDelta(NavigableMap<String, Suggestion> delta,
+                                        Map<String, Suggestion> deltaByEntity, String entityKey) {
+        Suggestion previous = deltaByEntity.remove(entityKey);
+        if (previous != null) {
+            for (String key : keysFor(previous)) {
+                delta.remove(key + KEY_SEPARATOR + entityKey);
+            }
+        }
+    }
+
+    // Entidades vigentes (base no reemplazada + delta), usadas para compactar
+    List<Suggestion> liveSuggestions() {
+        Map<String, Suggestion> live = new HashMap<>();
+        baseByEntity.forEach((entityKey, suggestion) -> {
+            if (!stale.contains(entityKey)) {
+                live.put(entityKey, suggestion);
+            }
+        });
+        live.putAll(deltaByEntity);
+        return new ArrayList<>(live.values());
+    }
+
+    // Las k entidades de mayor peso con alguna clave que empieza con el prefijo (ya normalizado)
+    List<Suggestion> topK(String prefix, int k) {
+        Map<String, Suggestion> selected = new LinkedHashMap<>();
+
+        // Delta: pocas entradas, se recorren todas las que comparten el prefijo
+        List<Suggestion> candidates = new ArrayList<>(
+                delta.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values());
+
+        // Base: extracción de máximos por rangos con una cola de prioridad
+        int lo = lowerBound(prefix);
+        int hi = lowerBound(prefix + Character.MAX_VALUE);
+        if (lo < hi) {
+            PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                    (a, b) -> Long.compare(values[b[2]].weight, values[a[2]].weight));
+            ranges.add(new int[]{lo, hi, rangeMax(lo, hi)});
+            Set<String> seen = new HashSet<>();
+
+            while (!ranges.isEmpty() && seen.size() < k) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                Suggestion suggestion = values[best];
+                if (!stale.contains(suggestion.entityKey) && seen.add(suggestion.entityKey)) {
+                    candidates.add(suggestion);
+                }
+                if (range[0] < best) {
+                    ranges.add(new int[]{range[0], best, rangeMax(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    ranges.add(new int[]{best + 1, range[1], rangeMax(best + 1, range[1])});
+                }
+            }
+        }
+
+        candidates.sort((a, b) -> Long.compare(b.weight, a.weight));
+        for (Suggestion candidate : candidates) {
+            if (selected.size() >= k) {
+                break;
+            }
+            selected.putIfAbsent(candidate.entityKey, candidate);
+        }
+        return new ArrayList<>(selected.values());
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Posición de mayor peso en [from, to)
+    private int rangeMax(int from, int to) {
+        int n = keys.length;
+        int best = from;
+        for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = heavier(values, best, maxTree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = heavier(values, best, maxTree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private static int heavier(Suggestion[] values, int a, int b) {
+        return values[b].weight > values[a].weight ? b : a;
+    }
+
+    // Claves de búsqueda: el texto completo y el resto del texto desde cada palabra
+    static List<String> keysFor(Suggestion suggestion) {
+        String folded = TextNormalizer.fold(suggestion.text);
+        List<String> keys = new ArrayList<>();
+        if (folded.isEmpty()) {
+            return keys;
+        }
+        keys.add(folded);
+
+        int wordStarts = 0;
+        for (int i = folded.indexOf(' '); i >= 0 && wordStarts < MAX_WORD_STARTS; i = folded.indexOf(' ', i + 1)) {
+            String rest = folded.substring(i + 1);
+            int nextSpace = rest.indexOf(' ');
+            int wordLength = nextSpace < 0 ? rest.length() : nextSpace;
+            // Palabras de una letra ("y", "a") generarían demasiadas coincidencias
+            if (wordLength > 1) {
+                keys.add(rest);
+                wordStarts++;
+            }
+        }
+        return keys;
+    }
+
+    static final class Suggestion {
+        final String type;
+        final String id;
+        final String text;
+        final long weight;
+        final String entityKey;
+
+        Suggestion(String type, String id, String text, long weight) {
+            this.type = type;
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.entityKey = entityKey(type, id);
+        }
+
+        Suggestion withWeight(long newWeight) {
+            return new Suggestion(type, id, text, newWeight);
+        }
+    }
+}
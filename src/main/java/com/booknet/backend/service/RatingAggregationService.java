@@ -0,0 +1,359 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.event.BookChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Punto de entrada de los cambios de calificación hacia el agregado del libro.
+ *
+ * Por defecto aplica cada delta en el momento (BookService.applyRatingChange). Con
+ * booknet.ratings.write-behind.enabled=true los deltas se acumulan por libro en contadores
+ * striped (DoubleAdder/LongAdder, sin locks) y se vuelcan cada pocos cientos de milisegundos en
+ * un único UNWIND, así un libro muy calificado recibe una escritura por intervalo en lugar de
+ * una por calificación.
+ *
+ * Durabilidad: las relaciones RATED se guardan siempre en la transacción de la calificación. Tras
+ * cada volcado se registra un checkpoint; al arrancar, los libros con calificaciones posteriores
+ * al checkpoint se recalculan desde sus relaciones RATED, lo que recupera lo que quedó sin volcar
+ * si la aplicación se cayó. Los borrados de calificaciones se aplican siempre en el momento,
+ * porque después ya no queda la relación desde la que recalcular.
+ *
+ * Cada volcado aplica los deltas y mueve el checkpoint en una sola sentencia (una transacción). La
+ * recuperación corre como fase temprana del ciclo de vida, antes de que el servidor web acepte
+ * calificaciones, para que ningún delta acumulado se sume encima del valor recalculado.
+ *
+ * Los recálculos absolutos (RatingRecomputeJob) corren con los volcados en pausa y al terminar
+ * descartan los deltas pendientes de los libros recalculados. Eso solo es correcto porque cada
+ * calificación bloquea su libro antes de escribir RATED y acumula su delta después del commit: lo
+ * pendiente al terminar el lote es de calificaciones que el recálculo ya leyó.
+ */
+@Service
+public class RatingAggregationService implements SmartLifecycle {
+
+    private static final String CHECKPOINT_ID = "rating-write-behind";
+    // Margen para calificaciones confirmadas antes del volcado pero acumuladas justo después
+    private static final long CHECKPOINT_SAFETY_SECONDS = 60;
+
+    // Deltas y checkpoint en la misma sentencia: o se aplican ambos o ninguno
+    private static final String FLUSH_DELTAS =
+            "UNWIND $deltas AS delta " +
+            "MATCH (b:Book {id: delta.bookId}) " +
+            "SET b.rating_sum = coalesce(b.rating_sum, coalesce(b.average_rating, 0.0) * coalesce(b.total_ratings, 0)) + delta.sumDelta, " +
+            "    b.total_ratings = coalesce(b.total_ratings, 0) + delta.countDelta, " +
+            "    b.rating_histogram = " + BookService.HISTOGRAM_PLUS_DELTAS.replace("$bucketDeltas", "delta.bucketDeltas") + " " +
+            "SET b.average_rating = CASE WHEN b.total_ratings > 0 THEN b.rating_sum / b.total_ratings ELSE null END, " +
+            "    b.updated_at = localdatetime() " +
+            "WITH collect({bookId: b.id, averageRating: b.average_rating, totalRatings: b.total_ratings}) AS aggregates " +
+            "MERGE (c:RatingAggregationCheckpoint {id: $checkpointId}) SET c.flushed_until = $flushedUntil " +
+            "WITH aggregates UNWIND aggregates AS aggregate " +
+            "RETURN aggregate.bookId AS bookId, aggregate.averageRating AS averageRating, aggregate.totalRatings AS totalRatings";
+
+    private static final String REPLAY_SINCE_CHECKPOINT =
+            "MATCH (:User)-[r:RATED]->(b:Book) WHERE r.updated_at >= $since " +
+            "WITH DISTINCT b " +
+            "CALL { WITH b MATCH (:User)-[x:RATED]->(b) RETURN collect(x.rating) AS ratings } " +
+            "WITH b, ratings, toFloat(reduce(total = 0.0, x IN ratings | total + x)) AS ratingSum, size(ratings) AS ratingCount " +
+            "SET b.rating_sum = ratingSum, b.total_ratings = ratingCount, " +
+            "    b.rating_histogram = " + BookService.HISTOGRAM_FROM_RATINGS + ", " +
+            "    b.average_rating = CASE WHEN ratingCount > 0 THEN ratingSum / ratingCount ELSE null END " +
+            "RETURN count(b) AS replayed";
+
+    private final BookService bookService;
+    private final Neo4jClient neo4jClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean writeBehind;
+
+    // Los acumuladores no se eliminan al volcar (un escritor podría seguir sumando sobre uno ya retirado);
+    // dirty marca qué libros tienen deltas pendientes
+    private final ConcurrentHashMap<String, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder flushedBooks = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private volatile LocalDateTime lastFlushAt;
+    // Volcado exclusivo, recálculos compartidos; justo para que los recálculos no posterguen los volcados indefinidamente
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock(true);
+    // Hasta recuperar lo pendiente del checkpoint no se vuelca nada
+    private volatile boolean replayed;
+    private volatile boolean running;
+
+    public RatingAggregationService(BookService bookService, Neo4jClient neo4jClient,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${booknet.ratings.write-behind.enabled:false}") boolean writeBehind) {
+        this.bookService = bookService;
+        this.neo4jClient = neo4jClient;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Registra un cambio en las calificaciones de un libro. En modo write-behind el delta se
+     * acumula después del commit de la transacción actual, para no contar calificaciones que
+     * terminaron en rollback.
+     */
+    public void record(String bookId, Double previousRating, Double newRating) {
+        if (!writeBehind) {
+            bookService.applyRatingChange(bookId, previousRating, newRating);
+            return;
+        }
+
+        double sumDelta = (newRating != null ? newRating : 0.0) - (previousRating != null ? previousRating : 0.0);
+        int countDelta = (newRating != null ? 1 : 0) - (previousRating != null ? 1 : 0);
+        long[] bucketDeltas = new long[BookService.RATING_BUCKETS];
+        if (previousRating != null) {
+            bucketDeltas[BookService.ratingBucket(previousRating)]--;
+        }
+        if (newRating != null) {
+            bucketDeltas[BookService.ratingBucket(newRating)]++;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accumulate(bookId, sumDelta, countDelta, bucketDeltas);
+                }
+            });
+        } else {
+            accumulate(bookId, sumDelta, countDelta, bucketDeltas);
+        }
+    }
+
+    // Fase baja: corre antes que el servidor web (que arranca cerca de Integer.MAX_VALUE)
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void start() {
+        try {
+            replayOnStartup();
+        } finally {
+            replayed = true;
+            running = true;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void replayOnStartup() {
+        try {
+            Optional<LocalDateTime> checkpoint = neo4jClient
+                    .query("MATCH (c:RatingAggregationCheckpoint {id: $id}) RETURN c.flushed_until AS flushedUntil")
+                    .bind(CHECKPOINT_ID).to("id")
+                    .fetchAs(LocalDateTime.class)
+                    .mappedBy((typeSystem, record) -> record.get("flushedUntil").asLocalDateTime())
+                    .one();
+
+            // Queda un checkpoint de una ejecución en modo write-behind: recuperar lo no volcado
+            if (checkpoint.isPresent()) {
+                long replayedBooks = neo4jClient.query(REPLAY_SINCE_CHECKPOINT)
+                        .bind(checkpoint.get()).to("since")
+                        .fetchAs(Long.class)
+                        .mappedBy((typeSystem, record) -> record.get("replayed").asLong())
+                        .one()
+                        .orElse(0L);
+                // Los índices y cachés en memoria todavía no se cargaron: leerán los valores recalculados
+                System.out.println("Calificaciones recuperadas desde el checkpoint: " + replayedBooks + " libros recalculados");
+            }
+
+            if (writeBehind) {
+                saveCheckpoint(LocalDateTime.now());
+            } else if (checkpoint.isPresent()) {
+                neo4jClient.query("MATCH (c:RatingAggregationCheckpoint {id: $id}) DELETE c")
+                        .bind(CHECKPOINT_ID).to("id")
+                        .run();
+            }
+        } catch (Exception e) {
+            System.err.println("Error al recuperar las calificaciones pendientes: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booknet.ratings.write-behind.flush-interval-ms:250}")
+    public void flush() {
+        if (!writeBehind || !replayed || dirty.isEmpty()) {
+            return;
+        }
+
+        flushLock.writeLock().lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private void flushPending() {
+        LocalDateTime drainedAt = LocalDateTime.now();
+        List<Map<String, Object>> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Collection<Map<String, Object>> aggregates;
+        try {
+            aggregates = neo4jClient.query(FLUSH_DELTAS)
+                    .bind(deltas).to("deltas")
+                    .bind(CHECKPOINT_ID).to("checkpointId")
+                    .bind(drainedAt.minusSeconds(CHECKPOINT_SAFETY_SECONDS)).to("flushedUntil")
+                    .fetch()
+                    .all();
+        } catch (Exception e) {
+            // La sentencia no se aplicó: los deltas vuelven a los acumuladores y se reintentan en el próximo volcado
+            failedFlushes.increment();
+            System.err.println("Error al volcar las calificaciones acumuladas: " + e.getMessage());
+            for (Map<String, Object> delta : deltas) {
+                long[] bucketDeltas = ((List<?>) delta.get("bucketDeltas")).stream()
+                        .mapToLong(value -> ((Number) value).longValue())
+                        .toArray();
+                accumulate((String) delta.get("bookId"), (Double) delta.get("sumDelta"),
+                        ((Number) delta.get("countDelta")).intValue(), bucketDeltas);
+            }
+            return;
+        }
+
+        flushedBatches.increment();
+        flushedBooks.add(aggregates.size());
+        lastFlushAt = drainedAt;
+        // Los deltas ya están aplicados: un error de un listener no debe volver a acumularlos
+        try {
+            for (Map<String, Object> aggregate : aggregates) {
+                eventPublisher.publishEvent(BookChangedEvent.ratingUpdated((String) aggregate.get("bookId"),
+                        (Double) aggregate.get("averageRating"),
+                        ((Number) aggregate.get("totalRatings")).intValue()));
+            }
+        } catch (Exception e) {
+            System.err.println("Error al notificar las calificaciones volcadas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pausa los volcados mientras corre un recálculo absoluto de agregados. Cada llamada debe
+     * terminar con resumeFlushes en el mismo hilo.
+     */
+    public void pauseFlushes() {
+        flushLock.readLock().lock();
+    }
+
+    /**
+     * Reanuda los volcados tras un recálculo y descarta los deltas pendientes de los libros
+     * recalculados, para no sumarlos encima del valor absoluto. Llamar apenas confirma el lote: una
+     * calificación que esperaba el lock del libro acumula su delta recién tras su propio commit.
+     */
+    public void resumeFlushes(Collection<String> recomputedBookIds) {
+        try {
+            for (String bookId : recomputedBookIds) {
+                dirty.remove(bookId);
+                Accumulator accumulator = accumulators.get(bookId);
+                if (accumulator != null) {
+                    accumulator.sum.reset();
+                    accumulator.count.reset();
+                    for (LongAdder bucket : accumulator.buckets) {
+                        bucket.reset();
+                    }
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("pendingBooks", dirty.size());
+        stats.put("flushedBatches", flushedBatches.sum());
+        stats.put("flushedBooks", flushedBooks.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    private void accumulate(String bookId, double sumDelta, int countDelta, long[] bucketDeltas) {
+        Accumulator accumulator = accumulators.computeIfAbsent(bookId, id -> new Accumulator());
+        accumulator.sum.add(sumDelta);
+        accumulator.count.add(countDelta);
+        for (int i = 0; i < bucketDeltas.length; i++) {
+            if (bucketDeltas[i] != 0) {
+                accumulator.buckets[i].add(bucketDeltas[i]);
+            }
+        }
+        dirty.add(bookId);
+    }
+
+    // Toma los deltas acumulados; un delta que llegue durante el drenaje queda para el siguiente volcado
+    private List<Map<String, Object>> drain() {
+        List<Map<String, Object>> deltas = new ArrayList<>();
+        for (String bookId : dirty) {
+            dirty.remove(bookId);
+            Accumulator accumulator = accumulators.get(bookId);
+            double sumDelta = accumulator.sum.sumThenReset();
+            long countDelta = accumulator.count.sumThenReset();
+            List<Long> bucketDeltas = new ArrayList<>();
+            boolean bucketsChanged = false;
+            for (LongAdder bucket : accumulator.buckets) {
+                long bucketDelta = bucket.sumThenReset();
+                bucketDeltas.add(bucketDelta);
+                bucketsChanged |= bucketDelta != 0;
+            }
+            if (sumDelta != 0.0 || countDelta != 0 || bucketsChanged) {
+                Map<String, Object> delta = new HashMap<>();
+                delta.put("bookId", bookId);
+                delta.put("sumDelta", sumDelta);
+                delta.put("countDelta", countDelta);
+                delta.put("bucketDeltas", bucketDeltas);
+                deltas.add(delta);
+            }
+        }
+        return deltas;
+    }
+
+    private void saveCheckpoint(LocalDateTime flushedUntil) {
+        neo4jClient.query("MERGE (c:RatingAggregationCheckpoint {id: $id}) SET c.flushed_until = $flushedUntil")
+                .bind(CHECKPOINT_ID).to("id")
+                .bind(flushedUntil).to("flushedUntil")
+                .run();
+    }
+
+    private static final class Accumulator {
+        private final DoubleAdder sum = new DoubleAdder();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BookService.RATING_BUCKETS];
+
+        Accumulator() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.event.BookChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Matriz dispersa usuario × libro con todas las calificaciones (RATED), en memoria y en formato CSR
+ * (offsets e índices int, calificaciones float) en dos orientaciones: por usuario y por libro.
+ * La usan los algoritmos colaborativos en lugar de recorrer el grafo.
+ *
+ * Se carga al arrancar leyendo lotes de usuarios en varios hilos. Las calificaciones nuevas,
+ * cambiadas o borradas se anotan después del commit en un overlay (por usuario y por libro) que las
+ * lecturas combinan con la matriz; cuando el overlay crece, o periódicamente, se compacta en una
+ * matriz nueva que reemplaza a la anterior de una vez.
+ *
+ * Los índices de usuarios y libros solo crecen mientras la aplicación vive, así que un índice sigue
+ * apuntando al mismo usuario o libro después de una compactación o recarga.
+ */
+@Service
+public class RatingMatrix {
+
+    private static final String RATINGS_BY_USERS =
+            "UNWIND $userIds AS userId " +
+            "MATCH (:User {id: userId})-[r:RATED]->(b:Book) " +
+            "RETURN userId, b.id AS bookId, r.rating AS rating";
+
+    private final Neo4jClient neo4jClient;
+    private final int loadThreads;
+    private final int loadBatchSize;
+    private final int compactThreshold;
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rating-matrix-compact");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Todo lo siguiente está guardado por this
+    private final Map<String, Integer> userIndex = new HashMap<>();
+    private final List<String> userIds = new ArrayList<>();
+    private final Map<String, Integer> bookIndex = new HashMap<>();
+    private final List<String> bookIds = new ArrayList<>();
+    // Cambios aún no compactados; NaN indica calificación borrada. Los mapas internos no se modifican, se reemplazan
+    private final Map<Integer, Map<Integer, Float>> userChanges = new HashMap<>();
+    private final Map<Integer, Map<Integer, Float>> bookChanges = new HashMap<>();
+    private final Set<Integer> removedUsers = new HashSet<>();
+    private final Set<Integer> removedBooks = new HashSet<>();
+    private int pendingChanges;
+    private boolean compactionQueued;
+    private Csr csr = Csr.EMPTY;
+    private long version;
+
+    private volatile boolean loaded;
+
+    public RatingMatrix(Neo4jClient neo4jClient,
+                        @Value("${booknet.recommendations.matrix.load-threads:4}") int loadThreads,
+                        @Value("${booknet.recommendations.matrix.load-batch-size:1000}") int loadBatchSize,
+                        @Value("${booknet.recommendations.matrix.compact-threshold:5000}") int compactThreshold) {
+        this.neo4jClient = neo4jClient;
+        this.loadThreads = Math.max(1, loadThreads);
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+        this.compactThreshold = Math.max(1, compactThreshold);
+    }
+
+    // En segundo plano: mientras tanto los algoritmos colaborativos usan las consultas al grafo
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(() -> {
+            try {
+                reload();
+                Map<String, Object> stats = getStats();
+                System.out.println("Matriz de calificaciones cargada: " + stats.get("users") + " usuarios, " +
+                        stats.get("books") + " libros, " + stats.get("ratings") + " calificaciones");
+            } catch (Exception e) {
+                System.err.println("Error al cargar la matriz de calificaciones: " + e.getMessage());
+            }
+        }, "rating-matrix-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public void reload() throws Exception {
+        List<String> users = fetchIds("MATCH (u:User) RETURN u.id AS id ORDER BY id");
+        List<String> books = fetchIds("MATCH (b:Book) RETURN b.id AS id ORDER BY id");
+
+        Map<String, Integer> userLookup;
+        Map<String, Integer> bookLookup;
+        synchronized (this) {
+            users.forEach(this::userIndexOf);
+            books.forEach(this::bookIndexOf);
+            // Lo anterior ya está en la base; lo que llegue desde aquí queda en el overlay y gana a lo leído
+            userChanges.clear();
+            bookChanges.clear();
+            removedUsers.clear();
+            removedBooks.clear();
+            pendingChanges = 0;
+            userLookup = new HashMap<>(userIndex);
+            bookLookup = new HashMap<>(bookIndex);
+        }
+
+        Triples triples = new Triples();
+        ExecutorService executor = Executors.newFixedThreadPool(loadThreads);
+        try {
+            List<Future<Triples>> batches = new ArrayList<>();
+            for (int from = 0; from < users.size(); from += loadBatchSize) {
+                List<String> batch = users.subList(from, Math.min(users.size(), from + loadBatchSize));
+                batches.add(executor.submit(() -> loadBatch(batch, userLookup, bookLookup)));
+            }
+            for (Future<Triples> batch : batches) {
+                triples.addAll(batch.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        synchronized (this) {
+            csr = Csr.build(userIds.size(), bookIds.size(), triples);
+            version++;
+            loaded = true;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Vista consistente de la matriz más los cambios pendientes en este momento
+    public synchronized View view() {
+        return new View(csr, userIds.size(), bookIds.size(), new HashMap<>(userChanges), new HashMap<>(bookChanges),
+                new HashSet<>(removedUsers), new HashSet<>(removedBooks));
+    }
+
+    // Cambia con cada calificación aplicada, borrado o recarga (compactar no cambia los datos)
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized OptionalInt findUser(String userId) {
+        Integer index = userIndex.get(userId);
+        return index != null && !removedUsers.contains(index) ? OptionalInt.of(index) : OptionalInt.empty();
+    }
+
+    // Libros que el usuario tiene calificados ahora mismo; vacío (Optional.empty) si la matriz no está cargada
+    public synchronized Optional<Set<String>> ratedBookIds(String userId) {
+        if (!loaded) {
+            return Optional.empty();
+        }
+        Set<String> rated = new HashSet<>();
+        Integer user = userIndex.get(userId);
+        if (user != null) {
+            Row row = view().userRow(user);
+            for (int i = 0; i < row.size(); i++) {
+                rated.add(bookIds.get(row.index(i)));
+            }
+        }
+        return Optional.of(rated);
+    }
+
+    public synchronized String userId(int index) {
+        return userIds.get(index);
+    }
+
+    public synchronized String bookId(int index) {
+        return bookIds.get(index);
+    }
+
+    // newRating null = calificación borrada. Se aplica después del commit de la transacción en curso
+    public void ratingChanged(String userId, String bookId, Double newRating) {
+        afterCommit(() -> {
+            synchronized (this) {
+                int user = userIndexOf(userId);
+                int book = bookIndexOf(bookId);
+                float rating = newRating != null ? newRating.floatValue() : Float.NaN;
+                userChanges.put(user, with(userChanges.get(user), book, rating));
+                bookChanges.put(book, with(bookChanges.get(book), user, rating));
+                pendingChanges++;
+                version++;
+                queueCompactionIfNeeded();
+            }
+        });
+    }
+
+    public void userDeleted(String userId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                Integer user = userIndex.get(userId);
+                if (user != null && removedUsers.add(user)) {
+                    pendingChanges++;
+                    version++;
+                    queueCompactionIfNeeded();
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getChangeType() != BookChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+
+        if (event.isAllBooks()) {
+            // Limpieza de la base: se vuelve a cargar lo que quede
+            loadOnStartup();
+            return;
+        }
+        synchronized (this) {
+            for (String bookId : event.getBookIds()) {
+                Integer book = bookIndex.get(bookId);
+                if (book != null && removedBooks.add(book)) {
+                    pendingChanges++;
+                    version++;
+                }
+            }
+            queueCompactionIfNeeded();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booknet.recommendations.matrix.compact-interval-ms:60000}")
+    public void compactPending() {
+        synchronized (this) {
+            if (!loaded || pendingChanges == 0 || compactionQueued) {
+                return;
+            }
+            compactionQueued = true;
+        }
+        compactor.execute(this::compact);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("users", userIds.size());
+        stats.put("books", bookIds.size());
+        stats.put("ratings", csr.byUser.offsets[csr.users]);
+        stats.put("pendingChanges", pendingChanges);
+        stats.put("version", version);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactor.shutdownNow();
+    }
+
+    private void queueCompactionIfNeeded() {
+        if (loaded && !compactionQueued && pendingChanges >= compactThreshold) {
+            compactionQueued = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    // Reconstruye la matriz con los cambios pendientes sin bloquear lecturas ni escrituras
+    private void compact() {
+        View pending;
+        synchronized (this) {
+            pending = view();
+        }
+
+        try {
+            Triples triples = new Triples();
+            for (int user = 0; user < pending.users; user++) {
+                if (pending.removedUsers.contains(user)) {
+                    continue;
+                }
+                Row row = pending.userRow(user);
+                for (int i = 0; i < row.size(); i++) {
+                    if (!pending.removedBooks.contains(row.index(i))) {
+                        triples.add(user, row.index(i), row.rating(i));
+                    }
+                }
+            }
+            Csr compacted = Csr.build(pending.users, pending.books, triples);
+
+            synchronized (this) {
+                csr = compacted;
+                // Lo que cambió mientras tanto sigue pendiente (los valores son absolutos, reaplicarlos no duele)
+                pending.userChanges.forEach(userChanges::remove);
+                pending.bookChanges.forEach(bookChanges::remove);
+                removedUsers.removeAll(pending.removedUsers);
+                removedBooks.removeAll(pending.removedBooks);
+                pendingChanges = userChanges.values().stream().mapToInt(Map::size).sum()
+                        + removedUsers.size() + removedBooks.size();
+            }
+        } catch (Exception e) {
+            System.err.println("Error al compactar la matriz de calificaciones: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                compactionQueued = false;
+            }
+        }
+    }
+
+    private Triples loadBatch(List<String> users, Map<String, Integer> userLookup, Map<String, Integer> bookLookup) {
+        Triples triples = new Triples();
+        neo4jClient.query(RATINGS_BY_USERS)
+                .bind(users).to("userIds")
+                .fetch()
+                .all()
+                .forEach(row -> {
+                    Integer book = bookLookup.get((String) row.get("bookId"));
+                    if (book == null) {
+                        // Libro creado después de leer los ids
+                        synchronized (this) {
+                            book = bookIndexOf((String) row.get("bookId"));
+                        }
+                    }
+                    triples.add(userLookup.get((String) row.get("userId")), book,
+                            ((Number) row.get("rating")).floatValue());
+                });
+        return triples;
+    }
+
+    private List<String> fetchIds(String query) {
+        return new ArrayList<>(neo4jClient.query(query)
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("id").asString())
+                .all());
+    }
+
+    private int userIndexOf(String userId) {
+        return userIndex.computeIfAbsent(userId, id -> {
+            userIds.add(id);
+            return userIds.size() - 1;
+        });
+    }
+
+    private int bookIndexOf(String bookId) {
+        return bookIndex.computeIfAbsent(bookId, id -> {
+            bookIds.add(id);
+            return bookIds.size() - 1;
+        });
+    }
+
+    private static Map<Integer, Float> with(Map<Integer, Float> changes, int index, float rating) {
+        Map<Integer, Float> updated = changes != null ? new HashMap<>(changes) : new HashMap<>();
+        updated.put(index, rating);
+        return Collections.unmodifiableMap(updated);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Matriz (inmutable) más los cambios pendientes tomados al crear la vista. userRow/bookRow devuelven
+     * las filas ya combinadas; los usuarios y libros borrados aún sin compactar se consultan aparte.
+     */
+    public static final class View {
+        private final Csr csr;
+        private final int users;
+        private final int books;
+        private final Map<Integer, Map<Integer, Float>> userChanges;
+        private final Map<Integer, Map<Integer, Float>> bookChanges;
+        private final Set<Integer> removedUsers;
+        private final Set<Integer> removedBooks;
+
+        View(Csr csr, int users, int books, Map<Integer, Map<Integer, Float>> userChanges,
+                     Map<Integer, Map<Integer, Float>> bookChanges, Set<Integer> removedUsers, Set<Integer> removedBooks) {
+            this.csr = csr;
+            this.users = users;
+            this.books = books;
+            this.userChanges = userChanges;
+            this.bookChanges = bookChanges;
+            this.removedUsers = removedUsers;
+            this.removedBooks = removedBooks;
+        }
+
+        public int userCount() {
+            return users;
+        }
+
+        public int bookCount() {
+            return books;
+        }
+
+        public boolean isUserRemoved(int user) {
+            return removedUsers.contains(user);
+        }
+
+        public boolean isBookRemoved(int book) {
+            return removedBooks.contains(book);
+        }
+
+        // Libros calificados por el usuario, ordenados por índice
+        public Row userRow(int user) {
+            if (user < csr.users) {
+                return Row.of(csr.byUser.offsets, csr.byUser.indices, csr.byUser.ratings, user, userChanges.get(user));
+            }
+            return Row.of(null, null, null, user, userChanges.get(user));
+        }
+
+        // Usuarios que calificaron el libro, ordenados por índice
+        public Row bookRow(int book) {
+            if (book < csr.books) {
+                return Row.of(csr.byBook.offsets, csr.byBook.indices, csr.byBook.ratings, book, bookChanges.get(book));
+            }
+            return Row.of(null, null, null, book, bookChanges.get(book));
+        }
+    }
+
+    // Una fila de la matriz: índices (libros o usuarios) y sus calificaciones
+    public static final class Row {
+        private static final Row EMPTY = new Row(new int[0], new float[0], 0, 0);
+
+        private final int[] indices;
+        private final float[] ratings;
+        private final int from;
+        private final int to;
+
+        private Row(int[] indices, float[] ratings, int from, int to) {
+            this.indices = indices;
+            this.ratings = ratings;
+            this.from = from;
+            this.to = to;
+        }
+
+        private static Row of(int[] offsets, int[] indices, float[] ratings, int row, Map<Integer, Float> changes) {
+            if (changes == null) {
+                return offsets != null ? new Row(indices, ratings, offsets[row], offsets[row + 1]) : EMPTY;
+            }
+
+            // Fila con cambios pendientes: se combina en un mapa ordenado (son pocas)
+            TreeMap<Integer, Float> merged = new TreeMap<>();
+            if (offsets != null) {
+                for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+                    merged.put(indices[i], ratings[i]);
+                }
+            }
+            changes.forEach((index, rating) -> {
+                if (Float.isNaN(rating)) {
+                    merged.remove(index);
+                } else {
+                    merged.put(index, rating);
+                }
+            });
+
+            int[] mergedIndices = new int[merged.size()];
+            float[] mergedRatings = new float[merged.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : merged.entrySet()) {
+                mergedIndices[i] = entry.getKey();
+                mergedRatings[i] = entry.getValue();
+                i++;
+            }
+            return new Row(mergedIndices, mergedRatings, 0, mergedIndices.length);
+        }
+
+        public int size() {
+            return to - from;
+        }
+
+        public int index(int i) {
+            return indices[from + i];
+        }
+
+        public float rating(int i) {
+            return ratings[from + i];
+        }
+
+        public float mean() {
+            if (size() == 0) {
+                return 0f;
+            }
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += ratings[i];
+            }
+            return (float) (sum / size());
+        }
+    }
+
+    // Las dos orientaciones CSR: la fila i ocupa [offsets[i], offsets[i + 1]) en indices y ratings
+    static final class Csr {
+        private static final Csr EMPTY = build(0, 0, new Triples());
+
+        private final int users;
+        private final int books;
+        private final Orientation byUser;
+        private final Orientation byBook;
+
+        private Csr(int users, int books, Orientation byUser, Orientation byBook) {
+            this.users = users;
+            this.books = books;
+            this.byUser = byUser;
+            this.byBook = byBook;
+        }
+
+        // Tres pasadas de ordenamiento por conteo: por libro sin ordenar, por usuario (cada fila queda
+        // ordenada por libro) y de nuevo por libro (cada fila queda ordenada por usuario)
+        static Csr build(int users, int books, Triples triples) {
+            int[] offsets = new int[books + 1];
+            for (int i = 0; i < triples.size; i++) {
+                offsets[triples.books[i] + 1]++;
+            }
+            for (int book = 0; book < books; book++) {
+                offsets[book + 1] += offsets[book];
+            }
+            int[] indices = new int[triples.size];
+            float[] ratings = new float[triples.size];
+            int[] next = Arrays.copyOf(offsets, books);
+            for (int i = 0; i < triples.size; i++) {
+                int position = next[triples.books[i]]++;
+                indices[position] = triples.users[i];
+                ratings[position] = triples.ratings[i];
+            }
+
+            Orientation byUser = new Orientation(offsets, indices, ratings).transpose(books, users);
+            Orientation byBook = byUser.transpose(users, books);
+            return new Csr(users, books, byUser, byBook);
+        }
+    }
+
+    private static final class Orientation {
+        private final int[] offsets;
+        private final int[] indices;
+        private final float[] ratings;
+
+        private Orientation(int[] offsets, int[] indices, float[] ratings) {
+            this.offsets = offsets;
+            this.indices = indices;
+            this.ratings = ratings;
+        }
+
+        private Orientation transpose(int rows, int columns) {
+            int[] transposedOffsets = new int[columns + 1];
+            for (int i = 0; i < offsets[rows]; i++) {
+                transposedOffsets[indices[i] + 1]++;
+            }
+            for (int column = 0; column < columns; column++) {
+                transposedOffsets[column + 1] += transposedOffsets[column];
+            }
+            int[] transposedIndices = new int[offsets[rows]];
+            float[] transposedRatings = new float[offsets[rows]];
+            int[] next = Arrays.copyOf(transposedOffsets, columns);
+            for (int row = 0; row < rows; row++) {
+                for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+                    int position = next[indices[i]]++;
+                    transposedIndices[position] = row;
+                    transposedRatings[position] = ratings[i];
+                }
+            }
+            return new Orientation(transposedOffsets, transposedIndices, transposedRatings);
+        }
+    }
+
+    // Tripletas (usuario, libro, calificación) en arreglos primitivos que crecen
+    static final class Triples {
+        private int[] users = new int[1024];
+        private int[] books = new int[1024];
+        private float[] ratings = new float[1024];
+        private int size;
+
+        void add(int user, int book, float rating) {
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+                books = Arrays.copyOf(books, size * 2);
+                ratings = Arrays.copyOf(ratings, size * 2);
+            }
+            users[size] = user;
+            books[size] = book;
+            ratings[size] = rating;
+            size++;
+        }
+
+        void addAll(Triples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.users[i], other.books[i], other.ratings[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.event.BookChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Recálculo de average_rating, rating_sum, total_ratings y rating_histogram de todos los libros a partir de sus
+ * relaciones RATED, como trabajo en segundo plano.
+ *
+ * Los libros se reparten por rangos de id en particiones que se procesan en paralelo. Cada lote
+ * (keyset por id, tamaño acotado) corre en su propia transacción y avanza un nodo :JobCheckpoint
+ * de su partición, así la memoria por transacción no depende del tamaño del catálogo y el trabajo
+ * se puede retomar desde el último lote confirmado si se interrumpe. Los libros sin relaciones
+ * RATED conservan su promedio (datos importados).
+ *
+ * Cada libro se bloquea (escritura de rating_recomputed_at) antes de leer sus relaciones RATED. Toda
+ * calificación creada o editada toma también el lock del libro antes de tocar RATED (last_rated_at en
+ * UserInteractionService), en ambos modos; los borrados, siempre inmediatos, escriben el agregado en su
+ * transacción. Así una calificación concurrente o confirmó antes de la lectura y queda contada en el
+ * recálculo, o espera al commit del lote y aplica su delta después. Con write-behind, los lotes corren
+ * con los volcados de RatingAggregationService en pausa y al terminar descartan los deltas pendientes
+ * de sus libros: son de calificaciones que el lote leyó, porque las que esperaban el lock recién
+ * acumulan su delta después de su propio commit.
+ */
+@Service
+public class RatingRecomputeJob {
+
+    public static final String JOB_NAME = "rating-recompute";
+
+    public enum Status {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static final String RECOMPUTE_BATCH =
+            "MATCH (b:Book) WHERE b.id > $afterId AND ($upperId IS NULL OR b.id <= $upperId) " +
+            "WITH b ORDER BY b.id LIMIT $batchSize " +
+            // Toma el lock de escritura del libro antes de leer sus relaciones RATED
+            "SET b.rating_recomputed_at = localdatetime() " +
+            "CALL { WITH b OPTIONAL MATCH (:User)-[r:RATED]->(b) RETURN collect(r.rating) AS ratings } " +
+            "WITH b, ratings, toFloat(reduce(total = 0.0, x IN ratings | total + x)) AS ratingSum, size(ratings) AS ratingCount " +
+            "SET b.rating_histogram = " + BookService.HISTOGRAM_FROM_RATINGS + " " +
+            "FOREACH (_ IN CASE WHEN ratingCount > 0 THEN [1] ELSE [] END | " +
+            "    SET b.rating_sum = ratingSum, b.total_ratings = ratingCount, b.average_rating = ratingSum / ratingCount) " +
+            "WITH b ORDER BY b.id " +
+            "WITH collect(b.id) AS ids " +
+            "RETURN ids, size(ids) AS processed, CASE WHEN size(ids) > 0 THEN ids[-1] ELSE null END AS lastId";
+
+    private final Neo4jClient neo4jClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RatingAggregationService ratingAggregationService;
+    private final int partitions;
+    private final int batchSize;
+
+    private volatile Status status = Status.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private volatile long totalBooks;
+    private final AtomicLong processedBooks = new AtomicLong();
+    // Procesados en esta ejecución (sin lo recuperado del checkpoint), para calcular el ritmo
+    private final AtomicLong processedThisRun = new AtomicLong();
+
+    public RatingRecomputeJob(Neo4jClient neo4jClient, ApplicationEventPublisher eventPublisher,
+                              RatingAggregationService ratingAggregationService,
+                              @Value("${booknet.jobs.rating-recompute.partitions:4}") int partitions,
+                              @Value("${booknet.jobs.rating-recompute.batch-size:500}") int batchSize) {
+        this.neo4jClient = neo4jClient;
+        this.eventPublisher = eventPublisher;
+        this.ratingAggregationService = ratingAggregationService;
+        this.partitions = Math.max(1, partitions);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Lanza el recálculo en segundo plano y vuelve enseguida. Si quedaron checkpoints de una
+     * ejecución interrumpida se retoma desde ellos, salvo que restart sea true.
+     * Devuelve false si ya hay una ejecución en curso.
+     */
+    public synchronized boolean start(boolean restart) {
+        if (status == Status.RUNNING) {
+            return false;
+        }
+
+        if (restart) {
+            deleteCheckpoints();
+        }
+        List<Partition> checkpoints = loadCheckpoints();
+        List<Partition> pending = checkpoints.stream().filter(partition -> !partition.done).collect(Collectors.toList());
+        if (pending.isEmpty()) {
+            checkpoints = createPartitions();
+            pending = checkpoints;
+        }
+
+        totalBooks = countBooks();
+        processedBooks.set(checkpoints.stream().mapToLong(partition -> partition.processed).sum());
+        processedThisRun.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        status = Status.RUNNING;
+
+        List<Partition> partitionsToRun = pending;
+        Thread coordinator = new Thread(() -> run(partitionsToRun), "rating-recompute");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long processed = processedBooks.get();
+        result.put("status", status);
+        result.put("startedAt", startedAt);
+        result.put("finishedAt", finishedAt);
+        result.put("partitions", partitions);
+        result.put("batchSize", batchSize);
+        result.put("totalBooks", totalBooks);
+        result.put("processedBooks", processed);
+        result.put("progress", totalBooks > 0 ? Math.min(1.0, (double) processed / totalBooks) : (status == Status.COMPLETED ? 1.0 : 0.0));
+
+        double throughput = 0.0;
+        if (startedAt != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            double seconds = Duration.between(startedAt, end).toMillis() / 1000.0;
+            throughput = seconds > 0 ? processedThisRun.get() / seconds : 0.0;
+        }
+        result.put("booksPerSecond", throughput);
+        result.put("etaSeconds", status == Status.RUNNING && throughput > 0
+                ? (long) Math.ceil(Math.max(0, totalBooks - processed) / throughput) : null);
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void run(List<Partition> pending) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(partitions, pending.size()));
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Partition partition : pending) {
+                futures.add(executor.submit(() -> runPartition(partition)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            deleteCheckpoints();
+            finishedAt = LocalDateTime.now();
+            status = Status.COMPLETED;
+            System.out.println("Recálculo de calificaciones completado: " + processedBooks.get() + " libros");
+        } catch (Exception e) {
+            // Detener las demás particiones y esperar a que terminen su lote en curso antes de informar el fallo
+            futures.forEach(future -> future.cancel(true));
+            awaitTermination(executor);
+            // Los checkpoints quedan guardados: la próxima ejecución retoma desde el último lote confirmado
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            lastError = cause.getMessage();
+            finishedAt = LocalDateTime.now();
+            status = Status.FAILED;
+            System.err.println("Error en el recálculo de calificaciones: " + cause.getMessage());
+        } finally {
+            executor.shutdownNow();
+            // Aunque falle, los lotes confirmados ya cambiaron promedios
+            eventPublisher.publishEvent(BookChangedEvent.allUpdated());
+        }
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        executor.shutdownNow();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Esperando a que terminen los lotes en curso del recálculo de calificaciones");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runPartition(Partition partition) {
+        while (!partition.done) {
+            // Cancelada: el lote confirmado ya quedó en el checkpoint
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("afterId", partition.lastId);
+            parameters.put("upperId", partition.upperId);
+            parameters.put("batchSize", batchSize);
+
+            Map<String, Object> batch = Map.of("processed", 0L);
+            ratingAggregationService.pauseFlushes();
+            try {
+                batch = neo4jClient.query(RECOMPUTE_BATCH)
+                        .bindAll(parameters)
+                        .fetch()
+                        .one()
+                        .orElse(batch);
+            } finally {
+                ratingAggregationService.resumeFlushes(idsOf(batch));
+            }
+
+            long processed = ((Number) batch.get("processed")).longValue();
+            if (processed > 0) {
+                partition.lastId = (String) batch.get("lastId");
+                partition.processed += processed;
+                processedBooks.addAndGet(processed);
+                processedThisRun.addAndGet(processed);
+            }
+            partition.done = processed < batchSize;
+            saveCheckpoint(partition);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> idsOf(Map<String, Object> batch) {
+        Object ids = batch.get("ids");
+        return ids != null ? (List<String>) ids : List.of();
+    }
+
+    // Reparte los ids en rangos de tamaño parecido tomando los ids que caen en cada frontera
+    private List<Partition> createPartitions() {
+        long total = countBooks();
+        List<String> boundaries = new ArrayList<>();
+        for (int i = 1; i < partitions && total > 0; i++) {
+            neo4jClient.query("MATCH (b:Book) WITH b.id AS id ORDER BY id SKIP $skip LIMIT 1 RETURN id")
+                    .bind(total * i / partitions).to("skip")
+                    .fetchAs(String.class)
+                    .mappedBy((typeSystem, record) -> record.get("id").asString())
+                    .one()
+                    .filter(id -> boundaries.isEmpty() || id.compareTo(boundaries.get(boundaries.size() - 1)) > 0)
+                    .ifPresent(boundaries::add);
+        }
+
+        List<Partition> result = new ArrayList<>();
+        String lowerId = "";
+        for (int i = 0; i <= boundaries.size(); i++) {
+            String upperId = i < boundaries.size() ? boundaries.get(i) : null;
+            Partition partition = new Partition(i, lowerId, upperId);
+            saveCheckpoint(partition);
+            result.add(partition);
+            lowerId = upperId;
+        }
+        return result;
+    }
+
+    private List<Partition> loadCheckpoints() {
+        return new ArrayList<>(neo4jClient
+                .query("MATCH (c:JobCheckpoint {job: $job}) " +
+                       "RETURN c.partition AS partition, c.last_id AS lastId, c.upper_id AS upperId, " +
+                       "       c.processed AS processed, c.done AS done " +
+                       "ORDER BY partition")
+                .bind(JOB_NAME).to("job")
+                .fetchAs(Partition.class)
+                .mappedBy((typeSystem, record) -> {
+                    Partition partition = new Partition(record.get("partition").asInt(),
+                            record.get("lastId").asString(""), record.get("upperId").asString(null));
+                    partition.processed = record.get("processed").asLong(0);
+                    partition.done = record.get("done").asBoolean(false);
+                    return partition;
+                })
+                .all());
+    }
+
+    private void saveCheckpoint(Partition partition) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("job", JOB_NAME);
+        parameters.put("partition", partition.index);
+        parameters.put("lastId", partition.lastId);
+        parameters.put("upperId", partition.upperId);
+        parameters.put("processed", partition.processed);
+        parameters.put("done", partition.done);
+
+        neo4jClient.query("MERGE (c:JobCheckpoint {job: $job, partition: $partition}) " +
+                          "SET c.last_id = $lastId, c.upper_id = $upperId, c.processed = $processed, " +
+                          "    c.done = $done, c.updated_at = localdatetime()")
+                .bindAll(parameters)
+                .run();
+    }
+
+    private void deleteCheckpoints() {
+        neo4jClient.query("MATCH (c:JobCheckpoint {job: $job}) DELETE c")
+                .bind(JOB_NAME).to("job")
+                .run();
+    }
+
+    private long countBooks() {
+        return neo4jClient.query("MATCH (b:Book) RETURN count(b) AS total")
+                .fetchAs(Long.class)
+                .mappedBy((typeSystem, record) -> record.get("total").asLong())
+                .one()
+                .orElse(0L);
+    }
+
+    private static final class Partition {
+        private final int index;
+        private final String upperId;
+        private String lastId;
+        private long processed;
+        private boolean done;
+
+        Partition(int index, String lastId, String upperId) {
+            this.index = index;
+            this.lastId = lastId;
+            this.upperId = upperId;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.booknet.backend.service;
+
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Serie diaria de minutos de lectura por usuario.
+ *
+ * Cada usuario tiene un nodo :ReadingActivity por año con un array de minutos por día del año,
+ * que ReadingProgressBuffer incrementa al volcar el progreso. Un año de actividad (heatmap y rachas)
+ * se sirve leyendo uno o dos nodos en lugar de agregar las relaciones READ en cada petición.
+ */
+@Service
+public class ReadingActivityService {
+
+    private final Neo4jClient neo4jClient;
+    private final ReadingProgressBuffer readingProgressBuffer;
+
+    public ReadingActivityService(Neo4jClient neo4jClient, ReadingProgressBuffer readingProgressBuffer) {
+        this.neo4jClient = neo4jClient;
+        this.readingProgressBuffer = readingProgressBuffer;
+    }
+
+    // Borra la serie diaria de un usuario que se está eliminando, en la transacción en curso
+    public void userDeleted(String userId) {
+        neo4jClient.query("MATCH (ra:ReadingActivity {user_id: $userId}) DELETE ra")
+                .bind(userId).to("userId")
+                .run();
+    }
+
+    /**
+     * Minutos por día del año indicado y sus estadísticas. La racha actual cuenta los días seguidos
+     * con lectura hasta hoy (o hasta ayer si hoy aún no hay lectura) y puede venir del año anterior.
+     */
+    public Map<String, Object> getUserReadingActivity(String userId, int year) {
+        readingProgressBuffer.flushUser(userId);
+
+        LocalDate today = LocalDate.now();
+        Map<Integer, long[]> years = loadYears(userId, List.of(year, today.getYear(), today.getYear() - 1));
+        long[] days = years.getOrDefault(year, new long[LocalDate.ofYearDay(year, 1).lengthOfYear()]);
+
+        long totalMinutes = 0;
+        int activeDays = 0;
+        int longestStreak = 0;
+        int streak = 0;
+        for (long minutes : days) {
+            totalMinutes += minutes;
+            if (minutes > 0) {
+                activeDays++;
+                streak++;
+                longestStreak = Math.max(longestStreak, streak);
+            } else {
+                streak = 0;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("year", year);
+        result.put("days", days);
+        result.put("totalMinutes", totalMinutes);
+        result.put("activeDays", activeDays);
+        result.put("longestStreak", longestStreak);
+        result.put("currentStreak", currentStreak(years, today));
+        return result;
+    }
+
+    private int currentStreak(Map<Integer, long[]> years, LocalDate today) {
+        LocalDate day = minutesOn(years, today) > 0 ? today : today.minusDays(1);
+        int streak = 0;
+        while (minutesOn(years, day) > 0) {
+            streak++;
+            day = day.minusDays(1);
+        }
+        return streak;
+    }
+
+    private static long minutesOn(Map<Integer, long[]> years, LocalDate day) {
+        long[] days = years.get(day.getYear());
+        return days != null && day.getDayOfYear() <= days.length ? days[day.getDayOfYear() - 1] : 0;
+    }
+
+    private Map<Integer, long[]> loadYears(String userId, List<Integer> years) {
+        Map<Integer, long[]> result = new HashMap<>();
+        neo4jClient.query("MATCH (ra:ReadingActivity {user_id: $userId}) WHERE ra.year IN $years " +
+                          "RETURN ra.year AS year, ra.minutes AS minutes")
+                .bind(userId).to("userId")
+                .bind(new ArrayList<>(new HashSet<>(years))).to("years")
+                .fetch()
+                .all()
+                .forEach(row -> {
+                    List<?> minutes = (List<?>) row.get("minutes");
+                    long[] days = new long[minutes.size()];
+                    for (int i = 0; i < days.length; i++) {
+                        days[i] = ((Number) minutes.get(i)).longValue();
+                    }
+                    result.put(((Number) row.get("year")).intValue(), days);
+                });
+        return result;
+    }
+}
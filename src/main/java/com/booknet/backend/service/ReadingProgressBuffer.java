@@ -0,0 +1,273 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.ReadingProgressRequest;
+import com.booknet.backend.event.ReadingProgressChangedEvent;
+import com.booknet.backend.event.UserActivityEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Buffer de actualizaciones de progreso de lectura.
+ *
+ * Las apps de lectura reportan el progreso cada pocos segundos. Cada reporte se combina en una
+ * entrada por (usuario, libro) que conserva solo la última posición y suma minutos y sesiones;
+ * un volcado periódico escribe todas las entradas pendientes en un único UNWIND sobre la relación
+ * READ, sin cargar ni guardar el grafo del usuario. En la misma sentencia los minutos se suman al
+ * día correspondiente de la serie diaria del usuario (ver ReadingActivityService).
+ *
+ * Minutos y sesiones se suman siempre; la posición (estado, porcentaje, capítulo) solo se escribe
+ * si el reporte es al menos tan reciente como el updated_at guardado en READ, así dos volcados que
+ * se cruzan no dejan una posición vieja encima de una nueva.
+ *
+ * Para que un usuario vea sus propios cambios, las lecturas de su progreso llaman antes a
+ * flushUser. Lo que quede en el buffer al caerse la aplicación (como mucho un intervalo de volcado)
+ * se pierde; al apagarse de forma ordenada se vuelca.
+ */
+@Service
+public class ReadingProgressBuffer {
+
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    // Progreso en READ y minutos del día en el ReadingActivity del usuario, en una sola transacción.
+    // ReadingActivity guarda un array de minutos por día del año (índice = día del año - 1).
+    // Devuelve los libros que pasaron a 'completed' en este volcado, para el feed de actividad.
+    // Solo cuentan minutos de los pares (usuario, libro) que existen: un reporte que quedó en el buffer
+    // de un usuario o libro ya borrado no crea ni modifica su ReadingActivity
+    private static final String FLUSH_PROGRESS =
+            "CALL { " +
+            "    UNWIND $updates AS p " +
+            "    MATCH (u:User {id: p.userId}), (b:Book {id: p.bookId}) " +
+            "    MERGE (u)-[r:READ]->(b) " +
+            "    ON CREATE SET r.start_date = p.startedAt, " +
+            "                  r.reading_sessions = CASE WHEN p.sessions > 0 THEN p.sessions ELSE 1 END, " +
+            "                  r.total_reading_time_minutes = p.minutes " +
+            "    ON MATCH SET r.reading_sessions = coalesce(r.reading_sessions, 0) + p.sessions, " +
+            "                 r.total_reading_time_minutes = coalesce(r.total_reading_time_minutes, 0) + p.minutes " +
+            // El estado anterior se lee después del ON MATCH SET, con la relación ya bloqueada.
+            // La posición solo se escribe si el reporte no es más viejo que la guardada: un volcado que
+            // llega tarde (flushUser y el volcado periódico en paralelo, o un reintento) no la hace retroceder
+            "    WITH p, r, r.status AS previousStatus, " +
+            "         r.updated_at IS NULL OR p.updatedAt >= r.updated_at AS newer " +
+            "    FOREACH (_ IN CASE WHEN newer THEN [1] ELSE [] END | " +
+            "        SET r.status = p.status, r.progress_percentage = p.progressPercentage, " +
+            "            r.current_chapter = p.currentChapter, r.updated_at = p.updatedAt, " +
+            "            r.finish_date = coalesce(p.finishedAt, r.finish_date)) " +
+            "    RETURN collect(CASE WHEN newer AND p.status = 'completed' AND coalesce(previousStatus, '') <> 'completed' " +
+            "                        THEN {userId: p.userId, bookId: p.bookId} END) AS completions, " +
+            "           collect({userId: p.userId, bookId: p.bookId}) AS matched " +
+            "} " +
+            "CALL { " +
+            "    WITH matched " +
+            "    UNWIND $activity AS a " +
+            "    WITH a WHERE {userId: a.userId, bookId: a.bookId} IN matched " +
+            // Un solo incremento por (usuario, día) aunque haya minutos de varios libros
+            "    WITH a.userId AS userId, a.year AS year, a.day AS day, a.daysInYear AS daysInYear, sum(a.minutes) AS minutes " +
+            "    MERGE (ra:ReadingActivity {user_id: userId, year: year}) " +
+            "    ON CREATE SET ra.minutes = [d IN range(1, daysInYear) | 0], ra.total_minutes = 0 " +
+            // Se escribe primero updated_at para tomar el lock del nodo antes de leer el array
+            "    SET ra.updated_at = localdatetime() " +
+            "    WITH ra, day, minutes " +
+            "    SET ra.minutes = ra.minutes[0..day] + [ra.minutes[day] + minutes] + ra.minutes[day + 1..], " +
+            "        ra.total_minutes = ra.total_minutes + minutes " +
+            "} " +
+            "RETURN completions";
+
+    private final Neo4jClient neo4jClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentHashMap<String, PendingProgress> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    public ReadingProgressBuffer(Neo4jClient neo4jClient, ApplicationEventPublisher eventPublisher) {
+        this.neo4jClient = neo4jClient;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Combina el reporte con lo pendiente para el mismo (usuario, libro)
+    public void submit(String userId, ReadingProgressRequest request) {
+        received.increment();
+        PendingProgress update = PendingProgress.from(userId, request, LocalDateTime.now());
+        pending.merge(key(userId, request.getBookId()), update, PendingProgress::combine);
+    }
+
+    @Scheduled(fixedDelayString = "${booknet.reading-progress.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        write(drain(key -> true));
+    }
+
+    // Vuelca lo pendiente de un usuario antes de leer su progreso (read-your-writes)
+    public void flushUser(String userId) {
+        String prefix = userId + KEY_SEPARATOR;
+        write(drain(key -> key.startsWith(prefix)));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("received", received.sum());
+        stats.put("written", written.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        return stats;
+    }
+
+    // remove es atómico con merge sobre la misma clave: un reporte concurrente queda en esta tanda o en la siguiente
+    private List<PendingProgress> drain(Predicate<String> filter) {
+        List<PendingProgress> updates = new ArrayList<>();
+        for (String key : pending.keySet()) {
+            if (filter.test(key)) {
+                PendingProgress update = pending.remove(key);
+                if (update != null) {
+                    updates.add(update);
+                }
+            }
+        }
+        return updates;
+    }
+
+    private void write(List<PendingProgress> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        List<?> completions;
+        try {
+            List<Map<String, Object>> parameters = new ArrayList<>();
+            for (PendingProgress update : updates) {
+                parameters.add(update.toParameters());
+            }
+            completions = neo4jClient.query(FLUSH_PROGRESS)
+                    .bind(parameters).to("updates")
+                    .bind(activityParameters(updates)).to("activity")
+                    .fetch()
+                    .one()
+                    .map(row -> (List<?>) row.get("completions"))
+                    .orElse(List.of());
+            written.add(updates.size());
+        } catch (Exception e) {
+            // Se devuelven al buffer combinándolos con lo que haya llegado mientras tanto
+            failedFlushes.increment();
+            System.err.println("Error al volcar el progreso de lectura: " + e.getMessage());
+            for (PendingProgress update : updates) {
+                pending.merge(key(update.userId, update.bookId), update, PendingProgress::combine);
+            }
+            return;
+        }
+
+        // Fuera del try: un fallo de un listener no debe devolver al buffer lo que ya se escribió
+        Set<String> userIds = new HashSet<>();
+        for (PendingProgress update : updates) {
+            userIds.add(update.userId);
+        }
+        eventPublisher.publishEvent(new ReadingProgressChangedEvent(userIds));
+        for (Object completion : completions) {
+            Map<?, ?> completed = (Map<?, ?>) completion;
+            eventPublisher.publishEvent(UserActivityEvent.completed((String) completed.get("userId"), (String) completed.get("bookId")));
+        }
+    }
+
+    // Minutos por (usuario, libro, día); la sentencia descarta los pares inexistentes y suma por (usuario, día)
+    private static List<Map<String, Object>> activityParameters(List<PendingProgress> updates) {
+        List<Map<String, Object>> activity = new ArrayList<>();
+        for (PendingProgress update : updates) {
+            update.minutesByDay.forEach((day, minutes) -> {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("userId", update.userId);
+                entry.put("bookId", update.bookId);
+                entry.put("year", day.getYear());
+                entry.put("day", day.getDayOfYear() - 1);
+                entry.put("daysInYear", day.lengthOfYear());
+                entry.put("minutes", minutes);
+                activity.add(entry);
+            });
+        }
+        return activity;
+    }
+
+    private static String key(String userId, String bookId) {
+        return userId + KEY_SEPARATOR + bookId;
+    }
+
+    private static final class PendingProgress {
+        private final String userId;
+        private final String bookId;
+        private final String status;
+        private final Double progressPercentage;
+        private final String currentChapter;
+        private final Map<LocalDate, Long> minutesByDay;
+        private final long sessions;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime updatedAt;
+        private final LocalDateTime finishedAt;
+
+        private PendingProgress(String userId, String bookId, String status, Double progressPercentage,
+                                String currentChapter, Map<LocalDate, Long> minutesByDay, long sessions, LocalDateTime startedAt,
+                                LocalDateTime updatedAt, LocalDateTime finishedAt) {
+            this.userId = userId;
+            this.bookId = bookId;
+            this.status = status;
+            this.progressPercentage = progressPercentage;
+            this.currentChapter = currentChapter;
+            this.minutesByDay = minutesByDay;
+            this.sessions = sessions;
+            this.startedAt = startedAt;
+            this.updatedAt = updatedAt;
+            this.finishedAt = finishedAt;
+        }
+
+        static PendingProgress from(String userId, ReadingProgressRequest request, LocalDateTime now) {
+            boolean timed = request.getReadingTimeMinutes() != null && request.getReadingTimeMinutes() > 0;
+            return new PendingProgress(userId, request.getBookId(), request.getStatus(),
+                    request.getProgressPercentage(), request.getCurrentChapter(),
+                    timed ? Map.of(now.toLocalDate(), (long) request.getReadingTimeMinutes()) : Map.of(), timed ? 1 : 0,
+                    now, now, "completed".equals(request.getStatus()) ? now : null);
+        }
+
+        // La posición es la del reporte más reciente; minutos (por día) y sesiones se acumulan
+        static PendingProgress combine(PendingProgress older, PendingProgress newer) {
+            if (newer.updatedAt.isBefore(older.updatedAt)) {
+                return combine(newer, older);
+            }
+            Map<LocalDate, Long> minutesByDay = new HashMap<>(older.minutesByDay);
+            newer.minutesByDay.forEach((day, minutes) -> minutesByDay.merge(day, minutes, Long::sum));
+            return new PendingProgress(newer.userId, newer.bookId, newer.status, newer.progressPercentage,
+                    newer.currentChapter, minutesByDay, older.sessions + newer.sessions,
+                    older.startedAt, newer.updatedAt,
+                    newer.finishedAt != null ? newer.finishedAt : older.finishedAt);
+        }
+
+        Map<String, Object> toParameters() {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("userId", userId);
+            parameters.put("bookId", bookId);
+            parameters.put("status", status);
+            parameters.put("progressPercentage", progressPercentage);
+            parameters.put("currentChapter", currentChapter);
+            parameters.put("minutes", minutesByDay.values().stream().mapToLong(Long::longValue).sum());
+            parameters.put("sessions", sessions);
+            parameters.put("startedAt", startedAt);
+            parameters.put("updatedAt", updatedAt);
+            parameters.put("finishedAt", finishedAt);
+            return parameters;
+        }
+    }
+}
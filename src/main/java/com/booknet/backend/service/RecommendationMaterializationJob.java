@@ -0,0 +1,127 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.RecommendationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recalcula periódicamente las listas de recomendaciones de los usuarios y las guarda con
+ * MaterializedRecommendationService: primero la cola de prioridad (usuarios que acaban de calificar
+ * o que pidieron recomendaciones sin tenerlas), después los usuarios activos con listas viejas.
+ *
+ * Corre en su propio hilo para no retrasar las demás tareas programadas; cada lote de usuarios se
+ * escribe en una transacción.
+ */
+@Service
+public class RecommendationMaterializationJob {
+
+    private final RecommendationService recommendationService;
+    private final MaterializedRecommendationService materializedRecommendationService;
+    private final int usersPerRun;
+    private final int batchSize;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-materialization");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastRunUsers;
+    private volatile String lastError;
+
+    public RecommendationMaterializationJob(RecommendationService recommendationService,
+                                            MaterializedRecommendationService materializedRecommendationService,
+                                            @Value("${booknet.recommendations.materialized.users-per-run:500}") int usersPerRun,
+                                            @Value("${booknet.recommendations.materialized.batch-size:50}") int batchSize) {
+        this.recommendationService = recommendationService;
+        this.materializedRecommendationService = materializedRecommendationService;
+        this.usersPerRun = Math.max(1, usersPerRun);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${booknet.recommendations.materialized.interval-ms:30000}")
+    public void scheduledRun() {
+        if (running.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                try {
+                    run();
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("lastRunAt", lastRunAt);
+        status.put("lastRunUsers", lastRunUsers);
+        status.put("pendingPriorityUsers", materializedRecommendationService.getPendingPriorityUsers());
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run() {
+        List<String> users = new ArrayList<>(materializedRecommendationService.takePriorityUsers(usersPerRun));
+        int processed = 0;
+        try {
+            if (users.size() < usersPerRun) {
+                Set<String> queued = new HashSet<>(users);
+                materializedRecommendationService.findStaleActiveUsers(usersPerRun - users.size()).stream()
+                        .filter(queued::add)
+                        .forEach(users::add);
+            }
+
+            for (int from = 0; from < users.size(); from += batchSize) {
+                Map<String, Map<String, List<RecommendationResponse>>> batch = new LinkedHashMap<>();
+                for (String userId : users.subList(from, Math.min(users.size(), from + batchSize))) {
+                    batch.put(userId, computeLists(userId));
+                }
+                materializedRecommendationService.write(batch);
+                processed += batch.size();
+            }
+            lastError = null;
+        } catch (Exception e) {
+            // Los usuarios de prioridad que no se alcanzaron vuelven a la cola
+            users.subList(processed, users.size()).forEach(materializedRecommendationService::markStale);
+            lastError = e.getMessage();
+            System.err.println("Error al precalcular recomendaciones: " + e.getMessage());
+        }
+
+        lastRunAt = LocalDateTime.now();
+        lastRunUsers = processed;
+        if (processed > 0) {
+            System.out.println("Recomendaciones precalculadas para " + processed + " usuarios");
+        }
+    }
+
+    private Map<String, List<RecommendationResponse>> computeLists(String userId) {
+        int size = materializedRecommendationService.getListSize();
+        Map<String, List<RecommendationResponse>> lists = new LinkedHashMap<>();
+        lists.put(MaterializedRecommendationService.PERSONALIZED,
+                recommendationService.computePersonalizedRecommendations(userId, size));
+        lists.put(MaterializedRecommendationService.COLLABORATIVE,
+                recommendationService.computeCollaborativeRecommendations(userId, size));
+        lists.put(MaterializedRecommendationService.CONTENT_BASED,
+                recommendationService.computeContentBasedRecommendations(userId, size));
+        lists.put(MaterializedRecommendationService.HYBRID,
+                recommendationService.computeHybridRecommendations(userId, size));
+        return lists;
+    }
+}
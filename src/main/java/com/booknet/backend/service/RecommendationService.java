@@ -9,8 +9,12 @@ import com.booknet.backend.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,20 +23,57 @@ public class RecommendationService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BookService bookService;
+    private final CollaborativeFilteringService collaborativeFilteringService;
+    private final AlsModelService alsModelService;
+    private final RatingMatrix ratingMatrix;
+    private final BookResponseCache bookResponseCache;
+    private final BookReadService bookReadService;
+    private final MaterializedRecommendationService materializedRecommendationService;
 
     public RecommendationService(BookRepository bookRepository, 
                                UserRepository userRepository, 
-                               BookService bookService) {
+                               BookService bookService,
+                               CollaborativeFilteringService collaborativeFilteringService,
+                               AlsModelService alsModelService,
+                               RatingMatrix ratingMatrix,
+                               BookResponseCache bookResponseCache,
+                               BookReadService bookReadService,
+                               MaterializedRecommendationService materializedRecommendationService) {
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.bookService = bookService;
+        this.collaborativeFilteringService = collaborativeFilteringService;
+        this.alsModelService = alsModelService;
+        this.ratingMatrix = ratingMatrix;
+        this.bookResponseCache = bookResponseCache;
+        this.bookReadService = bookReadService;
+        this.materializedRecommendationService = materializedRecommendationService;
     }
 
+    // Las listas por usuario se sirven desde las relaciones RECOMMENDED precalculadas
+    // (RecommendationMaterializationJob); solo sin lista guardada se calculan en el momento
     public List<RecommendationResponse> getPersonalizedRecommendations(String userId, Integer limit) {
+        return materializedRecommendationService.find(userId, MaterializedRecommendationService.PERSONALIZED, limit)
+                .orElseGet(() -> computePersonalizedRecommendations(userId, limit));
+    }
+
+    public List<RecommendationResponse> getCollaborativeRecommendations(String userId, Integer limit) {
+        return materializedRecommendationService.find(userId, MaterializedRecommendationService.COLLABORATIVE, limit)
+                .orElseGet(() -> computeCollaborativeRecommendations(userId, limit));
+    }
+
+    public List<RecommendationResponse> getContentBasedRecommendations(String userId, Integer limit) {
+        return materializedRecommendationService.find(userId, MaterializedRecommendationService.CONTENT_BASED, limit)
+                .orElseGet(() -> computeContentBasedRecommendations(userId, limit));
+    }
+
+    public List<RecommendationResponse> getHybridRecommendations(String userId, Integer limit) {
+        return materializedRecommendationService.find(userId, MaterializedRecommendationService.HYBRID, limit)
+                .orElseGet(() -> computeHybridRecommendations(userId, limit));
+    }
+
+    public List<RecommendationResponse> computePersonalizedRecommendations(String userId, Integer limit) {
         try {
-            // Collaborative filtering based on similar users
-            List<User> similarUsers = userRepository.findUsersWithSimilarTaste(userId, 4.0, 3, 10);
-            
             // Content-based filtering based on preferred genres
             List<Book> genreBasedBooks = bookRepository.findRecommendationsByPreferredGenres(userId, 4.0, limit);
             
@@ -50,8 +91,30 @@ public class RecommendationService {
         }
     }
 
-    public List<RecommendationResponse> getCollaborativeRecommendations(String userId, Integer limit) {
+    public List<RecommendationResponse> computeCollaborativeRecommendations(String userId, Integer limit) {
         try {
+            // Modelo de factores latentes (ALS): puntaje por usuario para todo el catálogo
+            Optional<Set<String>> ratedBookIds = ratingMatrix.ratedBookIds(userId);
+            if (ratedBookIds.isPresent()) {
+                Optional<List<CollaborativeFilteringService.ScoredBook>> modelBooks =
+                        alsModelService.recommend(userId, limit, ratedBookIds.get());
+                if (modelBooks.isPresent() && !modelBooks.get().isEmpty()) {
+                    return toCollaborativeResponses(modelBooks.get(),
+                            scored -> calculateModelConfidence(scored.getPredictedRating()));
+                }
+            }
+
+            // Usuario aún fuera del modelo: vecinos y puntajes desde la matriz de calificaciones en memoria
+            Optional<List<CollaborativeFilteringService.ScoredBook>> scoredBooks =
+                    collaborativeFilteringService.recommend(userId, limit);
+            if (scoredBooks.isPresent()) {
+                if (scoredBooks.get().isEmpty()) {
+                    return getPopularRecommendations(limit);
+                }
+                return toCollaborativeResponses(scoredBooks.get(), this::calculateCollaborativeConfidence);
+            }
+
+            // La matriz aún se está cargando: consultas al grafo
             List<User> similarUsers = userRepository.findUsersWithSimilarTaste(userId, 4.0, 3, 10);
             
             if (similarUsers.isEmpty()) {
@@ -72,7 +135,7 @@ public class RecommendationService {
         }
     }
 
-    public List<RecommendationResponse> getContentBasedRecommendations(String userId, Integer limit) {
+    public List<RecommendationResponse> computeContentBasedRecommendations(String userId, Integer limit) {
         try {
             List<Book> contentBasedBooks = bookRepository.findRecommendationsByPreferredGenres(userId, 4.0, limit);
             
@@ -89,13 +152,13 @@ public class RecommendationService {
 
     public List<RecommendationResponse> getPopularRecommendations(Integer limit) {
         try {
-            List<Book> popularBooks = bookRepository.findTopRatedBooks(limit);
+            // Ranking en memoria de LeaderboardService, sin cargar las entidades Book
+            List<BookResponse> popularBooks = bookService.getTopRatedBooks(limit);
             
             return popularBooks.stream()
-                    .map(book -> createRecommendationResponse(book, "popularity_based", 
-                            calculatePopularityConfidence(book), 
-                            "Popular entre todos los usuarios"))
-                    .filter(rec -> rec != null)
+                    .map(book -> new RecommendationResponse(book, "popularity_based", 
+                            calculatePopularityConfidence(book.getAverageRating(), book.getTotalRatings()), 
+                            "Popular entre todos los usuarios", LocalDateTime.now()))
                     .collect(Collectors.toList());
         } catch (Exception e) {
             return List.of(); // Return empty list if all fails
@@ -120,38 +183,53 @@ public class RecommendationService {
 
     public List<RecommendationResponse> getTrendingRecommendations(Integer limit) {
         try {
-            List<Book> trendingBooks = bookRepository.findMostReviewedBooks(limit);
+            List<BookResponse> trendingBooks = bookService.getMostReviewedBooks(limit);
             
             return trendingBooks.stream()
-                    .map(book -> createRecommendationResponse(book, "trending", 
-                            calculateTrendingConfidence(book), 
-                            "Tendencia entre los lectores"))
-                    .filter(rec -> rec != null)
+                    .map(book -> new RecommendationResponse(book, "trending", 
+                            calculateTrendingConfidence(book.getAverageRating(), book.getTotalRatings()), 
+                            "Tendencia entre los lectores", LocalDateTime.now()))
                     .collect(Collectors.toList());
         } catch (Exception e) {
             return List.of();
         }
     }
 
-    public List<RecommendationResponse> getHybridRecommendations(String userId, Integer limit) {
+    public List<RecommendationResponse> computeHybridRecommendations(String userId, Integer limit) {
         try {
             // Combine different recommendation strategies
             List<RecommendationResponse> recommendations = new java.util.ArrayList<>();
             
             // 40% content-based
             int contentBasedCount = Math.max(1, (int) (limit * 0.4));
-            recommendations.addAll(getContentBasedRecommendations(userId, contentBasedCount));
+            recommendations.addAll(computeContentBasedRecommendations(userId, contentBasedCount));
             
             // 40% collaborative
             int collaborativeCount = Math.max(1, (int) (limit * 0.4));
-            recommendations.addAll(getCollaborativeRecommendations(userId, collaborativeCount));
+            recommendations.addAll(computeCollaborativeRecommendations(userId, collaborativeCount));
             
             // 20% popular/trending
             int popularCount = Math.max(1, limit - contentBasedCount - collaborativeCount);
             recommendations.addAll(getPopularRecommendations(popularCount));
             
-            // Sort by confidence score and return top results
-            return recommendations.stream()
+            // Con modelo ALS, la confianza de cada candidato pasa a ser su calificación estimada para este usuario
+            Map<String, Double> predictions = alsModelService.predict(userId, recommendations.stream()
+                    .map(recommendation -> recommendation.getBook().getId())
+                    .collect(Collectors.toSet()));
+            for (RecommendationResponse recommendation : recommendations) {
+                Double prediction = predictions.get(recommendation.getBook().getId());
+                if (prediction != null) {
+                    recommendation.setConfidenceScore(calculateModelConfidence(prediction));
+                }
+            }
+
+            // Sort by confidence score and return top results (un libro aparece una sola vez)
+            Map<String, RecommendationResponse> bestByBook = new LinkedHashMap<>();
+            for (RecommendationResponse recommendation : recommendations) {
+                bestByBook.merge(recommendation.getBook().getId(), recommendation,
+                        (current, candidate) -> candidate.getConfidenceScore() > current.getConfidenceScore() ? candidate : current);
+            }
+            return bestByBook.values().stream()
                     .sorted((r1, r2) -> Double.compare(r2.getConfidenceScore(), r1.getConfidenceScore()))
                     .limit(limit)
                     .collect(Collectors.toList());
@@ -192,6 +270,22 @@ public class RecommendationService {
         }
     }
 
+    private List<RecommendationResponse> toCollaborativeResponses(List<CollaborativeFilteringService.ScoredBook> scoredBooks,
+                                                                  Function<CollaborativeFilteringService.ScoredBook, Double> confidence) {
+        Map<String, BookResponse> books = bookResponseCache
+                .getAllOrLoad(scoredBooks.stream().map(CollaborativeFilteringService.ScoredBook::getBookId).collect(Collectors.toList()),
+                        bookReadService::findByIds)
+                .stream()
+                .collect(Collectors.toMap(BookResponse::getId, Function.identity()));
+
+        return scoredBooks.stream()
+                .filter(scored -> books.containsKey(scored.getBookId()))
+                .map(scored -> new RecommendationResponse(books.get(scored.getBookId()), "collaborative_filtering",
+                        confidence.apply(scored),
+                        "Usuarios con gustos similares también disfrutaron este libro", LocalDateTime.now()))
+                .collect(Collectors.toList());
+    }
+
     private RecommendationResponse createRecommendationResponse(Book book, String algorithm, 
                                                               Double confidence, String reason) {
         try {
@@ -235,6 +329,17 @@ public class RecommendationService {
         }
     }
 
+    // Calificación estimada por el modelo ALS (1-5) llevada a 0-1
+    private Double calculateModelConfidence(double predictedRating) {
+        return Math.max(0.0, Math.min((predictedRating - 1.0) / 4.0, 1.0));
+    }
+
+    // Calificación estimada llevada a 0-1, con menos confianza cuando pocos vecinos calificaron el libro
+    private Double calculateCollaborativeConfidence(CollaborativeFilteringService.ScoredBook scored) {
+        double support = scored.getSupport();
+        return Math.min(scored.getPredictedRating() / 5.0 * support / (support + 1.0), 1.0);
+    }
+
     private Double calculateContentBasedConfidence(String userId, Book book) {
         try {
             // Calculate confidence based on genre/tag similarity
@@ -248,10 +353,14 @@ public class RecommendationService {
     }
 
     private Double calculatePopularityConfidence(Book book) {
+        return calculatePopularityConfidence(book.getAverageRating(), book.getTotalRatings());
+    }
+
+    private Double calculatePopularityConfidence(Double averageRating, Integer ratingCount) {
         try {
             // Calculate confidence based on popularity
-            Double ratingScore = book.getAverageRating() != null ? book.getAverageRating() / 5.0 : 0.5;
-            Integer totalRatings = book.getTotalRatings() != null ? book.getTotalRatings() : 0;
+            Double ratingScore = averageRating != null ? averageRating / 5.0 : 0.5;
+            Integer totalRatings = ratingCount != null ? ratingCount : 0;
             Double popularityScore = Math.min(totalRatings / 50.0, 1.0);
             
             return Math.min((ratingScore + popularityScore) / 2.0, 1.0);
@@ -260,11 +369,11 @@ public class RecommendationService {
         }
     }
 
-    private Double calculateTrendingConfidence(Book book) {
+    private Double calculateTrendingConfidence(Double averageRating, Integer ratingCount) {
         try {
             // Calculate confidence based on recent activity
-            Double ratingScore = book.getAverageRating() != null ? book.getAverageRating() / 5.0 : 0.5;
-            Integer totalRatings = book.getTotalRatings() != null ? book.getTotalRatings() : 0;
+            Double ratingScore = averageRating != null ? averageRating / 5.0 : 0.5;
+            Integer totalRatings = ratingCount != null ? ratingCount : 0;
             Double popularityScore = Math.min(totalRatings / 50.0, 1.0);
             
             return Math.min((ratingScore + popularityScore) / 2.0, 1.0);
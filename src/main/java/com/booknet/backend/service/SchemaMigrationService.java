@@ -0,0 +1,279 @@
+package com.booknet.backend.service;
+
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Migraciones versionadas del esquema de Neo4j (constraints e índices).
+ *
+ * Cada migración se aplica una sola vez y queda registrada como un nodo :SchemaMigration.
+ * Todas las sentencias usan IF NOT EXISTS, por lo que volver a ejecutarlas es inocuo.
+ * Las sentencias de datos ("batched") se repiten en lotes hasta que no actualizan nada.
+ *
+ * Las migraciones son independientes entre sí: ninguna asume que otra se aplicó, así que una que
+ * falla (por ejemplo un constraint sobre datos duplicados) no impide aplicar las siguientes.
+ */
+@Service
+public class SchemaMigrationService {
+
+    private static final List<SchemaMigration> MIGRATIONS = List.of(
+            new SchemaMigration(1, "Constraints de unicidad en ids, ISBN, username y email", List.of(
+                    "CREATE CONSTRAINT book_id_unique IF NOT EXISTS FOR (b:Book) REQUIRE b.id IS UNIQUE",
+                    "CREATE CONSTRAINT user_id_unique IF NOT EXISTS FOR (u:User) REQUIRE u.id IS UNIQUE",
+                    "CREATE CONSTRAINT author_id_unique IF NOT EXISTS FOR (a:Author) REQUIRE a.id IS UNIQUE",
+                    "CREATE CONSTRAINT genre_id_unique IF NOT EXISTS FOR (g:Genre) REQUIRE g.id IS UNIQUE",
+                    "CREATE CONSTRAINT tag_id_unique IF NOT EXISTS FOR (t:Tag) REQUIRE t.id IS UNIQUE",
+                    "CREATE CONSTRAINT series_id_unique IF NOT EXISTS FOR (s:Series) REQUIRE s.id IS UNIQUE",
+                    "CREATE CONSTRAINT chapter_id_unique IF NOT EXISTS FOR (c:Chapter) REQUIRE c.id IS UNIQUE",
+                    "CREATE CONSTRAINT book_isbn_unique IF NOT EXISTS FOR (b:Book) REQUIRE b.isbn IS UNIQUE",
+                    "CREATE CONSTRAINT user_username_unique IF NOT EXISTS FOR (u:User) REQUIRE u.username IS UNIQUE",
+                    "CREATE CONSTRAINT user_email_unique IF NOT EXISTS FOR (u:User) REQUIRE u.email IS UNIQUE",
+                    "CREATE CONSTRAINT schema_migration_version_unique IF NOT EXISTS FOR (m:SchemaMigration) REQUIRE m.version IS UNIQUE"
+            )),
+            new SchemaMigration(2, "Índices de rango para filtros y ordenamiento de libros", List.of(
+                    "CREATE INDEX book_average_rating IF NOT EXISTS FOR (b:Book) ON (b.average_rating)",
+                    "CREATE INDEX book_total_ratings IF NOT EXISTS FOR (b:Book) ON (b.total_ratings)",
+                    "CREATE INDEX book_created_at IF NOT EXISTS FOR (b:Book) ON (b.created_at)",
+                    "CREATE INDEX book_language IF NOT EXISTS FOR (b:Book) ON (b.language)",
+                    "CREATE INDEX book_age_rating IF NOT EXISTS FOR (b:Book) ON (b.age_rating)",
+                    "CREATE INDEX book_publication_year IF NOT EXISTS FOR (b:Book) ON (b.publication_year)"
+            )),
+            new SchemaMigration(3, "Índices para búsquedas por nombre y paginación por cursor", List.of(
+                    "CREATE INDEX author_name IF NOT EXISTS FOR (a:Author) ON (a.name)",
+                    "CREATE INDEX genre_name IF NOT EXISTS FOR (g:Genre) ON (g.name)",
+                    "CREATE INDEX tag_name IF NOT EXISTS FOR (t:Tag) ON (t.name)",
+                    "CREATE INDEX series_name IF NOT EXISTS FOR (s:Series) ON (s.name)",
+                    "CREATE INDEX book_title_id IF NOT EXISTS FOR (b:Book) ON (b.title, b.id)",
+                    "CREATE INDEX author_created_at_id IF NOT EXISTS FOR (a:Author) ON (a.created_at, a.id)",
+                    "CREATE INDEX genre_created_at_id IF NOT EXISTS FOR (g:Genre) ON (g.created_at, g.id)",
+                    "CREATE INDEX tag_created_at_id IF NOT EXISTS FOR (t:Tag) ON (t.created_at, t.id)",
+                    "CREATE INDEX user_created_at_id IF NOT EXISTS FOR (u:User) ON (u.created_at, u.id)"
+            )),
+            new SchemaMigration(4, "Completar created_at faltante para que los nodos aparezcan en la paginación por cursor",
+                    List.of(),
+                    List.of(
+                            "MATCH (n:Book) WHERE n.created_at IS NULL WITH n LIMIT 10000 " +
+                            "SET n.created_at = localdatetime() RETURN count(n) AS updated",
+                            "MATCH (n:Author) WHERE n.created_at IS NULL WITH n LIMIT 10000 " +
+                            "SET n.created_at = localdatetime() RETURN count(n) AS updated",
+                            "MATCH (n:Genre) WHERE n.created_at IS NULL WITH n LIMIT 10000 " +
+                            "SET n.created_at = localdatetime() RETURN count(n) AS updated",
+                            "MATCH (n:Tag) WHERE n.created_at IS NULL WITH n LIMIT 10000 " +
+                            "SET n.created_at = localdatetime() RETURN count(n) AS updated",
+                            "MATCH (n:User) WHERE n.created_at IS NULL WITH n LIMIT 10000 " +
+                            "SET n.created_at = localdatetime() RETURN count(n) AS updated"
+                    )),
+            new SchemaMigration(5, "Índice full-text de libros con autores y géneros desnormalizados",
+                    List.of(
+                            "CREATE FULLTEXT INDEX " + BookSearchService.INDEX_NAME + " IF NOT EXISTS FOR (b:Book) " +
+                            "ON EACH [b.title, b.description, b.search_authors, b.search_genres] " +
+                            "OPTIONS {indexConfig: {`fulltext.analyzer`: 'standard-folding'}}"
+                    ),
+                    List.of(
+                            "MATCH (b:Book) WHERE b.search_authors IS NULL OR b.search_genres IS NULL " +
+                            "WITH b LIMIT 1000 " + BookSearchService.REFRESH_SEARCH_FIELDS +
+                            "RETURN count(b) AS updated"
+                    )),
+            new SchemaMigration(6, "Suma exacta de calificaciones (rating_sum) para mantener el promedio por deltas",
+                    List.of(),
+                    List.of(
+                            // Con calificaciones reales: suma y conteo exactos a partir de las relaciones RATED
+                            "MATCH (b:Book) WHERE b.rating_sum IS NULL AND EXISTS { (:User)-[:RATED]->(b) } " +
+                            "WITH b LIMIT 1000 " +
+                            "CALL { WITH b MATCH (:User)-[r:RATED]->(b) " +
+                            "       RETURN toFloat(sum(r.rating)) AS ratingSum, count(r) AS ratingCount } " +
+                            "SET b.rating_sum = ratingSum, b.total_ratings = ratingCount, " +
+                            "    b.average_rating = ratingSum / ratingCount " +
+                            "RETURN count(b) AS updated",
+                            // Sin relaciones RATED (datos importados): se conserva el promedio cargado
+                            "MATCH (b:Book) WHERE b.rating_sum IS NULL AND b.average_rating IS NOT NULL " +
+                            "WITH b LIMIT 1000 " +
+                            "SET b.rating_sum = b.average_rating * coalesce(b.total_ratings, 0) " +
+                            "RETURN count(b) AS updated"
+                    )),
+            new SchemaMigration(7, "Índice de updated_at en RATED para recuperar calificaciones tras el checkpoint", List.of(
+                    "CREATE INDEX rated_updated_at IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.updated_at)",
+                    "CREATE CONSTRAINT rating_checkpoint_id_unique IF NOT EXISTS FOR (c:RatingAggregationCheckpoint) REQUIRE c.id IS UNIQUE"
+            )),
+            new SchemaMigration(8, "Índice de checkpoints de trabajos en segundo plano", List.of(
+                    "CREATE INDEX job_checkpoint_job_partition IF NOT EXISTS FOR (c:JobCheckpoint) ON (c.job, c.partition)"
+            )),
+            new SchemaMigration(9, "Histograma de calificaciones por media estrella en cada libro",
+                    List.of(),
+                    List.of(
+                            "MATCH (b:Book) WHERE b.rating_histogram IS NULL WITH b LIMIT 1000 " +
+                            "CALL { WITH b OPTIONAL MATCH (:User)-[r:RATED]->(b) RETURN collect(r.rating) AS ratings } " +
+                            "SET b.rating_histogram = " + BookService.HISTOGRAM_FROM_RATINGS + " " +
+                            "RETURN count(b) AS updated"
+                    )),
+            new SchemaMigration(10, "book_id y created_at en RATED con índices para el feed de reseñas por cursor",
+                    List.of(
+                            "CREATE INDEX rated_book_created_at IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.book_id, r.created_at)",
+                            "CREATE INDEX rated_book_helpful IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.book_id, r.helpful_votes, r.created_at)"
+                    ),
+                    List.of(
+                            "MATCH (:User)-[r:RATED]->(b:Book) WHERE r.book_id IS NULL WITH r, b LIMIT 5000 " +
+                            "SET r.book_id = b.id, r.created_at = coalesce(r.created_at, r.updated_at, localdatetime()), " +
+                            "    r.helpful_votes = coalesce(r.helpful_votes, 0) " +
+                            "RETURN count(r) AS updated"
+                    )),
+            new SchemaMigration(11, "Unicidad de la serie diaria de lectura por usuario y año", List.of(
+                    "CREATE CONSTRAINT reading_activity_user_year_unique IF NOT EXISTS FOR (a:ReadingActivity) REQUIRE (a.user_id, a.year) IS UNIQUE"
+            )),
+            new SchemaMigration(12, "updated_at en READ con índice por estado para el estante de continuar leyendo",
+                    List.of(
+                            "CREATE INDEX read_status_updated_at IF NOT EXISTS FOR ()-[r:READ]-() ON (r.status, r.updated_at)"
+                    ),
+                    List.of(
+                            "MATCH (:User)-[r:READ]->(:Book) WHERE r.updated_at IS NULL WITH r LIMIT 5000 " +
+                            "SET r.updated_at = coalesce(r.finish_date, r.start_date, localdatetime()) " +
+                            "RETURN count(r) AS updated"
+                    )),
+            new SchemaMigration(13, "Contadores de seguidores/seguidos en User e índices de FOLLOWS para listas por cursor",
+                    List.of(
+                            "CREATE INDEX follows_followee_created_at IF NOT EXISTS FOR ()-[f:FOLLOWS]-() ON (f.followee_id, f.created_at)",
+                            "CREATE INDEX follows_follower_created_at IF NOT EXISTS FOR ()-[f:FOLLOWS]-() ON (f.follower_id, f.created_at)"
+                    ),
+                    List.of(
+                            "MATCH (a:User)-[f:FOLLOWS]->(b:User) WHERE f.followee_id IS NULL WITH a, f, b LIMIT 5000 " +
+                            "SET f.follower_id = a.id, f.followee_id = b.id, f.created_at = coalesce(f.created_at, localdatetime()) " +
+                            "RETURN count(f) AS updated",
+                            "MATCH (u:User) WHERE u.followers_count IS NULL WITH u LIMIT 1000 " +
+                            "SET u.followers_count = COUNT { (u)<-[:FOLLOWS]-(:User) }, " +
+                            "    u.following_count = COUNT { (u)-[:FOLLOWS]->(:User) } " +
+                            "RETURN count(u) AS updated"
+                    )),
+            new SchemaMigration(14, "Actividades del feed: unicidad por id e índices por autor y fecha", List.of(
+                    "CREATE CONSTRAINT activity_id_unique IF NOT EXISTS FOR (a:Activity) REQUIRE a.id IS UNIQUE",
+                    "CREATE INDEX activity_actor_created_at IF NOT EXISTS FOR (a:Activity) ON (a.actor_id, a.created_at)",
+                    "CREATE INDEX activity_created_at IF NOT EXISTS FOR (a:Activity) ON (a.created_at)"
+            )),
+            new SchemaMigration(15, "Libros similares: índices para encontrar libros sin calcular o con calificaciones borradas", List.of(
+                    "CREATE INDEX book_similarity_computed_at IF NOT EXISTS FOR (b:Book) ON (b.similarity_computed_at)",
+                    "CREATE INDEX book_similarity_stale IF NOT EXISTS FOR (b:Book) ON (b.similarity_stale)"
+            )),
+            new SchemaMigration(16, "Índice de frescura de las recomendaciones precalculadas por usuario", List.of(
+                    "CREATE INDEX user_recommendations_computed_at IF NOT EXISTS FOR (u:User) ON (u.recommendations_computed_at)"
+            ))
+    );
+
+    private final Neo4jClient neo4jClient;
+
+    // Error del último intento por versión, hasta que la migración se aplica
+    private final Map<Integer, String> failures = new ConcurrentHashMap<>();
+
+    public SchemaMigrationService(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
+
+    /**
+     * Aplica en orden las migraciones pendientes y devuelve las que se aplicaron.
+     * Una migración que falla queda pendiente (se reintenta en el próximo arranque) y se sigue con
+     * las demás; los errores se consultan con getFailedMigrations.
+     */
+    public List<String> applyPendingMigrations() {
+        Set<Integer> appliedVersions = getAppliedVersions();
+        List<String> applied = new ArrayList<>();
+
+        for (SchemaMigration migration : MIGRATIONS) {
+            if (appliedVersions.contains(migration.version)) {
+                continue;
+            }
+
+            try {
+                for (String statement : migration.statements) {
+                    neo4jClient.query(statement).run();
+                }
+                for (String statement : migration.batchedStatements) {
+                    runInBatches(statement);
+                }
+
+                neo4jClient.query("MERGE (m:SchemaMigration {version: $version}) " +
+                                  "SET m.description = $description, m.applied_at = localdatetime()")
+                        .bind(migration.version).to("version")
+                        .bind(migration.description).to("description")
+                        .run();
+
+                applied.add("V" + migration.version + " - " + migration.description);
+                failures.remove(migration.version);
+            } catch (Exception e) {
+                failures.put(migration.version, String.valueOf(e.getMessage()));
+                System.err.println("Error al aplicar la migración V" + migration.version + ": " + e.getMessage());
+            }
+        }
+
+        return applied;
+    }
+
+    // Estado de todas las migraciones conocidas (aplicadas o pendientes)
+    public List<Map<String, Object>> getMigrationStatus() {
+        Map<Integer, Object> appliedAt = new HashMap<>();
+        neo4jClient
+                .query("MATCH (m:SchemaMigration) RETURN m.version AS version, m.applied_at AS appliedAt")
+                .fetch()
+                .all()
+                .forEach(record -> appliedAt.put(((Number) record.get("version")).intValue(), record.get("appliedAt")));
+
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (SchemaMigration migration : MIGRATIONS) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("version", migration.version);
+            entry.put("description", migration.description);
+            entry.put("applied", appliedAt.containsKey(migration.version));
+            entry.put("appliedAt", appliedAt.get(migration.version));
+            entry.put("error", failures.get(migration.version));
+            status.add(entry);
+        }
+        return status;
+    }
+
+    // Migraciones que fallaron en el último intento, con su error
+    public Map<String, String> getFailedMigrations() {
+        Map<String, String> failed = new TreeMap<>();
+        failures.forEach((version, error) -> failed.put("V" + version, error));
+        return failed;
+    }
+
+    private Set<Integer> getAppliedVersions() {
+        return neo4jClient
+                .query("MATCH (m:SchemaMigration) RETURN m.version AS version")
+                .fetchAs(Integer.class)
+                .mappedBy((typeSystem, record) -> record.get("version").asInt())
+                .all()
+                .stream()
+                .collect(Collectors.toSet());
+    }
+
+    private void runInBatches(String statement) {
+        long updated;
+        do {
+            updated = neo4jClient.query(statement)
+                    .fetchAs(Long.class)
+                    .mappedBy((typeSystem, record) -> record.get("updated").asLong())
+                    .one()
+                    .orElse(0L);
+        } while (updated > 0);
+    }
+
+    private static class SchemaMigration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+        private final List<String> batchedStatements;
+
+        SchemaMigration(int version, String description, List<String> statements) {
+            this(version, description, statements, List.of());
+        }
+
+        SchemaMigration(int version, String description, List<String> statements, List<String> batchedStatements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+            this.batchedStatements = batchedStatements;
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package com.booknet.backend.service;
 
 import com.booknet.backend.dto.CreateTagRequest;
+import com.booknet.backend.dto.CursorPageResponse;
 import com.booknet.backend.dto.TagResponse;
 import com.booknet.backend.dto.UpdateTagRequest;
+import com.booknet.backend.event.TaxonomyChangedEvent;
 import com.booknet.backend.model.Tag;
 import com.booknet.backend.repository.TagRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class TagService {
@@ -19,37 +21,48 @@ public class TagService {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private TaxonomyService taxonomyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public TagResponse createTag(CreateTagRequest request) {
         Tag tag = new Tag();
         tag.setName(request.getNombre());
         tag.setCategory(request.getCategoria());
         
         Tag savedTag = tagRepository.save(tag);
+        taxonomyService.putTag(savedTag);
         return convertToTagResponse(savedTag);
     }
 
+    // Las lecturas se sirven desde el snapshot en memoria de la taxonomía
     public Optional<TagResponse> getTagById(String id) {
-        return tagRepository.findById(id)
-                .map(this::convertToTagResponse);
+        return taxonomyService.getTagById(id);
     }
 
     public List<TagResponse> getAllTagsWithPagination(int offset, int limit) {
-        List<Tag> tags = tagRepository.findAllOrderByCreatedAtDescWithPagination(offset, limit);
-        return tags.stream()
-                .map(this::convertToTagResponse)
-                .collect(Collectors.toList());
+        return taxonomyService.getTagsPage(offset, limit);
+    }
+
+    // Paginación por cursor sobre (created_at, id)
+    public CursorPageResponse<TagResponse> getTagsByCursor(String cursor, int limit) {
+        return taxonomyService.getTagsByCursor(cursor, limit);
     }
 
     public long getTotalTagsCount() {
-        return tagRepository.countAllTags();
+        return taxonomyService.countTags();
     }
 
     // Obtener todos los tags sin paginación
     public List<TagResponse> getAllTags() {
-        List<Tag> tags = tagRepository.findAll();
-        return tags.stream()
-                .map(this::convertToTagResponse)
-                .collect(Collectors.toList());
+        return taxonomyService.getAllTags();
+    }
+
+    // Nombres de tags distintos de una categoría, ordenados alfabéticamente
+    public List<String> getTagNamesByCategory(String category) {
+        return taxonomyService.getTagNamesByCategory(category);
     }
 
     public Optional<TagResponse> updateTag(String id, UpdateTagRequest request) {
@@ -68,6 +81,8 @@ public class TagService {
             
             tag.setUpdatedAt(LocalDateTime.now());
             Tag updatedTag = tagRepository.save(tag);
+            taxonomyService.putTag(updatedTag);
+            eventPublisher.publishEvent(new TaxonomyChangedEvent(TaxonomyChangedEvent.TAG, updatedTag.getId()));
             return Optional.of(convertToTagResponse(updatedTag));
         }
         
@@ -86,6 +101,8 @@ public class TagService {
             }
             
             tagRepository.deleteById(id);
+            taxonomyService.removeTag(id);
+            eventPublisher.publishEvent(new TaxonomyChangedEvent(TaxonomyChangedEvent.TAG, id));
             return true;
         }
         
@@ -0,0 +1,449 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.dto.CursorPageResponse;
+import com.booknet.backend.dto.GenreResponse;
+import com.booknet.backend.dto.SeriesResponse;
+import com.booknet.backend.dto.TagResponse;
+import com.booknet.backend.event.BookChangedEvent;
+import com.booknet.backend.model.Genre;
+import com.booknet.backend.model.Series;
+import com.booknet.backend.model.Tag;
+import com.booknet.backend.util.PageCursor;
+import org.neo4j.driver.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Copia en memoria de la taxonomía (géneros con su jerarquía parent_genre, etiquetas y series).
+ *
+ * La taxonomía es pequeña y casi no cambia, así que todas las lecturas se sirven desde un
+ * snapshot inmutable y versionado, sin tocar la base de datos ni tomar locks. Las escrituras
+ * de GenreService, TagService y BookService construyen un snapshot nuevo (copy-on-write) y lo
+ * publican de forma atómica.
+ */
+@Service
+public class TaxonomyService {
+
+    // Orden de las listas paginadas: igual que los repositorios (created_at DESC, id DESC)
+    private static final Comparator<Entry> BY_RECENCY = Comparator
+            .comparing((Entry entry) -> entry.createdAt, Comparator.reverseOrder())
+            .thenComparing(entry -> entry.id, Comparator.reverseOrder());
+
+    private final Neo4jClient neo4jClient;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public TaxonomyService(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+            Snapshot current = snapshot.get();
+            System.out.println("Taxonomía cargada en memoria: " + current.genres.size() + " géneros, " +
+                    current.tags.size() + " etiquetas, " + current.series.size() + " series");
+        } catch (Exception e) {
+            System.err.println("Error al cargar la taxonomía: " + e.getMessage());
+        }
+    }
+
+    // Vuelve a leer toda la taxonomía desde la base de datos
+    public synchronized void reload() {
+        List<Entry> genres = new ArrayList<>(neo4jClient
+                .query("MATCH (g:Genre) RETURN g.id AS id, g.name AS name, g.description AS description, " +
+                       "g.parent_genre AS extra, g.created_at AS createdAt")
+                .fetchAs(Entry.class).mappedBy((typeSystem, record) -> toEntry(record.get("id"), record.get("name"),
+                        record.get("description"), record.get("extra"), record.get("createdAt"), null, null))
+                .all());
+        List<Entry> tags = new ArrayList<>(neo4jClient
+                .query("MATCH (t:Tag) RETURN t.id AS id, t.name AS name, t.category AS extra, t.created_at AS createdAt")
+                .fetchAs(Entry.class).mappedBy((typeSystem, record) -> toEntry(record.get("id"), record.get("name"),
+                        null, record.get("extra"), record.get("createdAt"), null, null))
+                .all());
+        List<Entry> series = new ArrayList<>(neo4jClient
+                .query("MATCH (s:Series) RETURN s.id AS id, s.name AS name, s.description AS description, " +
+                       "s.total_books AS totalBooks, s.is_completed AS isCompleted, s.created_at AS createdAt")
+                .fetchAs(Entry.class).mappedBy((typeSystem, record) -> toEntry(record.get("id"), record.get("name"),
+                        record.get("description"), null, record.get("createdAt"),
+                        record.get("totalBooks"), record.get("isCompleted")))
+                .all());
+
+        Snapshot previous = snapshot.get();
+        snapshot.set(new Snapshot(previous == null ? 1 : previous.version + 1, genres, tags, series));
+    }
+
+    public long getVersion() {
+        return current().version;
+    }
+
+    // ===== Géneros =====
+
+    public List<GenreResponse> getAllGenres() {
+        return toGenreResponses(current().genresByName);
+    }
+
+    public Optional<GenreResponse> getGenreById(String id) {
+        return Optional.ofNullable(current().genresById.get(id)).map(TaxonomyService::toGenreResponse);
+    }
+
+    public Optional<GenreResponse> findGenreByName(String name) {
+        return Optional.ofNullable(current().genresByName(name)).map(TaxonomyService::toGenreResponse);
+    }
+
+    public boolean genreExists(String id) {
+        return current().genresById.containsKey(id);
+    }
+
+    // Géneros raíz de la jerarquía (sin parent_genre)
+    public List<GenreResponse> getMainGenres() {
+        return toGenreResponses(current().subgenresByParent.getOrDefault("", List.of()));
+    }
+
+    // Subgéneros directos: parent_genre guarda el nombre del género padre
+    public List<GenreResponse> getSubgenres(String parentName) {
+        return toGenreResponses(current().subgenresByParent.getOrDefault(normalize(parentName), List.of()));
+    }
+
+    public List<GenreResponse> getGenresPage(int offset, int limit) {
+        return toGenreResponses(page(current().genresByRecency, offset, limit));
+    }
+
+    public CursorPageResponse<GenreResponse> getGenresByCursor(String cursor, int limit) {
+        return cursorPage(current().genresByRecency, cursor, limit, TaxonomyService::toGenreResponse);
+    }
+
+    public long countGenres() {
+        return current().genres.size();
+    }
+
+    // ===== Etiquetas =====
+
+    public List<TagResponse> getAllTags() {
+        return toTagResponses(current().tagsByName);
+    }
+
+    public Optional<TagResponse> getTagById(String id) {
+        return Optional.ofNullable(current().tagsById.get(id)).map(TaxonomyService::toTagResponse);
+    }
+
+    public Optional<TagResponse> findTagByName(String name) {
+        return Optional.ofNullable(current().tagsByName(name)).map(TaxonomyService::toTagResponse);
+    }
+
+    public boolean tagExists(String id) {
+        return current().tagsById.containsKey(id);
+    }
+
+    public List<String> getTagNamesByCategory(String category) {
+        return current().tagNamesByCategory.getOrDefault(category, List.of());
+    }
+
+    public List<TagResponse> getTagsPage(int offset, int limit) {
+        return toTagResponses(page(current().tagsByRecency, offset, limit));
+    }
+
+    public CursorPageResponse<TagResponse> getTagsByCursor(String cursor, int limit) {
+        return cursorPage(current().tagsByRecency, cursor, limit, TaxonomyService::toTagResponse);
+    }
+
+    public long countTags() {
+        return current().tags.size();
+    }
+
+    // ===== Series =====
+
+    public Optional<SeriesResponse> findSeriesByName(String name) {
+        return Optional.ofNullable(current().seriesByName(name)).map(TaxonomyService::toSeriesResponse);
+    }
+
+    public boolean seriesExists(String id) {
+        return current().seriesById.containsKey(id);
+    }
+
+    // ===== Escrituras (copy-on-write) =====
+
+    public synchronized void putGenre(Genre genre) {
+        Snapshot current = current();
+        snapshot.set(current.withGenres(replace(current.genres, new Entry(genre.getId(), genre.getName(),
+                genre.getDescription(), genre.getParentGenre(), genre.getCreatedAt(), null, null))));
+    }
+
+    public synchronized void removeGenre(String id) {
+        Snapshot current = current();
+        snapshot.set(current.withGenres(remove(current.genres, id)));
+    }
+
+    public synchronized void putTag(Tag tag) {
+        Snapshot current = current();
+        snapshot.set(current.withTags(replace(current.tags, new Entry(tag.getId(), tag.getName(),
+                null, tag.getCategory(), tag.getCreatedAt(), null, null))));
+    }
+
+    public synchronized void removeTag(String id) {
+        Snapshot current = current();
+        snapshot.set(current.withTags(remove(current.tags, id)));
+    }
+
+    public synchronized void putSeries(Series series) {
+        Snapshot current = current();
+        snapshot.set(current.withSeries(replace(current.series, new Entry(series.getId(), series.getName(),
+                series.getDescription(), null, series.getCreatedAt(), series.getTotalBooks(), series.getIsCompleted()))));
+    }
+
+    // Una limpieza completa de la base de datos deja la taxonomía vacía
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isAllBooks() && event.getChangeType() == BookChangedEvent.ChangeType.DELETED) {
+            try {
+                reload();
+            } catch (Exception e) {
+                System.err.println("Error al recargar la taxonomía: " + e.getMessage());
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            // Primera lectura antes de ApplicationReadyEvent
+            synchronized (this) {
+                if (snapshot.get() == null) {
+                    reload();
+                }
+                current = snapshot.get();
+            }
+        }
+        return current;
+    }
+
+    private static List<Entry> replace(List<Entry> entries, Entry replacement) {
+        List<Entry> updated = remove(entries, replacement.id);
+        updated.add(replacement);
+        return updated;
+    }
+
+    private static List<Entry> remove(List<Entry> entries, String id) {
+        return entries.stream().filter(entry -> !entry.id.equals(id)).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static List<Entry> page(List<Entry> sorted, int offset, int limit) {
+        if (offset >= sorted.size()) {
+            return List.of();
+        }
+        return sorted.subList(offset, Math.min(sorted.size(), offset + limit));
+    }
+
+    // Misma semántica que la paginación por cursor de los repositorios, con búsqueda binaria
+    private static <T> CursorPageResponse<T> cursorPage(List<Entry> sorted, String cursor, int limit,
+                                                        Function<Entry, T> converter) {
+        int start = 0;
+        if (!PageCursor.isFirstPage(cursor)) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            Entry probe = new Entry(pageCursor.getId(), null, null, null, pageCursor.getKeyAsDateTime(), null, null);
+            int position = Collections.binarySearch(sorted, probe, BY_RECENCY);
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+
+        int end = Math.min(sorted.size(), start + limit);
+        List<Entry> pageEntries = start < end ? sorted.subList(start, end) : List.of();
+        boolean hasNext = end < sorted.size();
+
+        String nextCursor = null;
+        if (hasNext && !pageEntries.isEmpty()) {
+            Entry last = pageEntries.get(pageEntries.size() - 1);
+            nextCursor = PageCursor.encode(last.createdAt, last.id);
+        }
+
+        List<T> items = pageEntries.stream().map(converter).collect(Collectors.toList());
+        return new CursorPageResponse<>(items, nextCursor, hasNext, limit);
+    }
+
+    private static List<GenreResponse> toGenreResponses(List<Entry> entries) {
+        return entries.stream().map(TaxonomyService::toGenreResponse).collect(Collectors.toList());
+    }
+
+    private static List<TagResponse> toTagResponses(List<Entry> entries) {
+        return entries.stream().map(TaxonomyService::toTagResponse).collect(Collectors.toList());
+    }
+
+    // Se devuelven DTOs nuevos en cada lectura para que nadie pueda modificar el snapshot
+    private static GenreResponse toGenreResponse(Entry entry) {
+        return new GenreResponse(entry.id, entry.name, entry.description, entry.extra);
+    }
+
+    private static TagResponse toTagResponse(Entry entry) {
+        return new TagResponse(entry.id, entry.name, entry.extra);
+    }
+
+    private static SeriesResponse toSeriesResponse(Entry entry) {
+        return new SeriesResponse(entry.id, entry.name, entry.description, entry.totalBooks, entry.isCompleted);
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Entry toEntry(Value id, Value name, Value description, Value extra, Value createdAt,
+                                 Value totalBooks, Value isCompleted) {
+        Object createdAtObject = createdAt.isNull() ? null : createdAt.asObject();
+        LocalDateTime createdAtValue = createdAtObject instanceof LocalDateTime localDateTime ? localDateTime
+                : createdAtObject instanceof ZonedDateTime zonedDateTime ? zonedDateTime.toLocalDateTime() : null;
+        return new Entry(
+                id.asString(),
+                name.isNull() ? null : name.asString(),
+                description == null || description.isNull() ? null : description.asString(),
+                extra == null || extra.isNull() ? null : extra.asString(),
+                createdAtValue,
+                totalBooks == null || totalBooks.isNull() ? null : totalBooks.asNumber().intValue(),
+                isCompleted == null || isCompleted.isNull() ? null : isCompleted.asBoolean());
+    }
+
+    /**
+     * Elemento de la taxonomía. "extra" es parent_genre para géneros y category para etiquetas.
+     */
+    private static final class Entry {
+        private final String id;
+        private final String name;
+        private final String description;
+        private final String extra;
+        private final LocalDateTime createdAt;
+        private final Integer totalBooks;
+        private final Boolean isCompleted;
+
+        Entry(String id, String name, String description, String extra, LocalDateTime createdAt,
+              Integer totalBooks, Boolean isCompleted) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.extra = extra;
+            this.createdAt = createdAt;
+            this.totalBooks = totalBooks;
+            this.isCompleted = isCompleted;
+        }
+    }
+
+    /**
+     * Snapshot inmutable con índices precalculados. Nunca se modifica después de construirse.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final List<Entry> genres;
+        private final List<Entry> tags;
+        private final List<Entry> series;
+
+        private final Map<String, Entry> genresById;
+        private final Map<String, Entry> genreNames;
+        private final List<Entry> genresByName;
+        private final List<Entry> genresByRecency;
+        private final Map<String, List<Entry>> subgenresByParent;
+
+        private final Map<String, Entry> tagsById;
+        private final Map<String, Entry> tagNames;
+        private final List<Entry> tagsByName;
+        private final List<Entry> tagsByRecency;
+        private final Map<String, List<String>> tagNamesByCategory;
+
+        private final Map<String, Entry> seriesById;
+        private final Map<String, Entry> seriesNames;
+
+        Snapshot(long version, List<Entry> genres, List<Entry> tags, List<Entry> series) {
+            this.version = version;
+            this.genres = List.copyOf(genres);
+            this.tags = List.copyOf(tags);
+            this.series = List.copyOf(series);
+
+            this.genresById = indexById(this.genres);
+            this.genreNames = indexByName(this.genres);
+            this.genresByName = sortedByName(this.genres);
+            this.genresByRecency = sortedByRecency(this.genres);
+            Map<String, List<Entry>> children = new HashMap<>();
+            for (Entry genre : this.genresByName) {
+                children.computeIfAbsent(normalize(genre.extra), key -> new ArrayList<>()).add(genre);
+            }
+            children.replaceAll((key, value) -> List.copyOf(value));
+            this.subgenresByParent = Map.copyOf(children);
+
+            this.tagsById = indexById(this.tags);
+            this.tagNames = indexByName(this.tags);
+            this.tagsByName = sortedByName(this.tags);
+            this.tagsByRecency = sortedByRecency(this.tags);
+            Map<String, List<String>> namesByCategory = new HashMap<>();
+            for (Entry tag : this.tagsByName) {
+                if (tag.extra != null && tag.name != null) {
+                    List<String> names = namesByCategory.computeIfAbsent(tag.extra, key -> new ArrayList<>());
+                    if (!names.contains(tag.name)) {
+                        names.add(tag.name);
+                    }
+                }
+            }
+            namesByCategory.replaceAll((key, value) -> List.copyOf(value));
+            this.tagNamesByCategory = Map.copyOf(namesByCategory);
+
+            this.seriesById = indexById(this.series);
+            this.seriesNames = indexByName(this.series);
+        }
+
+        Snapshot withGenres(List<Entry> newGenres) {
+            return new Snapshot(version + 1, newGenres, tags, series);
+        }
+
+        Snapshot withTags(List<Entry> newTags) {
+            return new Snapshot(version + 1, genres, newTags, series);
+        }
+
+        Snapshot withSeries(List<Entry> newSeries) {
+            return new Snapshot(version + 1, genres, tags, newSeries);
+        }
+
+        Entry genresByName(String name) {
+            return genreNames.get(normalize(name));
+        }
+
+        Entry tagsByName(String name) {
+            return tagNames.get(normalize(name));
+        }
+
+        Entry seriesByName(String name) {
+            return seriesNames.get(normalize(name));
+        }
+
+        private static Map<String, Entry> indexById(List<Entry> entries) {
+            Map<String, Entry> byId = new HashMap<>();
+            entries.forEach(entry -> byId.put(entry.id, entry));
+            return Collections.unmodifiableMap(byId);
+        }
+
+        // Búsqueda por nombre sin distinguir mayúsculas; ante duplicados gana el primero
+        private static Map<String, Entry> indexByName(List<Entry> entries) {
+            Map<String, Entry> byName = new HashMap<>();
+            entries.stream()
+                    .filter(entry -> entry.name != null)
+                    .forEach(entry -> byName.putIfAbsent(normalize(entry.name), entry));
+            return Collections.unmodifiableMap(byName);
+        }
+
+        private static List<Entry> sortedByName(List<Entry> entries) {
+            return entries.stream()
+                    .sorted(Comparator.comparing((Entry entry) -> entry.name, Comparator.nullsLast(String::compareToIgnoreCase)))
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        // Los nodos sin created_at no participan en la paginación, igual que en los repositorios
+        private static List<Entry> sortedByRecency(List<Entry> entries) {
+            return entries.stream()
+                    .filter(entry -> entry.createdAt != null)
+                    .sorted(BY_RECENCY)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+    }
+}
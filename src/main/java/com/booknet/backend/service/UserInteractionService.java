@@ -1,21 +1,31 @@
 package com.booknet.backend.service;
 
+import com.booknet.backend.dto.CursorPageResponse;
+import com.booknet.backend.dto.FollowResponse;
 import com.booknet.backend.dto.RateBookRequest;
 import com.booknet.backend.dto.ReadingProgressRequest;
+import com.booknet.backend.dto.UserResponse;
+import com.booknet.backend.event.UserActivityEvent;
 import com.booknet.backend.model.Book;
 import com.booknet.backend.model.User;
 import com.booknet.backend.model.relationship.RatedRelationship;
-import com.booknet.backend.model.relationship.ReadRelationship;
 import com.booknet.backend.repository.BookRepository;
 import com.booknet.backend.repository.UserRepository;
+import com.booknet.backend.util.PageCursor;
+import org.neo4j.driver.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -24,79 +34,149 @@ public class UserInteractionService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final BookService bookService;
+    private final Neo4jClient neo4jClient;
+    private final RatingAggregationService ratingAggregationService;
+    private final ReadingProgressBuffer readingProgressBuffer;
+    private final UserStatsService userStatsService;
+    private final RatingMatrix ratingMatrix;
+    private final MaterializedRecommendationService materializedRecommendationService;
+    private final FeedService feedService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserInteractionService(UserRepository userRepository, 
                                  BookRepository bookRepository, 
-                                 BookService bookService) {
+                                 BookService bookService,
+                                 Neo4jClient neo4jClient,
+                                 RatingAggregationService ratingAggregationService,
+                                 ReadingProgressBuffer readingProgressBuffer,
+                                 UserStatsService userStatsService,
+                                 RatingMatrix ratingMatrix,
+                                 MaterializedRecommendationService materializedRecommendationService,
+                                 FeedService feedService,
+                                 ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
         this.bookService = bookService;
+        this.neo4jClient = neo4jClient;
+        this.ratingAggregationService = ratingAggregationService;
+        this.readingProgressBuffer = readingProgressBuffer;
+        this.userStatsService = userStatsService;
+        this.ratingMatrix = ratingMatrix;
+        this.materializedRecommendationService = materializedRecommendationService;
+        this.feedService = feedService;
+        this.eventPublisher = eventPublisher;
     }
 
+    // Una sola sentencia: MERGE de la relación RATED sin cargar el grafo del usuario.
+    // last_rated_at toma el lock del libro antes de tocar la relación: un lote de RatingRecomputeJob sobre
+    // el libro o ya confirmó (y esta calificación queda para el delta) o espera a que esta confirme y la
+    // cuenta. Hace falta también en modo write-behind, donde el agregado no se escribe en esta transacción.
+    // updated_at se escribe antes de leer la calificación anterior para tener ya el lock de la relación
+    private static final String UPSERT_RATING =
+            "MATCH (u:User {id: $userId}), (b:Book {id: $bookId}) " +
+            "SET b.last_rated_at = localdatetime() " +
+            "WITH u, b " +
+            "MERGE (u)-[r:RATED]->(b) " +
+            "ON CREATE SET r.created_at = localdatetime(), r.helpful_votes = 0, r.book_id = b.id " +
+            "SET r.updated_at = localdatetime() " +
+            "WITH r, r.rating AS previousRating " +
+            "SET r.rating = $rating, r.review = $review, r.review_title = $reviewTitle " +
+            "RETURN previousRating";
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    // MERGE idempotente: solo las relaciones creadas en esta sentencia tienen created_at = $now
+    private static final String ADD_FAVORITES =
+            "MATCH (u:User {id: $userId}) " +
+            "UNWIND $targetIds AS targetId " +
+            "MATCH (b:Book {id: targetId}) " +
+            "MERGE (u)-[f:FAVORITE]->(b) ON CREATE SET f.created_at = $now " +
+            "WITH targetId, f WHERE f.created_at = $now " +
+            "RETURN targetId";
+
+    private static final String REMOVE_FAVORITES =
+            "MATCH (u:User {id: $userId})-[f:FAVORITE]->(b:Book) WHERE b.id IN $targetIds " +
+            "WITH b.id AS targetId, f DELETE f " +
+            "RETURN targetId";
+
+    // Los contadores de ambos usuarios cambian en la misma sentencia que la relación.
+    // follower_id/followee_id en FOLLOWS respaldan los índices de las listas paginadas
+    private static final String FOLLOW_USERS =
+            "MATCH (u:User {id: $userId}) " +
+            "UNWIND $targetIds AS targetId " +
+            "MATCH (followee:User {id: targetId}) WHERE followee <> u " +
+            "MERGE (u)-[f:FOLLOWS]->(followee) " +
+            "ON CREATE SET f.created_at = $now, f.follower_id = u.id, f.followee_id = followee.id " +
+            "WITH u, followee, targetId, f WHERE f.created_at = $now " +
+            "SET u.following_count = coalesce(u.following_count, 0) + 1, " +
+            "    followee.followers_count = coalesce(followee.followers_count, 0) + 1 " +
+            "RETURN targetId";
+
+    private static final String UNFOLLOW_USERS =
+            "MATCH (u:User {id: $userId})-[f:FOLLOWS]->(followee:User) WHERE followee.id IN $targetIds " +
+            "DELETE f " +
+            "SET u.following_count = coalesce(u.following_count, 1) - 1, " +
+            "    followee.followers_count = coalesce(followee.followers_count, 1) - 1 " +
+            "RETURN followee.id AS targetId";
+
+    private static final String FOLLOW_USER_PROJECTION =
+            "RETURN other.id AS id, other.email AS email, other.username AS username, other.role AS role, " +
+            "       other.created_at AS createdAt, other.updated_at AS updatedAt, " +
+            "       coalesce(other.followers_count, 0) AS followersCount, " +
+            "       coalesce(other.following_count, 0) AS followingCount, f.created_at AS followedAt ";
+
+    private static final String DELETE_RATING =
+            "MATCH (:User {id: $userId})-[r:RATED]->(b:Book {id: $bookId}) " +
+            "WITH r, b, r.rating AS previousRating " +
+            "DELETE r " +
+            // Sin RATED.updated_at que lo delate, BookSimilarityJob toma el libro por esta marca
+            "SET b.similarity_stale = true " +
+            "RETURN previousRating";
+
     public boolean rateBook(String userId, RateBookRequest request) {
         try {
             System.out.println("=== DEPURACIÓN RATE BOOK ===");
             System.out.println("UserId: " + userId);
             System.out.println("BookId: " + request.getBookId());
             System.out.println("Rating: " + request.getRating());
-            System.out.println("Review: " + request.getReview());
-            System.out.println("ReviewTitle: " + request.getReviewTitle());
-            
-            Optional<User> userOpt = userRepository.findById(userId);
-            Optional<Book> bookOpt = bookRepository.findById(request.getBookId());
 
-            if (userOpt.isPresent() && bookOpt.isPresent()) {
-                User user = userOpt.get();
-                Book book = bookOpt.get();
-                
-                System.out.println("Usuario encontrado: " + user.getUsername());
-                System.out.println("Libro encontrado: " + book.getTitle());
+            // Validar rating
+            if (request.getRating() == null || request.getRating() < 1.0 || request.getRating() > 5.0) {
+                throw new RuntimeException("La calificación debe estar entre 1.0 y 5.0");
+            }
 
-                // Validar rating
-                if (request.getRating() == null || request.getRating() < 1.0 || request.getRating() > 5.0) {
-                    throw new RuntimeException("La calificación debe estar entre 1.0 y 5.0");
-                }
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("userId", userId);
+            parameters.put("bookId", request.getBookId());
+            parameters.put("rating", request.getRating());
+            parameters.put("review", request.getReview());
+            parameters.put("reviewTitle", request.getReviewTitle());
 
-                // Check if user already rated this book
-                RatedRelationship existingRating = user.getRatedBooks().stream()
-                        .filter(r -> r.getBook().getId().equals(book.getId()))
-                        .findFirst()
-                        .orElse(null);
-
-                boolean isNewRating = (existingRating == null);
-                System.out.println("Es nueva calificación: " + isNewRating);
-
-                if (existingRating != null) {
-                    // Update existing rating
-                    System.out.println("Actualizando calificación existente");
-                    existingRating.setRating(request.getRating());
-                    existingRating.setReview(request.getReview());
-                    existingRating.setReviewTitle(request.getReviewTitle());
-                    existingRating.setUpdatedAt(LocalDateTime.now());
-                } else {
-                    // Create new rating
-                    System.out.println("Creando nueva calificación");
-                    RatedRelationship ratedRelationship = new RatedRelationship(
-                            request.getRating(), request.getReview(), request.getReviewTitle());
-                    ratedRelationship.setBook(book);
-                    user.getRatedBooks().add(ratedRelationship);
-                    System.out.println("Relación creada y agregada al usuario");
-                }
+            List<Value> previous = new ArrayList<>(neo4jClient.query(UPSERT_RATING)
+                    .bindAll(parameters)
+                    .fetchAs(Value.class)
+                    .mappedBy((typeSystem, record) -> record.get("previousRating"))
+                    .all());
 
-                System.out.println("Guardando usuario...");
-                userRepository.save(user);
-                System.out.println("Usuario guardado exitosamente");
-                
-                // Update book's average rating with correct flag
-                bookService.updateBookRating(book.getId(), request.getRating(), isNewRating);
-                
-                return true;
-            } else {
+            if (previous.isEmpty()) {
                 System.out.println("Usuario o libro no encontrado");
-                System.out.println("Usuario presente: " + userOpt.isPresent());
-                System.out.println("Libro presente: " + bookOpt.isPresent());
+                return false;
             }
-            return false;
+
+            // Actualizar el agregado del libro con el delta (en la misma transacción, o diferido en modo write-behind)
+            Value previousRating = previous.get(0);
+            boolean isNewRating = previousRating.isNull();
+            ratingAggregationService.record(request.getBookId(),
+                    isNewRating ? null : previousRating.asDouble(), request.getRating());
+            userStatsService.ratingChanged(userId, isNewRating ? null : previousRating.asDouble(), request.getRating());
+            ratingMatrix.ratingChanged(userId, request.getBookId(), request.getRating());
+            materializedRecommendationService.markStale(userId);
+            // Editar una calificación no genera otra entrada en el feed de los seguidores
+            if (isNewRating) {
+                eventPublisher.publishEvent(UserActivityEvent.rated(userId, request.getBookId(), request.getRating()));
+            }
+
+            return true;
         } catch (Exception e) {
             System.out.println("ERROR en rateBook: " + e.getMessage());
             e.printStackTrace();
@@ -104,67 +184,45 @@ public class UserInteractionService {
         }
     }
 
-    public boolean updateReadingProgress(String userId, ReadingProgressRequest request) {
+    public boolean deleteRating(String userId, String bookId) {
         try {
-            Optional<User> userOpt = userRepository.findById(userId);
-            Optional<Book> bookOpt = bookRepository.findById(request.getBookId());
-
-            if (userOpt.isPresent() && bookOpt.isPresent()) {
-                User user = userOpt.get();
-                Book book = bookOpt.get();
+            Optional<Double> previousRating = neo4jClient.query(DELETE_RATING)
+                    .bind(userId).to("userId")
+                    .bind(bookId).to("bookId")
+                    .fetchAs(Double.class)
+                    .mappedBy((typeSystem, record) -> record.get("previousRating").asDouble(0.0))
+                    .first();
+
+            if (previousRating.isEmpty()) {
+                return false; // No había calificado el libro
+            }
 
-                // Validar progreso
-                if (request.getProgressPercentage() != null && 
-                    (request.getProgressPercentage() < 0.0 || request.getProgressPercentage() > 100.0)) {
-                    throw new RuntimeException("El porcentaje de progreso debe estar entre 0 y 100");
-                }
+            // Siempre inmediato: sin la relación RATED no se podría recuperar tras una caída
+            bookService.applyRatingChange(bookId, previousRating.get(), null);
+            userStatsService.ratingChanged(userId, previousRating.get(), null);
+            ratingMatrix.ratingChanged(userId, bookId, null);
+            materializedRecommendationService.markStale(userId);
+            return true;
+        } catch (Exception e) {
+            throw new RuntimeException("Error al eliminar calificación: " + e.getMessage());
+        }
+    }
 
-                // Check if user already has reading progress for this book
-                ReadRelationship existingProgress = user.getReadBooks().stream()
-                        .filter(r -> r.getBook().getId().equals(book.getId()))
-                        .findFirst()
-                        .orElse(null);
-
-                if (existingProgress != null) {
-                    // Update existing progress
-                    existingProgress.setStatus(request.getStatus());
-                    existingProgress.setProgressPercentage(request.getProgressPercentage());
-                    existingProgress.setCurrentChapter(request.getCurrentChapter());
-                    
-                    if (request.getReadingTimeMinutes() != null && request.getReadingTimeMinutes() > 0) {
-                        Integer currentTime = existingProgress.getTotalReadingTimeMinutes();
-                        existingProgress.setTotalReadingTimeMinutes(
-                                (currentTime != null ? currentTime : 0) + request.getReadingTimeMinutes());
-                        existingProgress.setReadingSessions(
-                                (existingProgress.getReadingSessions() != null ? existingProgress.getReadingSessions() : 0) + 1);
-                    }
-                    
-                    // Set finish date if completed
-                    if ("completed".equals(request.getStatus())) {
-                        existingProgress.setFinishDate(LocalDateTime.now());
-                    }
-                } else {
-                    // Create new reading progress
-                    ReadRelationship readRelationship = new ReadRelationship(request.getStatus());
-                    readRelationship.setBook(book);
-                    readRelationship.setProgressPercentage(request.getProgressPercentage());
-                    readRelationship.setCurrentChapter(request.getCurrentChapter());
-                    readRelationship.setTotalReadingTimeMinutes(request.getReadingTimeMinutes() != null ? 
-                            request.getReadingTimeMinutes() : 0);
-                    readRelationship.setReadingSessions(1);
-                    readRelationship.setStartDate(LocalDateTime.now());
-                    
-                    if ("completed".equals(request.getStatus())) {
-                        readRelationship.setFinishDate(LocalDateTime.now());
-                    }
-                    
-                    user.getReadBooks().add(readRelationship);
-                }
+    // Se combina en el buffer y se escribe en lote; no carga ni guarda el grafo del usuario
+    public boolean updateReadingProgress(String userId, ReadingProgressRequest request) {
+        try {
+            // Validar progreso
+            if (request.getProgressPercentage() != null &&
+                (request.getProgressPercentage() < 0.0 || request.getProgressPercentage() > 100.0)) {
+                throw new RuntimeException("El porcentaje de progreso debe estar entre 0 y 100");
+            }
 
-                userRepository.save(user);
-                return true;
+            if (request.getBookId() == null || !bookRepository.existsById(request.getBookId())) {
+                return false;
             }
-            return false;
+
+            readingProgressBuffer.submit(userId, request);
+            return true;
         } catch (Exception e) {
             throw new RuntimeException("Error al actualizar progreso de lectura: " + e.getMessage());
         }
@@ -172,21 +230,7 @@ public class UserInteractionService {
 
     public boolean addToFavorites(String userId, String bookId) {
         try {
-            Optional<User> userOpt = userRepository.findById(userId);
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
-
-            if (userOpt.isPresent() && bookOpt.isPresent()) {
-                User user = userOpt.get();
-                Book book = bookOpt.get();
-
-                if (!user.getFavoriteBooks().contains(book)) {
-                    user.getFavoriteBooks().add(book);
-                    userRepository.save(user);
-                    return true;
-                }
-                return false; // Ya está en favoritos
-            }
-            return false;
+            return !addToFavorites(userId, List.of(bookId)).isEmpty(); // Vacío: ya estaba en favoritos o no existe
         } catch (Exception e) {
             throw new RuntimeException("Error al agregar a favoritos: " + e.getMessage());
         }
@@ -194,21 +238,7 @@ public class UserInteractionService {
 
     public boolean removeFromFavorites(String userId, String bookId) {
         try {
-            Optional<User> userOpt = userRepository.findById(userId);
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
-
-            if (userOpt.isPresent() && bookOpt.isPresent()) {
-                User user = userOpt.get();
-                Book book = bookOpt.get();
-
-                if (user.getFavoriteBooks().contains(book)) {
-                    user.getFavoriteBooks().remove(book);
-                    userRepository.save(user);
-                    return true;
-                }
-                return false; // No estaba en favoritos
-            }
-            return false;
+            return !removeFromFavorites(userId, List.of(bookId)).isEmpty(); // Vacío: no estaba en favoritos
         } catch (Exception e) {
             throw new RuntimeException("Error al remover de favoritos: " + e.getMessage());
         }
@@ -219,22 +249,7 @@ public class UserInteractionService {
             if (followerId.equals(followeeId)) {
                 throw new RuntimeException("No puedes seguirte a ti mismo");
             }
-
-            Optional<User> followerOpt = userRepository.findById(followerId);
-            Optional<User> followeeOpt = userRepository.findById(followeeId);
-
-            if (followerOpt.isPresent() && followeeOpt.isPresent()) {
-                User follower = followerOpt.get();
-                User followee = followeeOpt.get();
-
-                if (!follower.getFollowing().contains(followee)) {
-                    follower.getFollowing().add(followee);
-                    userRepository.save(follower);
-                    return true;
-                }
-                return false; // Ya lo sigue
-            }
-            return false;
+            return !followUsers(followerId, List.of(followeeId)).isEmpty(); // Vacío: ya lo sigue o no existe
         } catch (Exception e) {
             throw new RuntimeException("Error al seguir usuario: " + e.getMessage());
         }
@@ -242,31 +257,81 @@ public class UserInteractionService {
 
     public boolean unfollowUser(String followerId, String followeeId) {
         try {
-            Optional<User> followerOpt = userRepository.findById(followerId);
-            Optional<User> followeeOpt = userRepository.findById(followeeId);
-
-            if (followerOpt.isPresent() && followeeOpt.isPresent()) {
-                User follower = followerOpt.get();
-                User followee = followeeOpt.get();
-
-                if (follower.getFollowing().contains(followee)) {
-                    follower.getFollowing().remove(followee);
-                    userRepository.save(follower);
-                    return true;
-                }
-                return false; // No lo seguía
-            }
-            return false;
+            return !unfollowUsers(followerId, List.of(followeeId)).isEmpty(); // Vacío: no lo seguía
         } catch (Exception e) {
             throw new RuntimeException("Error al dejar de seguir usuario: " + e.getMessage());
         }
     }
 
+    // Versiones por lotes: devuelven los ids que realmente cambiaron (las repeticiones no cuentan)
+
+    public List<String> addToFavorites(String userId, List<String> bookIds) {
+        List<String> added = writeRelationships(ADD_FAVORITES, userId, bookIds);
+        userStatsService.favoritesChanged(userId, added.size());
+        for (String bookId : added) {
+            eventPublisher.publishEvent(UserActivityEvent.favorited(userId, bookId));
+        }
+        return added;
+    }
+
+    public List<String> removeFromFavorites(String userId, List<String> bookIds) {
+        List<String> removed = writeRelationships(REMOVE_FAVORITES, userId, bookIds);
+        userStatsService.favoritesChanged(userId, -removed.size());
+        return removed;
+    }
+
+    public List<String> followUsers(String followerId, List<String> followeeIds) {
+        List<String> targets = followeeIds.stream().filter(id -> !followerId.equals(id)).collect(Collectors.toList());
+        List<String> followed = writeRelationships(FOLLOW_USERS, followerId, targets);
+        if (!followed.isEmpty()) {
+            feedService.followingChanged(followerId);
+        }
+        for (String followeeId : followed) {
+            userStatsService.followChanged(followerId, followeeId, 1);
+        }
+        return followed;
+    }
+
+    public List<String> unfollowUsers(String followerId, List<String> followeeIds) {
+        List<String> unfollowed = writeRelationships(UNFOLLOW_USERS, followerId, followeeIds);
+        if (!unfollowed.isEmpty()) {
+            feedService.followingChanged(followerId);
+        }
+        for (String followeeId : unfollowed) {
+            userStatsService.followChanged(followerId, followeeId, -1);
+        }
+        return unfollowed;
+    }
+
+    private List<String> writeRelationships(String query, String userId, List<String> targetIds) {
+        List<String> distinctIds = targetIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        if (distinctIds.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Máximo " + MAX_BATCH_SIZE + " elementos por operación");
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("targetIds", distinctIds);
+        parameters.put("now", LocalDateTime.now());
+
+        return neo4jClient.query(query)
+                .bindAll(parameters)
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("targetId").asString())
+                .all()
+                .stream()
+                .collect(Collectors.toList());
+    }
+
     public List<Book> getUserRatedBooks(String userId) {
         return userRepository.findUserRatedBooks(userId);
     }
 
     public List<Book> getUserBooksByStatus(String userId, String status) {
+        readingProgressBuffer.flushUser(userId);
         return userRepository.findUserBooksByReadStatus(userId, status);
     }
 
@@ -274,33 +339,81 @@ public class UserInteractionService {
         return userRepository.findUserFavoriteBooks(userId);
     }
 
-    public List<User> getUserFollowing(String userId) {
-        return userRepository.findUserFollowing(userId);
+    public CursorPageResponse<FollowResponse> getUserFollowing(String userId, String cursor, int limit) {
+        return getFollowPage("MATCH ()-[f:FOLLOWS]->(other:User) WHERE f.follower_id = $userId ", userId, cursor, limit);
     }
 
-    public List<User> getUserFollowers(String userId) {
-        return userRepository.findUserFollowers(userId);
+    public CursorPageResponse<FollowResponse> getUserFollowers(String userId, String cursor, int limit) {
+        return getFollowPage("MATCH (other:User)-[f:FOLLOWS]->() WHERE f.followee_id = $userId ", userId, cursor, limit);
+    }
+
+    // Keyset sobre (f.created_at, other.id) descendente, respaldado por los índices de FOLLOWS
+    private CursorPageResponse<FollowResponse> getFollowPage(String matchClause, String userId, String cursor, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("limit", limit + 1);
+
+        String keysetFilter = "";
+        if (!PageCursor.isFirstPage(cursor)) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            parameters.put("followedAt", pageCursor.getKeyAsDateTime());
+            parameters.put("otherId", pageCursor.getId());
+            keysetFilter = "AND f.created_at <= $followedAt AND (f.created_at < $followedAt OR other.id < $otherId) ";
+        }
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<FollowResponse> follows = new ArrayList<>(neo4jClient
+                .query(matchClause + "AND f.created_at IS NOT NULL " + keysetFilter + FOLLOW_USER_PROJECTION +
+                       "ORDER BY f.created_at DESC, other.id DESC LIMIT $limit")
+                .bindAll(parameters)
+                .fetchAs(FollowResponse.class)
+                .mappedBy((typeSystem, record) -> {
+                    UserResponse user = new UserResponse();
+                    user.setId(record.get("id").asString());
+                    user.setEmail(record.get("email").asString(null));
+                    user.setUsername(record.get("username").asString(null));
+                    user.setRole(record.get("role").asString(null));
+                    user.setCreatedAt(record.get("createdAt").isNull() ? null : record.get("createdAt").asLocalDateTime());
+                    user.setUpdatedAt(record.get("updatedAt").isNull() ? null : record.get("updatedAt").asLocalDateTime());
+                    user.setFollowersCount(record.get("followersCount").asLong());
+                    user.setFollowingCount(record.get("followingCount").asLong());
+                    return new FollowResponse(user, record.get("followedAt").asLocalDateTime());
+                })
+                .all());
+
+        boolean hasNext = follows.size() > limit;
+        if (hasNext) {
+            follows = new ArrayList<>(follows.subList(0, limit));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            FollowResponse last = follows.get(follows.size() - 1);
+            nextCursor = PageCursor.encode(last.getFollowedAt(), last.getUser().getId());
+        }
+
+        return new CursorPageResponse<>(follows, nextCursor, hasNext, limit);
     }
 
     public List<User> getUsersWithSimilarTaste(String userId, Integer limit) {
         return userRepository.findUsersWithSimilarTaste(userId, 4.0, 3, limit);
     }
 
+    // Todas las estadísticas del usuario en una consulta, cacheadas (ver UserStatsService)
+    public Optional<Map<String, Object>> getUserStats(String userId) {
+        return userStatsService.getUserStats(userId);
+    }
+
     public Double getUserAverageRating(String userId) {
-        Double rating = userRepository.getUserAverageRating(userId);
-        return rating != null ? rating : 0.0;
+        return getUserStats(userId).map(stats -> (Double) stats.get("averageRating")).orElse(0.0);
     }
 
-    // Corregido: cambiar Integer a Long para consistencia con UserRepository
     public Long getUserCompletedBooksCount(String userId) {
-        Long count = userRepository.countUserCompletedBooks(userId);
-        return count != null ? count : 0L;
+        return getUserStats(userId).map(stats -> (Long) stats.get("completedBooks")).orElse(0L);
     }
 
-    // Corregido: cambiar Integer a Long para consistencia con UserRepository
     public Long getUserTotalReadingTime(String userId) {
-        Long time = userRepository.getUserTotalReadingTime(userId);
-        return time != null ? time : 0L;
+        return getUserStats(userId).map(stats -> (Long) stats.get("totalReadingTimeMinutes")).orElse(0L);
     }
 
     public Map<String, Object> getUserRatingForBook(String userId, String bookId) {
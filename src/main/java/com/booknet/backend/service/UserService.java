@@ -1,23 +1,40 @@
 package com.booknet.backend.service;
 
+import com.booknet.backend.dto.CursorPageResponse;
+import com.booknet.backend.dto.UserResponse;
 import com.booknet.backend.model.User;
 import com.booknet.backend.repository.UserRepository;
+import com.booknet.backend.util.PageCursor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final UserStatsService userStatsService;
+    private final RatingMatrix ratingMatrix;
+    private final BookService bookService;
+    private final FeedService feedService;
+    private final ReadingActivityService readingActivityService;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserStatsService userStatsService,
+                       RatingMatrix ratingMatrix, BookService bookService, FeedService feedService,
+                       ReadingActivityService readingActivityService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userStatsService = userStatsService;
+        this.ratingMatrix = ratingMatrix;
+        this.bookService = bookService;
+        this.feedService = feedService;
+        this.readingActivityService = readingActivityService;
     }
 
     // Listar todos los usuarios
@@ -38,6 +55,35 @@ public class UserService {
         return userRepository.findAllOrderByCreatedAtDescWithPagination(offset, limit);
     }
 
+    // Listar usuarios con paginación por cursor sobre (created_at, id)
+    public CursorPageResponse<UserResponse> getUsersByCursor(String cursor, int limit) {
+        List<User> users;
+        if (PageCursor.isFirstPage(cursor)) {
+            users = userRepository.findFirstPageOrderByCreatedAtDesc(limit + 1);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            users = userRepository.findPageAfterCursorOrderByCreatedAtDesc(
+                    pageCursor.getKeyAsDateTime(), pageCursor.getId(), limit + 1);
+        }
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        boolean hasNext = users.size() > limit;
+        if (hasNext) {
+            users = users.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            User last = users.get(users.size() - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        List<UserResponse> userResponses = users.stream()
+                .map(UserResponse::new)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(userResponses, nextCursor, hasNext, limit);
+    }
+
     // Contar total de usuarios
     public long getTotalUsersCount() {
         return userRepository.countAllUsers();
@@ -121,9 +167,20 @@ public class UserService {
     }
 
     // Eliminar usuario
+    @Transactional
     public void deleteUser(String userId) {
         User user = getUserById(userId);
+        userRepository.releaseFollowCounters(userId);
+        // El borrado quita sus RATED: antes se descuentan de los agregados de los libros
+        bookService.removeUserRatings(userId);
+        // Las actividades solo se asocian por actor_id: sin borrarlas seguirían en los feeds de sus seguidores
+        feedService.userDeleted(userId);
+        // ReadingActivity se asocia solo por user_id
+        readingActivityService.userDeleted(userId);
         userRepository.delete(user);
+        // Cambian los contadores de seguidores/seguidos de otros usuarios
+        userStatsService.evictAll();
+        ratingMatrix.userDeleted(userId);
     }
 
     // Buscar usuarios por rol
@@ -0,0 +1,208 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.event.BookChangedEvent;
+import com.booknet.backend.event.ReadingProgressChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Estadísticas de un usuario (calificaciones, libros por estado de lectura, tiempo de lectura,
+ * favoritos, seguidores y seguidos) calculadas en una sola consulta y cacheadas por usuario.
+ *
+ * Calificar, quitar una calificación, marcar favoritos y seguir/dejar de seguir aplican su delta
+ * sobre la entrada cacheada después del commit. El progreso de lectura se escribe por lotes sin
+ * conocer el estado anterior de cada READ, así que su volcado descarta la entrada del usuario y
+ * la siguiente lectura la recalcula.
+ */
+@Service
+public class UserStatsService {
+
+    private static final int STRIPES = 64;
+
+    private static final String USER_STATS_QUERY =
+            "MATCH (u:User {id: $userId}) " +
+            "CALL { WITH u OPTIONAL MATCH (u)-[r:RATED]->(:Book) " +
+            "       RETURN count(r) AS ratingsCount, coalesce(sum(r.rating), 0.0) AS ratingSum } " +
+            "CALL { WITH u OPTIONAL MATCH (u)-[r:READ]->(:Book) " +
+            "       WITH r.status AS status, count(r) AS books, sum(coalesce(r.total_reading_time_minutes, 0)) AS minutes " +
+            "       RETURN collect(CASE WHEN status IS NULL THEN null ELSE {status: status, books: books} END) AS statuses, " +
+            "              sum(minutes) AS readingMinutes } " +
+            "RETURN ratingsCount, ratingSum, statuses, readingMinutes, " +
+            "       COUNT { (u)-[:FAVORITE]->(:Book) } AS favorites, " +
+            "       coalesce(u.followers_count, COUNT { (u)<-[:FOLLOWS]-(:User) }) AS followers, " +
+            "       coalesce(u.following_count, COUNT { (u)-[:FOLLOWS]->(:User) }) AS following";
+
+    private final Neo4jClient neo4jClient;
+    private final ReadingProgressBuffer readingProgressBuffer;
+    private final int maxUsers;
+
+    // LinkedHashMap en orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, UserStats> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // Generación por franja de usuarios: una carga que vio pasar un cambio de su franja no se guarda
+    private final long[] generations = new long[STRIPES];
+
+    public UserStatsService(Neo4jClient neo4jClient, ReadingProgressBuffer readingProgressBuffer,
+                            @Value("${booknet.cache.user-stats.max-users:10000}") int maxUsers) {
+        this.neo4jClient = neo4jClient;
+        this.readingProgressBuffer = readingProgressBuffer;
+        this.maxUsers = Math.max(1, maxUsers);
+    }
+
+    public Optional<Map<String, Object>> getUserStats(String userId) {
+        readingProgressBuffer.flushUser(userId);
+
+        UserStats stats;
+        long loadGeneration;
+        synchronized (this) {
+            stats = entries.get(userId);
+            if (stats != null) {
+                return Optional.of(stats.toMap());
+            }
+            loadGeneration = generations[stripe(userId)];
+        }
+
+        Optional<UserStats> loaded = load(userId);
+        if (loaded.isEmpty()) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            if (generations[stripe(userId)] == loadGeneration) {
+                entries.put(userId, loaded.get());
+                evictOverflow();
+            }
+            return Optional.of(loaded.get().toMap());
+        }
+    }
+
+    public void ratingChanged(String userId, Double previousRating, Double newRating) {
+        afterCommit(() -> applyDelta(userId, stats -> {
+            if (previousRating != null) {
+                stats.ratingsCount--;
+                stats.ratingSum -= previousRating;
+            }
+            if (newRating != null) {
+                stats.ratingsCount++;
+                stats.ratingSum += newRating;
+            }
+        }));
+    }
+
+    public void favoritesChanged(String userId, int delta) {
+        afterCommit(() -> applyDelta(userId, stats -> stats.favorites += delta));
+    }
+
+    public void followChanged(String followerId, String followeeId, int delta) {
+        afterCommit(() -> {
+            applyDelta(followerId, stats -> stats.following += delta);
+            applyDelta(followeeId, stats -> stats.followers += delta);
+        });
+    }
+
+    // Borrar usuarios o libros cambia contadores de otros usuarios que no conocemos
+    public synchronized void evictAll() {
+        entries.clear();
+        for (int i = 0; i < STRIPES; i++) {
+            generations[i]++;
+        }
+    }
+
+    @EventListener
+    public synchronized void onReadingProgressChanged(ReadingProgressChangedEvent event) {
+        for (String userId : event.getUserIds()) {
+            entries.remove(userId);
+            generations[stripe(userId)]++;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getChangeType() == BookChangedEvent.ChangeType.DELETED) {
+            evictAll();
+        }
+    }
+
+    private synchronized void applyDelta(String userId, Consumer<UserStats> delta) {
+        generations[stripe(userId)]++;
+        UserStats stats = entries.get(userId);
+        if (stats != null) {
+            delta.accept(stats);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Optional<UserStats> load(String userId) {
+        return neo4jClient.query(USER_STATS_QUERY)
+                .bind(userId).to("userId")
+                .fetch()
+                .one()
+                .map(row -> {
+                    UserStats stats = new UserStats();
+                    stats.ratingsCount = ((Number) row.get("ratingsCount")).longValue();
+                    stats.ratingSum = ((Number) row.get("ratingSum")).doubleValue();
+                    stats.readingMinutes = ((Number) row.get("readingMinutes")).longValue();
+                    stats.favorites = ((Number) row.get("favorites")).longValue();
+                    stats.followers = ((Number) row.get("followers")).longValue();
+                    stats.following = ((Number) row.get("following")).longValue();
+                    for (Object entry : (List<?>) row.get("statuses")) {
+                        Map<?, ?> status = (Map<?, ?>) entry;
+                        stats.booksByStatus.put((String) status.get("status"), ((Number) status.get("books")).longValue());
+                    }
+                    return stats;
+                });
+    }
+
+    private void evictOverflow() {
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > maxUsers && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), STRIPES);
+    }
+
+    private static final class UserStats {
+        private long ratingsCount;
+        private double ratingSum;
+        private final Map<String, Long> booksByStatus = new TreeMap<>();
+        private long readingMinutes;
+        private long favorites;
+        private long followers;
+        private long following;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("ratingsCount", ratingsCount);
+            result.put("averageRating", ratingsCount > 0 ? ratingSum / ratingsCount : 0.0);
+            result.put("booksByStatus", new TreeMap<>(booksByStatus));
+            result.put("completedBooks", booksByStatus.getOrDefault("completed", 0L));
+            result.put("totalReadingTimeMinutes", readingMinutes);
+            result.put("favorites", favorites);
+            result.put("followers", followers);
+            result.put("following", following);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.booknet.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación por clave (keyset).
+ *
+ * Guarda el valor de la clave de ordenamiento (created_at o title) y el id del último
+ * elemento devuelto, codificados en Base64 URL-safe para que el cliente lo trate como
+ * un valor opaco.
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '\u001F';
+
+    private final String key;
+    private final String id;
+
+    private PageCursor(String key, String id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static String encode(String key, String id) {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(LocalDateTime key, String id) {
+        return encode(key.toString(), id);
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0 || separatorIndex == raw.length() - 1) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new PageCursor(raw.substring(0, separatorIndex), raw.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    // Un cursor vacío o ausente representa la primera página
+    public static boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.trim().isEmpty();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public LocalDateTime getKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+}
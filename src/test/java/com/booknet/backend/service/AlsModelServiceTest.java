@@ -0,0 +1,156 @@
+package com.booknet.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlsModelServiceTest {
+
+    @TempDir
+    Path modelDir;
+
+    private AlsModelService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void solvesSymmetricPositiveDefiniteSystem() {
+        double nan = Double.NaN;
+        // Solo se lee el triángulo inferior: el superior puede tener cualquier cosa
+        double[] a = {
+                4, nan, nan,
+                12, 37, nan,
+                -16, -43, 98
+        };
+        double[] b = {-20, -43, 192};
+
+        assertArrayEquals(new double[]{1, 2, 3}, AlsModelService.solveCholesky(a, b, 3), 1e-9);
+    }
+
+    @Test
+    void solvesIdentityAndScalarSystems() {
+        assertArrayEquals(new double[]{7, -2}, AlsModelService.solveCholesky(new double[]{1, 0, 0, 1}, new double[]{7, -2}, 2), 1e-12);
+        assertArrayEquals(new double[]{2.5}, AlsModelService.solveCholesky(new double[]{4}, new double[]{10}, 1), 1e-12);
+    }
+
+    @Test
+    void solvesRegularizedNormalEquations() {
+        // A = MᵀM + λI como en cada paso de ALS
+        Random random = new Random(7);
+        int n = 8;
+        double[][] m = new double[20][n];
+        for (double[] row : m) {
+            for (int j = 0; j < n; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        double[] a = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = i == j ? 0.1 : 0.0;
+                for (double[] row : m) {
+                    sum += row[i] * row[j];
+                }
+                a[i * n + j] = sum;
+                a[j * n + i] = sum;
+            }
+        }
+        double[] expected = new double[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = random.nextDouble() * 2 - 1;
+        }
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                b[i] += a[i * n + j] * expected[j];
+            }
+        }
+
+        assertArrayEquals(expected, AlsModelService.solveCholesky(a, b, n), 1e-9);
+    }
+
+    @Test
+    void writtenModelIsServedAfterLoading() throws Exception {
+        service = service();
+        service.write(new String[]{"u1", "úsuario-2"}, new String[]{"b1", "b2", "b3"}, new int[]{10, 20, 30},
+                new float[]{1, 0, 0, 1}, new float[]{1, 0.5f, 0, 2, -1, 0}, 3f, 0L);
+
+        service.loadOnStartup();
+
+        Map<String, Double> predictions = service.predict("u1", List.of("b1", "b2", "b3", "desconocido"));
+        assertEquals(3, predictions.size());
+        assertEquals(4.0, predictions.get("b1"), 1e-6);
+        assertEquals(3.0, predictions.get("b2"), 1e-6);
+        assertEquals(2.0, predictions.get("b3"), 1e-6);
+        // 3 + 2 = 5; 3.5 sin recortar
+        assertEquals(5.0, service.predict("úsuario-2", List.of("b2")).get("b2"), 1e-6);
+        assertEquals(3.5, service.predict("úsuario-2", List.of("b1")).get("b1"), 1e-6);
+
+        List<CollaborativeFilteringService.ScoredBook> top = service.recommend("u1", 2, Set.of()).orElseThrow();
+        assertEquals(List.of("b1", "b2"), top.stream().map(CollaborativeFilteringService.ScoredBook::getBookId).collect(Collectors.toList()));
+        assertEquals(10, top.get(0).getSupport());
+        assertEquals(20, top.get(1).getSupport());
+        assertEquals(List.of("b2"), service.recommend("u1", 1, Set.of("b1")).orElseThrow().stream()
+                .map(CollaborativeFilteringService.ScoredBook::getBookId).collect(Collectors.toList()));
+
+        Map<String, Object> status = service.getStatus();
+        assertEquals(2, status.get("users"));
+        assertEquals(3, status.get("books"));
+        assertEquals(false, status.get("stale"));
+    }
+
+    @Test
+    void unknownUserHasNoPredictions() throws Exception {
+        service = service();
+        service.write(new String[]{"u1"}, new String[]{"b1"}, new int[]{1}, new float[]{1, 1}, new float[]{1, 1}, 3f, 0L);
+        service.loadOnStartup();
+
+        assertTrue(service.predict("otro", List.of("b1")).isEmpty());
+        assertTrue(service.recommend("otro", 5, Set.of()).isEmpty());
+    }
+
+    @Test
+    void latestModelWinsAndOlderFilesAreRemoved() throws Exception {
+        service = service();
+        Path older = service.write(new String[]{"u1"}, new String[]{"b1"}, new int[]{1}, new float[]{0, 0}, new float[]{0, 0}, 2f, 0L);
+        Thread.sleep(5);
+        Path newer = service.write(new String[]{"u1"}, new String[]{"b1"}, new int[]{1}, new float[]{0, 0}, new float[]{0, 0}, 4f, 0L);
+
+        service.loadOnStartup();
+
+        assertEquals(4.0, service.predict("u1", List.of("b1")).get("b1"), 1e-6);
+        assertFalse(Files.exists(older));
+        assertTrue(Files.exists(newer));
+        try (Stream<Path> files = Files.list(modelDir)) {
+            assertEquals(List.of(newer), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void invalidFileIsNotLoaded() throws Exception {
+        Files.write(modelDir.resolve("als-0000000000001.bin"), new byte[64]);
+        service = service();
+
+        service.loadOnStartup();
+
+        assertTrue(service.predict("u1", List.of("b1")).isEmpty());
+        assertNull(service.getStatus().get("modelFile"));
+    }
+
+    private AlsModelService service() {
+        return new AlsModelService(new RatingMatrix(null, 1, 1, 1), modelDir.toString(), 2, 1, 0.1, 1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.booknet.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookServiceRatingBucketTest {
+
+    @Test
+    void nineBucketsFromOneToFiveInHalfSteps() {
+        assertEquals(9, BookService.RATING_BUCKETS);
+        for (int i = 0; i < BookService.RATING_BUCKETS; i++) {
+            double rating = 1.0 + i * 0.5;
+            assertEquals(i, BookService.ratingBucket(rating), "calificación " + rating);
+        }
+    }
+
+    @Test
+    void ratingsRoundToNearestHalfStep() {
+        assertEquals(0, BookService.ratingBucket(1.24));
+        assertEquals(1, BookService.ratingBucket(1.25));
+        assertEquals(1, BookService.ratingBucket(1.74));
+        assertEquals(2, BookService.ratingBucket(1.75));
+        assertEquals(6, BookService.ratingBucket(4.2));
+        assertEquals(7, BookService.ratingBucket(4.3));
+        assertEquals(8, BookService.ratingBucket(4.75));
+    }
+
+    @Test
+    void outOfRangeRatingsAreClampedToEdgeBuckets() {
+        assertEquals(0, BookService.ratingBucket(0.0));
+        assertEquals(0, BookService.ratingBucket(0.5));
+        assertEquals(0, BookService.ratingBucket(-3.0));
+        assertEquals(8, BookService.ratingBucket(5.5));
+        assertEquals(8, BookService.ratingBucket(10.0));
+    }
+
+    @Test
+    void histogramExpressionsCoverEveryBucket() {
+        String lastBucket = "range(0, " + (BookService.RATING_BUCKETS - 1) + ")";
+
+        assertTrue(BookService.HISTOGRAM_FROM_RATINGS.contains(lastBucket));
+        assertTrue(BookService.HISTOGRAM_PLUS_DELTAS.contains(lastBucket));
+    }
+}
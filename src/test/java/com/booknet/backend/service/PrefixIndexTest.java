@@ -0,0 +1,147 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.service.PrefixIndex.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    @Test
+    void findsByPrefixOfFullTextAndOfLaterWords() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                book("1", "Don Quijote de la Mancha", 10),
+                book("2", "El Quijote apócrifo", 5),
+                book("3", "Cien años de soledad", 50)));
+
+        assertEquals(List.of("1", "2"), ids(index.topK("quij", 10)));
+        assertEquals(List.of("1"), ids(index.topK("don q", 10)));
+        assertEquals(List.of("1"), ids(index.topK("mancha", 10)));
+        assertTrue(index.topK("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void matchesAreAccentAndCaseInsensitiveOnIndexedText() {
+        PrefixIndex index = PrefixIndex.build(List.of(book("1", "Ñandú Azul", 1)));
+
+        assertEquals(List.of("1"), ids(index.topK("nandu", 10)));
+        assertEquals(List.of("1"), ids(index.topK("azu", 10)));
+    }
+
+    @Test
+    void oneLetterWordsAreNotIndexedAsWordStarts() {
+        PrefixIndex index = PrefixIndex.build(List.of(book("1", "Crimen y castigo", 1)));
+
+        assertTrue(index.topK("y ", 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.topK("castigo", 10)));
+    }
+
+    @Test
+    void ranksByWeightAndLimitsToK() {
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            suggestions.add(book(String.valueOf(i), "Libro " + i, i % 37));
+        }
+        PrefixIndex index = PrefixIndex.build(suggestions);
+
+        List<Suggestion> top = index.topK("libro", 5);
+
+        assertEquals(5, top.size());
+        List<Long> weights = top.stream().map(suggestion -> suggestion.weight).collect(Collectors.toList());
+        assertEquals(List.of(36L, 36L, 35L, 35L, 34L), weights);
+    }
+
+    @Test
+    void entityMatchingSeveralKeysIsReturnedOnce() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                book("1", "Sol sol sol", 10),
+                book("2", "Soledad", 1)));
+
+        assertEquals(List.of("1", "2"), ids(index.topK("sol", 10)));
+    }
+
+    @Test
+    void typesWithSameIdAreDistinctEntities() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new Suggestion(BookSuggestService.TYPE_AUTHOR, "1", "Borges", 3),
+                new Suggestion(BookSuggestService.TYPE_BOOK, "1", "Borges esencial", 7)));
+
+        List<Suggestion> top = index.topK("borges", 10);
+
+        assertEquals(2, top.size());
+        assertEquals(BookSuggestService.TYPE_BOOK, top.get(0).type);
+        assertEquals(BookSuggestService.TYPE_AUTHOR, top.get(1).type);
+    }
+
+    @Test
+    void upsertReplacesBaseEntryAndReranks() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                book("1", "Rayuela", 10),
+                book("2", "Rayos", 20)));
+
+        PrefixIndex updated = index.withUpserts(List.of(book("1", "Rayuela", 30)));
+
+        assertEquals(List.of("1", "2"), ids(updated.topK("ray", 10)));
+        assertEquals(30, updated.find("book:1").weight);
+        // El índice anterior no cambia
+        assertEquals(List.of("2", "1"), ids(index.topK("ray", 10)));
+    }
+
+    @Test
+    void renamedEntityStopsMatchingOldText() {
+        PrefixIndex index = PrefixIndex.build(List.of(book("1", "Ficciones", 1)))
+                .withUpserts(List.of(book("1", "El Aleph", 1)));
+
+        assertTrue(index.topK("fic", 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.topK("alep", 10)));
+
+        PrefixIndex renamedAgain = index.withUpserts(List.of(book("1", "Artificios", 1)));
+        assertTrue(renamedAgain.topK("alep", 10).isEmpty());
+        assertEquals(List.of("1"), ids(renamedAgain.topK("artif", 10)));
+    }
+
+    @Test
+    void removedEntitiesAreNotReturnedOrFound() {
+        PrefixIndex index = PrefixIndex.build(List.of(book("1", "Rayuela", 10), book("2", "Rayos", 20)))
+                .withUpserts(List.of(book("3", "Raíces", 5)))
+                .withRemovals(List.of("book:2", "book:3"));
+
+        assertEquals(List.of("1"), ids(index.topK("ra", 10)));
+        assertNull(index.find("book:2"));
+        assertNull(index.find("book:3"));
+        assertNotNull(index.find("book:1"));
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveEntities() {
+        PrefixIndex index = PrefixIndex.build(List.of(book("1", "Rayuela", 10), book("2", "Rayos", 20)))
+                .withUpserts(List.of(book("1", "Rayuela", 40), book("3", "Raíces", 5)))
+                .withRemovals(List.of("book:2"));
+
+        PrefixIndex compacted = PrefixIndex.build(index.liveSuggestions());
+
+        assertEquals(0, compacted.deltaSize());
+        assertEquals(List.of("1", "3"), ids(compacted.topK("ra", 10)));
+        assertEquals(40, compacted.find("book:1").weight);
+    }
+
+    @Test
+    void emptyIndexReturnsNothing() {
+        PrefixIndex index = PrefixIndex.build(List.of());
+
+        assertTrue(index.topK("a", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static Suggestion book(String id, String title, long weight) {
+        return new Suggestion(BookSuggestService.TYPE_BOOK, id, title, weight);
+    }
+
+    private static List<String> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(suggestion -> suggestion.id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,150 @@
+package com.booknet.backend.service;
+
+import com.booknet.backend.service.RatingMatrix.Row;
+import com.booknet.backend.service.RatingMatrix.View;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingMatrixTest {
+
+    @Test
+    void buildSortsEachUserRowByBook() {
+        View view = view(sample(), 3, 4, Map.of(), Map.of());
+
+        assertRow(view.userRow(0), new int[]{0, 1, 3}, new float[]{4.5f, 5.0f, 2.5f});
+        assertRow(view.userRow(1), new int[]{0}, new float[]{3.0f});
+        assertRow(view.userRow(2), new int[]{1, 3}, new float[]{4.0f, 1.0f});
+    }
+
+    @Test
+    void transposeSortsEachBookRowByUser() {
+        View view = view(sample(), 3, 4, Map.of(), Map.of());
+
+        assertRow(view.bookRow(0), new int[]{0, 1}, new float[]{4.5f, 3.0f});
+        assertRow(view.bookRow(1), new int[]{0, 2}, new float[]{5.0f, 4.0f});
+        assertRow(view.bookRow(2), new int[]{}, new float[]{});
+        assertRow(view.bookRow(3), new int[]{0, 2}, new float[]{2.5f, 1.0f});
+    }
+
+    @Test
+    void bothOrientationsHoldTheSameRatings() {
+        Random random = new Random(42);
+        int users = 200;
+        int books = 150;
+        Map<Long, Float> expected = new HashMap<>();
+        RatingMatrix.Triples triples = new RatingMatrix.Triples();
+        // Más de la capacidad inicial de Triples, sin pares repetidos
+        while (expected.size() < 3000) {
+            int user = random.nextInt(users);
+            int book = random.nextInt(books);
+            float rating = 1 + random.nextInt(9) * 0.5f;
+            if (expected.putIfAbsent((long) user * books + book, rating) == null) {
+                triples.add(user, book, rating);
+            }
+        }
+
+        View view = new View(RatingMatrix.Csr.build(users, books, triples), users, books,
+                Map.of(), Map.of(), Set.of(), Set.of());
+
+        Map<Long, Float> byUser = new HashMap<>();
+        for (int user = 0; user < users; user++) {
+            Row row = view.userRow(user);
+            for (int i = 0; i < row.size(); i++) {
+                assertTrue(i == 0 || row.index(i - 1) < row.index(i));
+                byUser.put((long) user * books + row.index(i), row.rating(i));
+            }
+        }
+        Map<Long, Float> byBook = new HashMap<>();
+        for (int book = 0; book < books; book++) {
+            Row row = view.bookRow(book);
+            for (int i = 0; i < row.size(); i++) {
+                assertTrue(i == 0 || row.index(i - 1) < row.index(i));
+                byBook.put((long) row.index(i) * books + book, row.rating(i));
+            }
+        }
+        assertEquals(expected, byUser);
+        assertEquals(expected, byBook);
+    }
+
+    @Test
+    void overlayReplacesAddsAndRemovesRatings() {
+        Map<Integer, Map<Integer, Float>> userChanges = new HashMap<>();
+        userChanges.put(0, Map.of(1, Float.NaN, 2, 3.5f, 3, 1.5f));
+        Map<Integer, Map<Integer, Float>> bookChanges = new HashMap<>();
+        bookChanges.put(1, Map.of(0, Float.NaN));
+
+        View view = view(sample(), 3, 4, userChanges, bookChanges);
+
+        assertRow(view.userRow(0), new int[]{0, 2, 3}, new float[]{4.5f, 3.5f, 1.5f});
+        assertRow(view.bookRow(1), new int[]{2}, new float[]{4.0f});
+        // Filas sin cambios siguen leyendo la matriz
+        assertRow(view.userRow(2), new int[]{1, 3}, new float[]{4.0f, 1.0f});
+    }
+
+    @Test
+    void rowsBeyondTheMatrixComeOnlyFromTheOverlay() {
+        Map<Integer, Map<Integer, Float>> userChanges = Map.of(3, Map.of(4, 2.0f, 0, 5.0f));
+
+        View view = view(sample(), 4, 5, userChanges, Map.of());
+
+        assertRow(view.userRow(3), new int[]{0, 4}, new float[]{5.0f, 2.0f});
+        assertEquals(0, view.bookRow(4).size());
+    }
+
+    @Test
+    void removedRatingOfUnknownIndexIsIgnored() {
+        View view = view(sample(), 3, 4, Map.of(1, Map.of(2, Float.NaN)), Map.of());
+
+        assertRow(view.userRow(1), new int[]{0}, new float[]{3.0f});
+    }
+
+    @Test
+    void meanOfRow() {
+        View view = view(sample(), 3, 4, Map.of(), Map.of());
+
+        assertEquals(2.5f, view.userRow(2).mean(), 1e-6);
+        assertEquals(0f, view.bookRow(2).mean());
+    }
+
+    @Test
+    void emptyMatrixHasEmptyRows() {
+        View view = view(new RatingMatrix.Triples(), 0, 0, Map.of(), Map.of());
+
+        assertEquals(0, view.userRow(0).size());
+        assertEquals(0, view.bookRow(0).size());
+    }
+
+    // (usuario, libro, calificación) en un orden cualquiera
+    private static RatingMatrix.Triples sample() {
+        RatingMatrix.Triples triples = new RatingMatrix.Triples();
+        triples.add(2, 1, 4.0f);
+        triples.add(0, 3, 2.5f);
+        triples.add(0, 1, 5.0f);
+        triples.add(1, 0, 3.0f);
+        triples.add(2, 3, 1.0f);
+        triples.add(0, 0, 4.5f);
+        return triples;
+    }
+
+    // La matriz se arma con 3 usuarios y 4 libros; users/books de la vista pueden ser mayores
+    private static View view(RatingMatrix.Triples triples, int users, int books,
+                             Map<Integer, Map<Integer, Float>> userChanges,
+                             Map<Integer, Map<Integer, Float>> bookChanges) {
+        RatingMatrix.Csr csr = RatingMatrix.Csr.build(Math.min(users, 3), Math.min(books, 4), triples);
+        return new View(csr, users, books, userChanges, bookChanges, Set.of(), Set.of());
+    }
+
+    private static void assertRow(Row row, int[] indices, float[] ratings) {
+        int[] actualIndices = new int[row.size()];
+        float[] actualRatings = new float[row.size()];
+        for (int i = 0; i < row.size(); i++) {
+            actualIndices[i] = row.index(i);
+            actualRatings[i] = row.rating(i);
+        }
+        assertArrayEquals(indices, actualIndices);
+        assertArrayEquals(ratings, actualRatings);
+    }
+}
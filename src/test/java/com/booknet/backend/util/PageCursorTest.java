@@ -0,0 +1,87 @@
+package com.booknet.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decodeReturnsEncodedKeyAndId() {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode("El Aleph", "book-42"));
+
+        assertEquals("El Aleph", cursor.getKey());
+        assertEquals("book-42", cursor.getId());
+    }
+
+    @Test
+    void dateTimeKeySurvivesRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 15, 10, 30, 5, 123_000_000);
+
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(createdAt, "book-1"));
+
+        assertEquals(createdAt, cursor.getKeyAsDateTime());
+        assertEquals("book-1", cursor.getId());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String cursor = PageCursor.encode("¿Quién? ñandú / + ?", "id");
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+        assertEquals("¿Quién? ñandú / + ?", PageCursor.decode(cursor).getKey());
+    }
+
+    @Test
+    void idIsSplitOnLastSeparator() {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode("a\u001Fb", "id"));
+
+        assertEquals("a\u001Fb", cursor.getKey());
+        assertEquals("id", cursor.getId());
+    }
+
+    @Test
+    void emptyKeyIsAllowed() {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode("", "id"));
+
+        assertEquals("", cursor.getKey());
+        assertEquals("id", cursor.getId());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertInvalid("no es base64!");
+        assertInvalid(raw("sin separador"));
+        assertInvalid(raw("clave\u001F"));
+        assertInvalid("");
+    }
+
+    @Test
+    void nonDateKeyIsRejectedAsDateTime() {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode("El Aleph", "id"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, cursor::getKeyAsDateTime);
+        assertEquals("Cursor inválido", e.getMessage());
+    }
+
+    @Test
+    void blankCursorIsFirstPage() {
+        assertTrue(PageCursor.isFirstPage(null));
+        assertTrue(PageCursor.isFirstPage(""));
+        assertTrue(PageCursor.isFirstPage("   "));
+        assertFalse(PageCursor.isFirstPage(PageCursor.encode("k", "id")));
+    }
+
+    private static void assertInvalid(String cursor) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(cursor));
+        assertEquals("Cursor inválido", e.getMessage());
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}